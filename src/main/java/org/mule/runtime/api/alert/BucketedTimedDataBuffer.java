@@ -0,0 +1,260 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.alert;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.time.Duration.ofMinutes;
+import static java.time.Instant.ofEpochMilli;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import org.mule.api.annotation.Experimental;
+import org.mule.runtime.api.time.TimeSupplier;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Data structure that aggregates data points for different moments in time, with a memory footprint that doesn't depend on the
+ * rate at which data is added.
+ * <p>
+ * Instead of keeping each data point as {@link TimedDataBuffer} does, the time {@code horizon} (60 minutes unless configured
+ * otherwise) is split in fixed size buckets kept in a ring. Each data point is folded into the aggregation of the bucket for the
+ * instant it is added in, so calculating the aggregation for any interval only needs to combine the aggregations of the buckets,
+ * without going through the individual data points.
+ * <p>
+ * Since intervals are aligned to bucket boundaries, aggregations are accurate up to the duration of a bucket.
+ * <p>
+ * This class is thread safe and doesn't lock. As a consequence, the {@link TimedDataAggregator} may be invoked more than once for
+ * the same data point when there is contention on a bucket, so it must be free of side effects.
+ *
+ * @param <T> the type of the data to be stored in this buffer.
+ * @param <A> the type of the aggregation result.
+ * @since 1.10
+ */
+@Experimental
+public class BucketedTimedDataBuffer<T, A> {
+
+  private static final Duration DEFAULT_HORIZON = ofMinutes(60);
+
+  private final LongSupplier timeSupplier;
+  private final long bucketMillis;
+  private final AtomicReferenceArray<Bucket<A>> buckets;
+  private final TimedDataAggregator<T, A> aggregator;
+
+  /**
+   * Creates a new buffer with buckets of 1 second.
+   *
+   * @param identity    an empty aggregation.
+   * @param accumulator function to be called for each item, on the current aggregation result of its bucket and the item itself.
+   * @param combiner    function to merge the aggregations of two buckets, the older bucket being the first argument.
+   */
+  public BucketedTimedDataBuffer(A identity, BiFunction<A, T, A> accumulator, BinaryOperator<A> combiner) {
+    this(System::currentTimeMillis, SECONDS.toMillis(1), DEFAULT_HORIZON.toMillis(),
+         TimedDataAggregator.of(identity, accumulator, combiner));
+  }
+
+  /**
+   * Creates a new buffer.
+   *
+   * @param timeSupplier   the supplier of the timestamps to associate with the added data.
+   * @param bucketDuration the time span to aggregate in each bucket. Must evenly divide a minute.
+   * @param identity       an empty aggregation.
+   * @param accumulator    function to be called for each item, on the current aggregation result of its bucket and the item
+   *                       itself.
+   * @param combiner       function to merge the aggregations of two buckets, the older bucket being the first argument.
+   */
+  public BucketedTimedDataBuffer(TimeSupplier timeSupplier, Duration bucketDuration,
+                                 A identity, BiFunction<A, T, A> accumulator, BinaryOperator<A> combiner) {
+    this(timeSupplier, bucketDuration, DEFAULT_HORIZON, TimedDataAggregator.of(identity, accumulator, combiner));
+  }
+
+  /**
+   * Creates a new buffer.
+   *
+   * @param timeSupplier   the supplier of the timestamps to associate with the added data.
+   * @param bucketDuration the time span to aggregate in each bucket. Must evenly divide a minute.
+   * @param horizon        how long data points are kept for. Must be a multiple of {@code bucketDuration}.
+   * @param aggregator     the aggregation to apply on the data points.
+   */
+  public BucketedTimedDataBuffer(TimeSupplier timeSupplier, Duration bucketDuration, Duration horizon,
+                                 TimedDataAggregator<T, A> aggregator) {
+    this((LongSupplier) timeSupplier, bucketDuration.toMillis(), horizon.toMillis(), aggregator);
+  }
+
+  private BucketedTimedDataBuffer(LongSupplier timeSupplier, long bucketMillis, long horizonMillis,
+                                  TimedDataAggregator<T, A> aggregator) {
+    if (bucketMillis <= 0 || MINUTES.toMillis(1) % bucketMillis != 0) {
+      throw new IllegalArgumentException("bucketDuration must evenly divide a minute, was " + bucketMillis + "ms");
+    }
+    if (horizonMillis < bucketMillis || horizonMillis % bucketMillis != 0) {
+      throw new IllegalArgumentException("horizon must be a multiple of bucketDuration, was " + horizonMillis + "ms");
+    }
+
+    this.timeSupplier = timeSupplier;
+    this.bucketMillis = bucketMillis;
+    this.buckets = new AtomicReferenceArray<>((int) (horizonMillis / bucketMillis));
+    this.aggregator = aggregator;
+  }
+
+  /**
+   * Adds a data point for the current instant in time.
+   *
+   * @param data the data to add for this instant.
+   */
+  public void put(T data) {
+    final long bucketIndex = floorDiv(timeSupplier.getAsLong(), bucketMillis);
+    final int slot = slotFor(bucketIndex);
+
+    Bucket<A> current;
+    Bucket<A> updated;
+    do {
+      current = buckets.get(slot);
+      if (current != null && current.index > bucketIndex) {
+        // the clock went back further than the horizon of this buffer
+        return;
+      }
+
+      updated = current != null && current.index == bucketIndex
+          ? new Bucket<>(bucketIndex, aggregator.accumulate(current.aggregation, data), current.count + 1)
+          : new Bucket<>(bucketIndex, aggregator.accumulate(aggregator.identity(), data), 1);
+    } while (!buckets.compareAndSet(slot, current, updated));
+  }
+
+  /**
+   * @return the number of elements within the horizon of this buffer.
+   */
+  public int size() {
+    final long currentIndex = floorDiv(timeSupplier.getAsLong(), bucketMillis);
+
+    int size = 0;
+    for (int age = 0; age < buckets.length(); ++age) {
+      final Bucket<A> bucket = liveBucket(currentIndex - age);
+      if (bucket != null) {
+        size += bucket.count;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Aggregates the currently stored data for the time intervals of the last minute, 5 minutes, 15 minutes and 60 minutes.
+   * <p>
+   * The aggregations of the buckets within each interval are merged with the {@code combiner} in the same order they were added.
+   * Intervals longer than the horizon of this buffer are limited to it.
+   * <p>
+   * If there is no data stored, the aggregations will be the {@code identity}.
+   *
+   * @return the aggregations for the time intervals.
+   */
+  public TimedDataAggregation<A> aggregate() {
+    final long now = timeSupplier.getAsLong();
+    final Map<Duration, A> aggregations = aggregate(now, asList(ofMinutes(1), ofMinutes(5), ofMinutes(15), ofMinutes(60)));
+
+    return new TimedDataAggregation<>(ofEpochMilli(now),
+                                      aggregations.get(ofMinutes(1)),
+                                      aggregations.get(ofMinutes(5)),
+                                      aggregations.get(ofMinutes(15)),
+                                      aggregations.get(ofMinutes(60)));
+  }
+
+  /**
+   * Aggregates the currently stored data for the given time interval, up to the current instant.
+   *
+   * @param window the time interval to aggregate. Intervals longer than the horizon of this buffer are limited to it.
+   * @return the aggregation for the time interval.
+   */
+  public A aggregate(Duration window) {
+    return aggregate(timeSupplier.getAsLong(), singletonList(window)).get(window);
+  }
+
+  /**
+   * Aggregates the currently stored data for each of the given time intervals, up to the current instant.
+   * <p>
+   * The cost of this operation depends on the number of buckets of this buffer, not on the number of {@code windows}.
+   *
+   * @param windows the time intervals to aggregate. Intervals longer than the horizon of this buffer are limited to it.
+   * @return the aggregation for each time interval, in the same iteration order as the {@code windows}.
+   */
+  public Map<Duration, A> aggregate(Collection<Duration> windows) {
+    return aggregate(timeSupplier.getAsLong(), windows);
+  }
+
+  private Map<Duration, A> aggregate(long now, Collection<Duration> windows) {
+    final long currentIndex = floorDiv(now, bucketMillis);
+
+    // Buckets are combined from the newest to the oldest, so the aggregation for every window is available as soon as the
+    // bucket at its boundary is reached.
+    final Map<Integer, A> aggregationsByAge = new LinkedHashMap<>();
+    int oldestAge = 0;
+    for (Duration window : windows) {
+      final int ageLimit = ageLimitFor(window);
+      aggregationsByAge.put(ageLimit, null);
+      oldestAge = max(oldestAge, ageLimit);
+    }
+
+    A aggregation = aggregator.identity();
+    for (int age = 0; age < oldestAge; ++age) {
+      final Bucket<A> bucket = liveBucket(currentIndex - age);
+      if (bucket != null) {
+        aggregation = aggregator.combine(bucket.aggregation, aggregation);
+      }
+      if (aggregationsByAge.containsKey(age + 1)) {
+        aggregationsByAge.put(age + 1, aggregation);
+      }
+    }
+
+    final Map<Duration, A> result = new LinkedHashMap<>();
+    for (Duration window : windows) {
+      result.put(window, aggregationsByAge.get(ageLimitFor(window)));
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of buckets, counting back from the current one, that the given {@code window} spans.
+   */
+  private int ageLimitFor(Duration window) {
+    if (window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("window must be positive, was " + window);
+    }
+    return (int) min(max(window.toMillis() / bucketMillis, 1), buckets.length());
+  }
+
+  private Bucket<A> liveBucket(long bucketIndex) {
+    final Bucket<A> bucket = buckets.get(slotFor(bucketIndex));
+    return bucket != null && bucket.index == bucketIndex ? bucket : null;
+  }
+
+  private int slotFor(long bucketIndex) {
+    return (int) floorMod(bucketIndex, (long) buckets.length());
+  }
+
+  private static final class Bucket<A> {
+
+    private final long index;
+    private final A aggregation;
+    private final int count;
+
+    private Bucket(long index, A aggregation, int count) {
+      this.index = index;
+      this.aggregation = aggregation;
+      this.count = count;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.alert;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import org.mule.api.annotation.Experimental;
+
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Defines how to aggregate data points in a {@link BucketedTimedDataBuffer}, in a way that partial aggregations can be calculated
+ * independently and then merged.
+ * <p>
+ * Aggregation results are shared between threads and must not be modified once returned by any of the methods of this interface.
+ * The methods must also be free of side effects, since they may be invoked more than once for the same data.
+ *
+ * @param <T> the type of the data points to aggregate.
+ * @param <A> the type of the aggregation result.
+ * @since 1.10
+ */
+@Experimental
+public interface TimedDataAggregator<T, A> {
+
+  /**
+   * @return an empty aggregation, that when combined with any other aggregation results in that other aggregation.
+   */
+  A identity();
+
+  /**
+   * @param aggregation the current aggregation result.
+   * @param data        the data point to add to the aggregation.
+   * @return the aggregation result including the given {@code data}.
+   */
+  A accumulate(A aggregation, T data);
+
+  /**
+   * @param older the aggregation of the earlier data points.
+   * @param newer the aggregation of the later data points.
+   * @return the aggregation result of both partial aggregations.
+   */
+  A combine(A older, A newer);
+
+  /**
+   * Creates an aggregator from its functions.
+   *
+   * @param identity    an empty aggregation.
+   * @param accumulator function to be called for each item, on the current aggregation result and the item itself.
+   * @param combiner    function to merge two partial aggregations, the older one being the first argument.
+   * @return a new aggregator.
+   */
+  static <T, A> TimedDataAggregator<T, A> of(A identity, BiFunction<A, T, A> accumulator, BinaryOperator<A> combiner) {
+    return new TimedDataAggregator<T, A>() {
+
+      @Override
+      public A identity() {
+        return identity;
+      }
+
+      @Override
+      public A accumulate(A aggregation, T data) {
+        return accumulator.apply(aggregation, data);
+      }
+
+      @Override
+      public A combine(A older, A newer) {
+        return combiner.apply(older, newer);
+      }
+    };
+  }
+
+  /**
+   * @return an aggregator that counts the data points.
+   */
+  static <T> TimedDataAggregator<T, Long> counting() {
+    return of(0L, (count, data) -> count + 1, Long::sum);
+  }
+
+  /**
+   * @param mapper function to obtain the value to sum for each data point.
+   * @return an aggregator that sums the values of the data points.
+   */
+  static <T> TimedDataAggregator<T, Long> summingLong(ToLongFunction<? super T> mapper) {
+    return of(0L, (sum, data) -> sum + mapper.applyAsLong(data), Long::sum);
+  }
+
+  /**
+   * @param mapper function to obtain the value to compare for each data point.
+   * @return an aggregator that keeps the minimum value of the data points, or {@link Long#MAX_VALUE} if there are none.
+   */
+  static <T> TimedDataAggregator<T, Long> minLong(ToLongFunction<? super T> mapper) {
+    return of(Long.MAX_VALUE, (current, data) -> min(current, mapper.applyAsLong(data)), (a, b) -> min(a, b));
+  }
+
+  /**
+   * @param mapper function to obtain the value to compare for each data point.
+   * @return an aggregator that keeps the maximum value of the data points, or {@link Long#MIN_VALUE} if there are none.
+   */
+  static <T> TimedDataAggregator<T, Long> maxLong(ToLongFunction<? super T> mapper) {
+    return of(Long.MIN_VALUE, (current, data) -> max(current, mapper.applyAsLong(data)), (a, b) -> max(a, b));
+  }
+}
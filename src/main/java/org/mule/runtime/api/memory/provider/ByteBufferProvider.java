@@ -6,10 +6,13 @@
  */
 package org.mule.runtime.api.memory.provider;
 
+import static java.util.Optional.empty;
+
 import org.mule.api.annotation.Experimental;
 import org.mule.runtime.api.lifecycle.Disposable;
 
 import java.nio.ByteBuffer;
+import java.util.Optional;
 
 /**
  * A Provider responsible for allocating and releasing memory, required during application runtime.
@@ -57,4 +60,13 @@ public interface ByteBufferProvider<T extends ByteBuffer> extends Disposable {
    * Disposes the byte buffer provider
    */
   void dispose();
+
+  /**
+   * @return the statistics of the use of the buffers of this provider, if it keeps them.
+   *
+   * @since 1.10
+   */
+  default Optional<ByteBufferProviderStatistics> getStatistics() {
+    return empty();
+  }
 }
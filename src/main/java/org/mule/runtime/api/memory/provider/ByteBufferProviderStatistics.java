@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.memory.provider;
+
+import org.mule.api.annotation.Experimental;
+
+import java.util.List;
+
+/**
+ * Statistics about the use of the buffers of a {@link ByteBufferProvider}, meant to help sizing its
+ * {@link ByteBufferPoolConfiguration}.
+ * <p>
+ * Values are updated concurrently with the provider being used, so values obtained from different methods may not be consistent
+ * with each other.
+ *
+ * @see ByteBufferProvider#getStatistics()
+ * @since 1.10
+ */
+@Experimental
+public interface ByteBufferProviderStatistics {
+
+  /**
+   * @return the amount of buffers allocated by the provider, pooled or not.
+   */
+  long getAllocations();
+
+  /**
+   * @return the amount of allocations served with a buffer from the pool.
+   */
+  long getPoolHits();
+
+  /**
+   * @return the amount of allocations that could have been served from the pool but for which a new buffer had to be created
+   *         because there was none available.
+   */
+  long getPoolMisses();
+
+  /**
+   * @return the amount of allocations that bypassed the pool, because the requested size is not pooled.
+   */
+  long getUnpooledAllocations();
+
+  /**
+   * @return the amount of buffers released to the provider.
+   */
+  long getReleases();
+
+  /**
+   * @return the amount of {@link ByteBufferProvider#reallocate(java.nio.ByteBuffer, int) reallocations} that required a new
+   *         buffer.
+   */
+  long getReallocations();
+
+  /**
+   * @return the total capacity, in bytes, of the buffers allocated and not yet released.
+   */
+  long getOutstandingBytes();
+
+  /**
+   * @return the highest value of {@link #getOutstandingBytes()} observed by the provider. It may not be exact, depending on how
+   *         often the provider checks it.
+   */
+  long getPeakOutstandingBytes();
+
+  /**
+   * @return the ratio of the allocations that could be served from the pool that actually were, or {@code 0} if there were none.
+   */
+  default double getPoolHitRatio() {
+    final long hits = getPoolHits();
+    final long total = hits + getPoolMisses();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /**
+   * @return the statistics for each of the buffer sizes pooled by the provider, from the smallest to the largest.
+   */
+  List<SizeClassStatistics> getSizeClassStatistics();
+
+  /**
+   * Statistics about the buffers of a single size pooled by a {@link ByteBufferProvider}.
+   *
+   * @since 1.10
+   */
+  interface SizeClassStatistics {
+
+    /**
+     * @return the capacity of the buffers of this size class.
+     */
+    int getBufferSize();
+
+    /**
+     * @return the amount of allocations served with a buffer from the pool.
+     */
+    long getPoolHits();
+
+    /**
+     * @return the amount of allocations for which a new buffer had to be created because there was none available.
+     */
+    long getPoolMisses();
+
+    /**
+     * @return the amount of buffers of this size class released to the provider.
+     */
+    long getReleases();
+
+    /**
+     * @return the amount of buffers currently in the pool shared by all threads, not counting the ones cached by each thread.
+     */
+    int getPooledBuffers();
+  }
+}
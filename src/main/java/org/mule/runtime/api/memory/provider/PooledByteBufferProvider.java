@@ -0,0 +1,623 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.memory.provider;
+
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.lang.Integer.numberOfTrailingZeros;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.identityHashCode;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+import static org.mule.runtime.api.memory.provider.type.ByteBufferType.DIRECT;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.api.annotation.Experimental;
+import org.mule.runtime.api.memory.provider.ByteBufferProviderStatistics.SizeClassStatistics;
+import org.mule.runtime.api.memory.provider.type.ByteBufferType;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+
+/**
+ * {@link ByteBufferProvider} that pools buffers in power of two size classes.
+ * <p>
+ * The size classes go from {@link ByteBufferPoolConfiguration#getBaseByteBufferSize()} up to
+ * {@link ByteBufferPoolConfiguration#getMaxBufferSize()}, both rounded up to a power of two, with no more than
+ * {@link ByteBufferPoolConfiguration#getNumberOfPools()} of them. Since sizes always double from one class to the next,
+ * {@link ByteBufferPoolConfiguration#getGrowthFactor()} and {@link ByteBufferPoolConfiguration#getByteBufferPoolStrategy()} are
+ * not taken into account. Requests larger than the largest size class are served with buffers that are not pooled.
+ * <p>
+ * Each thread keeps a small magazine of buffers for each size class, so most allocations and releases don't contend with other
+ * threads. When a magazine runs empty it is refilled from a lock free depot shared by all threads, and when it is full half of it
+ * is returned to the depot. The amount of memory kept in the depot for each size class is bounded; buffers released past that
+ * bound are left to the garbage collector.
+ * <p>
+ * The memory cached in the magazines of all threads is bounded as well. Each thread reserves the capacity of its magazines from a
+ * budget shared by all threads the first time it uses this provider, and gives it back when it dies. Threads that find the budget
+ * exhausted go straight to the depot instead. {@link #dispose()} drops the magazines of all threads.
+ * <p>
+ * The buffers returned by {@link #allocate(int)} may have a larger capacity than requested, with their limit set to the requested
+ * size. Buffers must not be used after being {@link #release(ByteBuffer) released}, and must be released only once. Views of
+ * them, such as {@link ByteBuffer#slice() slices} or {@link ByteBuffer#duplicate() duplicates}, must not be released.
+ * <p>
+ * Optionally, buffers that are garbage collected without having been released can be detected and logged, along with where they
+ * were allocated. In that mode, releasing a buffer that is not outstanding, because it was already released, is a view or was
+ * not allocated by this provider, is logged and the buffer is not pooled. Without it, only heap buffer slices are detected. This
+ * has a cost on every allocation, so it is meant for troubleshooting only.
+ * <p>
+ * {@link #getStatistics() Statistics} are always available. Counters on the allocation and release paths are striped, so they
+ * don't add contention between threads. The peak of outstanding bytes is approximate: reading those counters is not cheap, so it
+ * is only checked on the allocations that miss the pool, go to the depot or are not pooled, and on one of every
+ * 64 served from the magazine of each thread. A peak reached through magazine hits only may be
+ * missed.
+ *
+ * @since 1.10
+ */
+@Experimental
+public class PooledByteBufferProvider implements ByteBufferProvider<ByteBuffer> {
+
+  private static final Logger LOGGER = getLogger(PooledByteBufferProvider.class);
+
+  private static final int MAX_MAGAZINE_SIZE = 16;
+  private static final int MAX_MAGAZINE_BYTES = 256 * 1024;
+  private static final int MAX_DEPOT_BYTES_PER_CLASS = 8 * 1024 * 1024;
+  private static final long MAX_THREAD_CACHED_BYTES = 64 * 1024 * 1024;
+  private static final int PEAK_SAMPLING_INTERVAL = 64;
+  // the largest power of two an int can hold
+  private static final int MAX_CLASS_SHIFT = 30;
+
+  private static final ThreadCache NO_THREAD_CACHE = new ThreadCache(null);
+
+  private final String name;
+  private final boolean direct;
+  private final int minClassShift;
+  private final SizeClass[] sizeClasses;
+  private final long threadCacheBytes;
+  private final ThreadLocal<ThreadCache> threadCaches = ThreadLocal.withInitial(this::createThreadCache);
+  private final Set<ThreadCacheReference> threadCacheReferences = ConcurrentHashMap.newKeySet();
+  private final ReferenceQueue<ThreadCache> collectedThreadCaches = new ReferenceQueue<>();
+  private final AtomicLong threadCachedBytes = new AtomicLong();
+  private final LeakDetector leakDetector;
+
+  private final LongAdder unpooledAllocations = new LongAdder();
+  private final LongAdder unpooledReleases = new LongAdder();
+  private final LongAdder reallocations = new LongAdder();
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final LongAdder releasedBytes = new LongAdder();
+  private final AtomicLong peakOutstandingBytes = new AtomicLong();
+  private final Statistics statistics = new Statistics();
+
+  private volatile boolean disposed;
+
+  /**
+   * Creates a new instance without leak detection.
+   *
+   * @param name              the name of this provider, used when logging
+   * @param type              whether to allocate direct or heap buffers
+   * @param poolConfiguration the sizes of the pooled buffers
+   */
+  public PooledByteBufferProvider(String name, ByteBufferType type, ByteBufferPoolConfiguration poolConfiguration) {
+    this(name, type, poolConfiguration, false);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param name              the name of this provider, used when logging
+   * @param type              whether to allocate direct or heap buffers
+   * @param poolConfiguration the sizes of the pooled buffers
+   * @param leakDetection     whether to log the buffers that are garbage collected without having been released
+   */
+  public PooledByteBufferProvider(String name, ByteBufferType type, ByteBufferPoolConfiguration poolConfiguration,
+                                  boolean leakDetection) {
+    checkArgument(poolConfiguration.getBaseByteBufferSize() > 0, "baseByteBufferSize must be positive");
+    checkArgument(poolConfiguration.getMaxBufferSize() >= poolConfiguration.getBaseByteBufferSize(),
+                  "maxBufferSize must not be lower than baseByteBufferSize");
+    checkArgument(poolConfiguration.getNumberOfPools() > 0, "numberOfPools must be positive");
+
+    this.name = name;
+    this.direct = type == DIRECT;
+    this.minClassShift = ceilLog2(poolConfiguration.getBaseByteBufferSize());
+    final int maxClassShift = min(min(ceilLog2(poolConfiguration.getMaxBufferSize()), MAX_CLASS_SHIFT),
+                                  minClassShift + poolConfiguration.getNumberOfPools() - 1);
+
+    this.sizeClasses = new SizeClass[maxClassShift - minClassShift + 1];
+    long threadCacheBytes = 0;
+    for (int i = 0; i < sizeClasses.length; ++i) {
+      sizeClasses[i] = new SizeClass(1 << (minClassShift + i));
+      threadCacheBytes += (long) sizeClasses[i].magazineSize * sizeClasses[i].bufferSize;
+    }
+    this.threadCacheBytes = threadCacheBytes;
+    this.leakDetector = leakDetection ? new LeakDetector() : null;
+  }
+
+  @Override
+  public ByteBuffer allocate(int size) {
+    final ByteBuffer buffer = allocateAtLeast(size);
+    buffer.limit(size);
+    return buffer;
+  }
+
+  @Override
+  public ByteBuffer allocateAtLeast(int size) {
+    // plain checks, since capturing lambdas for the messages would allocate on every call
+    if (size < 0) {
+      throw new IllegalArgumentException("size cannot be negative, was " + size);
+    }
+    if (disposed) {
+      throw new IllegalStateException("ByteBufferProvider '" + name + "' is disposed");
+    }
+
+    final int classIndex = classIndexFor(size);
+    final ByteBuffer buffer;
+    if (classIndex < sizeClasses.length) {
+      buffer = take(classIndex);
+    } else {
+      unpooledAllocations.increment();
+      buffer = newBuffer(size);
+      allocatedBytes.add(buffer.capacity());
+      updatePeakOutstandingBytes();
+    }
+
+    if (leakDetector != null) {
+      leakDetector.track(buffer);
+    }
+    return buffer;
+  }
+
+  @Override
+  public ByteBuffer reallocate(ByteBuffer oldBuffer, int newSize) {
+    if (newSize <= oldBuffer.capacity()) {
+      if (oldBuffer.position() > newSize) {
+        oldBuffer.position(newSize);
+      }
+      oldBuffer.limit(newSize);
+      return oldBuffer;
+    }
+
+    reallocations.increment();
+    final ByteBuffer newBuffer = allocate(newSize);
+    oldBuffer.flip();
+    newBuffer.put(oldBuffer);
+    release(oldBuffer);
+    return newBuffer;
+  }
+
+  @Override
+  public void release(ByteBuffer buffer) {
+    if (leakDetector != null && !leakDetector.untrack(buffer)) {
+      LOGGER.warn("A buffer that is not outstanding was released to ByteBufferProvider '{}'. It was already released, is a view "
+          + "of another buffer or was not allocated by this provider", name, new Throwable("Buffer released here"));
+      return;
+    }
+
+    final int capacity = buffer.capacity();
+    releasedBytes.add(capacity);
+    if (disposed || buffer.isDirect() != direct || buffer.isReadOnly() || Integer.bitCount(capacity) != 1
+        || isHeapSlice(buffer)) {
+      unpooledReleases.increment();
+      return;
+    }
+    final int classIndex = numberOfTrailingZeros(capacity) - minClassShift;
+    if (classIndex < 0 || classIndex >= sizeClasses.length) {
+      unpooledReleases.increment();
+      return;
+    }
+
+    final SizeClass sizeClass = sizeClasses[classIndex];
+    sizeClass.releases.increment();
+    buffer.clear();
+    final Magazine[] magazines = threadCaches.get().magazines;
+    if (magazines == null) {
+      sizeClass.offerToDepot(buffer);
+      return;
+    }
+
+    final Magazine magazine = magazines[classIndex];
+    if (magazine.count == magazine.buffers.length) {
+      sizeClass.returnToDepot(magazine);
+    }
+    magazine.buffers[magazine.count++] = buffer;
+  }
+
+  /**
+   * Byte arrays are not pooled, since there is no way to release them.
+   */
+  @Override
+  public byte[] getByteArray(int size) {
+    return new byte[size];
+  }
+
+  @Override
+  public Optional<ByteBufferProviderStatistics> getStatistics() {
+    return Optional.of(statistics);
+  }
+
+  /**
+   * Drops the buffers pooled in the shared depot and in the magazines of all threads.
+   */
+  @Override
+  public void dispose() {
+    disposed = true;
+    for (ThreadCacheReference reference : threadCacheReferences) {
+      final ThreadCache threadCache = reference.get();
+      if (threadCache != null) {
+        // the owner thread may still be using the magazines, so they are unlinked rather than emptied
+        threadCache.magazines = null;
+      }
+      forget(reference);
+    }
+    expungeCollectedThreadCaches();
+    for (SizeClass sizeClass : sizeClasses) {
+      sizeClass.depot.clear();
+      sizeClass.depotSize.set(0);
+    }
+  }
+
+  private ByteBuffer take(int classIndex) {
+    final SizeClass sizeClass = sizeClasses[classIndex];
+    final ThreadCache threadCache = threadCaches.get();
+    final Magazine[] magazines = threadCache.magazines;
+    ByteBuffer buffer;
+    boolean checkPeak = true;
+    if (magazines == null) {
+      buffer = sizeClass.pollFromDepot();
+    } else {
+      final Magazine magazine = magazines[classIndex];
+      if (magazine.count > 0) {
+        // a buffer released by this thread may be handed out while others are outstanding, so hits can grow the peak too
+        if (++threadCache.magazineHits == PEAK_SAMPLING_INTERVAL) {
+          threadCache.magazineHits = 0;
+        } else {
+          checkPeak = false;
+        }
+      }
+      if (magazine.count > 0 || sizeClass.refillFromDepot(magazine)) {
+        buffer = magazine.buffers[--magazine.count];
+        magazine.buffers[magazine.count] = null;
+      } else {
+        buffer = null;
+      }
+    }
+
+    if (buffer == null) {
+      sizeClass.misses.increment();
+      buffer = newBuffer(sizeClass.bufferSize);
+    } else {
+      sizeClass.hits.increment();
+    }
+    allocatedBytes.add(buffer.capacity());
+    if (checkPeak) {
+      updatePeakOutstandingBytes();
+    }
+    return buffer;
+  }
+
+  private ThreadCache createThreadCache() {
+    expungeCollectedThreadCaches();
+    if (disposed || !reserveThreadCache()) {
+      return NO_THREAD_CACHE;
+    }
+
+    final Magazine[] magazines = new Magazine[sizeClasses.length];
+    for (int i = 0; i < magazines.length; ++i) {
+      magazines[i] = new Magazine(sizeClasses[i].magazineSize);
+    }
+    final ThreadCache threadCache = new ThreadCache(magazines);
+    final ThreadCacheReference reference = new ThreadCacheReference(threadCache, collectedThreadCaches);
+    threadCacheReferences.add(reference);
+    if (disposed) {
+      // raced with dispose, which may not have seen the new reference
+      threadCache.magazines = null;
+      forget(reference);
+    }
+    return threadCache;
+  }
+
+  private boolean reserveThreadCache() {
+    long reserved;
+    do {
+      reserved = threadCachedBytes.get();
+      if (reserved + threadCacheBytes > MAX_THREAD_CACHED_BYTES) {
+        return false;
+      }
+    } while (!threadCachedBytes.compareAndSet(reserved, reserved + threadCacheBytes));
+    return true;
+  }
+
+  private void expungeCollectedThreadCaches() {
+    ThreadCacheReference reference;
+    while ((reference = (ThreadCacheReference) collectedThreadCaches.poll()) != null) {
+      forget(reference);
+    }
+  }
+
+  private void forget(ThreadCacheReference reference) {
+    if (threadCacheReferences.remove(reference)) {
+      threadCachedBytes.addAndGet(-threadCacheBytes);
+    }
+  }
+
+  private ByteBuffer newBuffer(int size) {
+    return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+  }
+
+  private void updatePeakOutstandingBytes() {
+    final long outstanding = statistics.getOutstandingBytes();
+    long peak;
+    while (outstanding > (peak = peakOutstandingBytes.get()) && !peakOutstandingBytes.compareAndSet(peak, outstanding)) {
+      // retry
+    }
+  }
+
+  private static boolean isHeapSlice(ByteBuffer buffer) {
+    return buffer.hasArray() && buffer.arrayOffset() != 0;
+  }
+
+  private int classIndexFor(int size) {
+    return max(ceilLog2(size) - minClassShift, 0);
+  }
+
+  private static int ceilLog2(int value) {
+    return value <= 1 ? 0 : 32 - numberOfLeadingZeros(value - 1);
+  }
+
+  /**
+   * The magazines of a single thread, one for each size class, or {@code null} if the thread doesn't cache buffers.
+   */
+  private static final class ThreadCache {
+
+    private volatile Magazine[] magazines;
+    // only accessed by the owner thread
+    private int magazineHits;
+
+    private ThreadCache(Magazine[] magazines) {
+      this.magazines = magazines;
+    }
+  }
+
+  /**
+   * Allows to drop the {@link ThreadCache} of a thread on {@link #dispose()}, and to give its reservation back once the thread
+   * dies.
+   */
+  private static final class ThreadCacheReference extends WeakReference<ThreadCache> {
+
+    private ThreadCacheReference(ThreadCache threadCache, ReferenceQueue<ThreadCache> queue) {
+      super(threadCache, queue);
+    }
+  }
+
+  /**
+   * The buffers of a size class cached by a single thread, used as a stack.
+   */
+  private static final class Magazine {
+
+    private final ByteBuffer[] buffers;
+    private int count;
+
+    private Magazine(int size) {
+      this.buffers = new ByteBuffer[size];
+    }
+  }
+
+  /**
+   * The depot of buffers of a size class, shared by all threads.
+   */
+  private static final class SizeClass implements SizeClassStatistics {
+
+    private final int bufferSize;
+    private final int magazineSize;
+    private final int maxDepotSize;
+    private final ConcurrentLinkedQueue<ByteBuffer> depot = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depotSize = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+
+    private SizeClass(int bufferSize) {
+      this.bufferSize = bufferSize;
+      // at least two, so that a magazine can be split in halves
+      this.magazineSize = max(min(MAX_MAGAZINE_BYTES / bufferSize, MAX_MAGAZINE_SIZE), 2);
+      this.maxDepotSize = max(MAX_DEPOT_BYTES_PER_CLASS / bufferSize, MAX_MAGAZINE_SIZE);
+    }
+
+    private boolean refillFromDepot(Magazine magazine) {
+      ByteBuffer buffer;
+      while (magazine.count < magazineSize / 2 && (buffer = pollFromDepot()) != null) {
+        magazine.buffers[magazine.count++] = buffer;
+      }
+      return magazine.count > 0;
+    }
+
+    private ByteBuffer pollFromDepot() {
+      final ByteBuffer buffer = depot.poll();
+      if (buffer != null) {
+        depotSize.decrementAndGet();
+      }
+      return buffer;
+    }
+
+    private void offerToDepot(ByteBuffer buffer) {
+      if (depotSize.incrementAndGet() <= maxDepotSize) {
+        depot.offer(buffer);
+      } else {
+        depotSize.decrementAndGet();
+      }
+    }
+
+    @Override
+    public int getBufferSize() {
+      return bufferSize;
+    }
+
+    @Override
+    public long getPoolHits() {
+      return hits.sum();
+    }
+
+    @Override
+    public long getPoolMisses() {
+      return misses.sum();
+    }
+
+    @Override
+    public long getReleases() {
+      return releases.sum();
+    }
+
+    @Override
+    public int getPooledBuffers() {
+      return depotSize.get();
+    }
+
+    private void returnToDepot(Magazine magazine) {
+      while (magazine.count > magazineSize / 2) {
+        final ByteBuffer buffer = magazine.buffers[--magazine.count];
+        magazine.buffers[magazine.count] = null;
+        offerToDepot(buffer);
+      }
+    }
+  }
+
+  private final class Statistics implements ByteBufferProviderStatistics {
+
+    @Override
+    public long getAllocations() {
+      return getPoolHits() + getPoolMisses() + getUnpooledAllocations();
+    }
+
+    @Override
+    public long getPoolHits() {
+      long hits = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+        hits += sizeClass.getPoolHits();
+      }
+      return hits;
+    }
+
+    @Override
+    public long getPoolMisses() {
+      long misses = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+        misses += sizeClass.getPoolMisses();
+      }
+      return misses;
+    }
+
+    @Override
+    public long getUnpooledAllocations() {
+      return unpooledAllocations.sum();
+    }
+
+    @Override
+    public long getReleases() {
+      long releases = unpooledReleases.sum();
+      for (SizeClass sizeClass : sizeClasses) {
+        releases += sizeClass.getReleases();
+      }
+      return releases;
+    }
+
+    @Override
+    public long getReallocations() {
+      return reallocations.sum();
+    }
+
+    @Override
+    public long getOutstandingBytes() {
+      // read the released bytes first, so a concurrent release of a buffer allocated after reading can't make this negative
+      final long released = releasedBytes.sum();
+      return allocatedBytes.sum() - released;
+    }
+
+    @Override
+    public long getPeakOutstandingBytes() {
+      return peakOutstandingBytes.get();
+    }
+
+    @Override
+    public List<SizeClassStatistics> getSizeClassStatistics() {
+      return unmodifiableList(asList(sizeClasses));
+    }
+  }
+
+  /**
+   * Keeps weak references to the allocated buffers until they are released, logging the ones that are garbage collected before
+   * that.
+   */
+  private final class LeakDetector {
+
+    private final ReferenceQueue<ByteBuffer> collected = new ReferenceQueue<>();
+    private final Map<BufferReference, Throwable> allocated = new ConcurrentHashMap<>();
+
+    private void track(ByteBuffer buffer) {
+      reportLeaks();
+      allocated.put(new BufferReference(buffer, collected), new Throwable("Buffer allocated here"));
+    }
+
+    private boolean untrack(ByteBuffer buffer) {
+      return allocated.remove(new BufferReference(buffer, null)) != null;
+    }
+
+    private void reportLeaks() {
+      BufferReference reference;
+      while ((reference = (BufferReference) collected.poll()) != null) {
+        final Throwable allocation = allocated.remove(reference);
+        if (allocation != null) {
+          LOGGER.warn("A buffer from ByteBufferProvider '{}' was garbage collected without having been released", name,
+                      allocation);
+        }
+      }
+    }
+  }
+
+  /**
+   * Weak reference to a buffer that is equal to any other reference to the same buffer instance, since {@link ByteBuffer} equality
+   * depends on its contents.
+   */
+  private static final class BufferReference extends WeakReference<ByteBuffer> {
+
+    private final int hashCode;
+
+    private BufferReference(ByteBuffer buffer, ReferenceQueue<ByteBuffer> queue) {
+      super(buffer, queue);
+      this.hashCode = identityHashCode(buffer);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof BufferReference)) {
+        return false;
+      }
+      final ByteBuffer buffer = get();
+      return buffer != null && buffer == ((BufferReference) obj).get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
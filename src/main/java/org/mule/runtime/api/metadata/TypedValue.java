@@ -30,6 +30,8 @@ public final class TypedValue<T> implements Serializable {
 
   private static final long serialVersionUID = -3428994331968741687L;
 
+  private static final StringByteSizeCalculator STRING_BYTE_SIZE_CALCULATOR = new StringByteSizeCalculator();
+
   /**
    * Utility method to obtain a type value's content, in cases in which you don't know if the {@code value} is a type value at
    * all.
@@ -112,9 +114,8 @@ public final class TypedValue<T> implements Serializable {
       this.length = new LazyLong(((byte[]) value).length);
     } else if (value instanceof String) {
       this.length = new LazyLong(() -> {
-        StringByteSizeCalculator stringByteSizeCalculator = new StringByteSizeCalculator();
         Charset charset = this.dataType.getMediaType().getCharset().orElse(defaultCharset());
-        return stringByteSizeCalculator.count((String) value, charset);
+        return STRING_BYTE_SIZE_CALCULATOR.count((String) value, charset);
       });
     } else {
       this.length = new LazyLong(-1L);
@@ -7,6 +7,10 @@
 package org.mule.runtime.api.notification;
 
 import static java.lang.Boolean.getBoolean;
+import static java.lang.Math.max;
+import static java.lang.System.arraycopy;
+import static java.util.Arrays.binarySearch;
+import static java.util.Arrays.copyOf;
 
 import java.util.EventObject;
 import java.util.Map;
@@ -61,9 +65,12 @@ public abstract class AbstractServerNotification extends EventObject implements
 
   protected int action = NULL_ACTION;
 
-  private static Map<Integer, String> actionIdToName = new ConcurrentHashMap<>();
+  // the registered actions, replaced as a whole on each registration so that lookups by id never lock nor box
+  private static volatile RegisteredActions registeredActions = new RegisteredActions();
 
-  private static Map<String, Integer> actionNameToId = new ConcurrentHashMap<>();
+  private static final Map<String, RegisteredAction> actionsByName = new ConcurrentHashMap<>();
+
+  private static final Object registrationLock = new Object();
 
   /**
    * The resourceIdentifier is used when firing inbound server notifications such as Admin notifications or other action
@@ -83,13 +90,27 @@ public abstract class AbstractServerNotification extends EventObject implements
     timestamp = System.currentTimeMillis();
   }
 
+  /**
+   * Reinitializes this instance to be fired again, so it can be reused by a {@link ProcessorNotificationPool}.
+   */
+  void reset(int action, String resourceIdentifier) {
+    this.action = action;
+    this.resourceIdentifier = resourceIdentifier;
+    this.serverId = null;
+    this.timestamp = System.currentTimeMillis();
+  }
+
   public void setServerId(String serverId) {
     this.serverId = serverId;
   }
 
+  /**
+   * @return the action of this notification. For registered actions, the same instance is returned every time.
+   */
   @Override
   public IntegerAction getAction() {
-    return new IntegerAction(action);
+    final RegisteredAction registered = registeredActions.get(action);
+    return registered != null ? registered.action : new IntegerAction(action);
   }
 
   public String getServerId() {
@@ -125,32 +146,36 @@ public abstract class AbstractServerNotification extends EventObject implements
     return getActionName(action);
   }
 
-  protected static synchronized void registerAction(String name, int i) {
+  protected static void registerAction(String name, int i) {
     String lowerCaseName = name.toLowerCase();
-    Integer id = new Integer(i);
-    boolean register = true;
     boolean failOnRepeatedAction = !getBoolean("mule.server.action.repetition.allowed");
-    if (actionNameToId.containsKey(lowerCaseName)) {
-      register = false;
-      if (failOnRepeatedAction) {
-        throw new IllegalStateException("Action " + name + " already registered");
-      } else if (!actionNameToId.get(lowerCaseName).equals(id)) {
-        throw new IllegalStateException("Action " + name + " already registered with id " + actionNameToId.get(lowerCaseName)
-            + ", attempted to redefine with id " + id);
+    synchronized (registrationLock) {
+      boolean register = true;
+      RegisteredAction sameName = actionsByName.get(lowerCaseName);
+      if (sameName != null) {
+        register = false;
+        if (failOnRepeatedAction) {
+          throw new IllegalStateException("Action " + name + " already registered");
+        } else if (sameName.id != i) {
+          throw new IllegalStateException("Action " + name + " already registered with id " + sameName.id
+              + ", attempted to redefine with id " + i);
+        }
       }
-    }
-    if (actionIdToName.containsKey(id)) {
-      register = false;
-      if (failOnRepeatedAction) {
-        throw new IllegalStateException("Action id " + i + " already registered");
-      } else if (!actionIdToName.get(id).equals(lowerCaseName)) {
-        throw new IllegalStateException("Action id " + i + " already registered with name " + actionIdToName.get(id)
-            + "', attempted to redefine with name " + lowerCaseName);
+      RegisteredAction sameId = registeredActions.get(i);
+      if (sameId != null) {
+        register = false;
+        if (failOnRepeatedAction) {
+          throw new IllegalStateException("Action id " + i + " already registered");
+        } else if (!sameId.name.equals(lowerCaseName)) {
+          throw new IllegalStateException("Action id " + i + " already registered with name " + sameId.name
+              + "', attempted to redefine with name " + lowerCaseName);
+        }
+      }
+      if (register) {
+        RegisteredAction registered = new RegisteredAction(i, lowerCaseName);
+        registeredActions = registeredActions.with(registered);
+        actionsByName.put(lowerCaseName, registered);
       }
-    }
-    if (register) {
-      actionIdToName.put(id, lowerCaseName);
-      actionNameToId.put(lowerCaseName, id);
     }
   }
 
@@ -158,18 +183,18 @@ public abstract class AbstractServerNotification extends EventObject implements
     if (action == NO_ACTION_ID) {
       return NO_ACTION_NAME;
     }
-    Integer key = new Integer(action);
-    if (actionIdToName.containsKey(key)) {
-      return actionIdToName.get(key);
+    RegisteredAction registered = registeredActions.get(action);
+    if (registered != null) {
+      return registered.name;
     } else {
       throw new IllegalArgumentException("No action with id: " + action);
     }
   }
 
   public static int getActionId(String action) {
-    String lowerCaseName = action.toLowerCase();
-    if (actionNameToId.containsKey(lowerCaseName)) {
-      return actionNameToId.get(lowerCaseName).intValue();
+    RegisteredAction registered = actionsByName.get(action.toLowerCase());
+    if (registered != null) {
+      return registered.id;
     } else {
       throw new IllegalArgumentException("No action called: " + action);
     }
@@ -182,4 +207,67 @@ public abstract class AbstractServerNotification extends EventObject implements
    */
   public abstract String getEventName();
 
+  private static final class RegisteredAction {
+
+    private final int id;
+    private final String name;
+    private final IntegerAction action;
+
+    private RegisteredAction(int id, String name) {
+      this.id = id;
+      this.name = name;
+      this.action = new IntegerAction(id);
+    }
+  }
+
+  /**
+   * Immutable lookup table of the registered actions by id. The ids in the ranges reserved for the Mule notifications are looked
+   * up directly by index, while custom ones are binary searched.
+   */
+  private static final class RegisteredActions {
+
+    private final RegisteredAction[] byId;
+    private final int[] customIds;
+    private final RegisteredAction[] custom;
+
+    private RegisteredActions() {
+      this(new RegisteredAction[0], new int[0], new RegisteredAction[0]);
+    }
+
+    private RegisteredActions(RegisteredAction[] byId, int[] customIds, RegisteredAction[] custom) {
+      this.byId = byId;
+      this.customIds = customIds;
+      this.custom = custom;
+    }
+
+    private RegisteredAction get(int id) {
+      if (id >= 0 && id < byId.length) {
+        return byId[id];
+      } else if (id >= 0 && id < CUSTOM_EVENT_ACTION_START_RANGE) {
+        return null;
+      }
+
+      final int position = binarySearch(customIds, id);
+      return position >= 0 ? custom[position] : null;
+    }
+
+    private RegisteredActions with(RegisteredAction action) {
+      if (action.id >= 0 && action.id < CUSTOM_EVENT_ACTION_START_RANGE) {
+        final RegisteredAction[] updated = copyOf(byId, max(byId.length, action.id + 1));
+        updated[action.id] = action;
+        return new RegisteredActions(updated, customIds, custom);
+      }
+
+      final int position = -binarySearch(customIds, action.id) - 1;
+      final int[] updatedIds = new int[customIds.length + 1];
+      final RegisteredAction[] updated = new RegisteredAction[custom.length + 1];
+      arraycopy(customIds, 0, updatedIds, 0, position);
+      arraycopy(custom, 0, updated, 0, position);
+      updatedIds[position] = action.id;
+      updated[position] = action;
+      arraycopy(customIds, position, updatedIds, position + 1, customIds.length - position);
+      arraycopy(custom, position, updated, position + 1, custom.length - position);
+      return new RegisteredActions(byId, updatedIds, updated);
+    }
+  }
 }
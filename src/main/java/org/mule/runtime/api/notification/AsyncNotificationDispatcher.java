@@ -0,0 +1,431 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.notification;
+
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.api.annotation.Experimental;
+import org.mule.runtime.api.lifecycle.Disposable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+
+/**
+ * {@link NotificationDispatcher} that takes {@link Notification notifications} off the thread that fires them.
+ * <p>
+ * {@link #dispatch(Notification) Fired} notifications are put in a bounded ring buffer and returned immediately. They are then
+ * drained in batches by a task run in the given {@link Executor}, which hands them to a {@code delegate} dispatcher in the same
+ * order they were fired. At most one drain task runs at any given time, so queued notifications are never delivered
+ * concurrently.
+ * <p>
+ * The listeners reached through the {@code delegate} should not be {@link NotificationListener#isBlocking() blocking}, since a
+ * listener that blocks delays the delivery of every notification queued after the one it is handling.
+ * <p>
+ * When notifications are fired faster than they are delivered and the ring buffer fills up, the {@link OverflowPolicy} decides
+ * what happens to them.
+ * <p>
+ * By default, {@link Notification#isSynchronous() synchronous} notifications are not queued. These include the
+ * {@link MessageProcessorNotification} and {@link PipelineMessageNotification} fired around every processor, so with the default
+ * this dispatcher takes none of their delivery off the thread that runs the flow. Queueing them can be enabled with
+ * {@code queueSynchronous}, which drops the guarantee that they are handled before the firing thread moves on. Only enable it when
+ * none of the listeners reached through the {@code delegate} are {@link NotificationListener#isBlocking() blocking}, for instance
+ * when the {@code delegate} only has the non blocking listeners registered, and blocking ones are kept in a separate dispatcher.
+ * Queued {@link EnrichedServerNotification}s are {@link EnrichedServerNotification#retain() retained} first, so the ones fired
+ * through a {@link ProcessorNotificationPool} are copied instead of being reused before they are delivered.
+ * <p>
+ * Some notifications are not queued, and are delivered to the {@code delegate} in the thread that fires them instead:
+ * <ul>
+ * <li>{@link Notification#isSynchronous() Synchronous} notifications, unless {@code queueSynchronous} is enabled. These may be
+ * delivered concurrently with a drain task or with each other.</li>
+ * <li>Notifications fired from a listener, in the thread of a drain task, that find the buffer full with
+ * {@link OverflowPolicy#BLOCK}, since waiting for room would wait for that same thread. These go ahead of the ones already
+ * queued.</li>
+ * <li>Notifications fired after {@link #dispose()}. These are delivered one at a time, after the ones that were queued.</li>
+ * </ul>
+ *
+ * @since 1.10
+ */
+@Experimental
+public class AsyncNotificationDispatcher implements NotificationDispatcher, Disposable {
+
+  private static final Logger LOGGER = getLogger(AsyncNotificationDispatcher.class);
+
+  private static final int DEFAULT_BATCH_SIZE = 64;
+  private static final int DEFAULT_SAMPLE_RATE = 10;
+  private static final long BLOCK_PARK_NANOS = MICROSECONDS.toNanos(50);
+
+  /**
+   * What to do with a notification that is fired when the ring buffer is full.
+   */
+  public enum OverflowPolicy {
+
+    /**
+     * The oldest notification in the buffer is dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The new notification is dropped.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The thread firing the notification waits until there is room for it in the buffer.
+     */
+    BLOCK,
+
+    /**
+     * Only one of every {@code sampleRate} notifications fired while the buffer is full is kept, dropping the oldest notification
+     * in the buffer to make room for it. The rest are dropped. This keeps the buffer holding a sample of the most recent
+     * notifications without the cost of replacing one on every overflow.
+     */
+    SAMPLE
+  }
+
+  private final NotificationDispatcher delegate;
+  private final Executor executor;
+  private final RingBuffer ringBuffer;
+  private final OverflowPolicy overflowPolicy;
+  private final int batchSize;
+  private final int sampleRate;
+  private final boolean queueSynchronous;
+
+  // set while a drain task is scheduled or running
+  private final AtomicBoolean draining = new AtomicBoolean();
+  // held while delivering queued notifications, so dispose can wait for a running drain task
+  private final ReentrantLock deliveryLock = new ReentrantLock();
+  private final Runnable drainTask = this::drain;
+  private volatile boolean disposed;
+
+  private final LongAdder dispatched = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder blocked = new LongAdder();
+  private final AtomicLong overflows = new AtomicLong();
+  private final AtomicLong peakLagging = new AtomicLong();
+
+  /**
+   * Creates a new instance that drains notifications in batches of up to 64.
+   *
+   * @param delegate       the dispatcher that delivers the notifications to the listeners
+   * @param executor       where to run the task that drains the notifications
+   * @param capacity       the maximum amount of notifications waiting to be delivered. Rounded up to a power of two, of at least
+   *                       two.
+   * @param overflowPolicy what to do when a notification is fired and there are already {@code capacity} waiting to be delivered
+   */
+  public AsyncNotificationDispatcher(NotificationDispatcher delegate, Executor executor, int capacity,
+                                     OverflowPolicy overflowPolicy) {
+    this(delegate, executor, capacity, overflowPolicy, DEFAULT_BATCH_SIZE, DEFAULT_SAMPLE_RATE);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param delegate       the dispatcher that delivers the notifications to the listeners
+   * @param executor       where to run the task that drains the notifications
+   * @param capacity       the maximum amount of notifications waiting to be delivered. Rounded up to a power of two, of at least
+   *                       two.
+   * @param overflowPolicy what to do when a notification is fired and there are already {@code capacity} waiting to be delivered
+   * @param batchSize      the maximum amount of notifications a drain task delivers before giving back its thread to the
+   *                       {@code executor}
+   * @param sampleRate     for {@link OverflowPolicy#SAMPLE}, keep one notification out of this many when overflowing
+   */
+  public AsyncNotificationDispatcher(NotificationDispatcher delegate, Executor executor, int capacity,
+                                     OverflowPolicy overflowPolicy, int batchSize, int sampleRate) {
+    this(delegate, executor, capacity, overflowPolicy, batchSize, sampleRate, false);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param delegate         the dispatcher that delivers the notifications to the listeners
+   * @param executor         where to run the task that drains the notifications
+   * @param capacity         the maximum amount of notifications waiting to be delivered. Rounded up to a power of two, of at
+   *                         least two.
+   * @param overflowPolicy   what to do when a notification is fired and there are already {@code capacity} waiting to be
+   *                         delivered
+   * @param batchSize        the maximum amount of notifications a drain task delivers before giving back its thread to the
+   *                         {@code executor}
+   * @param sampleRate       for {@link OverflowPolicy#SAMPLE}, keep one notification out of this many when overflowing
+   * @param queueSynchronous whether {@link Notification#isSynchronous() synchronous} notifications are queued like the rest,
+   *                         instead of delivered in the thread that fires them. Only for a {@code delegate} that reaches no
+   *                         {@link NotificationListener#isBlocking() blocking} listeners.
+   */
+  public AsyncNotificationDispatcher(NotificationDispatcher delegate, Executor executor, int capacity,
+                                     OverflowPolicy overflowPolicy, int batchSize, int sampleRate, boolean queueSynchronous) {
+    checkArgument(delegate != null, "delegate cannot be null");
+    checkArgument(executor != null, "executor cannot be null");
+    checkArgument(overflowPolicy != null, "overflowPolicy cannot be null");
+    checkArgument(capacity > 0 && capacity <= 1 << 30, () -> "capacity must be between 1 and 2^30, was " + capacity);
+    checkArgument(batchSize > 0, () -> "batchSize must be positive, was " + batchSize);
+    checkArgument(sampleRate > 0, () -> "sampleRate must be positive, was " + sampleRate);
+
+    this.delegate = delegate;
+    this.executor = executor;
+    this.ringBuffer = new RingBuffer(capacity);
+    this.overflowPolicy = overflowPolicy;
+    this.batchSize = batchSize;
+    this.sampleRate = sampleRate;
+    this.queueSynchronous = queueSynchronous;
+  }
+
+  @Override
+  public void dispatch(Notification notification) {
+    if (!queueSynchronous && notification.isSynchronous()) {
+      deliver(notification);
+      return;
+    }
+    if (notification instanceof EnrichedServerNotification) {
+      // pooled instances are reused as soon as this method returns, before the queued copy is delivered
+      notification = ((EnrichedServerNotification) notification).retain();
+    }
+    if (disposed) {
+      deliverAfterDispose(notification);
+      return;
+    }
+
+    if (!ringBuffer.offer(notification)) {
+      overflow(notification);
+    }
+    updatePeakLagging();
+    scheduleDrain();
+
+    if (disposed) {
+      // raced with dispose, which may have drained the buffer before this notification was queued
+      drainAll();
+    }
+  }
+
+  private void overflow(Notification notification) {
+    switch (overflowPolicy) {
+      case DROP_NEWEST:
+        dropped.increment();
+        break;
+      case SAMPLE:
+        if (overflows.incrementAndGet() % sampleRate != 0) {
+          dropped.increment();
+          break;
+        }
+        // fall through, replacing the oldest notification with the sampled one
+      case DROP_OLDEST:
+        do {
+          if (ringBuffer.poll() != null) {
+            dropped.increment();
+          }
+        } while (!ringBuffer.offer(notification));
+        break;
+      case BLOCK:
+        blocked.increment();
+        if (deliveryLock.isHeldByCurrentThread()) {
+          // fired by a listener while draining, room would only be made by this same thread
+          deliver(notification);
+          return;
+        }
+        while (!ringBuffer.offer(notification)) {
+          if (disposed) {
+            deliverAfterDispose(notification);
+            return;
+          }
+          // a drain could not be scheduled before, or finished without seeing this overflow
+          scheduleDrain();
+          parkNanos(BLOCK_PARK_NANOS);
+        }
+        break;
+    }
+  }
+
+  private void scheduleDrain() {
+    if (!disposed && !ringBuffer.isEmpty() && draining.compareAndSet(false, true)) {
+      try {
+        executor.execute(drainTask);
+      } catch (RejectedExecutionException e) {
+        draining.set(false);
+        LOGGER.warn("Could not schedule the delivery of notifications, they will be delivered with the next ones", e);
+      }
+    }
+  }
+
+  private void drain() {
+    deliveryLock.lock();
+    try {
+      Notification notification;
+      for (int i = 0; i < batchSize && !disposed && (notification = ringBuffer.poll()) != null; ++i) {
+        deliver(notification);
+      }
+    } finally {
+      deliveryLock.unlock();
+      draining.set(false);
+    }
+
+    // notifications may have been queued after the last poll but before the flag was cleared, with nobody to schedule a drain
+    scheduleDrain();
+  }
+
+  private void deliver(Notification notification) {
+    try {
+      delegate.dispatch(notification);
+      dispatched.increment();
+    } catch (RuntimeException e) {
+      LOGGER.warn("Exception delivering notification " + notification, e);
+    }
+  }
+
+  private void updatePeakLagging() {
+    final long lagging = ringBuffer.size();
+    long peak;
+    while (lagging > (peak = peakLagging.get()) && !peakLagging.compareAndSet(peak, lagging)) {
+      // retry
+    }
+  }
+
+  private void deliverAfterDispose(Notification notification) {
+    deliveryLock.lock();
+    try {
+      drainAll();
+      deliver(notification);
+    } finally {
+      deliveryLock.unlock();
+    }
+  }
+
+  private void drainAll() {
+    deliveryLock.lock();
+    try {
+      Notification notification;
+      while ((notification = ringBuffer.poll()) != null) {
+        deliver(notification);
+      }
+    } finally {
+      deliveryLock.unlock();
+    }
+  }
+
+  /**
+   * Stops queueing notifications and delivers the ones already queued in the calling thread, after waiting for a drain task that
+   * may be running. Notifications fired after this method is called are delivered in the thread that fires them.
+   */
+  @Override
+  public void dispose() {
+    disposed = true;
+    drainAll();
+  }
+
+  /**
+   * @return the amount of notifications delivered to the {@code delegate}.
+   */
+  public long getDispatchedCount() {
+    return dispatched.sum();
+  }
+
+  /**
+   * @return the amount of notifications dropped by the {@link OverflowPolicy}.
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * @return the amount of times a thread firing a notification had to wait for room in the buffer, with
+   *         {@link OverflowPolicy#BLOCK}.
+   */
+  public long getBlockedCount() {
+    return blocked.sum();
+  }
+
+  /**
+   * @return the amount of notifications currently waiting to be delivered.
+   */
+  public int getLaggingCount() {
+    return ringBuffer.size();
+  }
+
+  /**
+   * @return the highest amount of notifications that were waiting to be delivered at the same time.
+   */
+  public long getPeakLaggingCount() {
+    return peakLagging.get();
+  }
+
+  /**
+   * Bounded lock free queue, based on the array with per slot sequence numbers by Dmitry Vyukov. Any amount of threads may offer
+   * and poll concurrently; polling from the producers is what allows dropping the oldest elements.
+   */
+  private static final class RingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<Notification> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private RingBuffer(int capacity) {
+      // a single slot can't tell a full buffer from an empty one
+      final int size = capacity <= 2 ? 2 : 1 << (32 - numberOfLeadingZeros(capacity - 1));
+      this.mask = size - 1;
+      this.elements = new AtomicReferenceArray<>(size);
+      this.sequences = new AtomicLongArray(size);
+      for (int i = 0; i < size; ++i) {
+        sequences.set(i, i);
+      }
+    }
+
+    private boolean offer(Notification notification) {
+      while (true) {
+        final long position = tail.get();
+        final int index = (int) position & mask;
+        final long difference = sequences.get(index) - position;
+        if (difference == 0) {
+          if (tail.compareAndSet(position, position + 1)) {
+            elements.lazySet(index, notification);
+            sequences.set(index, position + 1);
+            return true;
+          }
+        } else if (difference < 0) {
+          return false;
+        }
+      }
+    }
+
+    private Notification poll() {
+      while (true) {
+        final long position = head.get();
+        final int index = (int) position & mask;
+        final long difference = sequences.get(index) - (position + 1);
+        if (difference == 0) {
+          if (head.compareAndSet(position, position + 1)) {
+            final Notification notification = elements.get(index);
+            elements.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            return notification;
+          }
+        } else if (difference < 0) {
+          return null;
+        }
+      }
+    }
+
+    private boolean isEmpty() {
+      return size() == 0;
+    }
+
+    private int size() {
+      final long currentHead = head.get();
+      return (int) Math.max(0, Math.min(tail.get() - currentHead, mask + 1));
+    }
+  }
+}
@@ -36,6 +36,15 @@ public final class EnrichedNotificationInfo {
     this.exception = exception;
   }
 
+  /**
+   * Replaces the information held by this instance, so it can be reused by a {@link ProcessorNotificationPool}.
+   */
+  void reset(Event event, Component component, Exception exception) {
+    this.event = event;
+    this.component = component;
+    this.exception = exception;
+  }
+
   public org.mule.runtime.api.event.Event getEvent() {
     return event;
   }
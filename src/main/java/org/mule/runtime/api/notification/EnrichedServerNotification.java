@@ -67,4 +67,18 @@ public abstract class EnrichedServerNotification extends AbstractServerNotificat
   public EnrichedNotificationInfo getInfo() {
     return notificationInfo;
   }
+
+  /**
+   * Returns a notification with the same data as this one that can be kept after handling it.
+   * <p>
+   * Notifications fired through a {@link ProcessorNotificationPool} are reused once every listener has handled them, so a
+   * listener that keeps a reference to the notification, or to its {@link #getInfo() info}, must keep the one returned by this
+   * method instead. For notifications that are not reused, this same instance is returned.
+   *
+   * @return a notification that is not reused, with the same data as this one.
+   * @since 1.10
+   */
+  public EnrichedServerNotification retain() {
+    return this;
+  }
 }
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.notification;
+
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.emptyMap;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.api.annotation.Experimental;
+import org.mule.runtime.api.notification.Notification.Action;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+
+/**
+ * {@link NotificationListenerRegistry} that also {@link #dispatch(Notification) dispatches} the notifications to the listeners
+ * registered in it, finding them through a lookup table instead of testing every registered listener.
+ * <p>
+ * The listeners for each concrete notification type and {@link Action} are resolved the first time a notification of that type
+ * and action is dispatched or {@link #isListenedTo(Class, Action) queried}, and the result is kept until a listener is registered
+ * or unregistered. Listeners {@link #registerListener(NotificationListener, Class, Action...) registered by type and action} are
+ * only resolved for the matching notifications. Listeners registered without a type are resolved for the notifications of the
+ * type their class declares for {@link NotificationListener}, and the ones registered with a {@link Predicate selector} have it
+ * tested on each notification they are resolved for. The type of a lambda can't be told from its class, so a lambda registered
+ * without a type is resolved for every notification, and one that does not handle them all has to be registered with its type
+ * instead. A {@link ThrottledNotificationListener} registered without a type is resolved as its delegate would be.
+ * <p>
+ * Registering and unregistering listeners is expected to be rare compared to dispatching notifications, so it is not optimized.
+ *
+ * @since 1.10
+ */
+@Experimental
+public class IndexedNotificationListenerRegistry implements NotificationListenerRegistry, NotificationDispatcher {
+
+  private static final Logger LOGGER = getLogger(IndexedNotificationListenerRegistry.class);
+
+  private static final Registration[] NO_REGISTRATIONS = new Registration[0];
+
+  // copied on write, always updated before the routes are discarded
+  private volatile Registration[] registrations = NO_REGISTRATIONS;
+  private volatile Map<Class<?>, Route> routes = new ConcurrentHashMap<>();
+
+  @Override
+  public <N extends Notification> void registerListener(NotificationListener<N> listener) {
+    register(listener, declaredType(listener), null, null);
+  }
+
+  @Override
+  public <N extends Notification> void registerListener(NotificationListener<N> listener, Predicate<N> selector) {
+    checkArgument(selector != null, "selector cannot be null");
+    register(listener, declaredType(listener), null, selector);
+  }
+
+  @Override
+  public <N extends Notification> void registerListener(NotificationListener<N> listener, Class<N> notificationType,
+                                                         Action... actions) {
+    checkArgument(notificationType != null, "notificationType cannot be null");
+    checkArgument(actions != null, "actions cannot be null");
+    final ActionKey[] actionKeys = new ActionKey[actions.length];
+    for (int i = 0; i < actions.length; ++i) {
+      checkArgument(actions[i] != null, "actions cannot contain null elements");
+      actionKeys[i] = actionKey(actions[i]);
+    }
+    register(listener, notificationType, actionKeys.length == 0 ? null : actionKeys, null);
+  }
+
+  private synchronized void register(NotificationListener<?> listener, Class<?> notificationType, ActionKey[] actionKeys,
+                                     Predicate<?> selector) {
+    checkArgument(listener != null, "listener cannot be null");
+    final Registration[] updated = copyOf(registrations, registrations.length + 1);
+    updated[registrations.length] = new Registration(listener, notificationType, actionKeys, selector);
+    registrations = updated;
+    // routes being resolved concurrently end up in the discarded table
+    routes = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public synchronized <N extends Notification> void unregisterListener(NotificationListener<N> listener) {
+    final List<Registration> remaining = new ArrayList<>(registrations.length);
+    for (Registration registration : registrations) {
+      if (registration.listener != listener) {
+        remaining.add(registration);
+      }
+    }
+    if (remaining.size() < registrations.length) {
+      registrations = remaining.toArray(NO_REGISTRATIONS);
+      routes = new ConcurrentHashMap<>();
+    }
+  }
+
+  @Override
+  public boolean isListenedTo(Class<? extends Notification> notificationType, Action action) {
+    return resolve(notificationType, action).length > 0;
+  }
+
+  /**
+   * Delivers the given {@code notification} to the listeners registered for it. An exception thrown by a listener is logged and
+   * does not prevent the notification from being delivered to the rest of them.
+   *
+   * @param notification the notification to deliver
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void dispatch(Notification notification) {
+    for (Registration registration : resolve(notification.getClass(), notification.getAction())) {
+      try {
+        if (registration.selector == null || ((Predicate<Notification>) registration.selector).test(notification)) {
+          ((NotificationListener<Notification>) registration.listener).onNotification(notification);
+        }
+      } catch (RuntimeException e) {
+        LOGGER.warn("Listener " + registration.listener + " failed to handle notification " + notification, e);
+      }
+    }
+  }
+
+  private Registration[] resolve(Class<?> notificationType, Action action) {
+    return routes.computeIfAbsent(notificationType, this::route).forAction(action);
+  }
+
+  private Route route(Class<?> notificationType) {
+    final List<Registration> forType = new ArrayList<>();
+    for (Registration registration : registrations) {
+      if (registration.notificationType.isAssignableFrom(notificationType)) {
+        forType.add(registration);
+      }
+    }
+    return new Route(forType.toArray(NO_REGISTRATIONS));
+  }
+
+  private static Class<?> declaredType(NotificationListener<?> listener) {
+    checkArgument(listener != null, "listener cannot be null");
+    if (listener instanceof ThrottledNotificationListener) {
+      // the decorator only has a type variable, the type it handles is the one of its delegate
+      return declaredType(((ThrottledNotificationListener<?>) listener).getDelegate());
+    }
+    final Class<?> declaredType = declaredType(listener.getClass(), emptyMap());
+    return declaredType == null ? Notification.class : declaredType;
+  }
+
+  /**
+   * Looks for the type argument given to {@link NotificationListener} among the supertypes of {@code type}, following the type
+   * variables of the generic supertypes in between.
+   *
+   * @return the erasure of the type argument, or {@code null} if {@code type} does not implement {@link NotificationListener}
+   */
+  private static Class<?> declaredType(Class<?> type, Map<TypeVariable<?>, Type> typeArguments) {
+    final List<Type> supertypes = new ArrayList<>(asList(type.getGenericInterfaces()));
+    if (type.getGenericSuperclass() != null) {
+      supertypes.add(type.getGenericSuperclass());
+    }
+
+    for (Type supertype : supertypes) {
+      if (supertype instanceof Class) {
+        final Class<?> declaredType = declaredType((Class<?>) supertype, emptyMap());
+        if (declaredType != null) {
+          return declaredType;
+        }
+      } else if (supertype instanceof ParameterizedType) {
+        final Class<?> rawType = (Class<?>) ((ParameterizedType) supertype).getRawType();
+        final Type[] arguments = ((ParameterizedType) supertype).getActualTypeArguments();
+        final Map<TypeVariable<?>, Type> supertypeArguments = new HashMap<>();
+        for (int i = 0; i < arguments.length; ++i) {
+          supertypeArguments.put(rawType.getTypeParameters()[i], typeArguments.getOrDefault(arguments[i], arguments[i]));
+        }
+
+        final Class<?> declaredType = rawType == NotificationListener.class
+            ? erasure(supertypeArguments.get(rawType.getTypeParameters()[0]))
+            : declaredType(rawType, supertypeArguments);
+        if (declaredType != null) {
+          return declaredType;
+        }
+      }
+    }
+    return type == NotificationListener.class ? Notification.class : null;
+  }
+
+  private static Class<?> erasure(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    } else if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    } else if (type instanceof TypeVariable) {
+      return erasure(((TypeVariable<?>) type).getBounds()[0]);
+    } else if (type instanceof WildcardType) {
+      return erasure(((WildcardType) type).getUpperBounds()[0]);
+    }
+    return Notification.class;
+  }
+
+  private static ActionKey actionKey(Action action) {
+    return new ActionKey(action.getNamespace(), action.getIdentifier());
+  }
+
+  /**
+   * The listeners registered for a notification type, with those for each of its actions resolved as notifications with them are
+   * dispatched.
+   */
+  private static final class Route {
+
+    private final Registration[] registrations;
+    private final boolean actionIndependent;
+    // looked up without building a key for each notification, the hash of an IntegerAction is its id
+    private final Map<Action, Registration[]> byIntegerAction = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Registration[]>> byAction = new ConcurrentHashMap<>();
+
+    private Route(Registration[] registrations) {
+      this.registrations = registrations;
+      boolean actionIndependent = true;
+      for (Registration registration : registrations) {
+        actionIndependent &= registration.actionKeys == null;
+      }
+      this.actionIndependent = actionIndependent;
+    }
+
+    private Registration[] forAction(Action action) {
+      if (actionIndependent) {
+        return registrations;
+      }
+
+      if (action == null) {
+        // only the listeners registered without actions handle it
+        return filter(null, null);
+      }
+      if (action instanceof IntegerAction) {
+        Registration[] forAction = byIntegerAction.get(action);
+        if (forAction == null) {
+          forAction = filter(action.getNamespace(), action.getIdentifier());
+          byIntegerAction.putIfAbsent(action, forAction);
+        }
+        return forAction;
+      }
+
+      final String namespace = action.getNamespace();
+      final String identifier = action.getIdentifier();
+      if (namespace == null || identifier == null) {
+        return filter(namespace, identifier);
+      }
+      Map<String, Registration[]> forNamespace = byAction.get(namespace);
+      if (forNamespace == null) {
+        forNamespace = byAction.computeIfAbsent(namespace, ns -> new ConcurrentHashMap<>());
+      }
+      Registration[] forAction = forNamespace.get(identifier);
+      if (forAction == null) {
+        forAction = filter(namespace, identifier);
+        forNamespace.putIfAbsent(identifier, forAction);
+      }
+      return forAction;
+    }
+
+    private Registration[] filter(String namespace, String identifier) {
+      Registration[] filtered = new Registration[registrations.length];
+      int count = 0;
+      for (Registration registration : registrations) {
+        if (registration.handles(namespace, identifier)) {
+          filtered[count++] = registration;
+        }
+      }
+      return count == 0 ? NO_REGISTRATIONS : copyOf(filtered, count);
+    }
+  }
+
+  private static final class Registration {
+
+    private final NotificationListener<?> listener;
+    private final Class<?> notificationType;
+    private final ActionKey[] actionKeys;
+    private final Predicate<?> selector;
+
+    private Registration(NotificationListener<?> listener, Class<?> notificationType, ActionKey[] actionKeys,
+                         Predicate<?> selector) {
+      this.listener = listener;
+      this.notificationType = notificationType;
+      this.actionKeys = actionKeys;
+      this.selector = selector;
+    }
+
+    private boolean handles(String namespace, String identifier) {
+      if (actionKeys == null) {
+        return true;
+      }
+      for (ActionKey key : actionKeys) {
+        if (key.matches(namespace, identifier)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class ActionKey {
+
+    private final String namespace;
+    private final String identifier;
+
+    private ActionKey(String namespace, String identifier) {
+      this.namespace = namespace;
+      this.identifier = identifier;
+    }
+
+    private boolean matches(String namespace, String identifier) {
+      return Objects.equals(this.namespace, namespace) && Objects.equals(this.identifier, identifier);
+    }
+  }
+}
@@ -19,7 +19,9 @@ public final class IntegerAction implements Action {
 
   private static final String CORE_NAMESPACE = CORE_PREFIX.toUpperCase();
 
-  private int actionId;
+  private final int actionId;
+  // computed on first use, racing threads would just compute an equal value
+  private String identifier;
 
   public IntegerAction(int actionId) {
     this.actionId = actionId;
@@ -40,7 +42,12 @@ public final class IntegerAction implements Action {
 
   @Override
   public String getIdentifier() {
-    return valueOf(actionId);
+    String identifier = this.identifier;
+    if (identifier == null) {
+      identifier = valueOf(actionId);
+      this.identifier = identifier;
+    }
+    return identifier;
   }
 
   @Override
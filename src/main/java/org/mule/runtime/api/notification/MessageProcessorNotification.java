@@ -27,10 +27,35 @@ public final class MessageProcessorNotification extends EnrichedServerNotificati
 
   private EventContext eventContext;
 
+  // whether this instance is reused by a ProcessorNotificationPool
+  private final transient boolean pooled;
+
   public MessageProcessorNotification(EnrichedNotificationInfo notificationInfo, ComponentLocation componentLocation,
                                       EventContext eventContext, int action) {
     super(notificationInfo, action, componentLocation != null ? componentLocation.getRootContainerName() : null);
     this.eventContext = eventContext;
+    this.pooled = false;
+  }
+
+  /**
+   * Creates an instance to be reused by a {@link ProcessorNotificationPool}, which {@link #initialize initializes} it each time
+   * it is fired.
+   */
+  MessageProcessorNotification() {
+    super(new EnrichedNotificationInfo(null, null, null), NULL_ACTION, (String) null);
+    this.pooled = true;
+  }
+
+  void initialize(Event event, ComponentLocation componentLocation, Component processor, Exception exceptionThrown,
+                  int action) {
+    notificationInfo.reset(event, processor, exceptionThrown);
+    this.eventContext = event.getContext();
+    reset(action, componentLocation != null ? componentLocation.getRootContainerName() : null);
+  }
+
+  void clear() {
+    notificationInfo.reset(null, null, null);
+    this.eventContext = null;
   }
 
   public static MessageProcessorNotification createFrom(Event event, ComponentLocation componentLocation,
@@ -45,6 +70,20 @@ public final class MessageProcessorNotification extends EnrichedServerNotificati
     return eventContext;
   }
 
+  @Override
+  public MessageProcessorNotification retain() {
+    if (!pooled) {
+      return this;
+    }
+
+    MessageProcessorNotification retained =
+        new MessageProcessorNotification(createInfo(getEvent(), getException(), getComponent()), null, eventContext, action);
+    retained.resourceIdentifier = resourceIdentifier;
+    retained.serverId = serverId;
+    retained.timestamp = timestamp;
+    return retained;
+  }
+
   @Override
   public String toString() {
     return getEventName() + "{" + "action=" + getActionName(action) + ", processor="
@@ -6,6 +6,11 @@
  */
 package org.mule.runtime.api.notification;
 
+import static java.util.Arrays.stream;
+
+import org.mule.runtime.api.notification.Notification.Action;
+
+import java.util.Objects;
 import java.util.function.Predicate;
 
 /**
@@ -39,6 +44,54 @@ public interface NotificationListenerRegistry {
    */
   <N extends Notification> void registerListener(NotificationListener<N> listener, Predicate<N> selector);
 
+  /**
+   * Registers a {@link NotificationListener} for the notifications of the given type and, optionally, of the given actions.
+   * <p>
+   * Unlike with an opaque {@link Predicate selector}, implementations can index the listeners registered this way by notification
+   * type and action, so that finding the listeners for a fired notification doesn't require testing every registered listener.
+   * The default implementation just builds the equivalent selector.
+   *
+   * @param listener         the listener to register
+   * @param notificationType the type of the notifications to be handled by the {@code listener}, including its subtypes
+   * @param actions          the actions of the notifications to be handled by the {@code listener}, matched by
+   *                         {@link Action#getNamespace() namespace} and {@link Action#getIdentifier() identifier}. If none is
+   *                         given, notifications with any action are handled.
+   * @param <N>              the concrete type of the notification to be handled by the {@code listener}
+   * @since 1.10
+   */
+  default <N extends Notification> void registerListener(NotificationListener<N> listener, Class<N> notificationType,
+                                                         Action... actions) {
+    registerListener(listener, notification -> {
+      if (!notificationType.isInstance(notification)) {
+        return false;
+      }
+      if (actions.length == 0) {
+        return true;
+      }
+      final Action action = notification.getAction();
+      return action != null && stream(actions)
+          .anyMatch(candidate -> Objects.equals(candidate.getNamespace(), action.getNamespace())
+              && Objects.equals(candidate.getIdentifier(), action.getIdentifier()));
+    });
+  }
+
+  /**
+   * Tells whether there is any listener that would be notified of a notification of the given type and action, so that firing it
+   * can be skipped altogether, along with building its contents, when there isn't.
+   * <p>
+   * Listeners registered with a {@link Predicate selector} are assumed to be interested in every notification of their type, since
+   * the selector can only be tested on the actual notification. Implementations that can't tell return {@code true}, as the
+   * default implementation does.
+   *
+   * @param notificationType the concrete type of the notification
+   * @param action           the action of the notification
+   * @return {@code false} if a notification of the given type and action would not be delivered to any listener
+   * @since 1.10
+   */
+  default boolean isListenedTo(Class<? extends Notification> notificationType, Action action) {
+    return true;
+  }
+
   /**
    * Unregisters a previously registered {@link NotificationListener}. If the listener has not already been registered, this
    * method should return without exception
@@ -47,5 +100,4 @@ public interface NotificationListenerRegistry {
    * @param <N>      the concrete type of the notification handled by the {@code listener}
    */
   <N extends Notification> void unregisterListener(NotificationListener<N> listener);
-
 }
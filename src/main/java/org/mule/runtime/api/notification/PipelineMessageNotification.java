@@ -9,10 +9,12 @@ package org.mule.runtime.api.notification;
 import static java.lang.String.format;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
+import static org.mule.runtime.api.notification.EnrichedNotificationInfo.createInfo;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.event.Event;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Optional;
@@ -41,12 +43,47 @@ public final class PipelineMessageNotification extends EnrichedServerNotificatio
     registerAction("pipeline process complete", PROCESS_COMPLETE);
   }
 
+  // whether this instance is reused by a ProcessorNotificationPool
+  private final transient boolean pooled;
+
   public PipelineMessageNotification(EnrichedNotificationInfo notificationInfo, String name, int action) {
     super(notificationInfo, action,
           notificationInfo.getComponent().getRootContainerLocation() != null
               ? notificationInfo.getComponent().getRootContainerLocation().getGlobalName()
               : null);
     this.resourceIdentifier = name;
+    this.pooled = false;
+  }
+
+  /**
+   * Creates an instance to be reused by a {@link ProcessorNotificationPool}, which {@link #initialize initializes} it each time
+   * it is fired.
+   */
+  PipelineMessageNotification() {
+    super(new EnrichedNotificationInfo(null, null, null), NULL_ACTION, (String) null);
+    this.pooled = true;
+  }
+
+  void initialize(Event event, Component component, Exception exception, String name, int action) {
+    notificationInfo.reset(event, component, exception);
+    reset(action, name);
+  }
+
+  void clear() {
+    notificationInfo.reset(null, null, null);
+  }
+
+  @Override
+  public PipelineMessageNotification retain() {
+    if (!pooled) {
+      return this;
+    }
+
+    PipelineMessageNotification retained =
+        new PipelineMessageNotification(createInfo(getEvent(), getException(), getComponent()), resourceIdentifier, action);
+    retained.serverId = serverId;
+    retained.timestamp = timestamp;
+    return retained;
   }
 
   @Override
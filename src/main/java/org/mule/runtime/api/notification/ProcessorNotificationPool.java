@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.notification;
+
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+
+import org.mule.api.annotation.Experimental;
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.event.Event;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Fires {@link MessageProcessorNotification}s and {@link PipelineMessageNotification}s reusing their instances, along with their
+ * {@link EnrichedNotificationInfo}, instead of creating new ones for each processor and event.
+ * <p>
+ * Both kinds of notification are {@link Notification#isSynchronous() synchronous}, so every listener has handled the
+ * notification by the time the {@link NotificationDispatcher} returns. The instance is then cleared and kept to be fired again
+ * from the same thread. Listeners that keep a reference to a notification after handling it must keep the one returned by
+ * {@link EnrichedServerNotification#retain()} instead, which is a copy when the notification comes from a pool. The same goes
+ * for dispatchers that queue the notification to deliver it later, as {@link AsyncNotificationDispatcher} does.
+ * <p>
+ * Each thread keeps its own instances, so instances of this class may be used concurrently. Notifications fired while handling
+ * another one get an instance of their own.
+ *
+ * @since 1.10
+ */
+@Experimental
+public final class ProcessorNotificationPool {
+
+  private static final int DEFAULT_MAX_POOLED_PER_THREAD = 4;
+
+  private final NotificationDispatcher dispatcher;
+  private final int maxPooledPerThread;
+
+  private final ThreadLocal<Deque<MessageProcessorNotification>> messageProcessorNotifications =
+      ThreadLocal.withInitial(ArrayDeque::new);
+  private final ThreadLocal<Deque<PipelineMessageNotification>> pipelineMessageNotifications =
+      ThreadLocal.withInitial(ArrayDeque::new);
+
+  /**
+   * Creates a new instance that keeps up to 4 instances of each notification per thread.
+   *
+   * @param dispatcher the dispatcher that delivers the notifications, which must do so before returning or retain them
+   */
+  public ProcessorNotificationPool(NotificationDispatcher dispatcher) {
+    this(dispatcher, DEFAULT_MAX_POOLED_PER_THREAD);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param dispatcher         the dispatcher that delivers the notifications, which must do so before returning or retain
+   *                           them
+   * @param maxPooledPerThread how many instances of each notification to keep for each thread. More are only needed when
+   *                           notifications are fired while handling others.
+   */
+  public ProcessorNotificationPool(NotificationDispatcher dispatcher, int maxPooledPerThread) {
+    checkArgument(dispatcher != null, "dispatcher cannot be null");
+    checkArgument(maxPooledPerThread > 0, () -> "maxPooledPerThread must be positive, was " + maxPooledPerThread);
+    this.dispatcher = dispatcher;
+    this.maxPooledPerThread = maxPooledPerThread;
+  }
+
+  /**
+   * Fires a {@link MessageProcessorNotification} with the same data as one built through
+   * {@link MessageProcessorNotification#createFrom(Event, ComponentLocation, Component, Exception, int)}.
+   *
+   * @param event             the event being processed
+   * @param componentLocation the location of the processor
+   * @param processor         the processor
+   * @param exceptionThrown   the exception thrown by the processor, if any
+   * @param action            the action of the notification
+   */
+  public void fireMessageProcessorNotification(Event event, ComponentLocation componentLocation, Component processor,
+                                               Exception exceptionThrown, int action) {
+    final Deque<MessageProcessorNotification> pooled = messageProcessorNotifications.get();
+    final MessageProcessorNotification notification = pooled.isEmpty() ? new MessageProcessorNotification() : pooled.pop();
+    notification.initialize(event, componentLocation, processor, exceptionThrown, action);
+    try {
+      dispatcher.dispatch(notification);
+    } finally {
+      notification.clear();
+      if (pooled.size() < maxPooledPerThread) {
+        pooled.push(notification);
+      }
+    }
+  }
+
+  /**
+   * Fires a {@link PipelineMessageNotification} with the same data as one built with
+   * {@link EnrichedNotificationInfo#createInfo(Event, Exception, Component) an info} from the given {@code event},
+   * {@code exception} and {@code component}.
+   *
+   * @param event     the event being processed
+   * @param component the pipeline
+   * @param exception the exception thrown while processing the event, if any
+   * @param name      the name of the pipeline
+   * @param action    the action of the notification
+   */
+  public void firePipelineMessageNotification(Event event, Component component, Exception exception, String name,
+                                              int action) {
+    final Deque<PipelineMessageNotification> pooled = pipelineMessageNotifications.get();
+    final PipelineMessageNotification notification = pooled.isEmpty() ? new PipelineMessageNotification() : pooled.pop();
+    notification.initialize(event, component, exception, name, action);
+    try {
+      dispatcher.dispatch(notification);
+    } finally {
+      notification.clear();
+      if (pooled.size() < maxPooledPerThread) {
+        pooled.push(notification);
+      }
+    }
+  }
+}
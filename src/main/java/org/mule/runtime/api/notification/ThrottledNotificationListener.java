@@ -0,0 +1,264 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.notification;
+
+import static java.lang.Math.max;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+
+import org.mule.api.annotation.Experimental;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link NotificationListener} decorator that only hands part of the notifications it receives to its {@code delegate}, either
+ * {@link #sampling(NotificationListener, double) a fixed ratio} of them or
+ * {@link #rateLimiting(NotificationListener, int, long, TimeUnit) up to a given amount per period}.
+ * <p>
+ * The limit is applied separately for each notification type and, for {@link AbstractServerNotification}s, each
+ * {@link AbstractServerNotification#getResourceIdentifier() resource identifier}, so that a busy flow doesn't use up the
+ * notifications for the rest of them. The amount of suppressed notifications for each is kept, and can be
+ * {@link #getSuppressedCounts() exported}. Since there is state for each type and resource identifier, this is meant for
+ * resource identifiers that come from a bounded set, such as flow names.
+ * <p>
+ * Instances are thread safe and never lock. Keep in mind that it is the decorator that has to be registered in, and
+ * unregistered from, the {@link NotificationListenerRegistry}. The class of the decorator can't tell the type of notification
+ * its {@code delegate} handles, so unless the registry is an {@link IndexedNotificationListenerRegistry}, which routes it by the
+ * type its {@code delegate} declares, register it with
+ * {@link NotificationListenerRegistry#registerListener(NotificationListener, Class, Notification.Action...) its type}. The
+ * same goes for a {@code delegate} that is a lambda.
+ *
+ * @param <N> the concrete type of the notification handled by the {@code delegate}
+ * @since 1.10
+ */
+@Experimental
+public final class ThrottledNotificationListener<N extends Notification> implements NotificationListener<N> {
+
+  private final NotificationListener<N> delegate;
+  private final Admission admission;
+  private final LongSupplier nanoTimeSource;
+
+  private final Map<Class<?>, TypeCounters> countersByType = new ConcurrentHashMap<>();
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder suppressed = new LongAdder();
+
+  /**
+   * Creates a listener that delivers a fixed ratio of the notifications of each type and resource identifier. The delivered
+   * notifications are evenly spread: with a {@code ratio} of {@code 0.01}, one out of every 100 is delivered.
+   *
+   * @param delegate the listener to deliver the sampled notifications to
+   * @param ratio    the ratio of notifications to deliver, greater than 0 and up to 1
+   * @param <N>      the concrete type of the notification handled by the {@code delegate}
+   * @return the new listener
+   */
+  public static <N extends Notification> ThrottledNotificationListener<N> sampling(NotificationListener<N> delegate,
+                                                                                   double ratio) {
+    checkArgument(ratio > 0 && ratio <= 1, () -> "ratio must be greater than 0 and up to 1, was " + ratio);
+    return new ThrottledNotificationListener<>(delegate, () -> 0, counters -> {
+      final long count = counters.received.incrementAndGet();
+      return (long) (count * ratio) != (long) ((count - 1) * ratio);
+    });
+  }
+
+  /**
+   * Creates a listener that delivers up to {@code permits} notifications of each type and resource identifier per
+   * {@code period}.
+   * <p>
+   * This is a token bucket that holds up to {@code permits} tokens and is refilled continuously, so the whole amount may be
+   * delivered in a burst after a period without notifications.
+   *
+   * @param delegate the listener to deliver the notifications to
+   * @param permits  the amount of notifications to deliver per {@code period}
+   * @param period   the period the {@code permits} are for
+   * @param unit     the unit of the {@code period}
+   * @param <N>      the concrete type of the notification handled by the {@code delegate}
+   * @return the new listener
+   */
+  public static <N extends Notification> ThrottledNotificationListener<N> rateLimiting(NotificationListener<N> delegate,
+                                                                                       int permits, long period,
+                                                                                       TimeUnit unit) {
+    return rateLimiting(delegate, permits, period, unit, System::nanoTime);
+  }
+
+  /**
+   * Same as {@link #rateLimiting(NotificationListener, int, long, TimeUnit)}, but taking the time from the given source instead
+   * of {@link System#nanoTime()}.
+   *
+   * @param delegate       the listener to deliver the notifications to
+   * @param permits        the amount of notifications to deliver per {@code period}
+   * @param period         the period the {@code permits} are for
+   * @param unit           the unit of the {@code period}
+   * @param nanoTimeSource provides the current time, in nanoseconds, with the same semantics as {@link System#nanoTime()}
+   * @param <N>            the concrete type of the notification handled by the {@code delegate}
+   * @return the new listener
+   */
+  public static <N extends Notification> ThrottledNotificationListener<N> rateLimiting(NotificationListener<N> delegate,
+                                                                                       int permits, long period,
+                                                                                       TimeUnit unit,
+                                                                                       LongSupplier nanoTimeSource) {
+    checkArgument(permits > 0, () -> "permits must be positive, was " + permits);
+    checkArgument(period > 0, () -> "period must be positive, was " + period);
+    checkArgument(unit != null, "unit cannot be null");
+    checkArgument(nanoTimeSource != null, "nanoTimeSource cannot be null");
+
+    // the time it takes to refill one token
+    final long interval = max(1, unit.toNanos(period) / permits);
+    final long capacity = interval * permits;
+    return new ThrottledNotificationListener<>(delegate, nanoTimeSource, counters -> {
+      // The bucket is kept as the time at which it will be full again, so taking a token is moving that time one interval
+      // forward. The bucket is empty when that time is more than a full capacity ahead.
+      final long now = nanoTimeSource.getAsLong();
+      while (true) {
+        final long fullAt = counters.bucket.get();
+        final long takenFullAt = (fullAt - now < 0 ? now : fullAt) + interval;
+        if (takenFullAt - now > capacity) {
+          return false;
+        }
+        if (counters.bucket.compareAndSet(fullAt, takenFullAt)) {
+          return true;
+        }
+      }
+    });
+  }
+
+  private ThrottledNotificationListener(NotificationListener<N> delegate, LongSupplier nanoTimeSource, Admission admission) {
+    checkArgument(delegate != null, "delegate cannot be null");
+    this.delegate = delegate;
+    this.nanoTimeSource = nanoTimeSource;
+    this.admission = admission;
+  }
+
+  NotificationListener<N> getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public boolean isBlocking() {
+    return delegate.isBlocking();
+  }
+
+  @Override
+  public void onNotification(N notification) {
+    final Counters counters = countersFor(notification);
+    if (admission.admit(counters)) {
+      delivered.increment();
+      delegate.onNotification(notification);
+    } else {
+      counters.suppressed.increment();
+      suppressed.increment();
+    }
+  }
+
+  private Counters countersFor(N notification) {
+    final TypeCounters typeCounters =
+        countersByType.computeIfAbsent(notification.getClass(), type -> new TypeCounters(nanoTimeSource.getAsLong()));
+    final String resourceIdentifier = notification instanceof AbstractServerNotification
+        ? ((AbstractServerNotification) notification).getResourceIdentifier()
+        : null;
+    if (resourceIdentifier == null) {
+      return typeCounters.withoutResource;
+    }
+    return typeCounters.byResource.computeIfAbsent(resourceIdentifier, id -> new Counters(nanoTimeSource.getAsLong()));
+  }
+
+  /**
+   * @return the amount of notifications handed to the {@code delegate}.
+   */
+  public long getDeliveredCount() {
+    return delivered.sum();
+  }
+
+  /**
+   * @return the amount of notifications not handed to the {@code delegate}.
+   */
+  public long getSuppressedCount() {
+    return suppressed.sum();
+  }
+
+  /**
+   * @param notificationType   the concrete type of the notifications
+   * @param resourceIdentifier the resource identifier of the notifications, or {@code null} for the notifications without one
+   * @return the amount of notifications of the given type and resource identifier not handed to the {@code delegate}.
+   */
+  public long getSuppressedCount(Class<? extends Notification> notificationType, String resourceIdentifier) {
+    final TypeCounters typeCounters = countersByType.get(notificationType);
+    if (typeCounters == null) {
+      return 0;
+    }
+    final Counters counters =
+        resourceIdentifier == null ? typeCounters.withoutResource : typeCounters.byResource.get(resourceIdentifier);
+    return counters == null ? 0 : counters.suppressed.sum();
+  }
+
+  /**
+   * @return a snapshot of the amount of suppressed notifications, by concrete notification type and then by resource identifier.
+   *         The notifications without a resource identifier are under the {@code null} key.
+   */
+  public Map<Class<?>, Map<String, Long>> getSuppressedCounts() {
+    final Map<Class<?>, Map<String, Long>> counts = new HashMap<>();
+    countersByType.forEach((type, typeCounters) -> {
+      final Map<String, Long> byResource = new HashMap<>();
+      final long withoutResource = typeCounters.withoutResource.suppressed.sum();
+      if (withoutResource > 0) {
+        byResource.put(null, withoutResource);
+      }
+      typeCounters.byResource.forEach((resourceIdentifier, counters) -> {
+        final long count = counters.suppressed.sum();
+        if (count > 0) {
+          byResource.put(resourceIdentifier, count);
+        }
+      });
+      if (!byResource.isEmpty()) {
+        counts.put(type, byResource);
+      }
+    });
+    return counts;
+  }
+
+  @Override
+  public String toString() {
+    return "ThrottledNotificationListener{delegate=" + delegate + ", delivered=" + getDeliveredCount() + ", suppressed="
+        + getSuppressedCount() + "}";
+  }
+
+  /**
+   * Decides whether a notification is delivered, given the counters for its type and resource identifier.
+   */
+  @FunctionalInterface
+  private interface Admission {
+
+    boolean admit(Counters counters);
+  }
+
+  private static final class TypeCounters {
+
+    private final Counters withoutResource;
+    private final Map<String, Counters> byResource = new ConcurrentHashMap<>();
+
+    private TypeCounters(long now) {
+      this.withoutResource = new Counters(now);
+    }
+  }
+
+  private static final class Counters {
+
+    // used by sampling
+    private final AtomicLong received = new AtomicLong();
+    // used by rate limiting, starting full
+    private final AtomicLong bucket;
+    private final LongAdder suppressed = new LongAdder();
+
+    private Counters(long now) {
+      this.bucket = new AtomicLong(now);
+    }
+  }
+}
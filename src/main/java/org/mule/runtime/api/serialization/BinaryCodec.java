@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.serialization;
+
+import org.mule.api.annotation.Experimental;
+
+import java.io.IOException;
+
+/**
+ * Writes and reads the values of a given type for a {@link BinarySerializationProtocol}.
+ * <p>
+ * Implementations must read exactly what they write, in the same order, and are required to be thread-safe.
+ *
+ * @param <T> the type of the values handled by this codec
+ * @since 1.10
+ */
+@Experimental
+public interface BinaryCodec<T> {
+
+  /**
+   * Writes the given {@code value}.
+   *
+   * @param value the value to write. Never {@code null}.
+   * @param out   where to write it
+   * @throws IOException if the value could not be written
+   */
+  void write(T value, BinaryOutput out) throws IOException;
+
+  /**
+   * Reads a value written by {@link #write(Object, BinaryOutput)}.
+   *
+   * @param in where to read it from
+   * @return the read value
+   * @throws IOException if the value could not be read
+   */
+  T read(BinaryInput in) throws IOException;
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.serialization;
+
+import static java.lang.Double.longBitsToDouble;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.copyOfRange;
+
+import org.mule.api.annotation.Experimental;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Where a {@link BinaryCodec} reads the values it handles from, as written through a {@link BinaryOutput}.
+ * <p>
+ * Instances are not thread-safe and are only valid during the invocation of the codec they are passed to.
+ *
+ * @since 1.10
+ */
+@Experimental
+public final class BinaryInput {
+
+  private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+  static {
+    for (Class<?> type : new Class<?>[] {boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class,
+        double.class, void.class}) {
+      PRIMITIVE_TYPES.put(type.getName(), type);
+    }
+  }
+
+  private final BinarySerializationProtocol protocol;
+  private final ClassLoader classLoader;
+  private final byte[] buffer;
+  private final int limit;
+  private int position;
+
+  BinaryInput(BinarySerializationProtocol protocol, ClassLoader classLoader, byte[] buffer, int limit) {
+    this.protocol = protocol;
+    this.classLoader = classLoader;
+    this.buffer = buffer;
+    this.limit = limit;
+  }
+
+  /**
+   * Reads a nested object written with {@link BinaryOutput#writeObject(Object)}.
+   *
+   * @param <T> the expected type of the object
+   * @return the read object, which may be {@code null}
+   * @throws IOException if the object could not be read
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T readObject() throws IOException {
+    return (T) protocol.readObject(this);
+  }
+
+  /**
+   * Loads a class by name with the {@link ClassLoader} the deserialization was requested with. Primitive types are also
+   * supported.
+   *
+   * @param className the name of the class
+   * @return the loaded class
+   * @throws IOException if the class could not be loaded
+   */
+  public Class<?> loadClass(String className) throws IOException {
+    final Class<?> primitiveType = PRIMITIVE_TYPES.get(className);
+    if (primitiveType != null) {
+      return primitiveType;
+    }
+    try {
+      return Class.forName(className, false, classLoader);
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Could not load class " + className, e);
+    }
+  }
+
+  /**
+   * @return the {@link ClassLoader} the deserialization was requested with.
+   */
+  public ClassLoader getClassLoader() {
+    return classLoader;
+  }
+
+  public byte readByte() throws IOException {
+    require(1);
+    return buffer[position++];
+  }
+
+  public boolean readBoolean() throws IOException {
+    return readByte() != 0;
+  }
+
+  public int readInt() throws IOException {
+    final long zigZag = readUnsignedVarLong();
+    if (zigZag >>> 32 != 0) {
+      throw new StreamCorruptedException("Integer out of range");
+    }
+    final int value = (int) zigZag;
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public long readLong() throws IOException {
+    final long zigZag = readUnsignedVarLong();
+    return (zigZag >>> 1) ^ -(zigZag & 1);
+  }
+
+  public double readDouble() throws IOException {
+    require(8);
+    long bits = 0;
+    for (int i = 0; i < 8; ++i) {
+      bits = (bits << 8) | (buffer[position++] & 0xFF);
+    }
+    return longBitsToDouble(bits);
+  }
+
+  /**
+   * @return a {@link String} written with {@link BinaryOutput#writeString(String)}, which may be {@code null}.
+   * @throws IOException if the string could not be read
+   */
+  public String readString() throws IOException {
+    final int length = readInt();
+    if (length < -1) {
+      return readChars(-2 - length);
+    }
+    if (length < 0) {
+      return null;
+    }
+    require(length);
+    final int start = position;
+    position += length;
+    for (int i = start; i < position; ++i) {
+      if (buffer[i] < 0) {
+        return new String(buffer, start, length, UTF_8);
+      }
+    }
+    return new String(buffer, start, length, ISO_8859_1);
+  }
+
+  private String readChars(int length) throws IOException {
+    if (length > (limit - position) / 2) {
+      throw new EOFException("Unexpected end of serialized data");
+    }
+    final char[] chars = new char[length];
+    for (int i = 0; i < length; ++i) {
+      chars[i] = (char) ((buffer[position] & 0xFF) << 8 | buffer[position + 1] & 0xFF);
+      position += 2;
+    }
+    return new String(chars);
+  }
+
+  /**
+   * @return a byte array written with {@link BinaryOutput#writeBytes(byte[])}, which may be {@code null}.
+   * @throws IOException if the bytes could not be read
+   */
+  public byte[] readBytes() throws IOException {
+    final int length = readLength();
+    if (length < 0) {
+      return null;
+    }
+    require(length);
+    position += length;
+    return copyOfRange(buffer, position - length, position);
+  }
+
+  long readUnsignedVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final byte b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new StreamCorruptedException("Malformed variable length integer");
+  }
+
+  boolean isFullyRead() {
+    return position == limit;
+  }
+
+  private int readLength() throws IOException {
+    final int length = readInt();
+    if (length < -1) {
+      throw new StreamCorruptedException("Invalid length " + length);
+    }
+    return length;
+  }
+
+  private void require(int length) throws IOException {
+    if (length > limit - position) {
+      throw new EOFException("Unexpected end of serialized data");
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.serialization;
+
+import static java.lang.Character.isHighSurrogate;
+import static java.lang.Character.isLowSurrogate;
+import static java.lang.Character.isSurrogate;
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.copyOf;
+
+import org.mule.api.annotation.Experimental;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Where a {@link BinaryCodec} writes the values it handles. Integers are written with a variable length, so that small ones,
+ * either positive or negative, take fewer bytes.
+ * <p>
+ * Instances are not thread-safe and are only valid during the invocation of the codec they are passed to.
+ *
+ * @since 1.10
+ */
+@Experimental
+public final class BinaryOutput {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final BinarySerializationProtocol protocol;
+  private byte[] buffer = new byte[INITIAL_CAPACITY];
+  private int count;
+
+  BinaryOutput(BinarySerializationProtocol protocol) {
+    this.protocol = protocol;
+  }
+
+  /**
+   * Writes a nested object, with the {@link BinaryCodec} registered for its type in the protocol, or {@code null}.
+   *
+   * @param object the object to write
+   * @throws IOException if the object could not be written
+   */
+  public void writeObject(Object object) throws IOException {
+    protocol.writeObject(object, this);
+  }
+
+  public void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[count++] = (byte) value;
+  }
+
+  public void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  public void writeInt(int value) {
+    writeUnsignedVarLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+  }
+
+  public void writeLong(long value) {
+    writeUnsignedVarLong((value << 1) ^ (value >> 63));
+  }
+
+  public void writeDouble(double value) {
+    final long bits = doubleToRawLongBits(value);
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[count++] = (byte) (bits >>> shift);
+    }
+  }
+
+  /**
+   * Writes a {@link String}, encoded in UTF-8, or {@code null}. A string with unpaired surrogates, which UTF-8 can't represent,
+   * is written as its raw characters instead.
+   *
+   * @param value the string to write
+   */
+  public void writeString(String value) {
+    if (value == null) {
+      writeInt(-1);
+      return;
+    }
+
+    final int length = value.length();
+    if (isAscii(value, length)) {
+      writeInt(length);
+      ensureCapacity(length);
+      for (int i = 0; i < length; ++i) {
+        buffer[count++] = (byte) value.charAt(i);
+      }
+    } else if (isWellFormed(value, length)) {
+      writeBytes(value.getBytes(UTF_8));
+    } else {
+      // told apart from a UTF-8 length, or null, by being below -1
+      writeInt(-2 - length);
+      ensureCapacity(length * 2);
+      for (int i = 0; i < length; ++i) {
+        final char c = value.charAt(i);
+        buffer[count++] = (byte) (c >>> 8);
+        buffer[count++] = (byte) c;
+      }
+    }
+  }
+
+  /**
+   * Writes a byte array, or {@code null}.
+   *
+   * @param value the bytes to write
+   */
+  public void writeBytes(byte[] value) {
+    if (value == null) {
+      writeInt(-1);
+      return;
+    }
+    writeInt(value.length);
+    writeRaw(value, 0, value.length);
+  }
+
+  void writeRaw(byte[] bytes, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(bytes, offset, buffer, count, length);
+    count += length;
+  }
+
+  void writeUnsignedVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[count++] = (byte) value;
+  }
+
+  byte[] toByteArray() {
+    return copyOf(buffer, count);
+  }
+
+  void writeTo(OutputStream out) throws IOException {
+    out.write(buffer, 0, count);
+  }
+
+  private void ensureCapacity(int length) {
+    if (count + length > buffer.length) {
+      buffer = copyOf(buffer, max(buffer.length * 2, count + length));
+    }
+  }
+
+  private static boolean isAscii(String value, int length) {
+    for (int i = 0; i < length; ++i) {
+      if (value.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isWellFormed(String value, int length) {
+    for (int i = 0; i < length; ++i) {
+      final char c = value.charAt(i);
+      if (isHighSurrogate(c) && i + 1 < length && isLowSurrogate(value.charAt(i + 1))) {
+        ++i;
+      } else if (isSurrogate(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.serialization;
+
+import static java.lang.Math.max;
+import static java.lang.Thread.currentThread;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+
+import org.mule.api.annotation.Experimental;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * {@link SerializationProtocol} with a compact binary format, that writes each object as the id of its class followed by the
+ * data written by the {@link BinaryCodec} registered for that class.
+ * <p>
+ * Codecs are provided for the core value types of the API ({@link org.mule.runtime.api.metadata.TypedValue},
+ * {@link org.mule.runtime.api.metadata.DataType}, {@link org.mule.runtime.api.metadata.MediaType},
+ * {@link org.mule.runtime.api.util.MultiMap} and its subclasses in this API,
+ * {@link org.mule.runtime.api.util.collection.SmallMap} and {@link org.mule.runtime.api.message.ItemSequenceInfo}) and for the
+ * most common JDK types, which can be nested within each other. More can be {@link Builder#register(int, Class, BinaryCodec)
+ * registered}, for instance for types implemented outside of this API, such as {@link org.mule.runtime.api.message.Error}.
+ * Objects of any other type are written with Java serialization, so they must be {@link Serializable}.
+ * <p>
+ * The class ids are part of the serialized data, so data can only be deserialized by a protocol with the same registrations as
+ * the one that serialized it. Also, unlike Java serialization, shared references and cycles are not preserved: an object
+ * referenced twice is written twice and read as two different objects.
+ * <p>
+ * Every object read, including the nested ones, is passed to the {@link Builder#postDeserialization(Consumer) post
+ * deserialization} action of the protocol, which is what the runtime must set to initialize the objects implementing
+ * {@code org.mule.runtime.core.privileged.store.DeserializationPostInitialisable}, as required by {@link SerializationProtocol}.
+ * Without it, this protocol doesn't initialize deserialized objects in any way other than through the codecs, so it can't replace
+ * the serializer of the runtime, for instance for object stores.
+ * <p>
+ * Any failure, including those caused by corrupted data or by objects that can't be serialized, is thrown as a
+ * {@link SerializationException}.
+ *
+ * @since 1.10
+ */
+@Experimental
+public final class BinarySerializationProtocol implements SerializationProtocol {
+
+  /**
+   * The lowest class id available for {@link Builder#register(int, Class, BinaryCodec) registering} codecs. Lower ids are
+   * reserved for the built in ones.
+   */
+  public static final int FIRST_CUSTOM_CLASS_ID = 64;
+
+  /**
+   * The highest class id available for {@link Builder#register(int, Class, BinaryCodec) registering} codecs.
+   */
+  public static final int MAX_CLASS_ID = 0xFFFF;
+
+  private static final int MAGIC = 0xB1;
+  private static final int VERSION = 1;
+
+  static final int NULL_CLASS_ID = 0;
+  static final int JAVA_SERIALIZED_CLASS_ID = 1;
+
+  private static final Registration JAVA_SERIALIZED =
+      new Registration(JAVA_SERIALIZED_CLASS_ID, Object.class, false, new JavaSerializationCodec());
+
+  private final Registration[] byId;
+  private final Map<Class<?>, Registration> byExactType = new HashMap<>();
+  private final List<Registration> forSubtypes = new ArrayList<>();
+  private final Map<Class<?>, Registration> resolved = new ConcurrentHashMap<>();
+  private final Consumer<Object> postDeserialization;
+
+  /**
+   * @return a new {@link Builder} for a protocol with the built in codecs.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private BinarySerializationProtocol(List<Registration> registrations, Consumer<Object> postDeserialization) {
+    this.postDeserialization = postDeserialization;
+    int maxId = JAVA_SERIALIZED_CLASS_ID;
+    for (Registration registration : registrations) {
+      maxId = max(maxId, registration.id);
+    }
+
+    byId = new Registration[maxId + 1];
+    byId[JAVA_SERIALIZED_CLASS_ID] = JAVA_SERIALIZED;
+    for (Registration registration : registrations) {
+      byId[registration.id] = registration;
+      if (registration.forSubtypes) {
+        forSubtypes.add(registration);
+      } else {
+        byExactType.put(registration.type, registration);
+      }
+    }
+  }
+
+  @Override
+  public byte[] serialize(Object object) throws SerializationException {
+    return write(object).toByteArray();
+  }
+
+  @Override
+  public void serialize(Object object, OutputStream out) throws SerializationException {
+    final BinaryOutput output = write(object);
+    try {
+      output.writeTo(out);
+    } catch (IOException e) {
+      throw new SerializationException("Could not write serialized object", e);
+    }
+  }
+
+  private BinaryOutput write(Object object) {
+    final BinaryOutput output = new BinaryOutput(this);
+    output.writeByte(MAGIC);
+    output.writeByte(VERSION);
+    try {
+      writeObject(object, output);
+    } catch (SerializationException e) {
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      throw new SerializationException("Could not serialize object of type " + object.getClass().getName(), e);
+    }
+    return output;
+  }
+
+  @Override
+  public <T> T deserialize(byte[] bytes) throws SerializationException {
+    return deserialize(bytes, defaultClassLoader());
+  }
+
+  @Override
+  public <T> T deserialize(byte[] bytes, ClassLoader classLoader) throws SerializationException {
+    checkArgument(bytes != null, "The byte[] must not be null");
+    return read(bytes, bytes.length, classLoader);
+  }
+
+  @Override
+  public <T> T deserialize(InputStream inputStream) throws SerializationException {
+    return deserialize(inputStream, defaultClassLoader());
+  }
+
+  @Override
+  public <T> T deserialize(InputStream inputStream, ClassLoader classLoader) throws SerializationException {
+    checkArgument(inputStream != null, "Cannot deserialize a null stream");
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (InputStream in = inputStream) {
+      final byte[] chunk = new byte[8192];
+      int read;
+      while ((read = in.read(chunk)) != -1) {
+        bytes.write(chunk, 0, read);
+      }
+    } catch (IOException e) {
+      throw new SerializationException("Could not read serialized object", e);
+    }
+    return read(bytes.toByteArray(), bytes.size(), classLoader);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T read(byte[] bytes, int length, ClassLoader classLoader) {
+    final BinaryInput input = new BinaryInput(this, classLoader, bytes, length);
+    try {
+      if ((input.readByte() & 0xFF) != MAGIC || input.readByte() != VERSION) {
+        throw new StreamCorruptedException("Not serialized with " + BinarySerializationProtocol.class.getSimpleName());
+      }
+      final T object = (T) readObject(input);
+      if (!input.isFullyRead()) {
+        throw new StreamCorruptedException("Unexpected data after the serialized object");
+      }
+      return object;
+    } catch (SerializationException e) {
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      // corrupted data may also fail as a cast or an invalid argument in the codecs
+      throw new SerializationException("Could not deserialize object", e);
+    }
+  }
+
+  void writeObject(Object object, BinaryOutput out) throws IOException {
+    if (object == null) {
+      out.writeUnsignedVarLong(NULL_CLASS_ID);
+      return;
+    }
+
+    final Registration registration = registrationFor(object.getClass());
+    out.writeUnsignedVarLong(registration.id);
+    registration.codec.write(object, out);
+  }
+
+  Object readObject(BinaryInput in) throws IOException {
+    final long id = in.readUnsignedVarLong();
+    if (id == NULL_CLASS_ID) {
+      return null;
+    }
+    if (id >= byId.length || byId[(int) id] == null) {
+      throw new StreamCorruptedException("Unknown class id " + id);
+    }
+    final Object object = byId[(int) id].codec.read(in);
+    if (object != null) {
+      postDeserialization.accept(object);
+    }
+    return object;
+  }
+
+  private Registration registrationFor(Class<?> type) {
+    final Registration registration = byExactType.get(type);
+    return registration != null ? registration : resolved.computeIfAbsent(type, this::resolve);
+  }
+
+  private Registration resolve(Class<?> type) {
+    for (Registration registration : forSubtypes) {
+      if (registration.type.isAssignableFrom(type)) {
+        return registration;
+      }
+    }
+    return JAVA_SERIALIZED;
+  }
+
+  private static ClassLoader defaultClassLoader() {
+    final ClassLoader contextClassLoader = currentThread().getContextClassLoader();
+    return contextClassLoader != null ? contextClassLoader : BinarySerializationProtocol.class.getClassLoader();
+  }
+
+  /**
+   * Writes the given {@code object} with Java serialization, for codecs that need to do so for some of the values they handle.
+   */
+  static byte[] javaSerialize(Object object) throws IOException {
+    checkArgument(object instanceof Serializable,
+                  () -> "Object of type " + object.getClass().getName() + " has no codec and is not Serializable");
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Reads an object written with {@link #javaSerialize(Object)}, resolving its classes with the given {@code classLoader}.
+   */
+  static Object javaDeserialize(byte[] bytes, ClassLoader classLoader) throws IOException {
+    if (bytes == null) {
+      throw new StreamCorruptedException("Missing Java serialized object");
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+
+      @Override
+      protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        try {
+          return Class.forName(desc.getName(), false, classLoader);
+        } catch (ClassNotFoundException e) {
+          return super.resolveClass(desc);
+        }
+      }
+    }) {
+      return in.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Builds {@link BinarySerializationProtocol} instances. The built in codecs are always included.
+   */
+  public static final class Builder {
+
+    private final List<Registration> registrations = new ArrayList<>(CoreBinaryCodecs.registrations());
+    private Consumer<Object> postDeserialization = object -> {
+    };
+
+    private Builder() {}
+
+    /**
+     * Registers a codec for the objects of exactly the given {@code type}.
+     *
+     * @param classId the id to identify the {@code type} in the serialized data, from {@link #FIRST_CUSTOM_CLASS_ID} to
+     *                {@link #MAX_CLASS_ID}
+     * @param type    the type of the objects to handle with the {@code codec}
+     * @param codec   the codec
+     * @param <T>     the type of the objects to handle with the {@code codec}
+     * @return this builder
+     * @throws IllegalArgumentException if the {@code classId} is out of range, or it or the {@code type} are already registered
+     */
+    public <T> Builder register(int classId, Class<T> type, BinaryCodec<T> codec) {
+      return add(classId, type, false, codec);
+    }
+
+    /**
+     * Registers a codec for the objects of the given {@code type} or any of its subtypes, such as the implementations of an
+     * interface, that don't have a codec registered for their exact type. When more than one of these registrations apply to an
+     * object, the first one registered is used.
+     *
+     * @param classId the id to identify the {@code type} in the serialized data, from {@link #FIRST_CUSTOM_CLASS_ID} to
+     *                {@link #MAX_CLASS_ID}
+     * @param type    the supertype of the objects to handle with the {@code codec}
+     * @param codec   the codec
+     * @param <T>     the supertype of the objects to handle with the {@code codec}
+     * @return this builder
+     * @throws IllegalArgumentException if the {@code classId} is out of range, or it or the {@code type} are already registered
+     */
+    public <T> Builder registerForSubtypes(int classId, Class<T> type, BinaryCodec<T> codec) {
+      return add(classId, type, true, codec);
+    }
+
+    private Builder add(int classId, Class<?> type, boolean forSubtypes, BinaryCodec<?> codec) {
+      checkArgument(classId >= FIRST_CUSTOM_CLASS_ID && classId <= MAX_CLASS_ID,
+                    () -> "classId must be between " + FIRST_CUSTOM_CLASS_ID + " and " + MAX_CLASS_ID + ", was " + classId);
+      checkArgument(type != null, "type cannot be null");
+      checkArgument(codec != null, "codec cannot be null");
+      for (Registration registration : registrations) {
+        checkArgument(registration.id != classId, () -> "classId " + classId + " is already registered");
+        checkArgument(registration.type != type || registration.forSubtypes != forSubtypes,
+                      () -> "A codec for " + type.getName() + " is already registered");
+      }
+      registrations.add(new Registration(classId, type, forSubtypes, codec));
+      return this;
+    }
+
+    /**
+     * Sets an action to perform on every object read, nested ones included, before it is returned, such as initializing the
+     * objects implementing {@code org.mule.runtime.core.privileged.store.DeserializationPostInitialisable}.
+     *
+     * @param postDeserialization the action to perform on each deserialized object
+     * @return this builder
+     */
+    public Builder postDeserialization(Consumer<Object> postDeserialization) {
+      checkArgument(postDeserialization != null, "postDeserialization cannot be null");
+      this.postDeserialization = postDeserialization;
+      return this;
+    }
+
+    /**
+     * @return a new {@link BinarySerializationProtocol} with the registered codecs.
+     */
+    public BinarySerializationProtocol build() {
+      return new BinarySerializationProtocol(registrations, postDeserialization);
+    }
+  }
+
+  static final class Registration {
+
+    private final int id;
+    private final Class<?> type;
+    private final boolean forSubtypes;
+    private final BinaryCodec<Object> codec;
+
+    @SuppressWarnings("unchecked")
+    Registration(int id, Class<?> type, boolean forSubtypes, BinaryCodec<?> codec) {
+      this.id = id;
+      this.type = type;
+      this.forSubtypes = forSubtypes;
+      this.codec = (BinaryCodec<Object>) codec;
+    }
+  }
+
+  /**
+   * Codec for the objects without a registered codec.
+   */
+  private static final class JavaSerializationCodec implements BinaryCodec<Object> {
+
+    @Override
+    public void write(Object value, BinaryOutput out) throws IOException {
+      out.writeBytes(javaSerialize(value));
+    }
+
+    @Override
+    public Object read(BinaryInput in) throws IOException {
+      return javaDeserialize(in.readBytes(), in.getClassLoader());
+    }
+  }
+}
@@ -0,0 +1,519 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.serialization;
+
+import static java.lang.Math.min;
+import static org.mule.runtime.api.metadata.MediaType.parse;
+import static org.mule.runtime.api.metadata.MediaType.parseDefinedInApp;
+import static org.mule.runtime.api.serialization.BinarySerializationProtocol.javaDeserialize;
+import static org.mule.runtime.api.serialization.BinarySerializationProtocol.javaSerialize;
+
+import org.mule.runtime.api.message.ItemSequenceInfo;
+import org.mule.runtime.api.metadata.CollectionDataType;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.FunctionDataType;
+import org.mule.runtime.api.metadata.MapDataType;
+import org.mule.runtime.api.metadata.MediaType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.serialization.BinarySerializationProtocol.Registration;
+import org.mule.runtime.api.util.CaseInsensitiveMultiMap;
+import org.mule.runtime.api.util.CompactMultiMap;
+import org.mule.runtime.api.util.MultiMap;
+import org.mule.runtime.api.util.MultiMap.StringMultiMap;
+import org.mule.runtime.api.util.collection.SmallMap;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * The {@link BinaryCodec}s built into every {@link BinarySerializationProtocol}.
+ * <p>
+ * The class ids of these codecs are part of the serialized data: new codecs must be added with new ids, and the existing ones
+ * must not change.
+ *
+ * @since 1.10
+ */
+final class CoreBinaryCodecs {
+
+  // don't allocate big collections upfront only because the serialized data says so
+  private static final int MAX_INITIAL_CAPACITY = 1024;
+
+  private CoreBinaryCodecs() {}
+
+  static List<Registration> registrations() {
+    final List<Registration> registrations = new ArrayList<>();
+    registrations.add(new Registration(2, String.class, false, new StringCodec()));
+    registrations.add(new Registration(3, Integer.class, false, new IntegerCodec()));
+    registrations.add(new Registration(4, Long.class, false, new LongCodec()));
+    registrations.add(new Registration(5, Boolean.class, false, new BooleanCodec()));
+    registrations.add(new Registration(6, Double.class, false, new DoubleCodec()));
+    registrations.add(new Registration(7, byte[].class, false, new ByteArrayCodec()));
+    registrations.add(new Registration(8, ArrayList.class, false, new ListCodec(ArrayList::new)));
+    registrations.add(new Registration(9, HashMap.class, false, new MapCodec(HashMap::new)));
+    registrations.add(new Registration(10, LinkedHashMap.class, false, new MapCodec(LinkedHashMap::new)));
+    registrations.add(new Registration(11, MediaType.class, false, new MediaTypeCodec()));
+    registrations.add(new Registration(12, DataType.class, true, new DataTypeCodec()));
+    registrations.add(new Registration(13, TypedValue.class, false, new TypedValueCodec()));
+    registrations.add(new Registration(14, ItemSequenceInfo.class, false, new ItemSequenceInfoCodec()));
+    registrations.add(new Registration(15, SmallMap.class, false, new MapCodec(size -> new SmallMap<>())));
+    registrations.add(new Registration(16, MultiMap.class, false, new MultiMapCodec(MultiMap::new)));
+    registrations.add(new Registration(18, StringMultiMap.class, false, new MultiMapCodec(StringMultiMap::new)));
+    // the immutable variants are private, the more specific subtype registration goes first
+    registrations.add(new Registration(19, StringMultiMap.class, true, new ImmutableMultiMapCodec(StringMultiMap::new)));
+    registrations.add(new Registration(17, MultiMap.class, true, new ImmutableMultiMapCodec(MultiMap::new)));
+    registrations.add(new Registration(20, CaseInsensitiveMultiMap.class, false,
+                                       new FinalMultiMapCodec(CaseInsensitiveMultiMap::new)));
+    registrations.add(new Registration(21, CompactMultiMap.class, false, new FinalMultiMapCodec(CompactMultiMap::new)));
+    return registrations;
+  }
+
+  private static int initialCapacity(int size) {
+    return min(size, MAX_INITIAL_CAPACITY);
+  }
+
+  private static int readSize(BinaryInput in) throws IOException {
+    final int size = in.readInt();
+    if (size < 0) {
+      throw new StreamCorruptedException("Invalid size " + size);
+    }
+    return size;
+  }
+
+  private static final class StringCodec implements BinaryCodec<String> {
+
+    @Override
+    public void write(String value, BinaryOutput out) {
+      out.writeString(value);
+    }
+
+    @Override
+    public String read(BinaryInput in) throws IOException {
+      return in.readString();
+    }
+  }
+
+  private static final class IntegerCodec implements BinaryCodec<Integer> {
+
+    @Override
+    public void write(Integer value, BinaryOutput out) {
+      out.writeInt(value);
+    }
+
+    @Override
+    public Integer read(BinaryInput in) throws IOException {
+      return in.readInt();
+    }
+  }
+
+  private static final class LongCodec implements BinaryCodec<Long> {
+
+    @Override
+    public void write(Long value, BinaryOutput out) {
+      out.writeLong(value);
+    }
+
+    @Override
+    public Long read(BinaryInput in) throws IOException {
+      return in.readLong();
+    }
+  }
+
+  private static final class BooleanCodec implements BinaryCodec<Boolean> {
+
+    @Override
+    public void write(Boolean value, BinaryOutput out) {
+      out.writeBoolean(value);
+    }
+
+    @Override
+    public Boolean read(BinaryInput in) throws IOException {
+      return in.readBoolean();
+    }
+  }
+
+  private static final class DoubleCodec implements BinaryCodec<Double> {
+
+    @Override
+    public void write(Double value, BinaryOutput out) {
+      out.writeDouble(value);
+    }
+
+    @Override
+    public Double read(BinaryInput in) throws IOException {
+      return in.readDouble();
+    }
+  }
+
+  private static final class ByteArrayCodec implements BinaryCodec<byte[]> {
+
+    @Override
+    public void write(byte[] value, BinaryOutput out) {
+      out.writeBytes(value);
+    }
+
+    @Override
+    public byte[] read(BinaryInput in) throws IOException {
+      return in.readBytes();
+    }
+  }
+
+  private static final class ListCodec implements BinaryCodec<List<Object>> {
+
+    private final IntFunction<List<Object>> factory;
+
+    private ListCodec(IntFunction<List<Object>> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public void write(List<Object> value, BinaryOutput out) throws IOException {
+      out.writeInt(value.size());
+      for (Object item : value) {
+        out.writeObject(item);
+      }
+    }
+
+    @Override
+    public List<Object> read(BinaryInput in) throws IOException {
+      final int size = readSize(in);
+      final List<Object> list = factory.apply(initialCapacity(size));
+      for (int i = 0; i < size; ++i) {
+        list.add(in.readObject());
+      }
+      return list;
+    }
+  }
+
+  private static final class MapCodec implements BinaryCodec<Map<Object, Object>> {
+
+    private final IntFunction<Map<Object, Object>> factory;
+
+    private MapCodec(IntFunction<Map<Object, Object>> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public void write(Map<Object, Object> value, BinaryOutput out) throws IOException {
+      out.writeInt(value.size());
+      for (Map.Entry<Object, Object> entry : value.entrySet()) {
+        out.writeObject(entry.getKey());
+        out.writeObject(entry.getValue());
+      }
+    }
+
+    @Override
+    public Map<Object, Object> read(BinaryInput in) throws IOException {
+      final int size = readSize(in);
+      final Map<Object, Object> map = factory.apply(initialCapacity(size));
+      for (int i = 0; i < size; ++i) {
+        map.put(in.readObject(), in.readObject());
+      }
+      return map;
+    }
+  }
+
+  private static final class MediaTypeCodec implements BinaryCodec<MediaType> {
+
+    @Override
+    public void write(MediaType value, BinaryOutput out) {
+      out.writeString(value.toRfcString());
+      out.writeBoolean(value.isDefinedInApp());
+    }
+
+    @Override
+    public MediaType read(BinaryInput in) throws IOException {
+      final String rfcString = in.readString();
+      return in.readBoolean() ? parseDefinedInApp(rfcString) : parse(rfcString);
+    }
+  }
+
+  /**
+   * Writes the {@link DataType} constants as an index, and the rest through their type and media type, so that they can be
+   * rebuilt with a {@link DataType#builder()}. The ones that can't be rebuilt that way, such as collections of collections or
+   * functions, are written with Java serialization.
+   */
+  private static final class DataTypeCodec implements BinaryCodec<DataType> {
+
+    private static final byte CONSTANT = 0;
+    private static final byte SIMPLE = 1;
+    private static final byte COLLECTION = 2;
+    private static final byte STREAM = 3;
+    private static final byte MAP = 4;
+    private static final byte SERIALIZED = 5;
+
+    // new constants must be appended, since their position is written
+    private static final DataType[] CONSTANTS = {DataType.STRING, DataType.NUMBER, DataType.BOOLEAN, DataType.OBJECT,
+        DataType.BYTE_ARRAY, DataType.INPUT_STREAM, DataType.ITERATOR, DataType.CURSOR_STREAM_PROVIDER,
+        DataType.CURSOR_ITERATOR_PROVIDER, DataType.TYPED_VALUE, DataType.MULE_MESSAGE, DataType.MULE_MESSAGE_COLLECTION,
+        DataType.MULE_MESSAGE_LIST, DataType.MULE_MESSAGE_MAP, DataType.MULTI_MAP_STRING_STRING, DataType.TEXT_STRING,
+        DataType.XML_STRING, DataType.JSON_STRING, DataType.HTML_STRING, DataType.ATOM_STRING, DataType.RSS_STRING};
+
+    private static final Map<DataType, Integer> CONSTANT_INDEXES = new IdentityHashMap<>();
+
+    static {
+      for (int i = 0; i < CONSTANTS.length; ++i) {
+        CONSTANT_INDEXES.put(CONSTANTS[i], i);
+      }
+    }
+
+    @Override
+    public void write(DataType value, BinaryOutput out) throws IOException {
+      final Integer constantIndex = CONSTANT_INDEXES.get(value);
+      if (constantIndex != null) {
+        out.writeByte(CONSTANT);
+        out.writeInt(constantIndex);
+      } else if (value instanceof MapDataType && isRebuildable((MapDataType) value)) {
+        final MapDataType mapDataType = (MapDataType) value;
+        out.writeByte(MAP);
+        writeTypeAndMediaType(value, out);
+        writeTypeAndMediaType(mapDataType.getKeyDataType(), out);
+        writeTypeAndMediaType(mapDataType.getValueDataType(), out);
+      } else if (value instanceof CollectionDataType && isRebuildable((CollectionDataType) value)) {
+        out.writeByte(Iterator.class.isAssignableFrom(value.getType()) ? STREAM : COLLECTION);
+        writeTypeAndMediaType(value, out);
+        writeTypeAndMediaType(((CollectionDataType) value).getItemDataType(), out);
+      } else if (isSimple(value)) {
+        out.writeByte(SIMPLE);
+        writeTypeAndMediaType(value, out);
+      } else {
+        out.writeByte(SERIALIZED);
+        out.writeBytes(javaSerialize(value));
+      }
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public DataType read(BinaryInput in) throws IOException {
+      final byte kind = in.readByte();
+      switch (kind) {
+        case CONSTANT:
+          final int index = in.readInt();
+          if (index < 0 || index >= CONSTANTS.length) {
+            throw new StreamCorruptedException("Unknown DataType constant " + index);
+          }
+          return CONSTANTS[index];
+        case SIMPLE:
+          return DataType.builder().type(in.loadClass(in.readString())).mediaType(in.<MediaType>readObject()).build();
+        case COLLECTION:
+        case STREAM:
+          final Class type = in.loadClass(in.readString());
+          final MediaType mediaType = in.readObject();
+          final Class<?> itemType = in.loadClass(in.readString());
+          final MediaType itemMediaType = in.readObject();
+          return (kind == STREAM ? DataType.builder().streamType(type) : DataType.builder().collectionType(type))
+              .itemType(itemType).itemMediaType(itemMediaType).mediaType(mediaType).build();
+        case MAP:
+          final Class mapType = in.loadClass(in.readString());
+          final MediaType mapMediaType = in.readObject();
+          final Class<?> keyType = in.loadClass(in.readString());
+          final MediaType keyMediaType = in.readObject();
+          final Class<?> valueType = in.loadClass(in.readString());
+          final MediaType valueMediaType = in.readObject();
+          return DataType.builder().mapType(mapType).keyType(keyType).keyMediaType(keyMediaType).valueType(valueType)
+              .valueMediaType(valueMediaType).mediaType(mapMediaType).build();
+        case SERIALIZED:
+          return (DataType) javaDeserialize(in.readBytes(), in.getClassLoader());
+        default:
+          throw new StreamCorruptedException("Unknown DataType kind " + kind);
+      }
+    }
+
+    private static void writeTypeAndMediaType(DataType dataType, BinaryOutput out) throws IOException {
+      out.writeString(dataType.getType().getName());
+      out.writeObject(dataType.getMediaType());
+    }
+
+    private static boolean isRebuildable(MapDataType dataType) {
+      return Map.class.isAssignableFrom(dataType.getType()) && isSimple(dataType.getKeyDataType())
+          && isSimple(dataType.getValueDataType());
+    }
+
+    private static boolean isRebuildable(CollectionDataType dataType) {
+      return (Collection.class.isAssignableFrom(dataType.getType()) || Iterator.class.isAssignableFrom(dataType.getType()))
+          && isSimple(dataType.getItemDataType());
+    }
+
+    /**
+     * Whether the builder would rebuild the given data type from its type and media type only.
+     */
+    private static boolean isSimple(DataType dataType) {
+      final Class<?> type = dataType.getType();
+      return !(dataType instanceof CollectionDataType || dataType instanceof MapDataType || dataType instanceof FunctionDataType)
+          && !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type)
+          && !Iterator.class.isAssignableFrom(type);
+    }
+  }
+
+  private static final class TypedValueCodec implements BinaryCodec<TypedValue<Object>> {
+
+    @Override
+    public void write(TypedValue<Object> value, BinaryOutput out) throws IOException {
+      out.writeObject(value.getValue());
+      out.writeObject(value.getDataType());
+      out.writeLong(value.getByteLength().orElse(-1));
+    }
+
+    @Override
+    public TypedValue<Object> read(BinaryInput in) throws IOException {
+      final Object value = in.readObject();
+      final DataType dataType = in.readObject();
+      final long byteLength = in.readLong();
+      return new TypedValue<>(value, dataType, byteLength >= 0 ? OptionalLong.of(byteLength) : OptionalLong.empty());
+    }
+  }
+
+  private static final class ItemSequenceInfoCodec implements BinaryCodec<ItemSequenceInfo> {
+
+    @Override
+    public void write(ItemSequenceInfo value, BinaryOutput out) {
+      out.writeInt(value.getPosition());
+      final OptionalInt sequenceSize = value.getSequenceSize();
+      out.writeInt(sequenceSize.isPresent() ? sequenceSize.getAsInt() : -1);
+    }
+
+    @Override
+    public ItemSequenceInfo read(BinaryInput in) throws IOException {
+      final int position = in.readInt();
+      final int sequenceSize = in.readInt();
+      return sequenceSize >= 0 ? ItemSequenceInfo.of(position, sequenceSize) : ItemSequenceInfo.of(position);
+    }
+  }
+
+  private static void writeMultiMap(MultiMap<Object, Object> value, BinaryOutput out) throws IOException {
+    out.writeInt(value.keySet().size());
+    for (Object key : value.keySet()) {
+      final List<Object> values = value.getAll(key);
+      out.writeObject(key);
+      out.writeInt(values.size());
+      for (Object item : values) {
+        out.writeObject(item);
+      }
+    }
+  }
+
+  private static <M extends MultiMap<Object, Object>> M readMultiMap(M multiMap, BinaryInput in) throws IOException {
+    final int keys = readSize(in);
+    for (int i = 0; i < keys; ++i) {
+      final Object key = in.readObject();
+      final int size = readSize(in);
+      final List<Object> values = new ArrayList<>(initialCapacity(size));
+      for (int j = 0; j < size; ++j) {
+        values.add(in.readObject());
+      }
+      multiMap.put(key, values);
+    }
+    return multiMap;
+  }
+
+  private static final class MultiMapCodec implements BinaryCodec<MultiMap<Object, Object>> {
+
+    @SuppressWarnings("rawtypes")
+    private final Supplier<MultiMap> factory;
+
+    @SuppressWarnings("rawtypes")
+    private MultiMapCodec(Supplier<MultiMap> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public void write(MultiMap<Object, Object> value, BinaryOutput out) throws IOException {
+      writeMultiMap(value, out);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MultiMap<Object, Object> read(BinaryInput in) throws IOException {
+      return readMultiMap(factory.get(), in);
+    }
+  }
+
+  /**
+   * Codec for the subtypes of a {@link MultiMap} type without a codec of their own. The immutable variants built by
+   * {@link MultiMap#toImmutableMultiMap()} are written as their entries, and any other subtype with Java serialization.
+   */
+  private static final class ImmutableMultiMapCodec implements BinaryCodec<MultiMap<Object, Object>> {
+
+    private static final byte IMMUTABLE = 0;
+    private static final byte SERIALIZED = 1;
+
+    @SuppressWarnings("rawtypes")
+    private final Supplier<MultiMap> factory;
+
+    @SuppressWarnings("rawtypes")
+    private ImmutableMultiMapCodec(Supplier<MultiMap> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public void write(MultiMap<Object, Object> value, BinaryOutput out) throws IOException {
+      // immutable instances return themselves, subclasses declared elsewhere may not be rebuilt from their entries
+      if (value.getClass().getDeclaringClass() == MultiMap.class && value.toImmutableMultiMap() == value) {
+        out.writeByte(IMMUTABLE);
+        writeMultiMap(value, out);
+      } else {
+        out.writeByte(SERIALIZED);
+        out.writeBytes(javaSerialize(value));
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MultiMap<Object, Object> read(BinaryInput in) throws IOException {
+      final byte kind = in.readByte();
+      switch (kind) {
+        case IMMUTABLE:
+          return readMultiMap((MultiMap<Object, Object>) factory.get(), in).toImmutableMultiMap();
+        case SERIALIZED:
+          return (MultiMap<Object, Object>) javaDeserialize(in.readBytes(), in.getClassLoader());
+        default:
+          throw new StreamCorruptedException("Unknown MultiMap kind " + kind);
+      }
+    }
+  }
+
+  /**
+   * Codec for the final {@link MultiMap} implementations, whose immutable variants are instances of the same class. Whether the
+   * instance is immutable is written before its entries.
+   */
+  private static final class FinalMultiMapCodec implements BinaryCodec<MultiMap<Object, Object>> {
+
+    @SuppressWarnings("rawtypes")
+    private final Supplier<MultiMap> factory;
+
+    @SuppressWarnings("rawtypes")
+    private FinalMultiMapCodec(Supplier<MultiMap> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public void write(MultiMap<Object, Object> value, BinaryOutput out) throws IOException {
+      // immutable instances return themselves
+      out.writeBoolean(value.toImmutableMultiMap() == value);
+      writeMultiMap(value, out);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MultiMap<Object, Object> read(BinaryInput in) throws IOException {
+      final boolean immutable = in.readBoolean();
+      final MultiMap<Object, Object> multiMap = readMultiMap((MultiMap<Object, Object>) factory.get(), in);
+      return immutable ? multiMap.toImmutableMultiMap() : multiMap;
+    }
+  }
+}
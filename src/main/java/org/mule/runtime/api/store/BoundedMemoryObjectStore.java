@@ -0,0 +1,314 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.store;
+
+import static java.lang.Math.max;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+
+import org.mule.runtime.api.time.TimeSupplier;
+
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory {@link ExpirableObjectStore} which enforces the {@link ObjectStoreSettings#getEntryTTL() entryTTL},
+ * {@link ObjectStoreSettings#getMaxEntries() maxEntries} and {@link ObjectStoreSettings#getExpirationInterval()
+ * expirationInterval} of the {@link ObjectStoreSettings} it was created with.
+ * <p>
+ * Since every entry shares the same TTL, insertion order is also expiration order. Entries are tracked in a FIFO queue and
+ * expiration only ever looks at its head, so each entry is evicted in amortized constant time instead of scanning the whole store.
+ * Eviction is driven by writes rather than by a timer: a write evicts the expired entries at most once per
+ * {@code expirationInterval}, and whenever it makes the store exceed {@code maxEntries}, in which case the oldest entries are
+ * evicted first. Writes skip eviction if another thread is already evicting. {@link #expire(long, int)} evicts right away.
+ * <p>
+ * Entries whose TTL has elapsed are never visible to readers, even if they were not yet evicted. Under concurrent writes the store
+ * may briefly hold more than {@code maxEntries} entries until the next eviction pass.
+ * <p>
+ * Unlike what {@link ExpirableObjectStore#expire(long, int)} suggests, expiring does not block other operations on this store.
+ *
+ * @param <T> the generic type of the objects to be stored
+ * @since 1.10
+ */
+public class BoundedMemoryObjectStore<T extends Serializable> extends TemplateObjectStore<T> implements ExpirableObjectStore<T> {
+
+  private static final int MIN_COMPACTION_THRESHOLD = 64;
+
+  private final Map<String, StoredEntry<T>> entries = new ConcurrentHashMap<>();
+  private final Queue<StoredEntry<T>> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger staleNodes = new AtomicInteger();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final long entryTTL;
+  private final int maxEntries;
+  private final long expirationInterval;
+  private final LongSupplier timeSupplier;
+
+  private volatile long nextExpiration;
+
+  /**
+   * Creates a new store bounded by the given {@code settings}.
+   *
+   * @param settings the settings which boundaries are to be enforced
+   */
+  public BoundedMemoryObjectStore(ObjectStoreSettings settings) {
+    this(settings, System::currentTimeMillis);
+  }
+
+  /**
+   * Creates a new store bounded by the given {@code settings}.
+   *
+   * @param settings     the settings which boundaries are to be enforced
+   * @param timeSupplier the supplier of the timestamps to associate with the stored entries
+   */
+  public BoundedMemoryObjectStore(ObjectStoreSettings settings, TimeSupplier timeSupplier) {
+    this(settings, (LongSupplier) timeSupplier);
+  }
+
+  private BoundedMemoryObjectStore(ObjectStoreSettings settings, LongSupplier timeSupplier) {
+    this.entryTTL = settings.getEntryTTL().orElse(0L);
+    this.maxEntries = settings.getMaxEntries().orElse(0);
+    this.expirationInterval = settings.getExpirationInterval();
+    this.timeSupplier = timeSupplier;
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return false;
+  }
+
+  @Override
+  protected boolean doContains(String key) throws ObjectStoreException {
+    return liveEntry(key, timeSupplier.getAsLong()) != null;
+  }
+
+  @Override
+  protected void doStore(String key, T value) throws ObjectStoreException {
+    if (!doStoreIfAbsent(key, value)) {
+      throw new ObjectAlreadyExistsException(createStaticMessage("ObjectStore already contains entry for key " + key));
+    }
+  }
+
+  @Override
+  protected boolean doStoreIfAbsent(String key, T value) throws ObjectStoreException {
+    if (value == null) {
+      throw new ObjectStoreException(createStaticMessage("The required object/property \"value\" is null"));
+    }
+
+    final long now = timeSupplier.getAsLong();
+    final StoredEntry<T> entry = new StoredEntry<>(key, value, now);
+
+    StoredEntry<T> existing = entries.putIfAbsent(key, entry);
+    while (existing != null) {
+      if (!isExpired(existing, now, entryTTL)) {
+        return false;
+      }
+      if (entries.replace(key, existing, entry)) {
+        staleNodes.incrementAndGet();
+        break;
+      }
+      existing = entries.putIfAbsent(key, entry);
+    }
+
+    insertionOrder.offer(entry);
+
+    if (needsEviction(now) && evictionLock.tryLock()) {
+      try {
+        evict(now, entryTTL, maxEntries);
+        nextExpiration = now + expirationInterval;
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  protected T doRetrieve(String key) throws ObjectStoreException {
+    return doRetrieveIfPresent(key);
+  }
+
+  @Override
+  protected T doRetrieveIfPresent(String key) throws ObjectStoreException {
+    final StoredEntry<T> entry = liveEntry(key, timeSupplier.getAsLong());
+    return entry != null ? entry.value : null;
+  }
+
+  @Override
+  protected T doRemove(String key) throws ObjectStoreException {
+    return doRemoveIfPresent(key);
+  }
+
+  @Override
+  protected T doRemoveIfPresent(String key) throws ObjectStoreException {
+    final StoredEntry<T> entry = entries.remove(key);
+    if (entry == null) {
+      return null;
+    }
+
+    staleNodes.incrementAndGet();
+    return isExpired(entry, timeSupplier.getAsLong(), entryTTL) ? null : entry.value;
+  }
+
+  @Override
+  public void expire(long entryTTL, int maxEntries) throws ObjectStoreException {
+    evictionLock.lock();
+    try {
+      evict(timeSupplier.getAsLong(), entryTTL, maxEntries);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    evictionLock.lock();
+    try {
+      entries.clear();
+      insertionOrder.clear();
+      staleNodes.set(0);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Map<String, T> retrieveAll() throws ObjectStoreException {
+    final long now = timeSupplier.getAsLong();
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (StoredEntry<T> entry : entries.values()) {
+      if (!isExpired(entry, now, entryTTL)) {
+        result.put(entry.key, entry.value);
+      }
+    }
+
+    return unmodifiableMap(result);
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    final long now = timeSupplier.getAsLong();
+    final List<String> keys = new ArrayList<>(entries.size());
+    for (StoredEntry<T> entry : entries.values()) {
+      if (!isExpired(entry, now, entryTTL)) {
+        keys.add(entry.key);
+      }
+    }
+
+    return unmodifiableList(keys);
+  }
+
+  @Override
+  public Stream<String> streamKeys() throws ObjectStoreException {
+    return liveEntries().map(entry -> entry.key);
+  }
+
+  @Override
+  public Stream<Map.Entry<String, T>> streamEntries() throws ObjectStoreException {
+    return liveEntries().map(entry -> new SimpleImmutableEntry<>(entry.key, entry.value));
+  }
+
+  private Stream<StoredEntry<T>> liveEntries() {
+    final long now = timeSupplier.getAsLong();
+    return entries.values().stream().filter(entry -> !isExpired(entry, now, entryTTL));
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    // this is a no-op
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    // this is a no-op
+  }
+
+  private StoredEntry<T> liveEntry(String key, long now) {
+    final StoredEntry<T> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+
+    if (isExpired(entry, now, entryTTL)) {
+      if (entries.remove(key, entry)) {
+        staleNodes.incrementAndGet();
+      }
+      return null;
+    }
+
+    return entry;
+  }
+
+  /**
+   * Whether a write at {@code now} has to go through {@link #evict(long, long, int)}: once per {@code expirationInterval}, or
+   * earlier if the {@code maxEntries} boundary is exceeded or the queue holds too many nodes of removed entries.
+   */
+  private boolean needsEviction(long now) {
+    return now >= nextExpiration
+        || (maxEntries > 0 && entries.size() > maxEntries)
+        || staleNodes.get() > max(entries.size(), MIN_COMPACTION_THRESHOLD);
+  }
+
+  /**
+   * Evicts entries from the head of the insertion queue until it reaches one that is neither expired nor exceeding the
+   * {@code maxEntries} boundary. Must be invoked holding the {@link #evictionLock}.
+   */
+  private void evict(long now, long entryTTL, int maxEntries) {
+    StoredEntry<T> head;
+    while ((head = insertionOrder.peek()) != null) {
+      if (entries.get(head.key) != head) {
+        // removed or replaced after it was queued
+        insertionOrder.poll();
+        staleNodes.decrementAndGet();
+      } else if (isExpired(head, now, entryTTL) || (maxEntries > 0 && entries.size() > maxEntries)) {
+        insertionOrder.poll();
+        if (!entries.remove(head.key, head)) {
+          staleNodes.decrementAndGet();
+        }
+      } else {
+        break;
+      }
+    }
+
+    // Entries removed explicitly leave a node behind in the queue. Purge those once they outnumber the live ones so that
+    // store/remove churn does not grow the queue while a long lived entry sits at its head.
+    if (staleNodes.get() > max(entries.size(), MIN_COMPACTION_THRESHOLD)) {
+      insertionOrder.removeIf(node -> entries.get(node.key) != node);
+      staleNodes.set(0);
+    }
+  }
+
+  private static boolean isExpired(StoredEntry<?> entry, long now, long entryTTL) {
+    return entryTTL > 0 && now - entry.timestamp >= entryTTL;
+  }
+
+  private static final class StoredEntry<T> {
+
+    private final String key;
+    private final T value;
+    private final long timestamp;
+
+    private StoredEntry(String key, T value, long timestamp) {
+      this.key = key;
+      this.value = value;
+      this.timestamp = timestamp;
+    }
+  }
+}
@@ -7,8 +7,11 @@
 package org.mule.runtime.api.store;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * A generic object key value store
@@ -103,4 +106,135 @@ public interface ObjectStore<T extends Serializable> {
    * @throws ObjectStoreException if an exception occurred while collecting the values
    */
   Map<String, T> retrieveAll() throws ObjectStoreException;
+
+  /**
+   * Stores all the given entries.
+   * <p>
+   * This operation is not guaranteed to be atomic: if it fails, entries processed before the failure may have been stored.
+   * Implementations are encouraged to override the default implementation, which invokes {@link #store(String, Serializable)}
+   * once per entry, with one that performs fewer round trips to the underlying storage.
+   *
+   * @param entries the key-value pairs to store
+   * @throws ObjectStoreException         if any of the keys is invalid or any entry could not be stored
+   * @throws ObjectAlreadyExistsException if the store already has a value for any of the given keys
+   * @since 1.10
+   */
+  default void storeAll(Map<String, ? extends T> entries) throws ObjectStoreException {
+    for (Map.Entry<String, ? extends T> entry : entries.entrySet()) {
+      store(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Retrieves the objects stored under the given {@code keys}. Keys for which no value is stored are not part of the result.
+   * <p>
+   * Implementations are encouraged to override the default implementation, which invokes {@link #retrieve(String)} once per key,
+   * with one that performs fewer round trips to the underlying storage.
+   *
+   * @param keys the identifiers of the objects to retrieve
+   * @return the key-value pairs held for the given {@code keys}
+   * @throws ObjectStoreException if any of the keys is invalid or the values could not be retrieved
+   * @since 1.10
+   */
+  default Map<String, T> retrieveAll(Collection<String> keys) throws ObjectStoreException {
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      try {
+        result.put(key, retrieve(key));
+      } catch (ObjectDoesNotExistException e) {
+        // not part of the result
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes the objects stored under the given {@code keys}. Keys for which no value is stored are ignored.
+   * <p>
+   * This operation is not guaranteed to be atomic: if it fails, entries processed before the failure may have been removed.
+   * Implementations are encouraged to override the default implementation, which invokes {@link #remove(String)} once per key,
+   * with one that performs fewer round trips to the underlying storage.
+   *
+   * @param keys the identifiers of the objects to remove
+   * @return the key-value pairs that were removed
+   * @throws ObjectStoreException if any of the keys is invalid or the values could not be removed
+   * @since 1.10
+   */
+  default Map<String, T> removeAll(Collection<String> keys) throws ObjectStoreException {
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      try {
+        result.put(key, remove(key));
+      } catch (ObjectDoesNotExistException e) {
+        // not part of the result
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether this store contains a value for every one of the given {@code keys}
+   * <p>
+   * Implementations are encouraged to override the default implementation, which invokes {@link #contains(String)} once per key,
+   * with one that performs fewer round trips to the underlying storage.
+   *
+   * @param keys the identifiers of the objects to check
+   * @return {@code true} if all the {@code keys} are stored, {@code false} otherwise
+   * @throws ObjectStoreException if any of the keys is invalid or the store is not available
+   * @since 1.10
+   */
+  default boolean containsAll(Collection<String> keys) throws ObjectStoreException {
+    for (String key : keys) {
+      if (!contains(key)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Provides the keys this store currently holds values for as a lazily populated {@link Stream}, allowing to traverse them
+   * without materializing all of them at once.
+   * <p>
+   * The returned stream is not required to reflect modifications done to the store after its creation. It should be closed once
+   * consumed, since implementations may hold resources of the underlying storage until then.
+   * <p>
+   * Implementations are encouraged to override the default implementation, which relies on {@link #allKeys()}.
+   *
+   * @return a {@link Stream} with the keys of this store
+   * @throws ObjectStoreException if an exception occurred while obtaining the keys
+   * @since 1.10
+   */
+  default Stream<String> streamKeys() throws ObjectStoreException {
+    return allKeys().stream();
+  }
+
+  /**
+   * Same as {@link #streamKeys()}, but only provides the keys that start with the given {@code prefix}.
+   *
+   * @param prefix the prefix the keys must start with
+   * @return a {@link Stream} with the matching keys of this store
+   * @throws ObjectStoreException if an exception occurred while obtaining the keys
+   * @since 1.10
+   */
+  default Stream<String> streamKeysStartingWith(String prefix) throws ObjectStoreException {
+    return streamKeys().filter(key -> key.startsWith(prefix));
+  }
+
+  /**
+   * Provides the key-value pairs this store currently holds as a lazily populated {@link Stream}, allowing to traverse them
+   * without materializing all of them at once. The provided entries don't support {@link Map.Entry#setValue(Object)}.
+   * <p>
+   * The returned stream is not required to reflect modifications done to the store after its creation. It should be closed once
+   * consumed, since implementations may hold resources of the underlying storage until then.
+   * <p>
+   * Implementations are encouraged to override the default implementation, which relies on {@link #retrieveAll()}.
+   *
+   * @return a {@link Stream} with the entries of this store
+   * @throws ObjectStoreException if an exception occurred while obtaining the entries
+   * @since 1.10
+   */
+  default Stream<Map.Entry<String, T>> streamEntries() throws ObjectStoreException {
+    return retrieveAll().entrySet().stream();
+  }
 }
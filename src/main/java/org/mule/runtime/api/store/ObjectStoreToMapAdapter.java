@@ -6,14 +6,16 @@
  */
 package org.mule.runtime.api.store;
 
+import static java.util.stream.Collectors.toCollection;
+
 import org.mule.runtime.api.exception.MuleRuntimeException;
 
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Adapts the object store interface to a map interface so the client doesn't have to deal with all the ObjectStoreExceptions
@@ -40,8 +42,8 @@ public abstract class ObjectStoreToMapAdapter<T extends Serializable> implements
 
   @Override
   public int size() {
-    try {
-      return getObjectStore().allKeys().size();
+    try (Stream<String> keys = getObjectStore().streamKeys()) {
+      return (int) keys.count();
     } catch (ObjectStoreException e) {
       throw new MuleRuntimeException(e);
     }
@@ -49,8 +51,8 @@ public abstract class ObjectStoreToMapAdapter<T extends Serializable> implements
 
   @Override
   public boolean isEmpty() {
-    try {
-      return getObjectStore().allKeys().isEmpty();
+    try (Stream<String> keys = getObjectStore().streamKeys()) {
+      return !keys.findAny().isPresent();
     } catch (ObjectStoreException e) {
       throw new MuleRuntimeException(e);
     }
@@ -73,10 +75,12 @@ public abstract class ObjectStoreToMapAdapter<T extends Serializable> implements
   @Override
   public T get(Object key) {
     try {
-      if (!getObjectStore().contains((String) key)) {
+      final ObjectStore<T> objectStore = getObjectStore();
+      // checking first is cheaper than building the exception thrown on a miss
+      if (!objectStore.contains((String) key)) {
         return null;
       }
-      return getObjectStore().retrieve((String) key);
+      return objectStore.retrieve((String) key);
     } catch (ObjectDoesNotExistException e) {
       // Object could be removed concurrently.
       return null;
@@ -87,21 +91,14 @@ public abstract class ObjectStoreToMapAdapter<T extends Serializable> implements
 
   @Override
   public T put(String key, T value) {
-    T previousValue = null;
+    T previousValue = removeIfPresent(key);
     try {
-      if (getObjectStore().contains(key)) {
-        previousValue = getObjectStore().retrieve(key);
-        getObjectStore().remove(key);
-      }
       if (value != null) {
         getObjectStore().store(key, value);
       }
       return previousValue;
-    } catch (ObjectDoesNotExistException | ObjectAlreadyExistsException e) {
-      // We should ignore these exceptions here, because an object could be:
-      // * Removed concurrently between contains and retrieve.
-      // * Removed between contains and remove.
-      // * Added between contains and store.
+    } catch (ObjectAlreadyExistsException e) {
+      // We should ignore this exception here, because an object could be added concurrently between remove and store.
       return null;
     } catch (ObjectStoreException e) {
       throw new MuleRuntimeException(e);
@@ -110,17 +107,22 @@ public abstract class ObjectStoreToMapAdapter<T extends Serializable> implements
 
   @Override
   public T remove(Object key) {
+    return removeIfPresent((String) key);
+  }
+
+  private T removeIfPresent(String key) {
     try {
-      if (getObjectStore().contains((String) key)) {
-        return getObjectStore().remove((String) key);
+      final ObjectStore<T> objectStore = getObjectStore();
+      if (!objectStore.contains(key)) {
+        return null;
       }
+      return objectStore.remove(key);
     } catch (ObjectDoesNotExistException e) {
       // Object could be removed concurrently.
       return null;
     } catch (ObjectStoreException e) {
       throw new MuleRuntimeException(e);
     }
-    return null;
   }
 
   @Override
@@ -141,9 +143,8 @@ public abstract class ObjectStoreToMapAdapter<T extends Serializable> implements
 
   @Override
   public Set<String> keySet() {
-    try {
-      final List<String> allKeys = getObjectStore().allKeys();
-      return new HashSet(allKeys);
+    try (Stream<String> keys = getObjectStore().streamKeys()) {
+      return keys.collect(toCollection(HashSet::new));
     } catch (ObjectStoreException e) {
       throw new MuleRuntimeException(e);
     }
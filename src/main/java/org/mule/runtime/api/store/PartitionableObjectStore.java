@@ -7,8 +7,11 @@
 package org.mule.runtime.api.store;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * An {@link ObjectStore} which has native support for partitioning. All the methods inherited from the {@link ObjectStore}
@@ -126,4 +129,128 @@ public interface PartitionableObjectStore<T extends Serializable> extends Object
    * @throws ObjectStoreException if an exception occurred while clearing the partition
    */
   void clear(String partitionName) throws ObjectStoreException;
+
+  /**
+   * Stores all the given entries in the given {@code partitionName}.
+   * <p>
+   * This operation is not guaranteed to be atomic: if it fails, entries processed before the failure may have been stored.
+   *
+   * @param entries       the key-value pairs to store
+   * @param partitionName the partition in which the values are to be stored
+   * @throws ObjectStoreException         if any of the keys is invalid or any entry could not be stored
+   * @throws ObjectAlreadyExistsException if the partition already has a value for any of the given keys
+   * @see ObjectStore#storeAll(Map)
+   * @since 1.10
+   */
+  default void storeAll(Map<String, ? extends T> entries, String partitionName) throws ObjectStoreException {
+    for (Map.Entry<String, ? extends T> entry : entries.entrySet()) {
+      store(entry.getKey(), entry.getValue(), partitionName);
+    }
+  }
+
+  /**
+   * Retrieves the objects stored under the given {@code keys} in the given {@code partitionName}. Keys for which no value is
+   * stored are not part of the result.
+   *
+   * @param keys          the identifiers of the objects to retrieve
+   * @param partitionName the partition from which the values are to be retrieved
+   * @return the key-value pairs held for the given {@code keys}
+   * @throws ObjectStoreException if any of the keys is invalid or the values could not be retrieved
+   * @see ObjectStore#retrieveAll(Collection)
+   * @since 1.10
+   */
+  default Map<String, T> retrieveAll(Collection<String> keys, String partitionName) throws ObjectStoreException {
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      try {
+        result.put(key, retrieve(key, partitionName));
+      } catch (ObjectDoesNotExistException e) {
+        // not part of the result
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes the objects stored under the given {@code keys} in the given {@code partitionName}. Keys for which no value is stored
+   * are ignored.
+   * <p>
+   * This operation is not guaranteed to be atomic: if it fails, entries processed before the failure may have been removed.
+   *
+   * @param keys          the identifiers of the objects to remove
+   * @param partitionName the partition from which the values are to be removed
+   * @return the key-value pairs that were removed
+   * @throws ObjectStoreException if any of the keys is invalid or the values could not be removed
+   * @see ObjectStore#removeAll(Collection)
+   * @since 1.10
+   */
+  default Map<String, T> removeAll(Collection<String> keys, String partitionName) throws ObjectStoreException {
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      try {
+        result.put(key, remove(key, partitionName));
+      } catch (ObjectDoesNotExistException e) {
+        // not part of the result
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether the given {@code partitionName} contains a value for every one of the given {@code keys}
+   *
+   * @param keys          the identifiers of the objects to check
+   * @param partitionName the partition in which the keys are to be tested
+   * @return {@code true} if all the {@code keys} are stored, {@code false} otherwise
+   * @throws ObjectStoreException if any of the keys is invalid or the store is not available
+   * @see ObjectStore#containsAll(Collection)
+   * @since 1.10
+   */
+  default boolean containsAll(Collection<String> keys, String partitionName) throws ObjectStoreException {
+    for (String key : keys) {
+      if (!contains(key, partitionName)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Provides the keys the {@code partitionName} currently holds values for as a lazily populated {@link Stream}.
+   *
+   * @param partitionName the partition which keys are to be provided
+   * @return a {@link Stream} with the keys of the partition
+   * @throws ObjectStoreException if an exception occurred while obtaining the keys
+   * @see ObjectStore#streamKeys()
+   * @since 1.10
+   */
+  default Stream<String> streamKeys(String partitionName) throws ObjectStoreException {
+    return allKeys(partitionName).stream();
+  }
+
+  /**
+   * Same as {@link #streamKeys(String)}, but only provides the keys that start with the given {@code prefix}.
+   *
+   * @param prefix        the prefix the keys must start with
+   * @param partitionName the partition which keys are to be provided
+   * @return a {@link Stream} with the matching keys of the partition
+   * @throws ObjectStoreException if an exception occurred while obtaining the keys
+   * @since 1.10
+   */
+  default Stream<String> streamKeysStartingWith(String prefix, String partitionName) throws ObjectStoreException {
+    return streamKeys(partitionName).filter(key -> key.startsWith(prefix));
+  }
+
+  /**
+   * Provides the key-value pairs the {@code partitionName} currently holds as a lazily populated {@link Stream}.
+   *
+   * @param partitionName the partition which entries are to be provided
+   * @return a {@link Stream} with the entries of the partition
+   * @throws ObjectStoreException if an exception occurred while obtaining the entries
+   * @see ObjectStore#streamEntries()
+   * @since 1.10
+   */
+  default Stream<Map.Entry<String, T>> streamEntries(String partitionName) throws ObjectStoreException {
+    return retrieveAll(partitionName).entrySet().stream();
+  }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.store;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Stream.empty;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+
+import org.mule.runtime.api.time.TimeSupplier;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory {@link PartitionableExpirableObjectStore} in which each partition is a {@link BoundedMemoryObjectStore} enforcing
+ * the {@link ObjectStoreSettings} this store was created with.
+ * <p>
+ * Operations which don't specify a partition are performed over the {@link #DEFAULT_PARTITION_NAME default partition}.
+ *
+ * @param <T> the generic type of the objects to be stored
+ * @since 1.10
+ */
+public class PartitionedBoundedMemoryObjectStore<T extends Serializable> extends AbstractObjectStoreSupport<T>
+    implements PartitionableExpirableObjectStore<T> {
+
+  private final Map<String, BoundedMemoryObjectStore<T>> partitions = new ConcurrentHashMap<>();
+  private final Function<String, BoundedMemoryObjectStore<T>> partitionFactory;
+
+  /**
+   * Creates a new store which partitions are bounded by the given {@code settings}.
+   *
+   * @param settings the settings which boundaries are to be enforced on each partition
+   */
+  public PartitionedBoundedMemoryObjectStore(ObjectStoreSettings settings) {
+    partitionFactory = name -> new BoundedMemoryObjectStore<>(settings);
+  }
+
+  /**
+   * Creates a new store which partitions are bounded by the given {@code settings}.
+   *
+   * @param settings     the settings which boundaries are to be enforced on each partition
+   * @param timeSupplier the supplier of the timestamps to associate with the stored entries
+   */
+  public PartitionedBoundedMemoryObjectStore(ObjectStoreSettings settings, TimeSupplier timeSupplier) {
+    partitionFactory = name -> new BoundedMemoryObjectStore<>(settings, timeSupplier);
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return false;
+  }
+
+  @Override
+  public boolean contains(String key) throws ObjectStoreException {
+    return contains(key, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public boolean contains(String key, String partitionName) throws ObjectStoreException {
+    validateKey(key);
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    return partition != null && partition.contains(key);
+  }
+
+  @Override
+  public void store(String key, T value) throws ObjectStoreException {
+    store(key, value, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public void store(String key, T value, String partitionName) throws ObjectStoreException {
+    partitions.computeIfAbsent(partitionName, partitionFactory).store(key, value);
+  }
+
+  @Override
+  public T retrieve(String key) throws ObjectStoreException {
+    return retrieve(key, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public T retrieve(String key, String partitionName) throws ObjectStoreException {
+    return existingPartition(key, partitionName).retrieve(key);
+  }
+
+  @Override
+  public T remove(String key) throws ObjectStoreException {
+    return remove(key, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public T remove(String key, String partitionName) throws ObjectStoreException {
+    return existingPartition(key, partitionName).remove(key);
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    return allKeys(DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public List<String> allKeys(String partitionName) throws ObjectStoreException {
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    return partition != null ? partition.allKeys() : emptyList();
+  }
+
+  @Override
+  public Stream<String> streamKeys() throws ObjectStoreException {
+    return streamKeys(DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public Stream<String> streamKeys(String partitionName) throws ObjectStoreException {
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    return partition != null ? partition.streamKeys() : empty();
+  }
+
+  @Override
+  public Stream<Map.Entry<String, T>> streamEntries() throws ObjectStoreException {
+    return streamEntries(DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public Stream<Map.Entry<String, T>> streamEntries(String partitionName) throws ObjectStoreException {
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    return partition != null ? partition.streamEntries() : empty();
+  }
+
+  @Override
+  public Map<String, T> retrieveAll() throws ObjectStoreException {
+    return retrieveAll(DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public Map<String, T> retrieveAll(String partitionName) throws ObjectStoreException {
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    return partition != null ? partition.retrieveAll() : emptyMap();
+  }
+
+  @Override
+  public void storeAll(Map<String, ? extends T> entries) throws ObjectStoreException {
+    storeAll(entries, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public void storeAll(Map<String, ? extends T> entries, String partitionName) throws ObjectStoreException {
+    partitions.computeIfAbsent(partitionName, partitionFactory).storeAll(entries);
+  }
+
+  @Override
+  public Map<String, T> retrieveAll(Collection<String> keys) throws ObjectStoreException {
+    return retrieveAll(keys, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public Map<String, T> retrieveAll(Collection<String> keys, String partitionName) throws ObjectStoreException {
+    for (String key : keys) {
+      validateKey(key);
+    }
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    return partition != null ? partition.retrieveAll(keys) : emptyMap();
+  }
+
+  @Override
+  public Map<String, T> removeAll(Collection<String> keys) throws ObjectStoreException {
+    return removeAll(keys, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public Map<String, T> removeAll(Collection<String> keys, String partitionName) throws ObjectStoreException {
+    for (String key : keys) {
+      validateKey(key);
+    }
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    return partition != null ? partition.removeAll(keys) : emptyMap();
+  }
+
+  @Override
+  public boolean containsAll(Collection<String> keys) throws ObjectStoreException {
+    return containsAll(keys, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public boolean containsAll(Collection<String> keys, String partitionName) throws ObjectStoreException {
+    for (String key : keys) {
+      validateKey(key);
+    }
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    return partition != null ? partition.containsAll(keys) : keys.isEmpty();
+  }
+
+  @Override
+  public List<String> allPartitions() throws ObjectStoreException {
+    return new ArrayList<>(partitions.keySet());
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    clear(DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public void clear(String partitionName) throws ObjectStoreException {
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    if (partition != null) {
+      partition.clear();
+    }
+  }
+
+  @Override
+  public void expire(long entryTTL, int maxEntries) throws ObjectStoreException {
+    expire(entryTTL, maxEntries, DEFAULT_PARTITION_NAME);
+  }
+
+  @Override
+  public void expire(long entryTTL, int maxEntries, String partitionName) throws ObjectStoreException {
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    if (partition != null) {
+      partition.expire(entryTTL, maxEntries);
+    }
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    // this is a no-op
+  }
+
+  @Override
+  public void open(String partitionName) throws ObjectStoreException {
+    partitions.computeIfAbsent(partitionName, partitionFactory);
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    // this is a no-op
+  }
+
+  @Override
+  public void close(String partitionName) throws ObjectStoreException {
+    // this is a no-op
+  }
+
+  @Override
+  public void disposePartition(String partitionName) throws ObjectStoreException {
+    final BoundedMemoryObjectStore<T> partition = partitions.remove(partitionName);
+    if (partition != null) {
+      partition.clear();
+    }
+  }
+
+  private BoundedMemoryObjectStore<T> existingPartition(String key, String partitionName) throws ObjectStoreException {
+    validateKey(key);
+    final BoundedMemoryObjectStore<T> partition = partitions.get(partitionName);
+    if (partition == null) {
+      throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+    }
+
+    return partition;
+  }
+}
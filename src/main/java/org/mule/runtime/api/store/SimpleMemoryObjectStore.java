@@ -10,10 +10,14 @@ import static java.util.Collections.unmodifiableMap;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 
 import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 public class SimpleMemoryObjectStore<T extends Serializable> extends TemplateObjectStore<T> implements ObjectStore<T> {
 
@@ -31,11 +35,20 @@ public class SimpleMemoryObjectStore<T extends Serializable> extends TemplateObj
 
   @Override
   protected void doStore(String key, T value) throws ObjectStoreException {
+    validateValue(value);
+    map.put(key, value);
+  }
+
+  @Override
+  protected boolean doStoreIfAbsent(String key, T value) throws ObjectStoreException {
+    validateValue(value);
+    return map.putIfAbsent(key, value) == null;
+  }
+
+  private void validateValue(T value) throws ObjectStoreException {
     if (value == null) {
       throw new ObjectStoreException(createStaticMessage("The required object/property \"value\" is null"));
     }
-
-    map.put(key, value);
   }
 
   @Override
@@ -43,6 +56,11 @@ public class SimpleMemoryObjectStore<T extends Serializable> extends TemplateObj
     return map.get(key);
   }
 
+  @Override
+  protected T doRetrieveIfPresent(String key) throws ObjectStoreException {
+    return map.get(key);
+  }
+
   @Override
   public void clear() throws ObjectStoreException {
     this.map.clear();
@@ -53,6 +71,54 @@ public class SimpleMemoryObjectStore<T extends Serializable> extends TemplateObj
     return map.remove(key);
   }
 
+  @Override
+  protected T doRemoveIfPresent(String key) {
+    return map.remove(key);
+  }
+
+  @Override
+  protected void doStoreAll(Map<String, ? extends T> entries) throws ObjectStoreException {
+    for (T value : entries.values()) {
+      validateValue(value);
+    }
+
+    for (Map.Entry<String, ? extends T> entry : entries.entrySet()) {
+      if (map.putIfAbsent(entry.getKey(), entry.getValue()) != null) {
+        throw new ObjectAlreadyExistsException(createStaticMessage("ObjectStore already contains entry for key "
+            + entry.getKey()));
+      }
+    }
+  }
+
+  @Override
+  protected Map<String, T> doRetrieveAll(Collection<String> keys) throws ObjectStoreException {
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      T value = map.get(key);
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  protected Map<String, T> doRemoveAll(Collection<String> keys) throws ObjectStoreException {
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      T value = map.remove(key);
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  protected boolean doContainsAll(Collection<String> keys) throws ObjectStoreException {
+    return map.keySet().containsAll(keys);
+  }
+
   @Override
   public Map<String, T> retrieveAll() throws ObjectStoreException {
     return unmodifiableMap(map);
@@ -72,4 +138,14 @@ public class SimpleMemoryObjectStore<T extends Serializable> extends TemplateObj
   public List<String> allKeys() throws ObjectStoreException {
     return new ArrayList<>(map.keySet());
   }
+
+  @Override
+  public Stream<String> streamKeys() throws ObjectStoreException {
+    return map.keySet().stream();
+  }
+
+  @Override
+  public Stream<Map.Entry<String, T>> streamEntries() throws ObjectStoreException {
+    return map.entrySet().stream().map(SimpleImmutableEntry::new);
+  }
 }
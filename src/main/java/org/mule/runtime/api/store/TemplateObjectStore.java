@@ -9,6 +9,9 @@ package org.mule.runtime.api.store;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Template for {@link ObjectStore} implementations so that it's easier to conform to the contract.
@@ -42,10 +45,9 @@ public abstract class TemplateObjectStore<T extends Serializable> extends Abstra
   public void store(String key, T value) throws ObjectStoreException {
     validateKey(key);
 
-    if (contains(key)) {
+    if (!doStoreIfAbsent(key, value)) {
       throw new ObjectAlreadyExistsException(createStaticMessage("ObjectStore already contains entry for key " + key));
     }
-    doStore(key, value);
   }
 
   /**
@@ -54,13 +56,42 @@ public abstract class TemplateObjectStore<T extends Serializable> extends Abstra
    */
   protected abstract void doStore(String key, T value) throws ObjectStoreException;
 
+  /**
+   * Atomic template method for {@link #store(String, Serializable)}. Implement this method assuming that the {@code key} is
+   * already valid.
+   * <p>
+   * The default implementation checks for the key through {@link #contains(String)} and then delegates into
+   * {@link #doStore(String, Serializable)}. Implementations able to perform a conditional write in a single operation against
+   * their backend should override this method, which also prevents concurrent writers from overwriting each other.
+   *
+   * @param key   the identifier for {@code value}
+   * @param value the object to store
+   * @return {@code true} if the value was stored, {@code false} if the store already contained an entry for the {@code key}
+   * @throws ObjectStoreException if the value could not be stored
+   * @since 1.10
+   */
+  protected boolean doStoreIfAbsent(String key, T value) throws ObjectStoreException {
+    if (contains(key)) {
+      return false;
+    }
+
+    doStore(key, value);
+    return true;
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public T retrieve(String key) throws ObjectStoreException {
-    validatePresentKey(key);
-    return doRetrieve(key);
+    validateKey(key);
+
+    T value = doRetrieveIfPresent(key);
+    if (value == null) {
+      throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+    }
+
+    return value;
   }
 
   /**
@@ -69,13 +100,34 @@ public abstract class TemplateObjectStore<T extends Serializable> extends Abstra
    */
   protected abstract T doRetrieve(String key) throws ObjectStoreException;
 
+  /**
+   * Atomic template method for {@link #retrieve(String)}. Implement this method assuming that the {@code key} is already valid.
+   * <p>
+   * The default implementation checks for the key through {@link #contains(String)} and then delegates into
+   * {@link #doRetrieve(String)}. Implementations able to fetch a value and learn whether it exists in a single operation against
+   * their backend should override this method.
+   *
+   * @param key the identifier of the object to retrieve
+   * @return the stored value, or {@code null} if the store has no entry for the {@code key}
+   * @throws ObjectStoreException if the value could not be retrieved
+   * @since 1.10
+   */
+  protected T doRetrieveIfPresent(String key) throws ObjectStoreException {
+    if (!contains(key)) {
+      return null;
+    }
+
+    return doRetrieve(key);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public T remove(String key) throws ObjectStoreException {
-    validatePresentKey(key);
-    T value = doRemove(key);
+    validateKey(key);
+
+    T value = doRemoveIfPresent(key);
     if (value == null) {
       throw new ObjectDoesNotExistException(createStaticMessage("Object store does not contain a value for key " + key));
     }
@@ -88,4 +140,152 @@ public abstract class TemplateObjectStore<T extends Serializable> extends Abstra
    * that {@link #contains(String)} has already been invoked to verify that the key actually exists in this store. {@inheritDoc}
    */
   protected abstract T doRemove(String key) throws ObjectStoreException;
+
+  /**
+   * Atomic template method for {@link #remove(String)}. Implement this method assuming that the {@code key} is already valid.
+   * <p>
+   * The default implementation checks for the key through {@link #contains(String)} and then delegates into
+   * {@link #doRemove(String)}. Implementations able to perform a conditional delete in a single operation against their backend
+   * should override this method.
+   *
+   * @param key the identifier of the object to remove
+   * @return the removed value, or {@code null} if the store has no entry for the {@code key}
+   * @throws ObjectStoreException if the value could not be removed
+   * @since 1.10
+   */
+  protected T doRemoveIfPresent(String key) throws ObjectStoreException {
+    if (!contains(key)) {
+      return null;
+    }
+
+    return doRemove(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void storeAll(Map<String, ? extends T> entries) throws ObjectStoreException {
+    for (String key : entries.keySet()) {
+      validateKey(key);
+    }
+
+    doStoreAll(entries);
+  }
+
+  /**
+   * Template method for {@link #storeAll(Map)}. Implement this method assuming that all the keys are already valid.
+   * <p>
+   * The default implementation invokes {@link #doStoreIfAbsent(String, Serializable)} once per entry.
+   *
+   * @param entries the key-value pairs to store
+   * @throws ObjectAlreadyExistsException if the store already has a value for any of the given keys
+   * @throws ObjectStoreException         if the entries could not be stored
+   * @since 1.10
+   */
+  protected void doStoreAll(Map<String, ? extends T> entries) throws ObjectStoreException {
+    for (Map.Entry<String, ? extends T> entry : entries.entrySet()) {
+      if (!doStoreIfAbsent(entry.getKey(), entry.getValue())) {
+        throw new ObjectAlreadyExistsException(createStaticMessage("ObjectStore already contains entry for key "
+            + entry.getKey()));
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Map<String, T> retrieveAll(Collection<String> keys) throws ObjectStoreException {
+    for (String key : keys) {
+      validateKey(key);
+    }
+
+    return doRetrieveAll(keys);
+  }
+
+  /**
+   * Template method for {@link #retrieveAll(Collection)}. Implement this method assuming that all the keys are already valid.
+   * <p>
+   * The default implementation invokes {@link #doRetrieveIfPresent(String)} once per key.
+   *
+   * @param keys the identifiers of the objects to retrieve
+   * @return the key-value pairs held for the given {@code keys}
+   * @throws ObjectStoreException if the values could not be retrieved
+   * @since 1.10
+   */
+  protected Map<String, T> doRetrieveAll(Collection<String> keys) throws ObjectStoreException {
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      T value = doRetrieveIfPresent(key);
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Map<String, T> removeAll(Collection<String> keys) throws ObjectStoreException {
+    for (String key : keys) {
+      validateKey(key);
+    }
+
+    return doRemoveAll(keys);
+  }
+
+  /**
+   * Template method for {@link #removeAll(Collection)}. Implement this method assuming that all the keys are already valid.
+   * <p>
+   * The default implementation invokes {@link #doRemoveIfPresent(String)} once per key.
+   *
+   * @param keys the identifiers of the objects to remove
+   * @return the key-value pairs that were removed
+   * @throws ObjectStoreException if the values could not be removed
+   * @since 1.10
+   */
+  protected Map<String, T> doRemoveAll(Collection<String> keys) throws ObjectStoreException {
+    final Map<String, T> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      T value = doRemoveIfPresent(key);
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean containsAll(Collection<String> keys) throws ObjectStoreException {
+    for (String key : keys) {
+      validateKey(key);
+    }
+
+    return doContainsAll(keys);
+  }
+
+  /**
+   * Template method for {@link #containsAll(Collection)}. Implement this method assuming that all the keys are already valid.
+   * <p>
+   * The default implementation invokes {@link #doContains(String)} once per key.
+   *
+   * @param keys the identifiers of the objects to check
+   * @return {@code true} if all the {@code keys} are stored, {@code false} otherwise
+   * @throws ObjectStoreException if the store is not available
+   * @since 1.10
+   */
+  protected boolean doContainsAll(Collection<String> keys) throws ObjectStoreException {
+    for (String key : keys) {
+      if (!doContains(key)) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -6,17 +6,84 @@
  */
 package org.mule.runtime.api.streaming.bytes;
 
+import static java.lang.Math.min;
+
 import org.mule.api.annotation.NoExtend;
 import org.mule.runtime.api.streaming.Cursor;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * An {@link InputStream} which subscribes to the {@link Cursor} contract
+ * <p>
+ * Besides the {@link InputStream} methods, the content can be read into a {@link ByteBuffer} or written to a
+ * {@link WritableByteChannel}. The implementations provided here go through the {@link InputStream} methods, but implementations
+ * backed by {@link ByteBuffer buffers} are expected to override them to avoid intermediate copies.
  *
  * @since 1.0
  */
 @NoExtend
 public abstract class CursorStream extends InputStream implements Cursor {
 
+  private static final int TRANSFER_BUFFER_SIZE = 8 * 1024;
+
+  /**
+   * Reads bytes from this stream into the given buffer, as in {@link ReadableByteChannel#read(ByteBuffer)}.
+   * <p>
+   * An attempt is made to read up to {@code dst.remaining()} bytes, advancing the position of both this cursor and {@code dst} by
+   * the amount of bytes actually read.
+   *
+   * @param dst the buffer into which bytes are to be transferred
+   * @return the number of bytes read, possibly zero if {@code dst} has no remaining space, or {@code -1} if the end of the stream
+   *         has been reached
+   * @throws IOException if an I/O error occurs
+   * @since 1.10
+   */
+  public int read(ByteBuffer dst) throws IOException {
+    if (!dst.hasRemaining()) {
+      return 0;
+    }
+
+    if (dst.hasArray()) {
+      final int read = read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+      if (read > 0) {
+        dst.position(dst.position() + read);
+      }
+      return read;
+    }
+
+    final byte[] chunk = new byte[min(dst.remaining(), TRANSFER_BUFFER_SIZE)];
+    final int read = read(chunk, 0, chunk.length);
+    if (read > 0) {
+      dst.put(chunk, 0, read);
+    }
+    return read;
+  }
+
+  /**
+   * Writes all the remaining bytes of this stream, from the current position, into the given {@code target}.
+   * <p>
+   * The position of this cursor is at the end of the stream after this method returns. The {@code target} is not closed.
+   *
+   * @param target the channel to write the bytes to
+   * @return the number of bytes written
+   * @throws IOException if an I/O error occurs when reading from this stream or writing to {@code target}
+   * @since 1.10
+   */
+  public long transferTo(WritableByteChannel target) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(TRANSFER_BUFFER_SIZE);
+    long transferred = 0;
+    while (read(buffer) != -1) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        transferred += target.write(buffer);
+      }
+      buffer.clear();
+    }
+    return transferred;
+  }
 }
@@ -9,6 +9,9 @@ package org.mule.runtime.api.streaming.bytes;
 import org.mule.api.annotation.NoImplement;
 import org.mule.runtime.api.streaming.CursorProvider;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * Specialization of {@link CursorProvider} which yields instances of {@link CursorStream}
  *
@@ -19,4 +22,22 @@ import org.mule.runtime.api.streaming.CursorProvider;
 @NoImplement
 public interface CursorStreamProvider extends CursorProvider<CursorStream> {
 
+  /**
+   * Writes the whole content of the wrapped stream into the given {@code target}, through a new {@link CursorStream} that is
+   * closed before returning.
+   * <p>
+   * The {@code target} is not closed.
+   *
+   * @param target the channel to write the bytes to
+   * @return the number of bytes written
+   * @throws IOException           if an I/O error occurs when reading the stream or writing to {@code target}
+   * @throws IllegalStateException if invoked after the {@link #close()} method has been invoked
+   * @see CursorStream#transferTo(WritableByteChannel)
+   * @since 1.10
+   */
+  default long transferTo(WritableByteChannel target) throws IOException {
+    try (CursorStream cursor = openCursor()) {
+      return cursor.transferTo(target);
+    }
+  }
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.streaming.bytes;
+
+import static java.lang.Math.min;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+
+import org.slf4j.Logger;
+
+/**
+ * A repeatable {@link InputStream} over the contents of an immutable file that already exists in the local file system, which
+ * reads the file through memory mapped regions instead of copying its contents through the heap.
+ * <p>
+ * Unlike {@link ImmutableFileRepeatableInputStream}, the whole content of the file is always available to this stream, so it
+ * supports going back and forth in it through {@link #seek(long)} and {@link #mark(int)}/{@link #reset()}, without reopening
+ * the file. Also, any region of the file can be obtained as a {@link ByteBuffer} through {@link #asByteBuffer(long, int)}, so it
+ * can be written to a channel without any intermediate copy.
+ * <p>
+ * Files larger than the maximum size of a {@link MappedByteBuffer} are supported. They are mapped one region at a time as they
+ * are read.
+ * <p>
+ * The same immutability preconditions as in {@link ImmutableFileRepeatableInputStream} apply to this class: no other process or
+ * thread may modify the file while it is in use by an instance of this class. Failing to meet this condition will result in
+ * dirty reads and content corruption, or in errors when the file is truncated.
+ * <p>
+ * Instances are not thread safe and this stream is not auto closeable. {@link #close()} method needs to be invoked explicitly.
+ * Keep in mind that, depending on the operating system, the file may not be deleted on {@link #close()} when {@code autoDelete}
+ * is set until the memory mapped regions are garbage collected.
+ *
+ * @since 1.10
+ */
+public final class MappedFileRepeatableInputStream extends InputStream {
+
+  private static final Logger LOGGER = getLogger(MappedFileRepeatableInputStream.class);
+
+  private static final long MAX_REGION_SIZE = 1L << 30;
+
+  private final File file;
+  private final boolean autoDelete;
+  private final FileChannel channel;
+  private final long length;
+
+  private MappedByteBuffer region;
+  private long regionStart;
+  private long position;
+  private long mark;
+  private boolean closed;
+
+  /**
+   * Creates a new instance
+   *
+   * @param file       the File that contains the stream's contents
+   * @param autoDelete if {@code true}, the file will be deleted when {@link #close()} is invoked.
+   * @throws IllegalArgumentException if the file cannot be found
+   * @throws IOException              if the file cannot be opened
+   */
+  public MappedFileRepeatableInputStream(File file, boolean autoDelete) throws IOException {
+    checkArgument(file != null, "File cannot be null");
+    final FileChannel channel;
+    try {
+      channel = FileChannel.open(file.toPath(), READ);
+    } catch (NoSuchFileException e) {
+      throw new IllegalArgumentException("File " + file.getAbsolutePath() + " does not exists",
+                                         new FileNotFoundException(e.getMessage()));
+    }
+    try {
+      this.length = channel.size();
+    } catch (IOException e) {
+      try {
+        channel.close();
+      } catch (IOException closeException) {
+        e.addSuppressed(closeException);
+      }
+      throw e;
+    }
+    this.channel = channel;
+    this.file = file;
+    this.autoDelete = autoDelete;
+  }
+
+  /**
+   * @return The {@link File} backing this stream
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * @return Whether the file will be deleted upon {@link #close()} or not.
+   */
+  public boolean isAutoDelete() {
+    return autoDelete;
+  }
+
+  /**
+   * @return the amount of bytes in the file backing this stream
+   */
+  public long length() {
+    return length;
+  }
+
+  /**
+   * @return the position in the file of the next byte to read
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * Updates the position in the file of the next byte to read. Positions past the end of the file are allowed, after which there
+   * will be no more bytes to read.
+   *
+   * @param position the new position
+   * @throws IOException if this stream is closed
+   */
+  public void seek(long position) throws IOException {
+    checkArgument(position >= 0, () -> "position cannot be negative, was " + position);
+    checkOpen();
+    this.position = position;
+  }
+
+  /**
+   * Returns a read only {@link ByteBuffer} with the given region of the file, mapped into memory. The returned buffer is
+   * independent of this stream: reading from it does not change the position of this stream and it remains valid after this
+   * stream is closed.
+   *
+   * @param position the position in the file where the region starts
+   * @param size     the size of the region. Must not go past the end of the file.
+   * @return a memory mapped {@link ByteBuffer} for the region
+   * @throws IOException if this stream is closed or the region could not be mapped
+   */
+  public ByteBuffer asByteBuffer(long position, int size) throws IOException {
+    checkArgument(position >= 0 && size >= 0 && position + size <= length,
+                  () -> "region [" + position + ", " + (position + size) + ") is not within the file length " + length);
+    checkOpen();
+    return channel.map(READ_ONLY, position, size).asReadOnlyBuffer();
+  }
+
+  @Override
+  public int read() throws IOException {
+    checkOpen();
+    if (position >= length) {
+      return -1;
+    }
+    return mapRegionFor(position).get((int) (position++ - regionStart)) & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    checkOpen();
+    if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (position >= length) {
+      return -1;
+    }
+
+    int read = 0;
+    while (read < len && position < length) {
+      final ByteBuffer current = mapRegionFor(position).duplicate();
+      current.position((int) (position - regionStart));
+      final int count = min(len - read, current.remaining());
+      current.get(b, off + read, count);
+      read += count;
+      position += count;
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    checkOpen();
+    if (n <= 0 || position >= length) {
+      return 0;
+    }
+    final long skipped = min(n, length - position);
+    position += skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    checkOpen();
+    return position >= length ? 0 : (int) min(length - position, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Marks the current position in this stream. Since the whole file is always available, {@code readlimit} is ignored.
+   */
+  @Override
+  public void mark(int readlimit) {
+    mark = position;
+  }
+
+  /**
+   * Goes back to the position of the last {@link #mark(int)}, or to the start of the file if it was never invoked.
+   */
+  @Override
+  public void reset() throws IOException {
+    checkOpen();
+    position = mark;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    // the mapped region is only unmapped once garbage collected, drop it so that it doesn't outlive this stream
+    region = null;
+    channel.close();
+    if (autoDelete && !file.delete() && file.exists()) {
+      LOGGER.warn("Could not delete file {} on close, it may still be memory mapped", file.getAbsolutePath());
+    }
+  }
+
+  private ByteBuffer mapRegionFor(long position) throws IOException {
+    if (region == null || position < regionStart || position >= regionStart + region.capacity()) {
+      regionStart = position - position % MAX_REGION_SIZE;
+      region = channel.map(READ_ONLY, regionStart, min(MAX_REGION_SIZE, length - regionStart));
+    }
+    return region;
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+}
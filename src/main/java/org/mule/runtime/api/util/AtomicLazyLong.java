@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.util;
+
+import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
+import static org.mule.runtime.api.util.LazyInitializationMode.COMPUTE_ONCE;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Provides a native long which may be lazily computed, as {@link LazyLong} does, but without synchronizing on the instance.
+ * <p>
+ * Once the value has been computed, {@link #getAsLong()} is a single volatile read plus a plain read. How concurrent requests for
+ * the value are handled before that depends on the {@link LazyInitializationMode} of the instance.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @since 1.10
+ */
+public class AtomicLazyLong implements LongSupplier {
+
+  private static final int UNSET = 0;
+  private static final int SET = 1;
+
+  private static final AtomicReferenceFieldUpdater<AtomicLazyLong, Long> PUBLISHED =
+      newUpdater(AtomicLazyLong.class, Long.class, "published");
+
+  private volatile int state = UNSET;
+  private long value;
+  // boxed so the threads racing to compute the value agree on a single one with a single CAS, and then copied to value
+  private volatile Long published;
+  private volatile LongSupplier valueSupplier;
+  private final Lock lock;
+
+  /**
+   * Creates a new instance which lazily obtains its value from the given {@code supplier}. It is guaranteed that
+   * {@link LongSupplier#getAsLong()} will only be invoked once. Because this class is thread-safe, the supplier is not required
+   * to be.
+   *
+   * @param supplier A {@link LongSupplier} through which the value is obtained
+   */
+  public AtomicLazyLong(LongSupplier supplier) {
+    this(supplier, COMPUTE_ONCE);
+  }
+
+  /**
+   * Creates a new instance which lazily obtains its value from the given {@code supplier}.
+   *
+   * @param supplier A {@link LongSupplier} through which the value is obtained
+   * @param mode     how concurrent requests for the value are handled before it is computed
+   */
+  public AtomicLazyLong(LongSupplier supplier, LazyInitializationMode mode) {
+    checkArgument(supplier != null, "supplier cannot be null");
+    checkArgument(mode != null, "mode cannot be null");
+    this.valueSupplier = supplier;
+    this.lock = mode == COMPUTE_ONCE ? new ReentrantLock() : null;
+  }
+
+  /**
+   * Creates a new instance which is already initialised with the given {@code value}.
+   *
+   * @param value the initialization value
+   */
+  public AtomicLazyLong(long value) {
+    this.value = value;
+    this.state = SET;
+    this.lock = null;
+  }
+
+  /**
+   * Returns the lazy value. If the value has not yet been computed, then it does so
+   *
+   * @return the lazy value
+   */
+  @Override
+  public long getAsLong() {
+    if (state == SET) {
+      return value;
+    }
+    return lock == null ? computeRacy() : computeOnce();
+  }
+
+  private long computeOnce() {
+    lock.lock();
+    try {
+      if (state != SET) {
+        value = valueSupplier.getAsLong();
+        state = SET;
+        // This is needed so the GC may collect all objects referenced by this supplier, eventually.
+        valueSupplier = null;
+      }
+      return value;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long computeRacy() {
+    final LongSupplier supplier = valueSupplier;
+    if (supplier != null && PUBLISHED.compareAndSet(this, null, supplier.getAsLong())) {
+      value = published;
+      state = SET;
+      valueSupplier = null;
+    }
+    // the supplier is only cleared after the value is published
+    return published;
+  }
+
+  /**
+   * @return Whether the value has already been calculated.
+   */
+  public boolean isComputed() {
+    return state == SET || published != null;
+  }
+
+  /**
+   * If the value has already been computed, if passes it to the given {@code consumer}.
+   *
+   * @param consumer a {@link LongConsumer}
+   */
+  public void ifComputed(LongConsumer consumer) {
+    if (state == SET) {
+      consumer.accept(value);
+      return;
+    }
+    final Long computed = published;
+    if (computed != null) {
+      consumer.accept(computed);
+    }
+  }
+
+  /**
+   * Applies the given {@code function} through the output of {@link #getAsLong()}.
+   *
+   * If the value has not already been computed, this method will trigger computation. This method is thread-safe.
+   *
+   * @param function a transformation function
+   * @param <R>      the generic type of the function's output
+   * @return a transformed value
+   */
+  public <R> R flatMap(Function<Long, R> function) {
+    return function.apply(getAsLong());
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.util;
+
+import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
+import static org.mule.runtime.api.util.LazyInitializationMode.COMPUTE_ONCE;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Provides a value which may be lazily computed, as {@link LazyValue} does, but without synchronizing on the instance.
+ * <p>
+ * Once the value has been computed, {@link #get()} is a single volatile read. How concurrent requests for the value are handled
+ * before that depends on the {@link LazyInitializationMode} of the instance.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <T> the generic type of the provided value
+ * @since 1.10
+ */
+public class AtomicLazyValue<T> implements Supplier<T> {
+
+  private static final Object UNSET = new Object();
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<AtomicLazyValue, Object> VALUE =
+      newUpdater(AtomicLazyValue.class, Object.class, "value");
+
+  private volatile Object value = UNSET;
+  private volatile Supplier<T> valueSupplier;
+  private final Lock lock;
+
+  /**
+   * Creates a new instance which lazily obtains its value from the given {@code supplier}. It is guaranteed that
+   * {@link Supplier#get()} will only be invoked once. Because this class is thread-safe, the supplier is not required to be.
+   *
+   * @param supplier A {@link Supplier} through which the value is obtained
+   */
+  public AtomicLazyValue(Supplier<T> supplier) {
+    this(supplier, COMPUTE_ONCE);
+  }
+
+  /**
+   * Creates a new instance which lazily obtains its value from the given {@code supplier}.
+   *
+   * @param supplier A {@link Supplier} through which the value is obtained
+   * @param mode     how concurrent requests for the value are handled before it is computed
+   */
+  public AtomicLazyValue(Supplier<T> supplier, LazyInitializationMode mode) {
+    checkArgument(supplier != null, "supplier cannot be null");
+    checkArgument(mode != null, "mode cannot be null");
+    this.valueSupplier = supplier;
+    this.lock = mode == COMPUTE_ONCE ? new ReentrantLock() : null;
+  }
+
+  /**
+   * Creates a new instance which is already initialised with the given {@code value}.
+   *
+   * @param value the initialization value
+   */
+  public AtomicLazyValue(T value) {
+    this.value = value;
+    this.lock = null;
+  }
+
+  /**
+   * Returns the lazy value. If the value has not yet been computed, then it does so
+   *
+   * @return the lazy value
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get() {
+    final Object current = value;
+    if (current != UNSET) {
+      return (T) current;
+    }
+    return lock == null ? computeRacy() : computeOnce();
+  }
+
+  @SuppressWarnings("unchecked")
+  private T computeOnce() {
+    lock.lock();
+    try {
+      Object current = value;
+      if (current == UNSET) {
+        current = valueSupplier.get();
+        value = current;
+        // This is needed so the GC may collect all objects referenced by this supplier, eventually.
+        valueSupplier = null;
+      }
+      return (T) current;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private T computeRacy() {
+    final Supplier<T> supplier = valueSupplier;
+    if (supplier == null) {
+      // the supplier is only cleared after the value is published
+      return (T) value;
+    }
+
+    final T computed = supplier.get();
+    if (VALUE.compareAndSet(this, UNSET, computed)) {
+      valueSupplier = null;
+      return computed;
+    }
+    return (T) value;
+  }
+
+  /**
+   * @return Whether the value has already been calculated.
+   */
+  public boolean isComputed() {
+    return value != UNSET;
+  }
+
+  /**
+   * If the value has already been computed, if passes it to the given {@code consumer}.
+   *
+   * @param consumer a {@link Consumer}
+   */
+  @SuppressWarnings("unchecked")
+  public void ifComputed(Consumer<T> consumer) {
+    final Object current = value;
+    if (current != UNSET) {
+      consumer.accept((T) current);
+    }
+  }
+
+  /**
+   * Applies the given {@code function} through the output of {@link #get()}.
+   *
+   * If the value has not already been computed, this method will trigger computation. This method is thread-safe.
+   *
+   * @param function a transformation function
+   * @param <R>      the generic type of the function's output
+   * @return a transformed value
+   */
+  public <R> R flatMap(Function<T, R> function) {
+    return function.apply(get());
+  }
+}
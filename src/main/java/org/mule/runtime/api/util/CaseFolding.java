@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.util;
+
+import static java.lang.Character.toLowerCase;
+import static java.lang.Character.toUpperCase;
+
+/**
+ * Case insensitive hashing and comparison of {@link String}s, without creating case converted copies of them.
+ * <p>
+ * ASCII chars are folded without going through the {@link Character} case conversion tables. For ASCII strings,
+ * {@link #foldedHashCode(String)} is the same as the {@link String#hashCode() hashCode} of the lower case version of the string.
+ *
+ * @since 1.10
+ */
+final class CaseFolding {
+
+  private CaseFolding() {}
+
+  /**
+   * Calculates a hash for the given {@code string} that is the same for any other {@link String} that is
+   * {@link #foldedEquals(String, String) equal} to it.
+   */
+  static int foldedHashCode(String string) {
+    int hash = 0;
+    for (int i = 0; i < string.length(); ++i) {
+      hash = 31 * hash + fold(string.charAt(i));
+    }
+    return hash;
+  }
+
+  /**
+   * Same as {@link String#equalsIgnoreCase(String)}, but consistent with {@link #foldedHashCode(String)} for every char.
+   */
+  static boolean foldedEquals(String a, String b) {
+    if (a == b) {
+      return true;
+    }
+    if (a.length() != b.length()) {
+      return false;
+    }
+    for (int i = 0; i < a.length(); ++i) {
+      final char ca = a.charAt(i);
+      final char cb = b.charAt(i);
+      if (ca != cb && fold(ca) != fold(cb)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static char fold(char c) {
+    if (c < 0x80) {
+      return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+    return toLowerCase(toUpperCase(c));
+  }
+}
@@ -6,12 +6,17 @@
  */
 package org.mule.runtime.api.util;
 
+import static com.github.benmanes.caffeine.cache.Caffeine.newBuilder;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
+import static org.mule.runtime.api.util.CaseFolding.foldedEquals;
+import static org.mule.runtime.api.util.CaseFolding.foldedHashCode;
 import static org.mule.runtime.api.util.Preconditions.checkArgument;
 
 import org.mule.runtime.api.util.collection.SmallMap;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
@@ -20,9 +25,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 /**
  * Represents a Map from String to {@link T} where the key's case is not taken into account when looking for it, but remembered
@@ -44,6 +49,13 @@ public class CaseInsensitiveMapWrapper<T> extends AbstractMap<String, T> impleme
 
   private static final long serialVersionUID = 8534959274607933747L;
 
+  private static final int KEY_CACHE_SIZE = 1024;
+  private static final Cache<String, CaseInsensitiveMapKey> KEY_CACHE = newBuilder()
+      .maximumSize(KEY_CACHE_SIZE)
+      .executor(Runnable::run)
+      .recordStats()
+      .build();
+
   protected final Map<CaseInsensitiveMapKey, T> baseMap;
 
   /**
@@ -147,43 +159,43 @@ public class CaseInsensitiveMapWrapper<T> extends AbstractMap<String, T> impleme
     return new EntrySet<>(baseMap.entrySet());
   }
 
+  /**
+   * Provides the statistics of the cache of keys shared by all the instances of this class.
+   * <p>
+   * The cache has a bounded size. When it is full, keys that are looked up more frequently are kept over the rest.
+   *
+   * @return a snapshot of the current statistics of the cache.
+   * @since 1.10
+   */
+  public static KeyCacheStatistics getKeyCacheStatistics() {
+    final CacheStats stats = KEY_CACHE.stats();
+    return new KeyCacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                                  (int) KEY_CACHE.estimatedSize());
+  }
+
   protected static class CaseInsensitiveMapKey implements Serializable {
 
     private static final long serialVersionUID = -4964071931663826261L;
 
-    private static final ConcurrentMap<Object, CaseInsensitiveMapKey> cache = new ConcurrentHashMap<>();
-    private static final AtomicBoolean usingCache = new AtomicBoolean(true);
-    private static final int MAX_CACHE_SIZE = 1000;
     private static final int MAX_KEY_SIZE = 100;
 
     private final String key;
-    private final String keyLowerCase;
+    // Only calculated on demand, hashing and comparing don't need it
+    private String keyLowerCase;
     private final int keyHash;
 
     public static CaseInsensitiveMapKey keyFor(Object key) {
-      if (!usingCache.get() || key.toString().length() > MAX_KEY_SIZE) {
-        return new CaseInsensitiveMapKey(key);
-      }
-
-      CaseInsensitiveMapKey value = cache.get(key);
-      if (value == null) {
-        value = cache.computeIfAbsent(key, CaseInsensitiveMapKey::new);
-
-        // we do the size check only if the value was not present and needed to be computed
-        // being this a ConcurrentHashMap, getting the size is not as cheap as it looks
-        if (cache.size() > MAX_CACHE_SIZE) {
-          usingCache.set(false);
-          cache.clear();
-        }
+      final String keyString = key.toString();
+      if (keyString.length() > MAX_KEY_SIZE) {
+        return new CaseInsensitiveMapKey(keyString);
       }
 
-      return value;
+      return KEY_CACHE.get(keyString, CaseInsensitiveMapKey::new);
     }
 
-    private CaseInsensitiveMapKey(Object key) {
-      this.key = key.toString();
-      keyLowerCase = this.key.toLowerCase();
-      keyHash = keyLowerCase.hashCode();
+    private CaseInsensitiveMapKey(String key) {
+      this.key = key;
+      keyHash = foldedHashCode(key);
     }
 
     public String getKey() {
@@ -191,6 +203,9 @@ public class CaseInsensitiveMapWrapper<T> extends AbstractMap<String, T> impleme
     }
 
     public String getKeyLowerCase() {
+      if (keyLowerCase == null) {
+        keyLowerCase = key.toLowerCase();
+      }
       return keyLowerCase;
     }
 
@@ -204,11 +219,83 @@ public class CaseInsensitiveMapWrapper<T> extends AbstractMap<String, T> impleme
       if (obj == this) {
         return true;
       }
-      return (obj instanceof CaseInsensitiveMapKey) && keyLowerCase.equals(((CaseInsensitiveMapKey) obj).keyLowerCase);
+      return (obj instanceof CaseInsensitiveMapKey) && foldedEquals(key, ((CaseInsensitiveMapKey) obj).key);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      // keep the serialized form readable by previous versions
+      getKeyLowerCase();
+      out.defaultWriteObject();
+    }
+
+    private Object readResolve() {
+      // the hash from the serialized form may have been calculated differently
+      return keyFor(key);
     }
   }
 
 
+  /**
+   * Snapshot of the statistics of the cache of keys shared by all the {@link CaseInsensitiveMapWrapper} instances.
+   *
+   * @since 1.10
+   */
+  public static final class KeyCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+
+    private KeyCacheStatistics(long hits, long misses, long evictions, int size) {
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+      this.size = size;
+    }
+
+    /**
+     * @return how many times a key was found in the cache.
+     */
+    public long getHits() {
+      return hits;
+    }
+
+    /**
+     * @return how many times a key was not found in the cache and had to be created.
+     */
+    public long getMisses() {
+      return misses;
+    }
+
+    /**
+     * @return how many keys were removed from the cache to make room for more frequently used ones.
+     */
+    public long getEvictions() {
+      return evictions;
+    }
+
+    /**
+     * @return the amount of keys currently in the cache.
+     */
+    public int getSize() {
+      return size;
+    }
+
+    /**
+     * @return the ratio of lookups that were found in the cache, or {@code 0} if there were no lookups.
+     */
+    public double getHitRatio() {
+      final long lookups = hits + misses;
+      return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+      return "KeyCacheStatistics{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size + "}";
+    }
+  }
+
   private static class KeySet extends AbstractConverterSet<CaseInsensitiveMapKey, String> {
 
     public KeySet(Set<CaseInsensitiveMapKey> keys) {
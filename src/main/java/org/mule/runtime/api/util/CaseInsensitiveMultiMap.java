@@ -0,0 +1,518 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.util;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+import static org.mule.runtime.api.util.CaseFolding.foldedEquals;
+import static org.mule.runtime.api.util.CaseFolding.foldedHashCode;
+import static org.mule.runtime.api.util.CompactMultiMap.asList;
+import static org.mule.runtime.api.util.CompactMultiMap.count;
+import static org.mule.runtime.api.util.CompactMultiMap.first;
+
+import org.mule.runtime.api.util.CompactMultiMap.ValueArray;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link MultiMap} with {@link String} keys whose case is not taken into account when looking for them, such as HTTP headers.
+ * <p>
+ * The case insensitive hash of each key is calculated once, when the key is added. Lookups compare the keys char by char
+ * ignoring their case, without creating lower case copies of them. ASCII chars, the usual case for HTTP header names, are folded
+ * without going through the {@link Character} case conversion tables.
+ * <p>
+ * The case of a key is remembered from the first time it is added, and that is the key returned when iterating over the map.
+ * Keys with a single value keep it inline, in the same way as {@link CompactMultiMap}.
+ * <p>
+ * {@link #toImmutableMultiMap()} returns a frozen copy of this map, that can be shared between threads without any further
+ * synchronization. Mutable instances are not thread safe.
+ * <p>
+ * Instances are serialized as their keys and values, and deserialized as a {@link CaseInsensitiveMultiMap} again, so lookups
+ * keep ignoring the case of the keys after a round trip.
+ *
+ * @param <V> the type of mapped values
+ *
+ * @since 1.10
+ */
+public final class CaseInsensitiveMultiMap<V> extends MultiMap<String, V> {
+
+  private static final long serialVersionUID = -1051946584254591567L;
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final transient Table<V> table;
+  private final boolean immutable;
+
+  public CaseInsensitiveMultiMap() {
+    this(new Table<>(DEFAULT_CAPACITY), false);
+  }
+
+  public CaseInsensitiveMultiMap(final MultiMap<String, V> multiMap) {
+    this(new Table<>(capacityFor(multiMap.keySet().size())), false);
+    putAll(multiMap);
+  }
+
+  private CaseInsensitiveMultiMap(Table<V> table, boolean immutable) {
+    super((Void) null);
+    this.table = table;
+    this.immutable = immutable;
+  }
+
+  @Override
+  public MultiMap<String, V> toImmutableMultiMap() {
+    if (immutable) {
+      return this;
+    }
+
+    // The copy is fully built before being assigned to the final field, so it is safely published along with the map
+    final Table<V> frozen = new Table<>(capacityFor(table.keys));
+    for (Node<V> node = table.head; node != null; node = node.after) {
+      frozen.insert(node.key, node.hash, node.values instanceof ValueArray ? ((ValueArray<V>) node.values).copy() : node.values);
+    }
+    frozen.values = table.values;
+    return new CaseInsensitiveMultiMap<>(frozen, true);
+  }
+
+  @Override
+  public int size() {
+    return table.values;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return table.keys == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return table.find(key) != null;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    for (Node<V> node = table.head; node != null; node = node.after) {
+      if (node.values instanceof ValueArray ? ((ValueArray) node.values).contains(value) : Objects.equals(node.values, value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public V get(Object key) {
+    final Node<V> node = table.find(key);
+    return node == null ? null : first(node.values);
+  }
+
+  @Override
+  public List<V> getAll(Object key) {
+    final Node<V> node = table.find(key);
+    return node == null ? emptyList() : asList(node.values);
+  }
+
+  @Override
+  public V put(String key, V value) {
+    checkMutable();
+
+    final int hash = foldedHash(requireNonNull(key));
+    final Node<V> node = table.find(key, hash);
+    ++table.values;
+    if (node == null) {
+      table.insert(key, hash, value);
+      return null;
+    }
+
+    final V previousItem = first(node.values);
+    if (node.values instanceof ValueArray) {
+      ((ValueArray<V>) node.values).add(value);
+    } else {
+      node.values = new ValueArray<>(node.values, value);
+    }
+    return previousItem;
+  }
+
+  @Override
+  public void put(String key, Collection<V> values) {
+    checkMutable();
+
+    final int hash = foldedHash(requireNonNull(key));
+    final Node<V> node = table.find(key, hash);
+    if (node == null && values.size() == 1) {
+      table.insert(key, hash, values.iterator().next());
+    } else {
+      final ValueArray<V> array;
+      if (node == null) {
+        array = new ValueArray<>(values.size());
+        table.insert(key, hash, array);
+      } else if (node.values instanceof ValueArray) {
+        array = (ValueArray<V>) node.values;
+      } else {
+        array = new ValueArray<>(node.values, values.size() + 1);
+        node.values = array;
+      }
+      for (V value : values) {
+        array.add(value);
+      }
+    }
+    table.values += values.size();
+  }
+
+  @Override
+  public V remove(Object key) {
+    checkMutable();
+
+    final Node<V> node = table.remove(key);
+    return node == null ? null : first(node.values);
+  }
+
+  @Override
+  public List<V> removeAll(Object key) {
+    checkMutable();
+
+    final Node<V> node = table.remove(key);
+    return node == null ? null : new ArrayList<>(asList(node.values));
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends V> aMap) {
+    checkMutable();
+
+    aMap.forEach((key, value) -> {
+      final int hash = foldedHash(requireNonNull(key));
+      final Node<V> node = table.find(key, hash);
+      if (node == null) {
+        table.insert(key, hash, value);
+        ++table.values;
+      } else {
+        table.values += 1 - count(node.values);
+        node.values = value;
+      }
+    });
+  }
+
+  @Override
+  public void putAll(MultiMap<? extends String, ? extends V> aMultiMap) {
+    checkMutable();
+
+    aMultiMap.toListValuesMap().forEach((key, values) -> put(key, (Collection<V>) values));
+  }
+
+  @Override
+  public void clear() {
+    checkMutable();
+
+    table.clear();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return new KeySet();
+  }
+
+  @Override
+  public Collection<V> values() {
+    final List<V> values = new ArrayList<>(table.keys);
+    for (Node<V> node = table.head; node != null; node = node.after) {
+      values.add(first(node.values));
+    }
+    return values;
+  }
+
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    final Set<Entry<String, V>> entrySet = new LinkedHashSet<>();
+    for (Node<V> node = table.head; node != null; node = node.after) {
+      entrySet.add(new SimpleEntry<>(node.key, first(node.values)));
+    }
+    return entrySet;
+  }
+
+  @Override
+  public List<Entry<String, V>> entryList() {
+    final List<Entry<String, V>> entryList = new ArrayList<>(table.values);
+    for (Node<V> node = table.head; node != null; node = node.after) {
+      for (V value : CompactMultiMap.<V>asList(node.values)) {
+        entryList.add(new SimpleEntry<>(node.key, value));
+      }
+    }
+    return entryList;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super V> action) {
+    for (Node<V> node = table.head; node != null; node = node.after) {
+      action.accept(node.key, first(node.values));
+    }
+  }
+
+  @Override
+  public Map<String, ? extends List<V>> toListValuesMap() {
+    final Map<String, List<V>> listValuesMap = new LinkedHashMap<>();
+    for (Node<V> node = table.head; node != null; node = node.after) {
+      listValuesMap.put(node.key, asList(node.values));
+    }
+    return unmodifiableMap(listValuesMap);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof MultiMap && toListValuesMap().equals(((MultiMap) o).toListValuesMap());
+  }
+
+  @Override
+  public int hashCode() {
+    // Same as the hashCode of the map returned by toListValuesMap, without building it
+    int hashCode = 0;
+    for (Node<V> node = table.head; node != null; node = node.after) {
+      hashCode += node.key.hashCode()
+          ^ (node.values instanceof ValueArray ? node.values.hashCode() : 31 + Objects.hashCode(node.values));
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "MultiMap{" + Arrays.toString(toListValuesMap().entrySet().toArray()) + '}';
+  }
+
+  private void checkMutable() {
+    if (immutable) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private Object writeReplace() {
+    return new SerializedForm(toListValuesMap(), immutable);
+  }
+
+  private void readObject(ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("SerializedForm required");
+  }
+
+  private static int capacityFor(int keys) {
+    return max(DEFAULT_CAPACITY, highestOneBit(max(keys, 1) * 4 / 3) << 1);
+  }
+
+  private static int foldedHash(String key) {
+    final int hash = foldedHashCode(key);
+    return hash ^ (hash >>> 16);
+  }
+
+  private final class KeySet extends AbstractSet<String> {
+
+    @Override
+    public Iterator<String> iterator() {
+      return new Iterator<String>() {
+
+        private Node<V> next = table.head;
+        private Node<V> last;
+
+        @Override
+        public boolean hasNext() {
+          return next != null;
+        }
+
+        @Override
+        public String next() {
+          if (next == null) {
+            throw new NoSuchElementException();
+          }
+          last = next;
+          next = next.after;
+          return last.key;
+        }
+
+        @Override
+        public void remove() {
+          if (last == null) {
+            throw new IllegalStateException();
+          }
+          // a removed node keeps its link to the one after it, so the iteration goes on from there
+          CaseInsensitiveMultiMap.this.remove(last.key);
+          last = null;
+        }
+      };
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      checkMutable();
+      return table.remove(o) != null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsKey(o);
+    }
+
+    @Override
+    public int size() {
+      return table.keys;
+    }
+  }
+
+  /**
+   * Hash table keeping the nodes in insertion order.
+   */
+  private static final class Table<V> {
+
+    private Node<V>[] buckets;
+    private Node<V> head;
+    private Node<V> tail;
+    private int keys;
+    private int values;
+
+    private Table(int capacity) {
+      this.buckets = new Node[capacity];
+    }
+
+    private Node<V> find(Object key) {
+      if (!(key instanceof String)) {
+        return null;
+      }
+      return find((String) key, foldedHash((String) key));
+    }
+
+    private Node<V> find(String key, int hash) {
+      for (Node<V> node = buckets[hash & (buckets.length - 1)]; node != null; node = node.next) {
+        if (node.hash == hash && foldedEquals(node.key, key)) {
+          return node;
+        }
+      }
+      return null;
+    }
+
+    private void insert(String key, int hash, Object nodeValues) {
+      if (keys >= buckets.length - (buckets.length >> 2)) {
+        resize();
+      }
+
+      final Node<V> node = new Node<>(key, hash, nodeValues);
+      final int index = hash & (buckets.length - 1);
+      node.next = buckets[index];
+      buckets[index] = node;
+
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.after = node;
+        node.before = tail;
+      }
+      tail = node;
+      ++keys;
+    }
+
+    private Node<V> remove(Object key) {
+      if (!(key instanceof String)) {
+        return null;
+      }
+
+      final int hash = foldedHash((String) key);
+      final int index = hash & (buckets.length - 1);
+      Node<V> previous = null;
+      for (Node<V> node = buckets[index]; node != null; previous = node, node = node.next) {
+        if (node.hash == hash && foldedEquals(node.key, (String) key)) {
+          if (previous == null) {
+            buckets[index] = node.next;
+          } else {
+            previous.next = node.next;
+          }
+
+          if (node.before == null) {
+            head = node.after;
+          } else {
+            node.before.after = node.after;
+          }
+          if (node.after == null) {
+            tail = node.before;
+          } else {
+            node.after.before = node.before;
+          }
+
+          --keys;
+          values -= count(node.values);
+          return node;
+        }
+      }
+      return null;
+    }
+
+    private void resize() {
+      final Node<V>[] resized = new Node[buckets.length << 1];
+      for (Node<V> node = head; node != null; node = node.after) {
+        final int index = node.hash & (resized.length - 1);
+        node.next = resized[index];
+        resized[index] = node;
+      }
+      buckets = resized;
+    }
+
+    private void clear() {
+      Arrays.fill(buckets, null);
+      head = null;
+      tail = null;
+      keys = 0;
+      values = 0;
+    }
+  }
+
+  private static final class Node<V> {
+
+    private final String key;
+    private final int hash;
+    // Either a V, when there is just one, or a ValueArray
+    private Object values;
+
+    private Node<V> next;
+    private Node<V> before;
+    private Node<V> after;
+
+    private Node(String key, int hash, Object values) {
+      this.key = key;
+      this.hash = hash;
+      this.values = values;
+    }
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 5946102385624130937L;
+
+    private final LinkedHashMap<String, List<?>> entries = new LinkedHashMap<>();
+    private final boolean immutable;
+
+    private SerializedForm(Map<String, ? extends List<?>> entries, boolean immutable) {
+      entries.forEach((key, values) -> this.entries.put(key, new ArrayList<>(values)));
+      this.immutable = immutable;
+    }
+
+    private Object readResolve() {
+      final CaseInsensitiveMultiMap<Object> multiMap = new CaseInsensitiveMultiMap<>();
+      entries.forEach((key, values) -> multiMap.put(key, (Collection<Object>) values));
+      return immutable ? multiMap.toImmutableMultiMap() : multiMap;
+    }
+  }
+}
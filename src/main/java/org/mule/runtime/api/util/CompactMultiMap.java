@@ -0,0 +1,459 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.util;
+
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link MultiMap} implementation optimized for maps where most keys have a single value, such as HTTP headers or query
+ * parameters.
+ * <p>
+ * A single value for a key is kept inline, without any per key collection. Only keys with repeated values are backed by a small
+ * array, that grows as values are added. The total amount of values is kept updated on each operation, so {@link #size()} doesn't
+ * need to go through the values.
+ * <p>
+ * Behaves as a {@link MultiMap} in every other aspect.
+ * <p>
+ * Instances are serialized as a plain {@link MultiMap}, or its immutable variant, so that they can be read by versions without
+ * this class. Hence, they are deserialized as a {@link MultiMap} rather than as a {@link CompactMultiMap}.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @since 1.10
+ */
+public final class CompactMultiMap<K, V> extends MultiMap<K, V> {
+
+  private static final long serialVersionUID = 2415371474094357428L;
+
+  private static final int INITIAL_VALUES_CAPACITY = 2;
+
+  // Values are either a V, when there is just one, or a ValueArray
+  private final Map<K, Object> entries;
+  private int size;
+
+  private final boolean immutable;
+  // the size of immutable copies, in a final field so that they can be shared between threads
+  private final int immutableSize;
+
+  public CompactMultiMap() {
+    this(new LinkedHashMap<>(), 0, false);
+  }
+
+  public CompactMultiMap(final MultiMap<K, V> multiMap) {
+    this();
+    putAll(multiMap);
+  }
+
+  /**
+   * The mappings are kept in {@code entries} only. The inherited {@link #paramsMap} is left empty and unused, which is why this
+   * class is final.
+   */
+  private CompactMultiMap(Map<K, Object> entries, int size, boolean immutable) {
+    super((Void) null);
+    this.entries = entries;
+    this.size = size;
+    this.immutable = immutable;
+    this.immutableSize = immutable ? size : 0;
+  }
+
+  @Override
+  public MultiMap<K, V> toImmutableMultiMap() {
+    if (immutable) {
+      return this;
+    }
+
+    final Map<K, Object> copy = new LinkedHashMap<>();
+    entries.forEach((key, value) -> copy.put(key, value instanceof ValueArray ? ((ValueArray<?>) value).copy() : value));
+    return new CompactMultiMap<>(copy, size, true);
+  }
+
+  @Override
+  public int size() {
+    return immutable ? immutableSize : size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return entries.containsKey(key);
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    for (Object values : entries.values()) {
+      if (values instanceof ValueArray ? ((ValueArray) values).contains(value) : Objects.equals(values, value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public V get(Object key) {
+    return first(entries.get(key));
+  }
+
+  @Override
+  public List<V> getAll(Object key) {
+    final Object values = entries.get(key);
+    if (values == null && !entries.containsKey(key)) {
+      return emptyList();
+    }
+    return asList(values);
+  }
+
+  @Override
+  public V put(K key, V value) {
+    checkMutable();
+
+    final Object current = entries.get(key);
+    if (current == null && !entries.containsKey(key)) {
+      entries.put(key, value);
+      ++size;
+      return null;
+    }
+
+    final V previousItem = first(current);
+    if (current instanceof ValueArray) {
+      ((ValueArray<V>) current).add(value);
+    } else {
+      entries.put(key, new ValueArray<>(current, value));
+    }
+    ++size;
+    return previousItem;
+  }
+
+  @Override
+  public void put(K key, Collection<V> values) {
+    checkMutable();
+
+    final Object current = entries.get(key);
+    if (current == null && !entries.containsKey(key) && values.size() == 1) {
+      entries.put(key, values.iterator().next());
+    } else {
+      final ValueArray<V> array;
+      if (current instanceof ValueArray) {
+        array = (ValueArray<V>) current;
+      } else if (current != null || entries.containsKey(key)) {
+        array = new ValueArray<>(current, values.size() + 1);
+      } else {
+        array = new ValueArray<>(values.size());
+      }
+      for (V value : values) {
+        array.add(value);
+      }
+      entries.put(key, array);
+    }
+    size += values.size();
+  }
+
+  @Override
+  public V remove(Object key) {
+    checkMutable();
+
+    if (!entries.containsKey(key)) {
+      return null;
+    }
+    final Object values = entries.remove(key);
+    size -= count(values);
+    return first(values);
+  }
+
+  @Override
+  public List<V> removeAll(Object key) {
+    checkMutable();
+
+    if (!entries.containsKey(key)) {
+      return null;
+    }
+    final Object values = entries.remove(key);
+    size -= count(values);
+    return new ArrayList<>(asList(values));
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> aMap) {
+    checkMutable();
+
+    aMap.forEach((key, value) -> {
+      final boolean present = entries.containsKey(key);
+      final Object previous = entries.put(key, value);
+      size += 1 - (present ? count(previous) : 0);
+    });
+  }
+
+  @Override
+  public void putAll(MultiMap<? extends K, ? extends V> aMultiMap) {
+    checkMutable();
+
+    if (aMultiMap == this) {
+      // the values would be appended to the same arrays being read
+      putAll(toImmutableMultiMap());
+    } else if (aMultiMap instanceof CompactMultiMap) {
+      ((CompactMultiMap<? extends K, ? extends V>) aMultiMap).entries.forEach((key, values) -> {
+        if (values instanceof ValueArray) {
+          put(key, (Collection<V>) values);
+        } else {
+          put(key, (V) values);
+        }
+      });
+    } else {
+      aMultiMap.toListValuesMap().forEach((key, values) -> put(key, (Collection<V>) values));
+    }
+  }
+
+  @Override
+  public void clear() {
+    checkMutable();
+
+    entries.clear();
+    size = 0;
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new KeySet();
+  }
+
+  @Override
+  public Collection<V> values() {
+    final List<V> values = new ArrayList<>(entries.size());
+    entries.forEach((key, value) -> values.add(first(value)));
+    return values;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    final Set<Entry<K, V>> entrySet = new LinkedHashSet<>();
+    entries.forEach((key, value) -> entrySet.add(new SimpleEntry<>(key, first(value))));
+    return entrySet;
+  }
+
+  @Override
+  public List<Entry<K, V>> entryList() {
+    final List<Entry<K, V>> entryList = new ArrayList<>(size());
+    entries.forEach((key, values) -> {
+      if (values instanceof ValueArray) {
+        for (V value : (ValueArray<V>) values) {
+          entryList.add(new SimpleEntry<>(key, value));
+        }
+      } else {
+        entryList.add(new SimpleEntry<>(key, (V) values));
+      }
+    });
+    return entryList;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    entries.forEach((key, values) -> action.accept(key, first(values)));
+  }
+
+  @Override
+  public Map<K, ? extends List<V>> toListValuesMap() {
+    final Map<K, List<V>> listValuesMap = new LinkedHashMap<>();
+    entries.forEach((key, values) -> listValuesMap.put(key, asList(values)));
+    return unmodifiableMap(listValuesMap);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof MultiMap && toListValuesMap().equals(((MultiMap) o).toListValuesMap());
+  }
+
+  @Override
+  public int hashCode() {
+    // Same as the hashCode of the map returned by toListValuesMap, without building it
+    int hashCode = 0;
+    for (Entry<K, Object> entry : entries.entrySet()) {
+      final Object values = entry.getValue();
+      hashCode += Objects.hashCode(entry.getKey())
+          ^ (values instanceof ValueArray ? values.hashCode() : 31 + Objects.hashCode(values));
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "MultiMap{" + Arrays.toString(toListValuesMap().entrySet().toArray()) + '}';
+  }
+
+  private void checkMutable() {
+    if (immutable) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  static <V> V first(Object values) {
+    if (values instanceof ValueArray) {
+      final ValueArray<V> array = (ValueArray<V>) values;
+      return array.isEmpty() ? null : array.get(0);
+    }
+    return (V) values;
+  }
+
+  static int count(Object values) {
+    return values instanceof ValueArray ? ((ValueArray) values).size() : 1;
+  }
+
+  static <V> List<V> asList(Object values) {
+    if (values instanceof ValueArray) {
+      return unmodifiableList((ValueArray<V>) values);
+    }
+    return singletonList((V) values);
+  }
+
+  private Object writeReplace() {
+    final MultiMap<K, V> multiMap = new MultiMap<>(this);
+    return immutable ? multiMap.toImmutableMultiMap() : multiMap;
+  }
+
+  /**
+   * View of the keys of this map that removes all the values of a key when removing it.
+   */
+  private final class KeySet extends AbstractSet<K> {
+
+    @Override
+    public Iterator<K> iterator() {
+      final Iterator<Entry<K, Object>> iterator = entries.entrySet().iterator();
+      return new Iterator<K>() {
+
+        private Entry<K, Object> last;
+
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public K next() {
+          last = iterator.next();
+          return last.getKey();
+        }
+
+        @Override
+        public void remove() {
+          checkMutable();
+          if (last == null) {
+            throw new IllegalStateException();
+          }
+          final int removed = count(last.getValue());
+          iterator.remove();
+          size -= removed;
+          last = null;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return entries.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      checkMutable();
+      if (!entries.containsKey(o)) {
+        return false;
+      }
+      CompactMultiMap.this.remove(o);
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      CompactMultiMap.this.clear();
+    }
+  }
+
+  /**
+   * Growable array with the values of a key that has more than one.
+   */
+  static final class ValueArray<V> extends AbstractList<V> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = -2916373585611329312L;
+
+    private Object[] items;
+    private int count;
+
+    ValueArray(int capacity) {
+      this.items = new Object[max(capacity, INITIAL_VALUES_CAPACITY)];
+    }
+
+    ValueArray(Object first, int capacity) {
+      this(capacity);
+      items[count++] = first;
+    }
+
+    ValueArray(Object first, Object second) {
+      this(first, INITIAL_VALUES_CAPACITY);
+      items[count++] = second;
+    }
+
+    @Override
+    public boolean add(V value) {
+      if (count == items.length) {
+        items = copyOf(items, items.length + (items.length >> 1) + 1);
+      }
+      items[count++] = value;
+      ++modCount;
+      return true;
+    }
+
+    @Override
+    public V get(int index) {
+      if (index >= count) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+      }
+      return (V) items[index];
+    }
+
+    @Override
+    public int size() {
+      return count;
+    }
+
+    ValueArray<V> copy() {
+      final ValueArray<V> copy = new ValueArray<>(count);
+      System.arraycopy(items, 0, copy.items, 0, count);
+      copy.count = count;
+      return copy;
+    }
+  }
+}
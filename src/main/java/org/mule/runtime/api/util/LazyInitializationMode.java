@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.util;
+
+/**
+ * How {@link AtomicLazyValue} and {@link AtomicLazyLong} behave when their value is requested concurrently by several threads
+ * before it has been computed.
+ *
+ * @since 1.10
+ */
+public enum LazyInitializationMode {
+
+  /**
+   * The value is computed only once. Threads requesting the value while it is being computed wait for it on a
+   * {@link java.util.concurrent.locks.ReentrantLock}, so virtual threads don't pin their carrier thread while waiting.
+   */
+  COMPUTE_ONCE,
+
+  /**
+   * Each thread requesting the value before it has been published computes it and the first one to be published wins, so all
+   * threads get the same value. No thread ever waits for another one, at the expense of the value maybe being computed more than
+   * once. Only suitable for suppliers free of side effects.
+   */
+  RACY_PUBLICATION
+}
@@ -8,6 +8,7 @@ package org.mule.runtime.api.util;
 
 import static java.lang.Math.max;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableCollection;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
@@ -119,7 +120,8 @@ public class MultiMap<K, V> implements Map<K, V>, Serializable {
   protected Map<K, LinkedList<V>> paramsMap;
 
   public MultiMap(final MultiMap<K, V> multiMap) {
-    this.paramsMap = new LinkedHashMap<>(multiMap.paramsMap);
+    this.paramsMap = new LinkedHashMap<>();
+    multiMap.toListValuesMap().forEach((key, values) -> paramsMap.put(key, new LinkedList<>(values)));
   }
 
   public MultiMap(final Map<K, V> parametersMap) {
@@ -141,6 +143,16 @@ public class MultiMap<K, V> implements Map<K, V>, Serializable {
     this.paramsMap = new LinkedHashMap<>();
   }
 
+  /**
+   * For final subclasses that keep their mappings in a structure other than {@link #paramsMap}. The {@link #paramsMap} of such
+   * instances is an empty immutable map that is never used, so they must not be extended further.
+   *
+   * @param unused only to tell this constructor apart from the public no-args one
+   */
+  MultiMap(Void unused) {
+    this.paramsMap = emptyMap();
+  }
+
   public MultiMap<K, V> toImmutableMultiMap() {
     if (this instanceof ImmutableMultiMap) {
       return this;
@@ -154,7 +166,11 @@ public class MultiMap<K, V> implements Map<K, V>, Serializable {
 
   @Override
   public int size() {
-    return paramsMap.values().stream().reduce(0, (count, list) -> list.size() + count, (count, list) -> count);
+    int size = 0;
+    for (LinkedList<V> values : paramsMap.values()) {
+      size += values.size();
+    }
+    return size;
   }
 
   @Override
@@ -276,7 +292,7 @@ public class MultiMap<K, V> implements Map<K, V>, Serializable {
    * @since 1.1.1
    */
   public void putAll(MultiMap<? extends K, ? extends V> aMultiMap) {
-    aMultiMap.paramsMap.forEach((k, v) -> put(k, (Collection<V>) v));
+    aMultiMap.toListValuesMap().forEach((k, v) -> put(k, (Collection<V>) v));
   }
 
   @Override
@@ -319,7 +335,7 @@ public class MultiMap<K, V> implements Map<K, V>, Serializable {
 
   @Override
   public boolean equals(Object o) {
-    return o instanceof MultiMap && paramsMap.equals(((MultiMap) o).paramsMap);
+    return o instanceof MultiMap && paramsMap.equals(((MultiMap) o).toListValuesMap());
   }
 
   @Override
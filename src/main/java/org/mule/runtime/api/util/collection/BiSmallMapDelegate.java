@@ -170,6 +170,7 @@ class BiSmallMapDelegate<K, V> extends SmallMapDelegate<K, V> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(entry1, entry2);
+    // as defined by Map#hashCode()
+    return entry1.hashCode() + entry2.hashCode();
   }
 }
@@ -6,8 +6,9 @@
  */
 package org.mule.runtime.api.util.collection;
 
-import org.mule.runtime.internal.util.collection.ImmutableListCollector;
-import org.mule.runtime.internal.util.collection.ImmutableMapCollector;
+import org.mule.runtime.internal.util.collection.CompactListCollector;
+import org.mule.runtime.internal.util.collection.CompactMapCollector;
+import org.mule.runtime.internal.util.collection.PersistentMapCollector;
 
 import java.util.List;
 import java.util.Map;
@@ -30,7 +31,21 @@ public class Collectors {
    * @return a {@code Collector} which collects all the input elements into an immutable {@code List}, in encounter order
    */
   public static <T> Collector<T, ?, List<T>> toImmutableList() {
-    return new ImmutableListCollector<>();
+    return new CompactListCollector<>();
+  }
+
+  /**
+   * Returns a {@code Collector} that accumulates the input elements into an immutable {@code List}, presized for the given
+   * {@code expectedSize}.
+   *
+   * @param <T>          the type of the input elements
+   * @param expectedSize the amount of elements expected to be collected. More elements may be collected, at the cost of growing
+   *                     the underlying storage.
+   * @return a {@code Collector} which collects all the input elements into an immutable {@code List}, in encounter order
+   * @since 1.10
+   */
+  public static <T> Collector<T, ?, List<T>> toImmutableList(int expectedSize) {
+    return new CompactListCollector<>(expectedSize);
   }
 
   /**
@@ -46,6 +61,45 @@ public class Collectors {
    *         mapping functions to the input elements
    */
   public static <T, K, V> Collector<T, ?, Map<K, V>> toImmutableMap(Function<T, K> keyMapper, Function<T, V> valueMapper) {
-    return new ImmutableMapCollector<>(keyMapper, valueMapper);
+    return new CompactMapCollector<>(keyMapper, valueMapper);
+  }
+
+  /**
+   * Returns a {@code Collector} that accumulates elements into an immutable {@code Map}, presized for the given
+   * {@code expectedSize}, whose keys and values are the result of applying the provided mapping functions to the input elements.
+   *
+   * @param <T>          the type of the input elements
+   * @param <K>          the output type of the key mapping function
+   * @param <V>          the output type of the value mapping function
+   * @param keyMapper    a mapping function to produce keys
+   * @param valueMapper  a mapping function to produce values
+   * @param expectedSize the amount of entries expected to be collected. More entries may be collected, at the cost of growing
+   *                     the underlying storage.
+   * @return a {@code Collector} which collects elements into a {@code Map} whose keys and values are the result of applying
+   *         mapping functions to the input elements
+   * @since 1.10
+   */
+  public static <T, K, V> Collector<T, ?, Map<K, V>> toImmutableMap(Function<T, K> keyMapper, Function<T, V> valueMapper,
+                                                                    int expectedSize) {
+    return new CompactMapCollector<>(keyMapper, valueMapper, expectedSize);
+  }
+
+  /**
+   * Returns a {@code Collector} that accumulates elements into a {@link PersistentMap} whose keys and values are the result of
+   * applying the provided mapping functions to the input elements.
+   *
+   * @param <T>         the type of the input elements
+   * @param <K>         the output type of the key mapping function
+   * @param <V>         the output type of the value mapping function
+   * @param keyMapper   a mapping function to produce keys
+   * @param valueMapper a mapping function to produce values
+   * @return a {@code Collector} which collects elements into a {@link PersistentMap} whose keys and values are the result of
+   *         applying mapping functions to the input elements
+   * @throws IllegalArgumentException if more than one element is mapped to the same key
+   * @since 1.10
+   */
+  public static <T, K, V> Collector<T, ?, PersistentMap<K, V>> toPersistentMap(Function<T, K> keyMapper,
+                                                                               Function<T, V> valueMapper) {
+    return new PersistentMapCollector<>(keyMapper, valueMapper);
   }
 }
@@ -91,6 +91,14 @@ class NSmallMapDelegate<K, V> extends SmallMapDelegate<K, V> {
     return new NSmallMapDelegate<>(new HashMap<>(delegate), null);
   }
 
+  private Object readResolve() {
+    // maps that fit in a ProbingSmallMapDelegate are serialized in this form to remain readable by previous versions
+    if (delegate.size() > 5 && delegate.size() <= ProbingSmallMapDelegate.MAX_SIZE) {
+      return new ProbingSmallMapDelegate<>(delegate, null);
+    }
+    return this;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -7,7 +7,6 @@
 package org.mule.runtime.api.util.collection;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -207,9 +206,7 @@ class PentaSmallMapDelegate<K, V> extends SmallMapDelegate<K, V> {
       entry5 = new SmallMapEntry<>(key, value);
       return this;
     } else {
-      Map<K, V> overflow = new HashMap<>(this);
-      overflow.put(key, value);
-      return new NSmallMapDelegate<>(overflow, null);
+      return new ProbingSmallMapDelegate<>(this, null).fastPut(key, value);
     }
   }
 
@@ -254,6 +251,7 @@ class PentaSmallMapDelegate<K, V> extends SmallMapDelegate<K, V> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(entry1, entry2, entry3, entry4, entry5);
+    // as defined by Map#hashCode()
+    return entry1.hashCode() + entry2.hashCode() + entry3.hashCode() + entry4.hashCode() + entry5.hashCode();
   }
 }
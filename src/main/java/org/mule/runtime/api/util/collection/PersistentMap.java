@@ -0,0 +1,599 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.util.collection;
+
+import static java.lang.Integer.bitCount;
+import static java.lang.System.arraycopy;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable {@link Map} that shares structure with the instances it is derived from.
+ * <p>
+ * Instead of copying all the entries, {@link #with(Object, Object)} and {@link #without(Object)} return a new map that reuses all
+ * of this map except for the path to the changed entry. This is implemented as a hash array mapped trie, so those operations, as
+ * well as lookups, take {@code O(log32 n)} time and space. This makes it suitable for maps that are frequently copied with few
+ * changes each time, such as the variables of an event as it goes through a flow.
+ * <p>
+ * The iteration order of the entries is not defined. Instances are thread safe. The methods from the {@link Map} interface that
+ * would modify the map throw {@link UnsupportedOperationException}.
+ *
+ * @param <K> the generic type of the keys
+ * @param <V> the generic type of the values
+ * @since 1.10
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+  private static final long serialVersionUID = -6347813934617829541L;
+
+  @SuppressWarnings("rawtypes")
+  private static final PersistentMap EMPTY = new PersistentMap<>(BitmapIndexedNode.EMPTY, 0);
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final Object NOT_FOUND = new Object();
+
+  private final transient Node root;
+  private final transient int size;
+
+  /**
+   * @param <K> the generic type of the keys
+   * @param <V> the generic type of the values
+   * @return an empty map
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentMap<K, V> empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns a {@link PersistentMap} with the entries of the given {@code map}. If {@code map} is already a {@link PersistentMap},
+   * it is returned as is.
+   *
+   * @param map the map to copy
+   * @param <K> the generic type of the keys
+   * @param <V> the generic type of the values
+   * @return a {@link PersistentMap} with the same entries as {@code map}
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof PersistentMap) {
+      return (PersistentMap<K, V>) map;
+    }
+    return PersistentMap.<K, V>empty().withAll(map);
+  }
+
+  private PersistentMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Returns a map with the same entries as this one, plus the given one. If this map already has an entry for the {@code key},
+   * its value is replaced in the returned map.
+   *
+   * @param key   the key of the entry to add
+   * @param value the value of the entry to add
+   * @return a map with the given entry. May be {@code this} instance if it already had that entry.
+   */
+  public PersistentMap<K, V> with(K key, V value) {
+    final Change change = new Change();
+    final Node newRoot = root.with(key, value, hash(key), 0, change);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentMap<>(newRoot, change.sizeChanged ? size + 1 : size);
+  }
+
+  /**
+   * Returns a map with the same entries as this one, plus the ones from the given {@code map}, which take precedence over the
+   * entries already in this map for the same keys.
+   *
+   * @param map the entries to add
+   * @return a map with the given entries
+   */
+  public PersistentMap<K, V> withAll(Map<? extends K, ? extends V> map) {
+    Node newRoot = root;
+    int newSize = size;
+    final Change change = new Change();
+    for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+      change.sizeChanged = false;
+      newRoot = newRoot.with(entry.getKey(), entry.getValue(), hash(entry.getKey()), 0, change);
+      if (change.sizeChanged) {
+        ++newSize;
+      }
+    }
+    return newRoot == root ? this : new PersistentMap<>(newRoot, newSize);
+  }
+
+  /**
+   * Returns a map with the same entries as this one, except for the one for the given {@code key}.
+   *
+   * @param key the key of the entry to remove
+   * @return a map without an entry for {@code key}. May be {@code this} instance if it had no entry for that key.
+   */
+  public PersistentMap<K, V> without(Object key) {
+    final Change change = new Change();
+    final Node newRoot = root.without(key, hash(key), 0, change);
+    if (!change.sizeChanged) {
+      return this;
+    }
+    return size == 1 ? empty() : new PersistentMap<>(newRoot, size - 1);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return root.find(key, hash(key), 0) != NOT_FOUND;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    final Object value = root.find(key, hash(key), 0);
+    return value == NOT_FOUND ? null : (V) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V getOrDefault(Object key, V defaultValue) {
+    final Object value = root.find(key, hash(key), 0);
+    return value == NOT_FOUND ? defaultValue : (V) value;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        if (!(o instanceof Entry)) {
+          return false;
+        }
+        final Entry<?, ?> entry = (Entry<?, ?>) o;
+        final Object value = root.find(entry.getKey(), hash(entry.getKey()), 0);
+        return value != NOT_FOUND && Objects.equals(value, entry.getValue());
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private static int hash(Object key) {
+    final int h = key == null ? 0 : key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int bitFor(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  private Object writeReplace() {
+    return new SerializedForm(this);
+  }
+
+  private void readObject(ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("SerializedForm required");
+  }
+
+  /**
+   * Collects whether an operation on the trie changed the amount of entries.
+   */
+  private static final class Change {
+
+    private boolean sizeChanged;
+  }
+
+  private static abstract class Node {
+
+    abstract Object find(Object key, int hash, int shift);
+
+    abstract Node with(Object key, Object value, int hash, int shift, Change change);
+
+    abstract Node without(Object key, int hash, int shift, Change change);
+
+    abstract int payloadArity();
+
+    abstract Object keyAt(int index);
+
+    abstract Object valueAt(int index);
+
+    abstract int nodeArity();
+
+    abstract Node nodeAt(int index);
+
+    static Node merge(Object key1, Object value1, int hash1, Object key2, Object value2, int hash2, int shift) {
+      if (hash1 == hash2) {
+        return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+      }
+
+      final int fragment1 = (hash1 >>> shift) & MASK;
+      final int fragment2 = (hash2 >>> shift) & MASK;
+      if (fragment1 == fragment2) {
+        return new BitmapIndexedNode(0, 1 << fragment1,
+                                     new Object[] {merge(key1, value1, hash1, key2, value2, hash2, shift + BITS)});
+      }
+      return new BitmapIndexedNode((1 << fragment1) | (1 << fragment2), 0, fragment1 < fragment2
+          ? new Object[] {key1, value1, key2, value2}
+          : new Object[] {key2, value2, key1, value1});
+    }
+  }
+
+  /**
+   * Node that keeps its entries and child nodes in a single array, first the keys and values in the order of the bits set in
+   * {@code dataMap} and then the child nodes in the order of the bits set in {@code nodeMap}.
+   */
+  private static final class BitmapIndexedNode extends Node {
+
+    private static final BitmapIndexedNode EMPTY = new BitmapIndexedNode(0, 0, new Object[0]);
+
+    private final int dataMap;
+    private final int nodeMap;
+    private final Object[] content;
+
+    private BitmapIndexedNode(int dataMap, int nodeMap, Object[] content) {
+      this.dataMap = dataMap;
+      this.nodeMap = nodeMap;
+      this.content = content;
+    }
+
+    @Override
+    Object find(Object key, int hash, int shift) {
+      final int bit = bitFor(hash, shift);
+      if ((dataMap & bit) != 0) {
+        final int index = dataIndex(bit);
+        return Objects.equals(content[2 * index], key) ? content[2 * index + 1] : NOT_FOUND;
+      }
+      if ((nodeMap & bit) != 0) {
+        return nodeAt(nodeIndex(bit)).find(key, hash, shift + BITS);
+      }
+      return NOT_FOUND;
+    }
+
+    @Override
+    Node with(Object key, Object value, int hash, int shift, Change change) {
+      final int bit = bitFor(hash, shift);
+      if ((dataMap & bit) != 0) {
+        final int index = dataIndex(bit);
+        final Object currentKey = content[2 * index];
+        if (Objects.equals(currentKey, key)) {
+          if (content[2 * index + 1] == value) {
+            return this;
+          }
+          final Object[] newContent = content.clone();
+          newContent[2 * index + 1] = value;
+          return new BitmapIndexedNode(dataMap, nodeMap, newContent);
+        }
+
+        change.sizeChanged = true;
+        final Node subNode = merge(currentKey, content[2 * index + 1], hash(currentKey), key, value, hash, shift + BITS);
+        return dataToNode(bit, index, subNode);
+      }
+
+      if ((nodeMap & bit) != 0) {
+        final int index = nodeIndex(bit);
+        final Node subNode = nodeAt(index);
+        final Node newSubNode = subNode.with(key, value, hash, shift + BITS, change);
+        return newSubNode == subNode ? this : replaceNode(index, newSubNode);
+      }
+
+      change.sizeChanged = true;
+      return insertData(bit, key, value);
+    }
+
+    @Override
+    Node without(Object key, int hash, int shift, Change change) {
+      final int bit = bitFor(hash, shift);
+      if ((dataMap & bit) != 0) {
+        final int index = dataIndex(bit);
+        if (!Objects.equals(content[2 * index], key)) {
+          return this;
+        }
+
+        change.sizeChanged = true;
+        final Object[] newContent = new Object[content.length - 2];
+        arraycopy(content, 0, newContent, 0, 2 * index);
+        arraycopy(content, 2 * index + 2, newContent, 2 * index, content.length - 2 * index - 2);
+        return new BitmapIndexedNode(dataMap ^ bit, nodeMap, newContent);
+      }
+
+      if ((nodeMap & bit) != 0) {
+        final int index = nodeIndex(bit);
+        final Node subNode = nodeAt(index);
+        final Node newSubNode = subNode.without(key, hash, shift + BITS, change);
+        if (newSubNode == subNode) {
+          return this;
+        }
+        if (newSubNode.nodeArity() == 0 && newSubNode.payloadArity() == 1) {
+          // keep the trie compact by inlining the only entry left in the child node
+          return nodeToData(bit, index, newSubNode.keyAt(0), newSubNode.valueAt(0));
+        }
+        return replaceNode(index, newSubNode);
+      }
+
+      return this;
+    }
+
+    private Node insertData(int bit, Object key, Object value) {
+      final int index = dataIndex(bit);
+      final Object[] newContent = new Object[content.length + 2];
+      arraycopy(content, 0, newContent, 0, 2 * index);
+      newContent[2 * index] = key;
+      newContent[2 * index + 1] = value;
+      arraycopy(content, 2 * index, newContent, 2 * index + 2, content.length - 2 * index);
+      return new BitmapIndexedNode(dataMap | bit, nodeMap, newContent);
+    }
+
+    private Node replaceNode(int index, Node node) {
+      final Object[] newContent = content.clone();
+      newContent[2 * payloadArity() + index] = node;
+      return new BitmapIndexedNode(dataMap, nodeMap, newContent);
+    }
+
+    private Node dataToNode(int bit, int dataIndex, Node node) {
+      final int dataOffset = 2 * dataIndex;
+      final int nodeOffset = 2 * (payloadArity() - 1) + nodeIndex(bit);
+
+      final Object[] newContent = new Object[content.length - 1];
+      arraycopy(content, 0, newContent, 0, dataOffset);
+      arraycopy(content, dataOffset + 2, newContent, dataOffset, nodeOffset - dataOffset);
+      newContent[nodeOffset] = node;
+      arraycopy(content, nodeOffset + 2, newContent, nodeOffset + 1, content.length - nodeOffset - 2);
+      return new BitmapIndexedNode(dataMap ^ bit, nodeMap | bit, newContent);
+    }
+
+    private Node nodeToData(int bit, int nodeIndex, Object key, Object value) {
+      final int dataOffset = 2 * dataIndex(bit);
+      final int nodeOffset = 2 * payloadArity() + nodeIndex;
+
+      final Object[] newContent = new Object[content.length + 1];
+      arraycopy(content, 0, newContent, 0, dataOffset);
+      newContent[dataOffset] = key;
+      newContent[dataOffset + 1] = value;
+      arraycopy(content, dataOffset, newContent, dataOffset + 2, nodeOffset - dataOffset);
+      arraycopy(content, nodeOffset + 1, newContent, nodeOffset + 2, content.length - nodeOffset - 1);
+      return new BitmapIndexedNode(dataMap | bit, nodeMap ^ bit, newContent);
+    }
+
+    private int dataIndex(int bit) {
+      return bitCount(dataMap & (bit - 1));
+    }
+
+    private int nodeIndex(int bit) {
+      return bitCount(nodeMap & (bit - 1));
+    }
+
+    @Override
+    int payloadArity() {
+      return bitCount(dataMap);
+    }
+
+    @Override
+    Object keyAt(int index) {
+      return content[2 * index];
+    }
+
+    @Override
+    Object valueAt(int index) {
+      return content[2 * index + 1];
+    }
+
+    @Override
+    int nodeArity() {
+      return bitCount(nodeMap);
+    }
+
+    @Override
+    Node nodeAt(int index) {
+      return (Node) content[2 * payloadArity() + index];
+    }
+  }
+
+  /**
+   * Node for entries whose keys have the same hash.
+   */
+  private static final class CollisionNode extends Node {
+
+    private final int hash;
+    private final Object[] keysAndValues;
+
+    private CollisionNode(int hash, Object[] keysAndValues) {
+      this.hash = hash;
+      this.keysAndValues = keysAndValues;
+    }
+
+    @Override
+    Object find(Object key, int hash, int shift) {
+      final int index = indexOf(key);
+      return index < 0 ? NOT_FOUND : keysAndValues[index + 1];
+    }
+
+    @Override
+    Node with(Object key, Object value, int hash, int shift, Change change) {
+      if (hash != this.hash) {
+        // the new key only shares a prefix of the hash, so this node needs to go down a level
+        return new BitmapIndexedNode(0, bitFor(this.hash, shift), new Object[] {this})
+            .with(key, value, hash, shift, change);
+      }
+
+      final int index = indexOf(key);
+      if (index >= 0) {
+        if (keysAndValues[index + 1] == value) {
+          return this;
+        }
+        final Object[] newKeysAndValues = keysAndValues.clone();
+        newKeysAndValues[index + 1] = value;
+        return new CollisionNode(hash, newKeysAndValues);
+      }
+
+      change.sizeChanged = true;
+      final Object[] newKeysAndValues = new Object[keysAndValues.length + 2];
+      arraycopy(keysAndValues, 0, newKeysAndValues, 0, keysAndValues.length);
+      newKeysAndValues[keysAndValues.length] = key;
+      newKeysAndValues[keysAndValues.length + 1] = value;
+      return new CollisionNode(hash, newKeysAndValues);
+    }
+
+    @Override
+    Node without(Object key, int hash, int shift, Change change) {
+      final int index = hash == this.hash ? indexOf(key) : -1;
+      if (index < 0) {
+        return this;
+      }
+
+      change.sizeChanged = true;
+      final Object[] newKeysAndValues = new Object[keysAndValues.length - 2];
+      arraycopy(keysAndValues, 0, newKeysAndValues, 0, index);
+      arraycopy(keysAndValues, index + 2, newKeysAndValues, index, keysAndValues.length - index - 2);
+      return new CollisionNode(hash, newKeysAndValues);
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < keysAndValues.length; i += 2) {
+        if (Objects.equals(keysAndValues[i], key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    int payloadArity() {
+      return keysAndValues.length / 2;
+    }
+
+    @Override
+    Object keyAt(int index) {
+      return keysAndValues[2 * index];
+    }
+
+    @Override
+    Object valueAt(int index) {
+      return keysAndValues[2 * index + 1];
+    }
+
+    @Override
+    int nodeArity() {
+      return 0;
+    }
+
+    @Override
+    Node nodeAt(int index) {
+      throw new IndexOutOfBoundsException();
+    }
+  }
+
+  /**
+   * Depth first iterator over the entries of the trie.
+   */
+  private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+    // 7 levels of 5 bits each for the 32 bits of the hash, plus the collision nodes
+    private static final int MAX_DEPTH = 8;
+
+    private final Node[] nodes = new Node[MAX_DEPTH];
+    private final int[] payloadPositions = new int[MAX_DEPTH];
+    private final int[] nodePositions = new int[MAX_DEPTH];
+    private int depth;
+    private Entry<K, V> next;
+
+    private EntryIterator(Node root) {
+      nodes[0] = root;
+      advance();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void advance() {
+      while (depth >= 0) {
+        final Node node = nodes[depth];
+        if (payloadPositions[depth] < node.payloadArity()) {
+          final int index = payloadPositions[depth]++;
+          next = new SimpleImmutableEntry<>((K) node.keyAt(index), (V) node.valueAt(index));
+          return;
+        }
+        if (nodePositions[depth] < node.nodeArity()) {
+          final Node child = node.nodeAt(nodePositions[depth]++);
+          ++depth;
+          nodes[depth] = child;
+          payloadPositions[depth] = 0;
+          nodePositions[depth] = 0;
+        } else {
+          nodes[depth--] = null;
+        }
+      }
+      next = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry<K, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      final Entry<K, V> current = next;
+      advance();
+      return current;
+    }
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 2630402581372815487L;
+
+    private final Object[] keys;
+    private final Object[] values;
+
+    private SerializedForm(PersistentMap<?, ?> map) {
+      keys = new Object[map.size()];
+      values = new Object[map.size()];
+      int i = 0;
+      for (Entry<?, ?> entry : map.entrySet()) {
+        keys[i] = entry.getKey();
+        values[i++] = entry.getValue();
+      }
+    }
+
+    private Object readResolve() {
+      PersistentMap<Object, Object> map = empty();
+      for (int i = 0; i < keys.length; ++i) {
+        map = map.with(keys[i], values[i]);
+      }
+      return map;
+    }
+  }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.util.collection;
+
+import static java.lang.Math.max;
+import static java.lang.System.arraycopy;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link SmallMapDelegate} implementation for maps that have from six to {@link #MAX_SIZE} entries.
+ * <p>
+ * Keys and values are kept in insertion order in a single flat array, without any {@link Entry} objects. Lookups go through a
+ * small open addressing index with linear probing, that maps the hash of each key to its position in that array.
+ *
+ * @param <K> the generic type of the keys
+ * @param <V> the generic type of the values
+ * @since 1.10
+ */
+class ProbingSmallMapDelegate<K, V> extends SmallMapDelegate<K, V> {
+
+  /**
+   * The maximum amount of entries this delegate holds. After that, the map overflows into a {@link NSmallMapDelegate}.
+   */
+  static final int MAX_SIZE = 16;
+
+  private static final int INITIAL_CAPACITY = 8;
+  // at least twice MAX_SIZE, so probing sequences are short
+  private static final int INDEX_MASK = 2 * MAX_SIZE - 1;
+
+  // keys in even positions, each followed by its value
+  private Object[] keysAndValues;
+  private int size;
+  // position of each entry plus one, zero meaning an empty slot
+  private byte[] index;
+
+  /**
+   * Creates a new instance with the entries of the given {@code map}.
+   *
+   * @param map           the entries to add, with no more than {@link #MAX_SIZE} of them
+   * @param previousValue the last operation's previousValue (or null if non applicable)
+   */
+  public ProbingSmallMapDelegate(Map<K, V> map, V previousValue) {
+    this.keysAndValues = new Object[2 * max(INITIAL_CAPACITY, map.size())];
+    this.index = new byte[INDEX_MASK + 1];
+    for (Entry<K, V> entry : map.entrySet()) {
+      keysAndValues[2 * size] = entry.getKey();
+      keysAndValues[2 * size + 1] = entry.getValue();
+      addToIndex(size++);
+    }
+    this.previousValue = previousValue;
+  }
+
+  private ProbingSmallMapDelegate(ProbingSmallMapDelegate<K, V> other) {
+    this.keysAndValues = other.keysAndValues.clone();
+    this.size = other.size;
+    this.index = other.index.clone();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return positionOf(key) >= 0;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    for (int i = 0; i < size; ++i) {
+      if (Objects.equals(valueAt(i), value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public V get(Object key) {
+    final int position = positionOf(key);
+    return position >= 0 ? valueAt(position) : null;
+  }
+
+  @Override
+  public SmallMapDelegate<K, V> fastPut(K key, V value) {
+    final int position = positionOf(key);
+    if (position >= 0) {
+      previousValue = valueAt(position);
+      keysAndValues[2 * position + 1] = value;
+      return this;
+    }
+
+    if (size == MAX_SIZE) {
+      Map<K, V> overflow = new HashMap<>(this);
+      overflow.put(key, value);
+      return new NSmallMapDelegate<>(overflow, null);
+    }
+
+    if (2 * size == keysAndValues.length) {
+      keysAndValues = copyOf(keysAndValues, 2 * MAX_SIZE);
+    }
+    keysAndValues[2 * size] = key;
+    keysAndValues[2 * size + 1] = value;
+    addToIndex(size++);
+    previousValue = null;
+    return this;
+  }
+
+  @Override
+  public SmallMapDelegate<K, V> fastRemove(Object key) {
+    final int position = positionOf(key);
+    if (position < 0) {
+      previousValue = null;
+      return this;
+    }
+
+    final V removed = valueAt(position);
+    if (size == 6) {
+      final int[] remaining = new int[5];
+      for (int i = 0, j = 0; i < size; ++i) {
+        if (i != position) {
+          remaining[j++] = i;
+        }
+      }
+      return new PentaSmallMapDelegate<>(entryAt(remaining[0]), entryAt(remaining[1]), entryAt(remaining[2]),
+                                         entryAt(remaining[3]), entryAt(remaining[4]), removed);
+    }
+
+    arraycopy(keysAndValues, 2 * (position + 1), keysAndValues, 2 * position, 2 * (size - position - 1));
+    --size;
+    keysAndValues[2 * size] = null;
+    keysAndValues[2 * size + 1] = null;
+    rebuildIndex();
+
+    previousValue = removed;
+    return this;
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new UnmodifiableSet<K>() {
+
+      @Override
+      protected K get(int index) {
+        return keyAt(index);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return containsKey(o);
+      }
+    };
+  }
+
+  @Override
+  public Collection<V> values() {
+    return new UnmodifiableSet<V>() {
+
+      @Override
+      protected V get(int index) {
+        return valueAt(index);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return containsValue(o);
+      }
+    };
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new UnmodifiableSet<Entry<K, V>>() {
+
+      @Override
+      protected Entry<K, V> get(int index) {
+        return new KeyEntry(keyAt(index), valueAt(index));
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        if (!(o instanceof Entry)) {
+          return false;
+        }
+        final int position = positionOf(((Entry) o).getKey());
+        return position >= 0 && Objects.equals(valueAt(position), ((Entry) o).getValue());
+      }
+    };
+  }
+
+  @Override
+  SmallMapDelegate<K, V> copy() {
+    return new ProbingSmallMapDelegate<>(this);
+  }
+
+  private int positionOf(Object key) {
+    for (int slot = hash(key) & INDEX_MASK;; slot = (slot + 1) & INDEX_MASK) {
+      final int position = index[slot] - 1;
+      if (position < 0) {
+        return -1;
+      }
+      if (Objects.equals(keysAndValues[2 * position], key)) {
+        return position;
+      }
+    }
+  }
+
+  private void addToIndex(int position) {
+    int slot = hash(keysAndValues[2 * position]) & INDEX_MASK;
+    while (index[slot] != 0) {
+      slot = (slot + 1) & INDEX_MASK;
+    }
+    index[slot] = (byte) (position + 1);
+  }
+
+  private void rebuildIndex() {
+    fill(index, (byte) 0);
+    for (int i = 0; i < size; ++i) {
+      addToIndex(i);
+    }
+  }
+
+  private static int hash(Object key) {
+    final int h = key == null ? 0 : key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private Entry<K, V> entryAt(int position) {
+    return new SmallMapEntry<>(keyAt(position), valueAt(position));
+  }
+
+  @SuppressWarnings("unchecked")
+  private K keyAt(int position) {
+    return (K) keysAndValues[2 * position];
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueAt(int position) {
+    return (V) keysAndValues[2 * position + 1];
+  }
+
+  private Object writeReplace() {
+    // keep the serialized form readable by previous versions, which don't have this class
+    return new NSmallMapDelegate<>(new LinkedHashMap<>(this), null);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ProbingSmallMapDelegate<?, ?> that = (ProbingSmallMapDelegate<?, ?>) o;
+    if (size != that.size) {
+      return false;
+    }
+    for (int i = 0; i < size; ++i) {
+      final int position = that.positionOf(keyAt(i));
+      if (position < 0 || !Objects.equals(valueAt(i), that.valueAt(position))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int i = 0; i < size; ++i) {
+      hashCode += Objects.hashCode(keyAt(i)) ^ Objects.hashCode(valueAt(i));
+    }
+    return hashCode;
+  }
+
+  /**
+   * {@link Entry} bound to its key rather than to its position in the flat array, since removals shift the positions of the
+   * following entries. Reads and writes go through to the map while the key is present, and to the last known value otherwise.
+   */
+  private final class KeyEntry implements Entry<K, V> {
+
+    private final K key;
+    private V value;
+
+    private KeyEntry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      final int position = positionOf(key);
+      if (position >= 0) {
+        value = valueAt(position);
+      }
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      final V old = getValue();
+      final int position = positionOf(key);
+      if (position >= 0) {
+        keysAndValues[2 * position + 1] = value;
+      }
+      this.value = value;
+      return old;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof Entry) {
+        Entry<?, ?> other = (Entry<?, ?>) obj;
+        return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+}
@@ -228,6 +228,7 @@ class QuadSmallMapDelegate<K, V> extends SmallMapDelegate<K, V> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(entry1, entry2, entry3, entry4);
+    // as defined by Map#hashCode()
+    return entry1.hashCode() + entry2.hashCode() + entry3.hashCode() + entry4.hashCode();
   }
 }
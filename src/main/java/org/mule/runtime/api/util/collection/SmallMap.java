@@ -33,8 +33,10 @@ import java.util.function.BiFunction;
  * different sizes, the equals method will be faster than the hashCode and the gain can be obtained. Notice that if we were to use
  * {@link Integer} instead, then the optimization would not occur as the hashCode of an int is the int itself.
  * <p>
- * If a seventh element is introduced into the map, then it will internally switch gears and start delegating into a
- * {@link HashMap}. Notice there's a performance penalty in copying the contents of this map into the new delegate.
+ * If a sixth element is introduced into the map, then it will internally switch gears and start keeping its keys and values in
+ * a flat array indexed by a small open addressing table, still without any {@link Entry} objects and keeping the insertion
+ * order. Past sixteen entries it will start delegating into a {@link HashMap}. Notice there's a performance penalty in copying
+ * the contents of this map into the new delegate each time it switches gears.
  * <p>
  * Best performance can be obtained if:
  *
@@ -160,7 +162,7 @@ public class SmallMap<K, V> implements Map<K, V>, Serializable {
   }
 
   /**
-   * Returns a copy of the given {@code map}. If the size of the map is lower or equal to five, then the result will be a new
+   * Returns a copy of the given {@code map}. If the size of the map is lower or equal to sixteen, then the result will be a new
    * {@link SmallMap}. Otherwise, a new {@link HashMap} will be created with a matching initial capacity.
    * <p>
    * This method offers better performance when the {@code map} is an instance of this class, as custom code is used to more
@@ -200,13 +202,16 @@ public class SmallMap<K, V> implements Map<K, V>, Serializable {
         it = map.entrySet().iterator();
         return new SmallMap<>(new PentaSmallMapDelegate<>(it.next(), it.next(), it.next(), it.next(), it.next(), null));
       default:
+        if (map.size() <= ProbingSmallMapDelegate.MAX_SIZE) {
+          return new SmallMap<>(new ProbingSmallMapDelegate<>(map, null));
+        }
         return new HashMap<>(map);
     }
   }
 
   /**
-   * Creates a new map optimized to have the given {@code size}. If {@code size} is lower or equal than 5, then a SmallMap will be
-   * returned. Otherwise, a {@link HashMap} with {@code size} as the initial capacity will be produced.
+   * Creates a new map optimized to have the given {@code size}. If {@code size} is lower or equal than 16, then a SmallMap will
+   * be returned. Otherwise, a {@link HashMap} with {@code size} as the initial capacity will be produced.
    *
    * @param size the map's size
    * @param <K>  the generic type of the key
@@ -214,7 +219,7 @@ public class SmallMap<K, V> implements Map<K, V>, Serializable {
    * @return a new Map
    */
   public static <K, V> Map<K, V> forSize(int size) {
-    return size < 5 ? new SmallMap<>() : new HashMap<>(size);
+    return size <= ProbingSmallMapDelegate.MAX_SIZE ? new SmallMap<>() : new HashMap<>(size);
   }
 
   /**
@@ -331,9 +336,10 @@ public class SmallMap<K, V> implements Map<K, V>, Serializable {
 
   @Override
   public boolean equals(Object o) {
-    if (o instanceof SmallMap) {
+    if (o instanceof SmallMap && delegate.getClass() == ((SmallMap) o).delegate.getClass()) {
       return delegate.equals(((SmallMap) o).delegate);
     } else if (o instanceof Map) {
+      // the same entries may be held by different delegates, depending on how the maps were built
       return Objects.equals(entrySet(), ((Map) o).entrySet());
     }
 
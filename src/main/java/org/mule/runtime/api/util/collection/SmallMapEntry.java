@@ -6,8 +6,6 @@
  */
 package org.mule.runtime.api.util.collection;
 
-import static java.util.Objects.hash;
-
 import java.io.Serializable;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -58,7 +56,7 @@ class SmallMapEntry<K, V> implements Entry<K, V>, Serializable {
 
   @Override
   public int hashCode() {
-    return hash(key, value);
+    return Objects.hashCode(key) ^ Objects.hashCode(value);
   }
 
   @Override
@@ -205,6 +205,7 @@ class TriSmallMapDelegate<K, V> extends SmallMapDelegate<K, V> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(entry1, entry2, entry3);
+    // as defined by Map#hashCode()
+    return entry1.hashCode() + entry2.hashCode() + entry3.hashCode();
   }
 }
@@ -6,18 +6,29 @@
  */
 package org.mule.runtime.internal.util;
 
-import static java.lang.Math.min;
-
-import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import static java.lang.Character.isHighSurrogate;
+import static java.lang.Character.isLowSurrogate;
+import static java.nio.charset.CodingErrorAction.REPLACE;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
 
 /**
- * Uses a custom {@link OutputStream} to only count sizes when asked to write a {@link String}, eventually getting it's whole
- * {@link Charset} dependent byte size. This is essentially the same as the size obtained via {@link String#getBytes(Charset)} but
- * avoids the allocation of the entire byte array.
+ * Calculates the {@link Charset} dependent byte size of a {@link String}. This is essentially the same as the size obtained via
+ * {@link String#getBytes(Charset)} but avoids the allocation of the entire byte array.
+ * <p>
+ * For UTF-8, UTF-16 and single byte charsets such as ISO-8859-1 and US-ASCII, the size is calculated by going through the
+ * characters of the {@link String}, without encoding them and without any allocation. Any other {@link Charset} is handled by
+ * encoding the {@link String} in chunks into a reused buffer.
  *
  * @since 1.0
  */
@@ -25,46 +36,76 @@ public class StringByteSizeCalculator {
 
   private static final int WRITE_CHUNK = 8 * 1024;
 
+  // the size of the byte order mark written by the UTF-16 encoder
+  private static final int UTF_16_BOM_SIZE = 2;
+
   public long count(String payload, Charset charset) {
-    CountingOutputStream countingStream = new CountingOutputStream();
+    if (UTF_8.equals(charset)) {
+      return countUtf8(payload);
+    } else if (ISO_8859_1.equals(charset) || US_ASCII.equals(charset)) {
+      return countSingleByte(payload);
+    } else if (UTF_16BE.equals(charset) || UTF_16LE.equals(charset)) {
+      return 2L * payload.length();
+    } else if (UTF_16.equals(charset)) {
+      return payload.isEmpty() ? 0 : UTF_16_BOM_SIZE + 2L * payload.length();
+    } else {
+      return countEncoded(payload, charset);
+    }
+  }
 
-    try (Writer writer = new OutputStreamWriter(countingStream, charset)) {
-      for (int i = 0; i < payload.length(); i += WRITE_CHUNK) {
-        int end = min(payload.length(), i + WRITE_CHUNK);
-        writer.write(payload, i, end - i);
+  private static long countUtf8(String payload) {
+    final int length = payload.length();
+    long size = 0;
+    for (int i = 0; i < length; ++i) {
+      final char c = payload.charAt(i);
+      if (c < 0x80) {
+        ++size;
+      } else if (c < 0x800) {
+        size += 2;
+      } else if (isHighSurrogate(c) && i + 1 < length && isLowSurrogate(payload.charAt(i + 1))) {
+        size += 4;
+        ++i;
+      } else if (isHighSurrogate(c) || isLowSurrogate(c)) {
+        // malformed, replaced with '?'
+        ++size;
+      } else {
+        size += 3;
       }
-
-      writer.flush();
-    } catch (IOException e) {
-      // Do nothing, our OS should not produce failures
     }
-
-    return countingStream.getSize();
+    return size;
   }
 
-  private class CountingOutputStream extends OutputStream {
-
-    private long size = 0L;
-
-    @Override
-    public void write(int b) {
-      ++size;
+  private static long countSingleByte(String payload) {
+    // every char is encoded as a byte, either itself or the replacement, except for surrogate pairs which are replaced as a whole
+    final int length = payload.length();
+    long size = length;
+    for (int i = 0; i < length - 1; ++i) {
+      if (isHighSurrogate(payload.charAt(i)) && isLowSurrogate(payload.charAt(i + 1))) {
+        --size;
+        ++i;
+      }
     }
+    return size;
+  }
 
-    @Override
-    public void write(byte[] b) {
-      size += b.length;
-    }
+  private static long countEncoded(String payload, Charset charset) {
+    final CharsetEncoder encoder = charset.newEncoder().onMalformedInput(REPLACE).onUnmappableCharacter(REPLACE);
+    final CharBuffer in = CharBuffer.wrap(payload);
+    final ByteBuffer out = ByteBuffer.allocate(WRITE_CHUNK);
 
-    @Override
-    public void write(byte[] b, int offset, int len) {
-      size += len;
+    long size = 0;
+    while (encoder.encode(in, out, true).isOverflow()) {
+      size += out.position();
+      out.clear();
     }
 
-    public long getSize() {
-      return size;
-    }
+    CoderResult result;
+    do {
+      result = encoder.flush(out);
+      size += out.position();
+      out.clear();
+    } while (result.isOverflow());
 
+    return size;
   }
-
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.internal.util.collection;
+
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * {@link Collector} which returns an immutable {@link List} backed by an array of the exact size of its elements.
+ * <p>
+ * Elements are accumulated in a plain array, presized with the expected amount of elements, and the partial results of parallel
+ * streams are combined by appending one array to the other, without building any intermediate list.
+ * <p>
+ * As with {@link ImmutableListCollector}, {@code null} elements are not allowed.
+ *
+ * @param <T> the generic type of the elements in the list
+ * @since 1.10
+ */
+public class CompactListCollector<T> implements Collector<T, CompactListCollector.Elements, List<T>> {
+
+  private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+  private final int expectedSize;
+
+  /**
+   * Creates a new instance
+   */
+  public CompactListCollector() {
+    this(DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param expectedSize the amount of elements expected to be collected
+   */
+  public CompactListCollector(int expectedSize) {
+    this.expectedSize = expectedSize;
+  }
+
+  @Override
+  public Supplier<Elements> supplier() {
+    return () -> new Elements(expectedSize);
+  }
+
+  @Override
+  public BiConsumer<Elements, T> accumulator() {
+    return (elements, value) -> elements.add(requireNonNull(value, "null element in list"));
+  }
+
+  @Override
+  public BinaryOperator<Elements> combiner() {
+    return Elements::addAll;
+  }
+
+  @Override
+  public Function<Elements, List<T>> finisher() {
+    return elements -> {
+      switch (elements.size) {
+        case 0:
+          return emptyList();
+        case 1:
+          @SuppressWarnings("unchecked")
+          final T item = (T) elements.items[0];
+          return singletonList(item);
+        default:
+          return new ImmutableArrayList<>(elements.toArray());
+      }
+    };
+  }
+
+  @Override
+  public Set<Characteristics> characteristics() {
+    return emptySet();
+  }
+
+  /**
+   * Growable array where the elements are accumulated.
+   */
+  public static final class Elements {
+
+    private Object[] items;
+    private int size;
+
+    Elements(int capacity) {
+      this.items = new Object[max(capacity, 1)];
+    }
+
+    void add(Object item) {
+      ensureCapacity(size + 1);
+      items[size++] = item;
+    }
+
+    Elements addAll(Elements other) {
+      if (size == 0) {
+        return other;
+      }
+      ensureCapacity(size + other.size);
+      System.arraycopy(other.items, 0, items, size, other.size);
+      size += other.size;
+      return this;
+    }
+
+    Object[] toArray() {
+      return size == items.length ? items : copyOf(items, size);
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (capacity > items.length) {
+        items = copyOf(items, max(capacity, items.length + (items.length >> 1)));
+      }
+    }
+  }
+
+  /**
+   * Unmodifiable {@link List} over an array that is not shared with anyone else.
+   */
+  private static final class ImmutableArrayList<T> extends AbstractList<T> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 4419286307384283468L;
+
+    private final Object[] items;
+
+    private ImmutableArrayList(Object[] items) {
+      this.items = items;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+      return (T) items[index];
+    }
+
+    @Override
+    public int size() {
+      return items.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+      return items.clone();
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.internal.util.collection;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Objects.requireNonNull;
+import static org.mule.runtime.api.util.collection.SmallMap.unmodifiable;
+import static org.mule.runtime.internal.util.collection.UnmodifiableMap.unmodifiableMap;
+
+import org.mule.runtime.api.util.collection.SmallMap;
+import org.mule.runtime.internal.util.collection.CompactListCollector.Elements;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * {@link Collector} which returns an immutable {@link Map}, keeping the encounter order of the elements.
+ * <p>
+ * Keys and values are accumulated in a plain array, presized with the expected amount of entries, and the partial results of
+ * parallel streams are combined by appending one array to the other. The map is only built once, when finishing, as a
+ * {@link SmallMap} when there are few entries, or as a presized {@link LinkedHashMap} otherwise.
+ * <p>
+ * As with {@link ImmutableMapCollector}, {@code null} keys or values and repeated keys are not allowed.
+ *
+ * @param <T> the generic type of input elements
+ * @param <K> the output map's key type
+ * @param <V> the output map's values type
+ * @since 1.10
+ */
+public class CompactMapCollector<T, K, V> implements Collector<T, Elements, Map<K, V>> {
+
+  private static final int DEFAULT_EXPECTED_SIZE = 8;
+  // the maximum size up to which a SmallMap doesn't resort to a HashMap
+  private static final int SMALL_MAP_MAX_SIZE = 16;
+
+  private final Function<T, K> keyMapper;
+  private final Function<T, V> valueMapper;
+  private final int expectedSize;
+
+  /**
+   * Creates a new instance
+   *
+   * @param keyMapper   a mapping function to produce keys
+   * @param valueMapper a mapping function to produce values
+   */
+  public CompactMapCollector(Function<T, K> keyMapper, Function<T, V> valueMapper) {
+    this(keyMapper, valueMapper, DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param keyMapper    a mapping function to produce keys
+   * @param valueMapper  a mapping function to produce values
+   * @param expectedSize the amount of entries expected to be collected
+   */
+  public CompactMapCollector(Function<T, K> keyMapper, Function<T, V> valueMapper, int expectedSize) {
+    this.keyMapper = keyMapper;
+    this.valueMapper = valueMapper;
+    this.expectedSize = expectedSize;
+  }
+
+  @Override
+  public Supplier<Elements> supplier() {
+    return () -> new Elements(2 * expectedSize);
+  }
+
+  @Override
+  public BiConsumer<Elements, T> accumulator() {
+    return (elements, value) -> {
+      final K key = requireNonNull(keyMapper.apply(value), "null key in entry");
+      elements.add(key);
+      final V mapped = valueMapper.apply(value);
+      // a plain check, so that no message supplier is allocated for each element
+      if (mapped == null) {
+        throw new NullPointerException("null value in entry: " + key + "=null");
+      }
+      elements.add(mapped);
+    };
+  }
+
+  @Override
+  public BinaryOperator<Elements> combiner() {
+    return Elements::addAll;
+  }
+
+  @Override
+  public Function<Elements, Map<K, V>> finisher() {
+    return elements -> {
+      final Object[] keysAndValues = elements.toArray();
+      final int size = keysAndValues.length / 2;
+      if (size == 0) {
+        return emptyMap();
+      }
+
+      final Map<K, V> map = size <= SMALL_MAP_MAX_SIZE ? new SmallMap<>() : new LinkedHashMap<>((int) (size / .75f) + 1);
+      for (int i = 0; i < keysAndValues.length; i += 2) {
+        // the accumulator only adds keys and values in turns
+        @SuppressWarnings("unchecked")
+        final K key = (K) keysAndValues[i];
+        @SuppressWarnings("unchecked")
+        final V value = (V) keysAndValues[i + 1];
+        final V previous = map.put(key, value);
+        if (previous != null) {
+          throw new IllegalArgumentException("Multiple entries with same key: " + key + "=" + value + " and " + key + "="
+              + previous);
+        }
+      }
+      return map instanceof SmallMap ? unmodifiable(map) : unmodifiableMap(map);
+    };
+  }
+
+  @Override
+  public Set<Characteristics> characteristics() {
+    return emptySet();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.internal.util.collection;
+
+import static java.util.Collections.emptySet;
+
+import org.mule.runtime.api.util.Reference;
+import org.mule.runtime.api.util.collection.PersistentMap;
+
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * {@link Collector} which returns a {@link PersistentMap}
+ *
+ * @param <T> the generic type of input elements
+ * @param <K> the output map's key type
+ * @param <V> the output map's values type
+ * @since 1.10
+ */
+public class PersistentMapCollector<T, K, V> implements Collector<T, Reference<PersistentMap<K, V>>, PersistentMap<K, V>> {
+
+  private final Function<T, K> keyMapper;
+  private final Function<T, V> valueMapper;
+
+  /**
+   * Creates a new instance
+   *
+   * @param keyMapper   a mapping function to produce keys
+   * @param valueMapper a mapping function to produce values
+   */
+  public PersistentMapCollector(Function<T, K> keyMapper, Function<T, V> valueMapper) {
+    this.keyMapper = keyMapper;
+    this.valueMapper = valueMapper;
+  }
+
+  @Override
+  public Supplier<Reference<PersistentMap<K, V>>> supplier() {
+    return () -> new Reference<>(PersistentMap.empty());
+  }
+
+  @Override
+  public BiConsumer<Reference<PersistentMap<K, V>>, T> accumulator() {
+    return (reference, value) -> put(reference, keyMapper.apply(value), valueMapper.apply(value));
+  }
+
+  @Override
+  public BinaryOperator<Reference<PersistentMap<K, V>>> combiner() {
+    return (left, right) -> {
+      for (Entry<K, V> entry : right.get().entrySet()) {
+        put(left, entry.getKey(), entry.getValue());
+      }
+      return left;
+    };
+  }
+
+  @Override
+  public Function<Reference<PersistentMap<K, V>>, PersistentMap<K, V>> finisher() {
+    return Reference::get;
+  }
+
+  @Override
+  public Set<Characteristics> characteristics() {
+    return emptySet();
+  }
+
+  private void put(Reference<PersistentMap<K, V>> reference, K key, V value) {
+    final PersistentMap<K, V> map = reference.get();
+    if (map.containsKey(key)) {
+      throw new IllegalArgumentException("Multiple entries with same key: " + key + "=" + value + " and " + key + "="
+          + map.get(key));
+    }
+    reference.set(map.with(key, value));
+  }
+}
@@ -47,6 +47,7 @@ module org.mule.runtime.api.test {
   exports org.mule.runtime.api.test.internal.util.collection;
   exports org.mule.runtime.api.test.internal.exception;
   exports org.mule.runtime.api.test.message.error.matcher;
+  exports org.mule.runtime.api.test.memory;
   exports org.mule.runtime.api.test.meta;
   exports org.mule.runtime.api.test.meta.model;
   exports org.mule.runtime.api.test.meta.model.connection;
@@ -56,8 +57,10 @@ module org.mule.runtime.api.test {
   exports org.mule.runtime.api.test.meta.model.util;
   exports org.mule.runtime.api.test.metadata;
   exports org.mule.runtime.api.test.metadata.descriptor;
+  exports org.mule.runtime.api.test.notification;
   exports org.mule.runtime.api.test.persistence;
   exports org.mule.runtime.api.test.scheduler;
+  exports org.mule.runtime.api.test.serialization;
   exports org.mule.runtime.api.test.store;
   exports org.mule.runtime.api.test.streaming;
   exports org.mule.runtime.api.test.util;
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.alerts;
+
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mule.runtime.api.alert.TimedDataAggregator.counting;
+import static org.mule.runtime.api.alert.TimedDataAggregator.maxLong;
+import static org.mule.runtime.api.alert.TimedDataAggregator.summingLong;
+
+import org.mule.runtime.api.alert.BucketedTimedDataBuffer;
+import org.mule.runtime.api.alert.TimedDataAggregation;
+import org.mule.runtime.api.alert.TimedDataAggregator;
+import org.mule.runtime.api.time.TimeSupplier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BucketedTimedDataBufferTestCase {
+
+  private MutableTimeSupplier mutableTimeSupplier;
+  private BucketedTimedDataBuffer<String, String> timedDataBuffer;
+
+  @Before
+  public void setUp() {
+    mutableTimeSupplier = new MutableTimeSupplier();
+    timedDataBuffer = new BucketedTimedDataBuffer<>(mutableTimeSupplier, ofSeconds(1), "", String::concat, String::concat);
+  }
+
+  @Test
+  public void aggregationOnEmpty() {
+    TimedDataAggregation<String> aggregation = timedDataBuffer.aggregate();
+
+    assertThat(aggregation.forLast1MinInterval(), is(""));
+    assertThat(aggregation.forLast5MinsInterval(), is(""));
+    assertThat(aggregation.forLast15MinsInterval(), is(""));
+    assertThat(aggregation.forLast60MinsInterval(), is(""));
+  }
+
+  @Test
+  public void oneEntryEachInterval() {
+    timedDataBuffer.put("a");
+    mutableTimeSupplier.currentTimeMillis = MINUTES.toMillis(2);
+    timedDataBuffer.put("b");
+    mutableTimeSupplier.currentTimeMillis = MINUTES.toMillis(6);
+    timedDataBuffer.put("c");
+
+    TimedDataAggregation<String> aggregation = timedDataBuffer.aggregate();
+
+    assertThat(aggregation.forLast1MinInterval(), is("c"));
+    assertThat(aggregation.forLast5MinsInterval(), is("bc"));
+    assertThat(aggregation.forLast15MinsInterval(), is("abc"));
+    assertThat(aggregation.forLast60MinsInterval(), is("abc"));
+  }
+
+  @Test
+  public void sameBucketKeepsInsertionOrder() {
+    timedDataBuffer.put("a");
+    mutableTimeSupplier.currentTimeMillis = 500;
+    timedDataBuffer.put("b");
+    mutableTimeSupplier.currentTimeMillis = SECONDS.toMillis(1);
+    timedDataBuffer.put("c");
+
+    assertThat(timedDataBuffer.aggregate().forLast1MinInterval(), is("abc"));
+    assertThat(timedDataBuffer.size(), is(3));
+  }
+
+  @Test
+  public void oldBucketsAreDiscarded() {
+    timedDataBuffer.put("a");
+    mutableTimeSupplier.currentTimeMillis = MINUTES.toMillis(50);
+    timedDataBuffer.put("b");
+
+    assertThat(timedDataBuffer.size(), is(2));
+
+    mutableTimeSupplier.currentTimeMillis = MINUTES.toMillis(60);
+    timedDataBuffer.put("c");
+
+    assertThat(timedDataBuffer.size(), is(2));
+    assertThat(timedDataBuffer.aggregate().forLast60MinsInterval(), is("bc"));
+  }
+
+  @Test
+  public void customWindows() {
+    BucketedTimedDataBuffer<Long, Long> buffer =
+        new BucketedTimedDataBuffer<>(mutableTimeSupplier, ofSeconds(1), ofMinutes(2), summingLong(value -> value));
+
+    buffer.put(1L);
+    mutableTimeSupplier.currentTimeMillis = SECONDS.toMillis(30);
+    buffer.put(10L);
+    mutableTimeSupplier.currentTimeMillis = SECONDS.toMillis(100);
+    buffer.put(100L);
+
+    Map<Duration, Long> aggregations = buffer.aggregate(asList(ofSeconds(10), ofSeconds(90), ofMinutes(10)));
+    assertThat(aggregations.get(ofSeconds(10)), is(100L));
+    assertThat(aggregations.get(ofSeconds(90)), is(110L));
+    assertThat(aggregations.get(ofMinutes(10)), is(111L));
+    assertThat(buffer.aggregate(ofMinutes(1)), is(100L));
+  }
+
+  @Test
+  public void mergeableAggregators() {
+    TimedDataAggregator<Long, Long> max = maxLong(value -> value);
+    BucketedTimedDataBuffer<Long, Long> maxBuffer =
+        new BucketedTimedDataBuffer<>(mutableTimeSupplier, ofSeconds(1), ofMinutes(60), max);
+    BucketedTimedDataBuffer<Long, Long> countBuffer =
+        new BucketedTimedDataBuffer<>(mutableTimeSupplier, ofSeconds(1), ofMinutes(60), counting());
+
+    for (long i = 0; i < 100; ++i) {
+      mutableTimeSupplier.currentTimeMillis = SECONDS.toMillis(i);
+      maxBuffer.put(i % 7);
+      countBuffer.put(i);
+    }
+
+    assertThat(maxBuffer.aggregate(ofMinutes(5)), is(6L));
+    assertThat(countBuffer.aggregate(ofMinutes(1)), is(60L));
+    assertThat(countBuffer.aggregate().forLast60MinsInterval(), is(100L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void bucketDurationMustDivideAMinute() {
+    new BucketedTimedDataBuffer<String, String>(mutableTimeSupplier, ofSeconds(7), "", String::concat, String::concat);
+  }
+
+  private static class MutableTimeSupplier implements TimeSupplier {
+
+    private long currentTimeMillis;
+
+    @Override
+    public Long get() {
+      return currentTimeMillis;
+    }
+
+    @Override
+    public long getAsLong() {
+      return currentTimeMillis;
+    }
+  }
+}
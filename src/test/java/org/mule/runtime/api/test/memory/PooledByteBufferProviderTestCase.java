@@ -0,0 +1,326 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.memory;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.memory.provider.type.ByteBufferPoolStrategy.CHUNKED_BUFFERS_POOL;
+import static org.mule.runtime.api.memory.provider.type.ByteBufferType.DIRECT;
+import static org.mule.runtime.api.memory.provider.type.ByteBufferType.HEAP;
+
+import org.mule.runtime.api.memory.provider.ByteBufferPoolConfiguration;
+import org.mule.runtime.api.memory.provider.ByteBufferProviderStatistics;
+import org.mule.runtime.api.memory.provider.ByteBufferProviderStatistics.SizeClassStatistics;
+import org.mule.runtime.api.memory.provider.PooledByteBufferProvider;
+import org.mule.runtime.api.memory.provider.type.ByteBufferPoolStrategy;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PooledByteBufferProviderTestCase {
+
+  private PooledByteBufferProvider provider = new PooledByteBufferProvider("test", HEAP, poolConfiguration(1024, 6, 65536));
+
+  @After
+  public void after() {
+    provider.dispose();
+  }
+
+  @Test
+  public void allocateRoundsUpToSizeClass() {
+    final ByteBuffer buffer = provider.allocate(3000);
+    assertThat(buffer.capacity(), is(4096));
+    assertThat(buffer.limit(), is(3000));
+    assertThat(buffer.position(), is(0));
+    assertThat(buffer.isDirect(), is(false));
+  }
+
+  @Test
+  public void allocateBelowBaseSize() {
+    assertThat(provider.allocate(10).capacity(), is(1024));
+    assertThat(provider.allocate(0).capacity(), is(1024));
+  }
+
+  @Test
+  public void allocateAtLeast() {
+    final ByteBuffer buffer = provider.allocateAtLeast(3000);
+    assertThat(buffer.capacity(), is(4096));
+    assertThat(buffer.limit(), is(4096));
+  }
+
+  @Test
+  public void allocateDirect() {
+    final PooledByteBufferProvider directProvider =
+        new PooledByteBufferProvider("direct", DIRECT, poolConfiguration(1024, 6, 65536));
+    try {
+      assertThat(directProvider.allocate(100).isDirect(), is(true));
+    } finally {
+      directProvider.dispose();
+    }
+  }
+
+  @Test
+  public void releasedBufferIsReused() {
+    final ByteBuffer buffer = provider.allocate(2000);
+    buffer.put((byte) 1);
+    provider.release(buffer);
+
+    final ByteBuffer reused = provider.allocate(1500);
+    assertThat(reused, is(sameInstance(buffer)));
+    assertThat(reused.position(), is(0));
+    assertThat(reused.limit(), is(1500));
+  }
+
+  @Test
+  public void bufferOfOtherClassIsNotReused() {
+    final ByteBuffer buffer = provider.allocate(2000);
+    provider.release(buffer);
+    assertThat(provider.allocate(5000), is(not(sameInstance(buffer))));
+  }
+
+  @Test
+  public void largerThanMaxSizeIsNotPooled() {
+    final ByteBuffer buffer = provider.allocate(100000);
+    assertThat(buffer.capacity(), is(100000));
+    provider.release(buffer);
+    assertThat(provider.allocate(100000), is(not(sameInstance(buffer))));
+  }
+
+  @Test
+  public void numberOfPoolsLimitsSizeClasses() {
+    provider = new PooledByteBufferProvider("test", HEAP, poolConfiguration(1024, 2, 65536));
+    assertThat(provider.allocate(2048).capacity(), is(2048));
+    assertThat(provider.allocate(3000).capacity(), is(3000));
+  }
+
+  @Test
+  public void foreignBufferIsNotPooled() {
+    final ByteBuffer direct = ByteBuffer.allocateDirect(1024);
+    provider.release(direct);
+    assertThat(provider.allocate(1024), is(not(sameInstance(direct))));
+  }
+
+  @Test
+  public void reallocateWithinCapacity() {
+    final ByteBuffer buffer = provider.allocate(1000);
+    buffer.put(new byte[800]);
+
+    final ByteBuffer reallocated = provider.reallocate(buffer, 500);
+    assertThat(reallocated, is(sameInstance(buffer)));
+    assertThat(reallocated.limit(), is(500));
+    assertThat(reallocated.position(), is(500));
+  }
+
+  @Test
+  public void reallocateGrowsKeepingContent() {
+    final ByteBuffer buffer = provider.allocate(1000);
+    buffer.put((byte) 1).put((byte) 2).put((byte) 3);
+
+    final ByteBuffer reallocated = provider.reallocate(buffer, 3000);
+    assertThat(reallocated.capacity(), is(4096));
+    assertThat(reallocated.limit(), is(3000));
+    assertThat(reallocated.position(), is(3));
+    assertThat(reallocated.get(0), is((byte) 1));
+    assertThat(reallocated.get(2), is((byte) 3));
+
+    assertThat(provider.allocate(1000), is(sameInstance(buffer)));
+  }
+
+  @Test
+  public void reuseAcrossThreads() throws Exception {
+    final ExecutorService executor = newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; ++t) {
+        futures.add(executor.submit(() -> {
+          final List<ByteBuffer> buffers = new ArrayList<>();
+          for (int i = 0; i < 10000; ++i) {
+            final ByteBuffer buffer = provider.allocate(1 + i % 65536);
+            buffer.put(0, (byte) i);
+            buffers.add(buffer);
+            if (buffers.size() == 40) {
+              buffers.forEach(provider::release);
+              buffers.clear();
+            }
+          }
+          buffers.forEach(provider::release);
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void peakSamplesHitsOnBuffersReleasedByOtherThreads() throws Exception {
+    final ByteBufferProviderStatistics statistics = provider.getStatistics().get();
+    final ExecutorService executor = newFixedThreadPool(1);
+    try {
+      final ByteBuffer first = provider.allocate(1000);
+      provider.release(first);
+      final ByteBuffer second = executor.submit(() -> provider.allocate(1000)).get(30, SECONDS);
+      // hits on the buffer released before, while the one allocated by the other thread is still outstanding, one of which is
+      // sampled
+      for (int i = 0; i < 64; ++i) {
+        provider.release(provider.allocate(1000));
+      }
+      provider.release(second);
+
+      assertThat(statistics.getOutstandingBytes(), is(0L));
+      assertThat(statistics.getPeakOutstandingBytes(), is(2048L));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void threadsPastCacheBudgetUseDepot() throws Exception {
+    // the magazines of a single thread take most of the budget for all threads
+    provider = new PooledByteBufferProvider("test", HEAP, poolConfiguration(1024 * 1024, 5, 16 * 1024 * 1024));
+    provider.release(provider.allocate(10));
+
+    final ExecutorService executor = newFixedThreadPool(1);
+    try {
+      final ByteBuffer released = executor.submit(() -> {
+        final ByteBuffer buffer = provider.allocate(10);
+        provider.release(buffer);
+        return buffer;
+      }).get(30, SECONDS);
+
+      provider.allocate(10);
+      assertThat(provider.allocate(10), is(sameInstance(released)));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void leakDetectionDoesNotAffectPooling() {
+    provider = new PooledByteBufferProvider("test", HEAP, poolConfiguration(1024, 6, 65536), true);
+    final ByteBuffer buffer = provider.allocate(2000);
+    provider.release(buffer);
+    assertThat(provider.allocate(2000), is(sameInstance(buffer)));
+  }
+
+  @Test
+  public void doubleReleaseWithLeakDetectionIsPooledOnce() {
+    provider = new PooledByteBufferProvider("test", HEAP, poolConfiguration(1024, 6, 65536), true);
+    final ByteBuffer buffer = provider.allocate(2000);
+    provider.release(buffer);
+    provider.release(buffer);
+
+    assertThat(provider.allocate(2000), is(sameInstance(buffer)));
+    assertThat(provider.allocate(2000), is(not(sameInstance(buffer))));
+    assertThat(provider.getStatistics().get().getReleases(), is(1L));
+  }
+
+  @Test
+  public void viewWithLeakDetectionIsNotPooled() {
+    provider = new PooledByteBufferProvider("test", DIRECT, poolConfiguration(1024, 6, 65536), true);
+    final ByteBuffer buffer = provider.allocate(2048);
+    final ByteBuffer duplicate = buffer.duplicate();
+    provider.release(duplicate);
+
+    assertThat(provider.allocate(2048), is(not(sameInstance(duplicate))));
+  }
+
+  @Test
+  public void heapSliceIsNotPooled() {
+    final ByteBuffer buffer = provider.allocate(4096);
+    buffer.position(2048);
+    final ByteBuffer slice = buffer.slice();
+    provider.release(slice);
+
+    assertThat(provider.allocate(2048), is(not(sameInstance(slice))));
+  }
+
+  @Test
+  public void maxBufferSizeBeyondIntPowersOfTwo() {
+    provider = new PooledByteBufferProvider("test", HEAP, poolConfiguration(1 << 29, 10, Integer.MAX_VALUE));
+    final List<SizeClassStatistics> sizeClasses = provider.getStatistics().get().getSizeClassStatistics();
+    assertThat(sizeClasses.size(), is(2));
+    assertThat(sizeClasses.get(1).getBufferSize(), is(1 << 30));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void allocateAfterDispose() {
+    provider.dispose();
+    provider.allocate(10);
+  }
+
+  @Test
+  public void statistics() {
+    final ByteBufferProviderStatistics statistics = provider.getStatistics().get();
+
+    final ByteBuffer first = provider.allocate(1000);
+    final ByteBuffer second = provider.allocate(3000);
+    provider.release(first);
+    provider.allocate(1000);
+    provider.release(provider.allocate(100000));
+    provider.reallocate(second, 5000);
+
+    assertThat(statistics.getAllocations(), is(5L));
+    assertThat(statistics.getPoolHits(), is(1L));
+    assertThat(statistics.getPoolMisses(), is(3L));
+    assertThat(statistics.getUnpooledAllocations(), is(1L));
+    assertThat(statistics.getReleases(), is(3L));
+    assertThat(statistics.getReallocations(), is(1L));
+    assertThat(statistics.getPoolHitRatio(), is(0.25));
+    assertThat(statistics.getOutstandingBytes(), is(1024L + 8192L));
+    assertThat(statistics.getPeakOutstandingBytes(), is(1024L + 4096L + 100000L));
+
+    final SizeClassStatistics smallest = statistics.getSizeClassStatistics().get(0);
+    assertThat(statistics.getSizeClassStatistics().size(), is(6));
+    assertThat(smallest.getBufferSize(), is(1024));
+    assertThat(smallest.getPoolHits(), is(1L));
+    assertThat(smallest.getPoolMisses(), is(1L));
+    assertThat(smallest.getReleases(), is(1L));
+  }
+
+  private static ByteBufferPoolConfiguration poolConfiguration(int baseSize, int numberOfPools, int maxSize) {
+    return new ByteBufferPoolConfiguration() {
+
+      @Override
+      public int getBaseByteBufferSize() {
+        return baseSize;
+      }
+
+      @Override
+      public int getNumberOfPools() {
+        return numberOfPools;
+      }
+
+      @Override
+      public int getGrowthFactor() {
+        return 2;
+      }
+
+      @Override
+      public int getMaxBufferSize() {
+        return maxSize;
+      }
+
+      @Override
+      public ByteBufferPoolStrategy getByteBufferPoolStrategy() {
+        return CHUNKED_BUFFERS_POOL;
+      }
+    };
+  }
+}
@@ -13,11 +13,29 @@ import org.mule.runtime.api.metadata.AbstractDataTypeBuilderFactory;
 import org.mule.runtime.api.metadata.DataType;
 import org.mule.runtime.api.metadata.DataTypeBuilder;
 
+import java.util.function.Supplier;
+
 public final class DefaultDataTypeBuilderFactory extends AbstractDataTypeBuilderFactory {
 
+  private static final ThreadLocal<Supplier<DataTypeBuilder>> BUILDERS = new ThreadLocal<>();
+
+  /**
+   * Runs the given {@code task} with {@link DataType#builder()} returning the builders from {@code builders}, in the calling
+   * thread only.
+   */
+  public static void withBuilders(Supplier<DataTypeBuilder> builders, Runnable task) {
+    BUILDERS.set(builders);
+    try {
+      task.run();
+    } finally {
+      BUILDERS.remove();
+    }
+  }
+
   @Override
   protected DataTypeBuilder create() {
-    return mock(DataTypeBuilder.class, RETURNS_DEEP_STUBS);
+    final Supplier<DataTypeBuilder> builders = BUILDERS.get();
+    return builders != null ? builders.get() : mock(DataTypeBuilder.class, RETURNS_DEEP_STUBS);
   }
 
   @Override
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.notification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.notification.AbstractServerNotification.CUSTOM_EVENT_ACTION_START_RANGE;
+import static org.mule.runtime.api.notification.AbstractServerNotification.NO_ACTION_ID;
+import static org.mule.runtime.api.notification.AbstractServerNotification.NO_ACTION_NAME;
+import static org.mule.runtime.api.notification.AbstractServerNotification.getActionId;
+import static org.mule.runtime.api.notification.AbstractServerNotification.getActionName;
+
+import org.mule.runtime.api.notification.AbstractServerNotification;
+import org.mule.runtime.api.notification.IntegerAction;
+
+import org.junit.Test;
+
+public class AbstractServerNotificationTestCase {
+
+  private static final int TEST_ACTION = 9900;
+  private static final int OTHER_TEST_ACTION = 9901;
+  private static final int CUSTOM_TEST_ACTION = CUSTOM_EVENT_ACTION_START_RANGE + 9900;
+  private static final int OTHER_CUSTOM_TEST_ACTION = CUSTOM_EVENT_ACTION_START_RANGE + 9800;
+  private static final int UNREGISTERED_ACTION = 9999;
+
+  static {
+    TestNotification.register("Test Action", TEST_ACTION);
+    TestNotification.register("other test action", OTHER_TEST_ACTION);
+    TestNotification.register("custom test action", CUSTOM_TEST_ACTION);
+    TestNotification.register("other custom test action", OTHER_CUSTOM_TEST_ACTION);
+  }
+
+  @Test
+  public void actionNames() {
+    assertThat(getActionName(TEST_ACTION), is("test action"));
+    assertThat(getActionName(OTHER_TEST_ACTION), is("other test action"));
+    assertThat(getActionName(CUSTOM_TEST_ACTION), is("custom test action"));
+    assertThat(getActionName(OTHER_CUSTOM_TEST_ACTION), is("other custom test action"));
+    assertThat(getActionName(NO_ACTION_ID), is(NO_ACTION_NAME));
+  }
+
+  @Test
+  public void actionIds() {
+    assertThat(getActionId("TEST ACTION"), is(TEST_ACTION));
+    assertThat(getActionId("other test action"), is(OTHER_TEST_ACTION));
+    assertThat(getActionId("Custom Test Action"), is(CUSTOM_TEST_ACTION));
+    assertThat(getActionId("other custom test action"), is(OTHER_CUSTOM_TEST_ACTION));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unregisteredActionName() {
+    getActionName(UNREGISTERED_ACTION);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unregisteredCustomActionName() {
+    getActionName(CUSTOM_EVENT_ACTION_START_RANGE + 9999);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unregisteredActionId() {
+    getActionId("unregistered test action");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void repeatedActionName() {
+    TestNotification.register("test action", UNREGISTERED_ACTION);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void repeatedActionId() {
+    TestNotification.register("unregistered test action", TEST_ACTION);
+  }
+
+  @Test
+  public void registeredActionsAreShared() {
+    final IntegerAction action = new TestNotification(TEST_ACTION).getAction();
+    assertThat(new TestNotification(TEST_ACTION).getAction(), is(sameInstance(action)));
+    assertThat(new TestNotification(CUSTOM_TEST_ACTION).getAction(),
+               is(sameInstance(new TestNotification(CUSTOM_TEST_ACTION).getAction())));
+    assertThat(action.getIdentifier(), is(String.valueOf(TEST_ACTION)));
+  }
+
+  @Test
+  public void unregisteredActions() {
+    final IntegerAction action = new TestNotification(UNREGISTERED_ACTION).getAction();
+    assertThat(action, is(new IntegerAction(UNREGISTERED_ACTION)));
+    assertThat(action, is(not(new TestNotification(TEST_ACTION).getAction())));
+    assertThat(new TestNotification(UNREGISTERED_ACTION).toString(), is("test{action=none, resourceId=null, serverId=null, "
+        + "timestamp=" + new TestNotification(UNREGISTERED_ACTION).getTimestamp() + "}"));
+  }
+
+  private static final class TestNotification extends AbstractServerNotification {
+
+    private TestNotification(int action) {
+      super("test", action);
+      timestamp = 1;
+    }
+
+    private static void register(String name, int action) {
+      registerAction(name, action);
+    }
+
+    @Override
+    public String getEventName() {
+      return "test";
+    }
+  }
+}
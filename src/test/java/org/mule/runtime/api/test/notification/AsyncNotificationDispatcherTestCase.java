@@ -0,0 +1,367 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.notification;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.State.WAITING;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.notification.AsyncNotificationDispatcher.OverflowPolicy.BLOCK;
+import static org.mule.runtime.api.notification.AsyncNotificationDispatcher.OverflowPolicy.DROP_NEWEST;
+import static org.mule.runtime.api.notification.AsyncNotificationDispatcher.OverflowPolicy.DROP_OLDEST;
+import static org.mule.runtime.api.notification.AsyncNotificationDispatcher.OverflowPolicy.SAMPLE;
+
+import org.mule.runtime.api.notification.AsyncNotificationDispatcher;
+import org.mule.runtime.api.notification.IntegerAction;
+import org.mule.runtime.api.notification.Notification;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class AsyncNotificationDispatcherTestCase {
+
+  private final List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+  private final ManualExecutor executor = new ManualExecutor();
+
+  @Test
+  public void deliversAsynchronouslyInOrder() {
+    final AsyncNotificationDispatcher dispatcher = dispatcher(8, DROP_NEWEST);
+    for (int i = 0; i < 5; ++i) {
+      dispatcher.dispatch(new TestNotification(i, false));
+    }
+
+    assertThat(delivered, is(empty()));
+    assertThat(dispatcher.getLaggingCount(), is(5));
+
+    executor.runAll();
+    assertThat(delivered, contains(0, 1, 2, 3, 4));
+    assertThat(dispatcher.getDispatchedCount(), is(5L));
+    assertThat(dispatcher.getLaggingCount(), is(0));
+    assertThat(dispatcher.getPeakLaggingCount(), is(5L));
+  }
+
+  @Test
+  public void drainsInBatches() {
+    final AsyncNotificationDispatcher dispatcher =
+        new AsyncNotificationDispatcher(n -> delivered.add(id(n)), executor, 16, DROP_NEWEST, 3, 1);
+    for (int i = 0; i < 7; ++i) {
+      dispatcher.dispatch(new TestNotification(i, false));
+    }
+
+    executor.runNext();
+    assertThat(delivered, contains(0, 1, 2));
+    executor.runNext();
+    assertThat(delivered, contains(0, 1, 2, 3, 4, 5));
+    executor.runAll();
+    assertThat(delivered, contains(0, 1, 2, 3, 4, 5, 6));
+  }
+
+  @Test
+  public void synchronousNotificationsAreDeliveredInline() {
+    final AsyncNotificationDispatcher dispatcher = dispatcher(8, DROP_NEWEST);
+    dispatcher.dispatch(new TestNotification(1, true));
+    assertThat(delivered, contains(1));
+  }
+
+  @Test
+  public void synchronousNotificationsAreQueuedWhenEnabled() {
+    final AsyncNotificationDispatcher dispatcher =
+        new AsyncNotificationDispatcher(n -> delivered.add(id(n)), executor, 8, DROP_NEWEST, 64, 1, true);
+    dispatcher.dispatch(new TestNotification(1, true));
+    dispatcher.dispatch(new TestNotification(2, false));
+    assertThat(delivered, is(empty()));
+
+    executor.runAll();
+    assertThat(delivered, contains(1, 2));
+  }
+
+  @Test
+  public void dropNewest() {
+    final AsyncNotificationDispatcher dispatcher = dispatcher(4, DROP_NEWEST);
+    for (int i = 0; i < 6; ++i) {
+      dispatcher.dispatch(new TestNotification(i, false));
+    }
+
+    executor.runAll();
+    assertThat(delivered, contains(0, 1, 2, 3));
+    assertThat(dispatcher.getDroppedCount(), is(2L));
+  }
+
+  @Test
+  public void dropOldest() {
+    final AsyncNotificationDispatcher dispatcher = dispatcher(4, DROP_OLDEST);
+    for (int i = 0; i < 6; ++i) {
+      dispatcher.dispatch(new TestNotification(i, false));
+    }
+
+    executor.runAll();
+    assertThat(delivered, contains(2, 3, 4, 5));
+    assertThat(dispatcher.getDroppedCount(), is(2L));
+  }
+
+  @Test
+  public void sample() {
+    final AsyncNotificationDispatcher dispatcher =
+        new AsyncNotificationDispatcher(n -> delivered.add(id(n)), executor, 4, SAMPLE, 64, 3);
+    for (int i = 0; i < 10; ++i) {
+      dispatcher.dispatch(new TestNotification(i, false));
+    }
+
+    // 6 overflowing notifications, the 3rd and 6th of them are kept
+    executor.runAll();
+    assertThat(delivered, contains(2, 3, 6, 9));
+    assertThat(dispatcher.getDroppedCount(), is(6L));
+  }
+
+  @Test
+  public void block() throws Exception {
+    final ExecutorService drainExecutor = newSingleThreadExecutor();
+    final ExecutorService producers = newFixedThreadPool(4);
+    try {
+      final AsyncNotificationDispatcher dispatcher =
+          new AsyncNotificationDispatcher(n -> delivered.add(id(n)), drainExecutor, 4, BLOCK);
+
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int p = 0; p < 4; ++p) {
+        final int producer = p;
+        futures.add(producers.submit(() -> {
+          for (int i = 0; i < 1000; ++i) {
+            dispatcher.dispatch(new TestNotification(producer * 1000 + i, false));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, SECONDS);
+      }
+      drainExecutor.submit(() -> {
+      }).get(10, SECONDS);
+      dispatcher.dispose();
+
+      assertThat(delivered.size(), is(4000));
+      assertThat(dispatcher.getDroppedCount(), is(0L));
+    } finally {
+      producers.shutdownNow();
+      drainExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void capacityOfOne() {
+    final AsyncNotificationDispatcher dispatcher = dispatcher(1, DROP_NEWEST);
+    for (int i = 0; i < 5; ++i) {
+      dispatcher.dispatch(new TestNotification(i, false));
+    }
+
+    executor.runAll();
+    assertThat(delivered, contains(0, 1));
+    assertThat(dispatcher.getDroppedCount(), is(3L));
+
+    dispatcher.dispatch(new TestNotification(5, false));
+    dispatcher.dispose();
+    assertThat(delivered, contains(0, 1, 5));
+  }
+
+  @Test
+  public void blockReschedulesRejectedDrain() throws Exception {
+    final ExecutorService drainExecutor = newSingleThreadExecutor();
+    final ExecutorService producer = newSingleThreadExecutor();
+    final AtomicInteger rejections = new AtomicInteger(3);
+    final Executor rejectingUntilFull = command -> {
+      // the buffer is full, and the producer blocked, by the time the 3rd one is rejected
+      if (rejections.getAndDecrement() > 0) {
+        throw new RejectedExecutionException("Expected");
+      }
+      drainExecutor.execute(command);
+    };
+    try {
+      final AsyncNotificationDispatcher dispatcher =
+          new AsyncNotificationDispatcher(n -> delivered.add(id(n)), rejectingUntilFull, 2, BLOCK);
+      producer.submit(() -> {
+        for (int i = 0; i < 10; ++i) {
+          dispatcher.dispatch(new TestNotification(i, false));
+        }
+      }).get(10, SECONDS);
+      dispatcher.dispose();
+
+      assertThat(delivered, contains(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+    } finally {
+      producer.shutdownNow();
+      drainExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void blockFromDrainingListenerDoesNotDeadlock() throws Exception {
+    final ExecutorService drainExecutor = newSingleThreadExecutor();
+    try {
+      final AtomicReference<AsyncNotificationDispatcher> dispatcher = new AtomicReference<>();
+      dispatcher.set(new AsyncNotificationDispatcher(n -> {
+        delivered.add(id(n));
+        if (id(n) < 10) {
+          // the buffer is still full of the ones fired below
+          dispatcher.get().dispatch(new TestNotification(id(n) + 100, false));
+        }
+      }, drainExecutor, 2, BLOCK));
+
+      for (int i = 0; i < 4; ++i) {
+        dispatcher.get().dispatch(new TestNotification(i, false));
+      }
+      drainExecutor.submit(() -> {
+      }).get(10, SECONDS);
+      dispatcher.get().dispose();
+
+      assertThat(delivered.size(), is(8));
+    } finally {
+      drainExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void disposeWaitsForRunningDrain() throws Exception {
+    final ExecutorService drainExecutor = newSingleThreadExecutor();
+    final CountDownLatch delivering = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Thread disposer = null;
+    try {
+      final AsyncNotificationDispatcher dispatcher = new AsyncNotificationDispatcher(n -> {
+        if (id(n) == 0) {
+          delivering.countDown();
+          awaitUninterruptibly(release);
+        }
+        delivered.add(id(n));
+      }, drainExecutor, 8, DROP_NEWEST);
+      for (int i = 0; i < 3; ++i) {
+        dispatcher.dispatch(new TestNotification(i, false));
+      }
+      assertThat(delivering.await(10, SECONDS), is(true));
+
+      final FutureTask<Void> disposal = new FutureTask<>(dispatcher::dispose, null);
+      disposer = new Thread(disposal);
+      disposer.start();
+      // the disposing thread parks once it finds the delivery lock held by the running drain
+      final long deadline = nanoTime() + SECONDS.toNanos(10);
+      while (disposer.getState() != WAITING && nanoTime() < deadline) {
+        Thread.yield();
+      }
+      assertThat(disposer.getState(), is(WAITING));
+      assertThat(disposal.isDone(), is(false));
+      assertThat(delivered, is(empty()));
+
+      release.countDown();
+      disposal.get(10, SECONDS);
+      assertThat(delivered, contains(0, 1, 2));
+    } finally {
+      release.countDown();
+      if (disposer != null) {
+        disposer.join(SECONDS.toMillis(10));
+      }
+      drainExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void disposeDeliversPending() {
+    final AsyncNotificationDispatcher dispatcher = dispatcher(8, DROP_NEWEST);
+    dispatcher.dispatch(new TestNotification(1, false));
+    dispatcher.dispose();
+    assertThat(delivered, contains(1));
+
+    dispatcher.dispatch(new TestNotification(2, false));
+    assertThat(delivered, contains(1, 2));
+  }
+
+  @Test
+  public void failingDelegateDoesNotStopDelivery() {
+    final AsyncNotificationDispatcher dispatcher = new AsyncNotificationDispatcher(n -> {
+      if (id(n) == 1) {
+        throw new IllegalStateException("Expected");
+      }
+      delivered.add(id(n));
+    }, executor, 8, DROP_NEWEST);
+    for (int i = 0; i < 3; ++i) {
+      dispatcher.dispatch(new TestNotification(i, false));
+    }
+
+    executor.runAll();
+    assertThat(delivered, contains(0, 2));
+  }
+
+  private AsyncNotificationDispatcher dispatcher(int capacity, AsyncNotificationDispatcher.OverflowPolicy overflowPolicy) {
+    return new AsyncNotificationDispatcher(n -> delivered.add(id(n)), executor, capacity, overflowPolicy);
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await(10, SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static int id(Notification notification) {
+    return ((TestNotification) notification).id;
+  }
+
+  private static final class ManualExecutor implements Executor {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    private void runNext() {
+      tasks.poll().run();
+    }
+
+    private void runAll() {
+      while (!tasks.isEmpty()) {
+        runNext();
+      }
+    }
+  }
+
+  private static final class TestNotification implements Notification {
+
+    private final int id;
+    private final boolean synchronous;
+
+    private TestNotification(int id, boolean synchronous) {
+      this.id = id;
+      this.synchronous = synchronous;
+    }
+
+    @Override
+    public boolean isSynchronous() {
+      return synchronous;
+    }
+
+    @Override
+    public Action getAction() {
+      return new IntegerAction(id);
+    }
+  }
+}
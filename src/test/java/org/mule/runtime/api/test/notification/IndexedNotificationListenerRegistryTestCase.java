@@ -0,0 +1,362 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.notification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.api.notification.IndexedNotificationListenerRegistry;
+import org.mule.runtime.api.notification.IntegerAction;
+import org.mule.runtime.api.notification.Notification;
+import org.mule.runtime.api.notification.NotificationListener;
+import org.mule.runtime.api.notification.NotificationListenerRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+public class IndexedNotificationListenerRegistryTestCase {
+
+  private final IndexedNotificationListenerRegistry registry = new IndexedNotificationListenerRegistry();
+
+  @Test
+  public void routesByTypeAndAction() {
+    final RecordingListener<SubTestNotification> listener = new RecordingListener<>();
+    registry.registerListener(listener, SubTestNotification.class, new IntegerAction(1), new IntegerAction(3));
+
+    for (int i = 0; i < 4; ++i) {
+      registry.dispatch(new TestNotification(i));
+      registry.dispatch(new SubTestNotification(i));
+    }
+
+    assertThat(listener.received, contains("sub-1", "sub-3"));
+  }
+
+  @Test
+  public void routesToSupertypeListeners() {
+    final RecordingListener<TestNotification> listener = new RecordingListener<>();
+    registry.registerListener(listener, TestNotification.class);
+
+    registry.dispatch(new TestNotification(1));
+    registry.dispatch(new SubTestNotification(2));
+
+    assertThat(listener.received, contains("test-1", "sub-2"));
+  }
+
+  @Test
+  public void matchesActionsByNamespaceAndIdentifier() {
+    final RecordingListener<TestNotification> listener = new RecordingListener<>();
+    registry.registerListener(listener, TestNotification.class, new CustomAction(new IntegerAction(2)));
+
+    registry.dispatch(new TestNotification(1));
+    registry.dispatch(new TestNotification(2));
+
+    assertThat(listener.received, contains("test-2"));
+  }
+
+  @Test
+  public void untypedListenersReceiveEverything() {
+    final RecordingListener<Notification> all = new RecordingListener<>();
+    final RecordingListener<TestNotification> selected = new RecordingListener<>();
+    registry.registerListener(all);
+    registry.registerListener(selected, notification -> notification.id % 2 == 0);
+
+    registry.dispatch(new TestNotification(1));
+    registry.dispatch(new SubTestNotification(2));
+
+    assertThat(all.received, contains("test-1", "sub-2"));
+    assertThat(selected.received, contains("sub-2"));
+  }
+
+  @Test
+  public void untypedListenersSkipOtherNotificationTypes() {
+    final TestNotificationListener selected = new TestNotificationListener();
+    final List<Integer> typed = new ArrayList<>();
+    registry.registerListener(selected, notification -> notification.id > 0);
+    registry.registerListener(new NotificationListener<TestNotification>() {
+
+      @Override
+      public void onNotification(TestNotification notification) {
+        typed.add(notification.id);
+      }
+    });
+
+    registry.dispatch(new Notification() {
+
+      @Override
+      public Action getAction() {
+        return new IntegerAction(1);
+      }
+    });
+    registry.dispatch(new TestNotification(2));
+
+    assertThat(selected.received, contains("test-2"));
+    assertThat(typed, contains(2));
+  }
+
+  @Test
+  public void untypedListenersAreRoutedByDeclaredType() {
+    registry.registerListener(new TestNotificationListener());
+
+    assertThat(registry.isListenedTo(TestNotification.class, new IntegerAction(1)), is(true));
+    assertThat(registry.isListenedTo(SubTestNotification.class, new IntegerAction(1)), is(true));
+    assertThat(registry.isListenedTo(Notification.class, new IntegerAction(1)), is(false));
+  }
+
+  @Test
+  public void declaredTypeFollowsTypeVariables() {
+    registry.registerListener(new GenericSubclassListener<SubTestNotification>() {});
+
+    assertThat(registry.isListenedTo(SubTestNotification.class, new IntegerAction(1)), is(true));
+    assertThat(registry.isListenedTo(TestNotification.class, new IntegerAction(1)), is(false));
+  }
+
+  @Test
+  public void routesCustomActions() {
+    final RecordingListener<TestNotification> listener = new RecordingListener<>();
+    registry.registerListener(listener, TestNotification.class, new IntegerAction(2));
+
+    for (int i = 0; i < 2; ++i) {
+      registry.dispatch(new CustomActionNotification(new CustomAction(new IntegerAction(1))));
+      registry.dispatch(new CustomActionNotification(new CustomAction(new IntegerAction(2))));
+    }
+
+    assertThat(listener.received, contains("custom-2", "custom-2"));
+  }
+
+  @Test
+  public void nullActionOnlyReachesListenersWithoutActions() {
+    final RecordingListener<TestNotification> forAction = new RecordingListener<>();
+    final RecordingListener<TestNotification> forAll = new RecordingListener<>();
+    registry.registerListener(forAction, TestNotification.class, new IntegerAction(1));
+
+    registry.dispatch(new NullActionNotification());
+    assertThat(registry.isListenedTo(NullActionNotification.class, null), is(false));
+
+    registry.registerListener(forAll, TestNotification.class);
+    registry.dispatch(new NullActionNotification());
+
+    assertThat(registry.isListenedTo(NullActionNotification.class, null), is(true));
+    assertThat(forAction.received, is(empty()));
+    assertThat(forAll.received, contains("null-0"));
+  }
+
+  @Test
+  public void isListenedTo() {
+    assertThat(registry.isListenedTo(TestNotification.class, new IntegerAction(1)), is(false));
+
+    registry.registerListener(new RecordingListener<>(), SubTestNotification.class, new IntegerAction(1));
+
+    assertThat(registry.isListenedTo(SubTestNotification.class, new IntegerAction(1)), is(true));
+    assertThat(registry.isListenedTo(SubTestNotification.class, new IntegerAction(2)), is(false));
+    assertThat(registry.isListenedTo(TestNotification.class, new IntegerAction(1)), is(false));
+  }
+
+  @Test
+  public void unregisterUpdatesRoutes() {
+    final RecordingListener<TestNotification> listener = new RecordingListener<>();
+    registry.registerListener(listener, TestNotification.class, new IntegerAction(1));
+    registry.dispatch(new TestNotification(1));
+    assertThat(registry.isListenedTo(TestNotification.class, new IntegerAction(1)), is(true));
+
+    registry.unregisterListener(listener);
+    registry.dispatch(new TestNotification(1));
+
+    assertThat(listener.received, contains("test-1"));
+    assertThat(registry.isListenedTo(TestNotification.class, new IntegerAction(1)), is(false));
+  }
+
+  @Test
+  public void registerAfterDispatchUpdatesRoutes() {
+    final RecordingListener<TestNotification> listener = new RecordingListener<>();
+    registry.dispatch(new TestNotification(1));
+
+    registry.registerListener(listener, TestNotification.class, new IntegerAction(1));
+    registry.dispatch(new TestNotification(1));
+
+    assertThat(listener.received, contains("test-1"));
+  }
+
+  @Test
+  public void failingListenerDoesNotAffectOthers() {
+    final RecordingListener<TestNotification> listener = new RecordingListener<>();
+    registry.registerListener((NotificationListener<TestNotification>) notification -> {
+      throw new IllegalStateException("Expected");
+    }, TestNotification.class);
+    registry.registerListener(listener, TestNotification.class);
+
+    registry.dispatch(new TestNotification(1));
+
+    assertThat(listener.received, contains("test-1"));
+  }
+
+  @Test
+  public void defaultRegistrationUsesSelector() {
+    final List<Object> selectors = new ArrayList<>();
+    final RecordingListener<TestNotification> listener = new RecordingListener<>();
+    final SelectorOnlyRegistry selectorOnly = new SelectorOnlyRegistry(selectors);
+
+    selectorOnly.registerListener(listener, TestNotification.class, new IntegerAction(2));
+
+    assertThat(selectors.size(), is(1));
+    final Predicate<Notification> selector = (Predicate<Notification>) selectors.get(0);
+    assertThat(selector.test(new TestNotification(2)), is(true));
+    assertThat(selector.test(new TestNotification(1)), is(false));
+    assertThat(selector.test(new Notification() {
+
+      @Override
+      public Action getAction() {
+        return new IntegerAction(2);
+      }
+    }), is(false));
+    assertThat(selectorOnly.isListenedTo(TestNotification.class, new IntegerAction(1)), is(true));
+    assertThat(listener.received, is(empty()));
+  }
+
+  private static final class SelectorOnlyRegistry implements NotificationListenerRegistry {
+
+    private final List<Object> selectors;
+
+    private SelectorOnlyRegistry(List<Object> selectors) {
+      this.selectors = selectors;
+    }
+
+    @Override
+    public <N extends Notification> void registerListener(NotificationListener<N> listener) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <N extends Notification> void registerListener(NotificationListener<N> listener,
+                                                          Predicate<N> selector) {
+      selectors.add(selector);
+    }
+
+    @Override
+    public <N extends Notification> void unregisterListener(NotificationListener<N> listener) {}
+  }
+
+  private static final class RecordingListener<N extends Notification> implements NotificationListener<N> {
+
+    private final List<String> received = new ArrayList<>();
+
+    @Override
+    public void onNotification(N notification) {
+      received.add(notification.toString());
+    }
+  }
+
+  private static final class TestNotificationListener implements NotificationListener<TestNotification> {
+
+    private final List<String> received = new ArrayList<>();
+
+    @Override
+    public void onNotification(TestNotification notification) {
+      received.add(notification.toString());
+    }
+  }
+
+  private interface TypedListener<N extends Notification> extends NotificationListener<N> {
+  }
+
+  private static class GenericSubclassListener<N extends TestNotification> implements TypedListener<N> {
+
+    @Override
+    public void onNotification(N notification) {}
+  }
+
+  private static final class CustomAction implements Notification.Action {
+
+    private final Notification.Action delegate;
+
+    private CustomAction(Notification.Action delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public String getNamespace() {
+      return delegate.getNamespace();
+    }
+
+    @Override
+    public String getIdentifier() {
+      return delegate.getIdentifier();
+    }
+  }
+
+  private static class TestNotification implements Notification {
+
+    protected final int id;
+
+    private TestNotification(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public Action getAction() {
+      return new IntegerAction(id);
+    }
+
+    @Override
+    public String toString() {
+      return "test-" + id;
+    }
+  }
+
+  private static final class SubTestNotification extends TestNotification {
+
+    private SubTestNotification(int id) {
+      super(id);
+    }
+
+    @Override
+    public String toString() {
+      return "sub-" + id;
+    }
+  }
+
+  private static final class CustomActionNotification extends TestNotification {
+
+    private final Action action;
+
+    private CustomActionNotification(Action action) {
+      super(Integer.parseInt(action.getIdentifier()));
+      this.action = action;
+    }
+
+    @Override
+    public Action getAction() {
+      return action;
+    }
+
+    @Override
+    public String toString() {
+      return "custom-" + id;
+    }
+  }
+
+  private static final class NullActionNotification extends TestNotification {
+
+    private NullActionNotification() {
+      super(0);
+    }
+
+    @Override
+    public Action getAction() {
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return "null-" + id;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.notification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.api.notification.AsyncNotificationDispatcher.OverflowPolicy.DROP_NEWEST;
+import static org.mule.runtime.api.notification.MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE;
+import static org.mule.runtime.api.notification.MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE;
+import static org.mule.runtime.api.notification.PipelineMessageNotification.PROCESS_START;
+
+import org.mule.runtime.api.component.Component;
+import org.mule.runtime.api.component.location.ComponentLocation;
+import org.mule.runtime.api.event.Event;
+import org.mule.runtime.api.event.EventContext;
+import org.mule.runtime.api.notification.AsyncNotificationDispatcher;
+import org.mule.runtime.api.notification.EnrichedServerNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.Notification;
+import org.mule.runtime.api.notification.NotificationDispatcher;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.mule.runtime.api.notification.ProcessorNotificationPool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcessorNotificationPoolTestCase {
+
+  private final List<Notification> handled = new ArrayList<>();
+  private final List<EnrichedServerNotification> retained = new ArrayList<>();
+
+  private Event event;
+  private EventContext eventContext;
+  private Component processor;
+  private ComponentLocation location;
+
+  @Before
+  public void before() {
+    event = mock(Event.class);
+    eventContext = mock(EventContext.class);
+    when(event.getContext()).thenReturn(eventContext);
+    processor = mock(Component.class);
+    location = mock(ComponentLocation.class);
+    when(location.getRootContainerName()).thenReturn("flow");
+  }
+
+  @Test
+  public void reusesMessageProcessorNotifications() {
+    final ProcessorNotificationPool pool = new ProcessorNotificationPool(recordingDispatcher());
+
+    pool.fireMessageProcessorNotification(event, location, processor, null, MESSAGE_PROCESSOR_PRE_INVOKE);
+    pool.fireMessageProcessorNotification(event, location, processor, null, MESSAGE_PROCESSOR_POST_INVOKE);
+
+    assertThat(handled.get(1), is(sameInstance(handled.get(0))));
+    assertThat(retained.get(0), is(not(sameInstance(handled.get(0)))));
+
+    final MessageProcessorNotification first = (MessageProcessorNotification) retained.get(0);
+    assertThat(first.getAction().getActionId(), is(MESSAGE_PROCESSOR_PRE_INVOKE));
+    assertThat(first.getEvent(), is(sameInstance(event)));
+    assertThat(first.getComponent(), is(sameInstance(processor)));
+    assertThat(first.getEventContext(), is(sameInstance(eventContext)));
+    assertThat(first.getResourceIdentifier(), is("flow"));
+    assertThat(retained.get(1).getAction().getActionId(), is(MESSAGE_PROCESSOR_POST_INVOKE));
+  }
+
+  @Test
+  public void clearsAfterDispatch() {
+    final ProcessorNotificationPool pool = new ProcessorNotificationPool(recordingDispatcher());
+
+    pool.fireMessageProcessorNotification(event, location, processor, new Exception(), MESSAGE_PROCESSOR_PRE_INVOKE);
+
+    final MessageProcessorNotification notification = (MessageProcessorNotification) handled.get(0);
+    assertThat(notification.getEvent(), is(nullValue()));
+    assertThat(notification.getException(), is(nullValue()));
+    assertThat(notification.getEventContext(), is(nullValue()));
+    assertThat(retained.get(0).getException(), is(not(nullValue())));
+  }
+
+  @Test
+  public void reusesPipelineMessageNotifications() {
+    final ProcessorNotificationPool pool = new ProcessorNotificationPool(recordingDispatcher());
+
+    pool.firePipelineMessageNotification(event, processor, null, "flow", PROCESS_START);
+    pool.firePipelineMessageNotification(event, processor, null, "otherFlow", PROCESS_START);
+
+    assertThat(handled.get(1), is(sameInstance(handled.get(0))));
+    final PipelineMessageNotification first = (PipelineMessageNotification) retained.get(0);
+    assertThat(first, is(not(sameInstance(handled.get(0)))));
+    assertThat(first.getResourceIdentifier(), is("flow"));
+    assertThat(first.getEvent(), is(sameInstance(event)));
+    assertThat(retained.get(1).getResourceIdentifier(), is("otherFlow"));
+  }
+
+  @Test
+  public void nestedNotificationsGetTheirOwnInstance() {
+    final ProcessorNotificationPool[] pool = new ProcessorNotificationPool[1];
+    pool[0] = new ProcessorNotificationPool(notification -> {
+      handled.add(notification);
+      if (handled.size() == 1) {
+        pool[0].fireMessageProcessorNotification(event, location, processor, null, MESSAGE_PROCESSOR_POST_INVOKE);
+        assertThat(((MessageProcessorNotification) notification).getAction().getActionId(), is(MESSAGE_PROCESSOR_PRE_INVOKE));
+      }
+    });
+
+    pool[0].fireMessageProcessorNotification(event, location, processor, null, MESSAGE_PROCESSOR_PRE_INVOKE);
+
+    assertThat(handled.get(1), is(not(sameInstance(handled.get(0)))));
+  }
+
+  @Test
+  public void notPooledNotificationsAreRetainedAsIs() {
+    final MessageProcessorNotification notification =
+        MessageProcessorNotification.createFrom(event, location, processor, null, MESSAGE_PROCESSOR_PRE_INVOKE);
+
+    assertThat(notification.retain(), is(sameInstance(notification)));
+  }
+
+  @Test
+  public void queueingDispatcherDeliversRetainedNotifications() {
+    final List<Runnable> drainTasks = new ArrayList<>();
+    final AsyncNotificationDispatcher dispatcher =
+        new AsyncNotificationDispatcher(handled::add, drainTasks::add, 16, DROP_NEWEST, 64, 1, true);
+    final ProcessorNotificationPool pool = new ProcessorNotificationPool(dispatcher);
+
+    pool.fireMessageProcessorNotification(event, location, processor, null, MESSAGE_PROCESSOR_PRE_INVOKE);
+    pool.fireMessageProcessorNotification(event, location, processor, null, MESSAGE_PROCESSOR_POST_INVOKE);
+    pool.firePipelineMessageNotification(event, processor, null, "flow", PROCESS_START);
+    drainTasks.forEach(Runnable::run);
+
+    assertThat(handled.size(), is(3));
+    final MessageProcessorNotification first = (MessageProcessorNotification) handled.get(0);
+    assertThat(first.getAction().getActionId(), is(MESSAGE_PROCESSOR_PRE_INVOKE));
+    assertThat(first.getEvent(), is(sameInstance(event)));
+    assertThat(first.getInfo(), is(not(nullValue())));
+    final MessageProcessorNotification second = (MessageProcessorNotification) handled.get(1);
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(second.getAction().getActionId(), is(MESSAGE_PROCESSOR_POST_INVOKE));
+    assertThat(second.getEvent(), is(sameInstance(event)));
+    final PipelineMessageNotification third = (PipelineMessageNotification) handled.get(2);
+    assertThat(third.getResourceIdentifier(), is("flow"));
+    assertThat(third.getEvent(), is(sameInstance(event)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidMaxPooledPerThread() {
+    new ProcessorNotificationPool(recordingDispatcher(), 0);
+  }
+
+  private NotificationDispatcher recordingDispatcher() {
+    return notification -> {
+      handled.add(notification);
+      retained.add(((EnrichedServerNotification) notification).retain());
+    };
+  }
+}
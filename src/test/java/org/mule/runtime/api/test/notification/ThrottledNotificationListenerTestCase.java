@@ -0,0 +1,197 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.notification;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.notification.ThrottledNotificationListener.rateLimiting;
+import static org.mule.runtime.api.notification.ThrottledNotificationListener.sampling;
+
+import org.mule.runtime.api.notification.AbstractServerNotification;
+import org.mule.runtime.api.notification.IndexedNotificationListenerRegistry;
+import org.mule.runtime.api.notification.IntegerAction;
+import org.mule.runtime.api.notification.Notification;
+import org.mule.runtime.api.notification.NotificationListener;
+import org.mule.runtime.api.notification.ThrottledNotificationListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class ThrottledNotificationListenerTestCase {
+
+  private final List<Notification> delivered = new ArrayList<>();
+  private final AtomicLong nanoTime = new AtomicLong(-SECONDS.toNanos(10));
+
+  @Test
+  public void samplesEvenly() {
+    final ThrottledNotificationListener<Notification> listener = sampling(delivered::add, 0.01);
+
+    for (int i = 0; i < 1000; ++i) {
+      listener.onNotification(new ResourceNotification("flow"));
+    }
+
+    assertThat(delivered.size(), is(10));
+    assertThat(listener.getDeliveredCount(), is(10L));
+    assertThat(listener.getSuppressedCount(), is(990L));
+    assertThat(listener.getSuppressedCount(ResourceNotification.class, "flow"), is(990L));
+  }
+
+  @Test
+  public void samplesEachResourceSeparately() {
+    final ThrottledNotificationListener<Notification> listener = sampling(delivered::add, 0.5);
+
+    listener.onNotification(new ResourceNotification("flow"));
+    listener.onNotification(new ResourceNotification("otherFlow"));
+    listener.onNotification(new ResourceNotification("flow"));
+    listener.onNotification(new ResourceNotification("otherFlow"));
+
+    assertThat(delivered.size(), is(2));
+    assertThat(listener.getSuppressedCount(ResourceNotification.class, "flow"), is(1L));
+    assertThat(listener.getSuppressedCount(ResourceNotification.class, "otherFlow"), is(1L));
+  }
+
+  @Test
+  public void fullSamplingRatioDeliversEverything() {
+    final ThrottledNotificationListener<Notification> listener = sampling(delivered::add, 1);
+
+    for (int i = 0; i < 10; ++i) {
+      listener.onNotification(new ResourceNotification("flow"));
+    }
+
+    assertThat(delivered.size(), is(10));
+    assertThat(listener.getSuppressedCount(), is(0L));
+  }
+
+  @Test
+  public void rateLimitsBursts() {
+    final ThrottledNotificationListener<Notification> listener = rateLimiting(delivered::add, 5, 1, SECONDS, nanoTime::get);
+
+    for (int i = 0; i < 8; ++i) {
+      listener.onNotification(new ResourceNotification("flow"));
+    }
+
+    assertThat(delivered.size(), is(5));
+    assertThat(listener.getSuppressedCount(ResourceNotification.class, "flow"), is(3L));
+  }
+
+  @Test
+  public void rateLimitRefills() {
+    final ThrottledNotificationListener<Notification> listener = rateLimiting(delivered::add, 5, 1, SECONDS, nanoTime::get);
+    for (int i = 0; i < 5; ++i) {
+      listener.onNotification(new ResourceNotification("flow"));
+    }
+
+    nanoTime.addAndGet(MILLISECONDS.toNanos(400));
+    for (int i = 0; i < 5; ++i) {
+      listener.onNotification(new ResourceNotification("flow"));
+    }
+    assertThat(delivered.size(), is(7));
+
+    nanoTime.addAndGet(SECONDS.toNanos(10));
+    for (int i = 0; i < 10; ++i) {
+      listener.onNotification(new ResourceNotification("flow"));
+    }
+    assertThat(delivered.size(), is(12));
+    assertThat(listener.getSuppressedCount(), is(8L));
+  }
+
+  @Test
+  public void rateLimitsEachTypeAndResourceSeparately() {
+    final ThrottledNotificationListener<Notification> listener = rateLimiting(delivered::add, 1, 1, SECONDS, nanoTime::get);
+
+    for (int i = 0; i < 3; ++i) {
+      listener.onNotification(new ResourceNotification("flow"));
+      listener.onNotification(new ResourceNotification("otherFlow"));
+      listener.onNotification(new ResourceNotification(null));
+      listener.onNotification(() -> new IntegerAction(1));
+    }
+
+    assertThat(delivered.size(), is(4));
+
+    final Map<Class<?>, Map<String, Long>> suppressed = listener.getSuppressedCounts();
+    assertThat(suppressed, is(aMapWithSize(2)));
+    final Map<String, Long> byResource = suppressed.get(ResourceNotification.class);
+    assertThat(byResource, is(aMapWithSize(3)));
+    assertThat(byResource, hasEntry("flow", 2L));
+    assertThat(byResource, hasEntry("otherFlow", 2L));
+    assertThat(byResource, hasEntry(null, 2L));
+    assertThat(listener.getSuppressedCount(ResourceNotification.class, null), is(2L));
+  }
+
+  @Test
+  public void noSuppressedCountsForUnknownKeys() {
+    final ThrottledNotificationListener<Notification> listener = rateLimiting(delivered::add, 1, 1, SECONDS, nanoTime::get);
+    listener.onNotification(new ResourceNotification("flow"));
+
+    assertThat(listener.getSuppressedCount(ResourceNotification.class, "otherFlow"), is(0L));
+    assertThat(listener.getSuppressedCount(Notification.class, null), is(0L));
+    assertThat(listener.getSuppressedCounts(), is(aMapWithSize(0)));
+  }
+
+  @Test
+  public void registeredWithoutTypeRoutedByDelegateType() {
+    final List<ResourceNotification> received = new ArrayList<>();
+    final IndexedNotificationListenerRegistry registry = new IndexedNotificationListenerRegistry();
+    registry.registerListener(sampling(new NotificationListener<ResourceNotification>() {
+
+      @Override
+      public void onNotification(ResourceNotification notification) {
+        received.add(notification);
+      }
+    }, 1));
+
+    registry.dispatch(new ResourceNotification("flow"));
+    registry.dispatch(() -> new IntegerAction(1));
+
+    assertThat(received.size(), is(1));
+    assertThat(registry.isListenedTo(ResourceNotification.class, new IntegerAction(1)), is(true));
+    assertThat(registry.isListenedTo(Notification.class, new IntegerAction(1)), is(false));
+  }
+
+  @Test
+  public void registeredWithTypeOnlyGetsThatType() {
+    final IndexedNotificationListenerRegistry registry = new IndexedNotificationListenerRegistry();
+    final ThrottledNotificationListener<ResourceNotification> listener = sampling(delivered::add, 1);
+    registry.registerListener(listener, ResourceNotification.class);
+
+    registry.dispatch(new ResourceNotification("flow"));
+    registry.dispatch(() -> new IntegerAction(1));
+
+    assertThat(delivered.size(), is(1));
+    assertThat(listener.getDeliveredCount(), is(1L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidSamplingRatio() {
+    sampling(delivered::add, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidPermits() {
+    rateLimiting(delivered::add, 0, 1, SECONDS);
+  }
+
+  private static final class ResourceNotification extends AbstractServerNotification {
+
+    private ResourceNotification(String resourceIdentifier) {
+      super("test", NO_ACTION_ID, resourceIdentifier);
+    }
+
+    @Override
+    public String getEventName() {
+      return "ResourceNotification";
+    }
+  }
+}
@@ -0,0 +1,634 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.serialization;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.mule.runtime.api.metadata.MediaType.APPLICATION_JSON;
+import static org.mule.runtime.api.serialization.BinarySerializationProtocol.FIRST_CUSTOM_CLASS_ID;
+import static org.mule.runtime.api.test.metadata.DefaultDataTypeBuilderFactory.withBuilders;
+import static org.mule.runtime.api.util.MultiMap.unmodifiableMultiMap;
+
+import org.mule.runtime.api.message.ItemSequenceInfo;
+import org.mule.runtime.api.metadata.CollectionDataType;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.DataTypeBuilder;
+import org.mule.runtime.api.metadata.DataTypeBuilder.DataTypeCollectionTypeBuilder;
+import org.mule.runtime.api.metadata.DataTypeBuilder.DataTypeMapTypeBuilder;
+import org.mule.runtime.api.metadata.MapDataType;
+import org.mule.runtime.api.metadata.MediaType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.serialization.BinaryCodec;
+import org.mule.runtime.api.serialization.BinaryInput;
+import org.mule.runtime.api.serialization.BinaryOutput;
+import org.mule.runtime.api.serialization.BinarySerializationProtocol;
+import org.mule.runtime.api.serialization.SerializationException;
+import org.mule.runtime.api.util.CaseInsensitiveMultiMap;
+import org.mule.runtime.api.util.CompactMultiMap;
+import org.mule.runtime.api.util.MultiMap;
+import org.mule.runtime.api.util.MultiMap.StringMultiMap;
+import org.mule.runtime.api.util.collection.SmallMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class BinarySerializationProtocolTestCase {
+
+  private final BinarySerializationProtocol protocol = BinarySerializationProtocol.builder().build();
+
+  @Test
+  public void jdkValues() {
+    assertThat(roundTrip(null), is(nullValue()));
+    assertThat(roundTrip("text"), is("text"));
+    assertThat(roundTrip("ñandú 😀"), is("ñandú 😀"));
+    assertThat(roundTrip(""), is(""));
+    assertThat(roundTrip(0), is(0));
+    assertThat(roundTrip(Integer.MIN_VALUE), is(Integer.MIN_VALUE));
+    assertThat(roundTrip(Integer.MAX_VALUE), is(Integer.MAX_VALUE));
+    assertThat(roundTrip(-1L), is(-1L));
+    assertThat(roundTrip(Long.MIN_VALUE), is(Long.MIN_VALUE));
+    assertThat(roundTrip(Long.MAX_VALUE), is(Long.MAX_VALUE));
+    assertThat(roundTrip(true), is(true));
+    assertThat(roundTrip(-0.5d), is(-0.5d));
+    assertThat(roundTrip(new byte[] {1, -1, 0}), is(new byte[] {1, -1, 0}));
+  }
+
+  @Test
+  public void stringsWithUnpairedSurrogates() {
+    for (String value : asList("a\uD800b", "\uDC00", "ñ\uD83D", "😀\uDE00😀")) {
+      assertThat(roundTrip(value), is(value));
+    }
+  }
+
+  @Test
+  public void collections() {
+    final List<Object> list = new ArrayList<>(asList("a", 1, null, new ArrayList<>(asList(2L))));
+    assertThat(roundTrip(list), is(list));
+
+    final Map<Object, Object> hashMap = new HashMap<>();
+    hashMap.put("key", list);
+    hashMap.put(null, "null key");
+    assertThat(roundTrip(hashMap), is(hashMap));
+
+    final Map<Object, Object> linkedHashMap = new LinkedHashMap<>();
+    linkedHashMap.put("z", 1);
+    linkedHashMap.put("a", 2);
+    final Map<Object, Object> read = roundTrip(linkedHashMap);
+    assertThat(read, is(instanceOf(LinkedHashMap.class)));
+    assertThat(read.keySet(), contains("z", "a"));
+  }
+
+  @Test
+  public void mediaTypes() {
+    assertThat(roundTrip(APPLICATION_JSON), is(sameInstance(APPLICATION_JSON)));
+
+    final MediaType withCharset = APPLICATION_JSON.withCharset(UTF_8);
+    assertThat(roundTrip(withCharset), is(withCharset));
+
+    final MediaType withParams = MediaType.parse("multipart/form-data; boundary=abc; charset=UTF-8");
+    final MediaType readWithParams = roundTrip(withParams);
+    assertThat(readWithParams, is(withParams));
+    assertThat(readWithParams.isDefinedInApp(), is(false));
+
+    final MediaType definedInApp = MediaType.parseDefinedInApp("application/custom; param=value");
+    final MediaType readDefinedInApp = roundTrip(definedInApp);
+    assertThat(readDefinedInApp, is(definedInApp));
+    assertThat(readDefinedInApp.isDefinedInApp(), is(true));
+  }
+
+  @Test
+  public void dataTypeConstants() {
+    assertThat(roundTrip(DataType.STRING), is(sameInstance(DataType.STRING)));
+    assertThat(roundTrip(DataType.MULTI_MAP_STRING_STRING), is(sameInstance(DataType.MULTI_MAP_STRING_STRING)));
+    assertThat(roundTrip(DataType.RSS_STRING), is(sameInstance(DataType.RSS_STRING)));
+  }
+
+  @Test
+  public void rebuiltDataTypes() {
+    final List<String> calls = new ArrayList<>();
+    withBuilders(() -> recordingBuilder(calls), () -> {
+      roundTrip(new TestDataType(Date.class, APPLICATION_JSON));
+      assertThat(calls, contains("type(Date)", "mediaType(application/json)", "build()"));
+
+      calls.clear();
+      roundTrip(new TestCollectionDataType(ArrayList.class, null, new TestDataType(String.class, APPLICATION_JSON)));
+      assertThat(calls, contains("collectionType(ArrayList)", "itemType(String)", "itemMediaType(application/json)",
+                                 "mediaType(null)", "build()"));
+
+      calls.clear();
+      roundTrip(new TestCollectionDataType(Iterator.class, APPLICATION_JSON, new TestDataType(Integer.class, null)));
+      assertThat(calls, contains("streamType(Iterator)", "itemType(Integer)", "itemMediaType(null)",
+                                 "mediaType(application/json)", "build()"));
+
+      calls.clear();
+      roundTrip(new TestMapDataType(HashMap.class, APPLICATION_JSON, new TestDataType(String.class, null),
+                                    new TestDataType(Long.class, APPLICATION_JSON)));
+      assertThat(calls, contains("mapType(HashMap)", "keyType(String)", "keyMediaType(null)", "valueType(Long)",
+                                 "valueMediaType(application/json)", "mediaType(application/json)", "build()"));
+    });
+  }
+
+  @Test
+  public void serializedDataTypes() {
+    final List<String> calls = new ArrayList<>();
+    withBuilders(() -> recordingBuilder(calls), () -> {
+      final DataType nested = new TestCollectionDataType(ArrayList.class, null,
+                                                         new TestCollectionDataType(ArrayList.class, null,
+                                                                                    new TestDataType(String.class, null)));
+      assertThat(roundTrip(nested), is(instanceOf(TestCollectionDataType.class)));
+
+      final DataType collectionAsSimple = new TestDataType(ArrayList.class, APPLICATION_JSON);
+      final DataType read = roundTrip(collectionAsSimple);
+      assertThat(read, is(instanceOf(TestDataType.class)));
+      assertThat(read.getMediaType(), is(APPLICATION_JSON));
+
+      assertThat(calls, is(empty()));
+    });
+  }
+
+  @Test
+  public void typedValues() {
+    final TypedValue<String> typedValue = new TypedValue<>("payload", DataType.JSON_STRING, OptionalLong.of(7));
+    final TypedValue<String> read = roundTrip(typedValue);
+
+    assertThat(read.getValue(), is("payload"));
+    assertThat(read.getDataType(), is(sameInstance(DataType.JSON_STRING)));
+    assertThat(read.getByteLength().getAsLong(), is(7L));
+
+    final TypedValue<byte[]> bytes = new TypedValue<>(new byte[3], DataType.BYTE_ARRAY);
+    assertThat(((TypedValue<byte[]>) roundTrip(bytes)).getByteLength().getAsLong(), is(3L));
+
+    final TypedValue<Object> unknownLength = new TypedValue<>(new ArrayList<>(asList(1)), DataType.OBJECT);
+    final TypedValue<Object> readUnknownLength = roundTrip(unknownLength);
+    assertThat(readUnknownLength.getValue(), is(asList(1)));
+    assertThat(readUnknownLength.getByteLength().isPresent(), is(false));
+  }
+
+  @Test
+  public void itemSequenceInfo() {
+    final ItemSequenceInfo withSize = roundTrip(ItemSequenceInfo.of(3, 10));
+    assertThat(withSize.getPosition(), is(3));
+    assertThat(withSize.getSequenceSize().getAsInt(), is(10));
+
+    final ItemSequenceInfo withoutSize = roundTrip(ItemSequenceInfo.of(4));
+    assertThat(withoutSize.getPosition(), is(4));
+    assertThat(withoutSize.getSequenceSize().isPresent(), is(false));
+  }
+
+  @Test
+  public void smallMap() {
+    final SmallMap<String, Object> smallMap = SmallMap.of("b", 1, "a", "2");
+    final Map<String, Object> read = roundTrip(smallMap);
+
+    assertThat(read, is(instanceOf(SmallMap.class)));
+    assertThat(read, is(smallMap));
+    assertThat(read.keySet(), contains("b", "a"));
+  }
+
+  @Test
+  public void multiMaps() {
+    final MultiMap<String, Object> multiMap = new MultiMap<>();
+    multiMap.put("key", "a");
+    multiMap.put("key", 2);
+    multiMap.put("other", "b");
+    final MultiMap<String, Object> read = roundTrip(multiMap);
+    assertThat(read.getClass(), is(sameInstance(MultiMap.class)));
+    assertThat(read.getAll("key"), contains("a", 2));
+    assertThat(read, is(multiMap));
+
+    final MultiMap<String, Object> immutable = multiMap.toImmutableMultiMap();
+    final MultiMap<String, Object> readImmutable = roundTrip(immutable);
+    assertThat(readImmutable.getClass(), is(sameInstance(immutable.getClass())));
+    assertThat(readImmutable.getAll("key"), contains("a", 2));
+    final MultiMap<String, Object> readEmpty = roundTrip(MultiMap.emptyMultiMap());
+    assertThat(readEmpty.isEmpty(), is(true));
+
+    final StringMultiMap stringMultiMap = new StringMultiMap();
+    stringMultiMap.put("key", "value");
+    assertThat(roundTrip(stringMultiMap).getClass(), is(sameInstance(StringMultiMap.class)));
+    final StringMultiMap immutableStringMultiMap = stringMultiMap.toImmutableMultiMap();
+    assertThat(roundTrip(immutableStringMultiMap).getClass(), is(sameInstance(immutableStringMultiMap.getClass())));
+  }
+
+  @Test
+  public void multiMapSubclasses() {
+    final MultiMap<String, Object> multiMap = new MultiMap<>();
+    multiMap.put("key", "a");
+    final MultiMap<String, Object> unmodifiable = unmodifiableMultiMap(multiMap);
+    final MultiMap<String, Object> readUnmodifiable = roundTrip(unmodifiable);
+    assertThat(readUnmodifiable.getClass(), is(sameInstance(unmodifiable.getClass())));
+    assertThat(readUnmodifiable.getAll("key"), contains("a"));
+
+    final CustomMultiMap custom = new CustomMultiMap();
+    custom.put("key", "value");
+    final MultiMap<String, String> readCustom = roundTrip(custom);
+    assertThat(readCustom, is(instanceOf(CustomMultiMap.class)));
+    assertThat(readCustom.get("key"), is("value"));
+  }
+
+  @Test
+  public void caseInsensitiveMultiMaps() {
+    final CaseInsensitiveMultiMap<String> headers = new CaseInsensitiveMultiMap<>();
+    headers.put("Content-Type", "text/plain");
+    headers.put("Accept", "a");
+    headers.put("ACCEPT", "b");
+
+    final CaseInsensitiveMultiMap<String> read = roundTrip(headers);
+    assertThat(read.getAll("accept"), contains("a", "b"));
+    assertThat(read.keySet(), contains("Content-Type", "Accept"));
+    read.put("new", "value");
+
+    final CaseInsensitiveMultiMap<String> readImmutable = roundTrip(headers.toImmutableMultiMap());
+    assertThat(readImmutable.get("content-type"), is("text/plain"));
+    try {
+      readImmutable.put("new", "value");
+      fail("Expected an immutable map");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void compactMultiMaps() {
+    final CompactMultiMap<String, String> params = new CompactMultiMap<>();
+    params.put("q", "mule");
+    params.put("tag", "a");
+    params.put("tag", "b");
+
+    final MultiMap<String, String> read = roundTrip(params);
+    assertThat(read.getClass(), is(sameInstance(CompactMultiMap.class)));
+    assertThat(read, is(params));
+    assertThat(read.getAll("tag"), contains("a", "b"));
+    read.put("new", "value");
+
+    final MultiMap<String, String> readImmutable = roundTrip(params.toImmutableMultiMap());
+    assertThat(readImmutable.getClass(), is(sameInstance(CompactMultiMap.class)));
+    assertThat(readImmutable, is(params));
+    try {
+      readImmutable.put("new", "value");
+      fail("Expected an immutable map");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void javaSerializationFallback() {
+    final Date date = new Date(1234);
+    assertThat(roundTrip(date), is(date));
+
+    final List<Object> nested = new ArrayList<>(asList("a", date));
+    assertThat(roundTrip(nested), is(nested));
+  }
+
+  @Test
+  public void notSerializable() {
+    try {
+      protocol.serialize(new Object());
+      fail("Expected a SerializationException");
+    } catch (SerializationException e) {
+      assertThat(e.getCause(), is(instanceOf(IllegalArgumentException.class)));
+    }
+  }
+
+  @Test
+  public void customCodecs() {
+    final BinarySerializationProtocol custom = BinarySerializationProtocol.builder()
+        .register(FIRST_CUSTOM_CLASS_ID, Point.class, new PointCodec())
+        .registerForSubtypes(FIRST_CUSTOM_CLASS_ID + 1, Shape.class, new ShapeCodec())
+        .build();
+
+    final Point point = custom.deserialize(custom.serialize(new Point(1, -2)));
+    assertThat(point.x, is(1));
+    assertThat(point.y, is(-2));
+
+    final Shape circle = custom.deserialize(custom.serialize(new Circle("circle")));
+    assertThat(circle.getName(), is("circle"));
+    assertThat(circle, is(instanceOf(NamedShape.class)));
+
+    assertThat(custom.serialize(new Point(1, 2)).length, is(lessThan(protocol.serialize(new Point(1, 2)).length)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void reservedClassId() {
+    BinarySerializationProtocol.builder().register(FIRST_CUSTOM_CLASS_ID - 1, Point.class, new PointCodec());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void repeatedClassId() {
+    BinarySerializationProtocol.builder()
+        .register(FIRST_CUSTOM_CLASS_ID, Point.class, new PointCodec())
+        .registerForSubtypes(FIRST_CUSTOM_CLASS_ID, Shape.class, new ShapeCodec());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void repeatedType() {
+    BinarySerializationProtocol.builder()
+        .register(FIRST_CUSTOM_CLASS_ID, Point.class, new PointCodec())
+        .register(FIRST_CUSTOM_CLASS_ID + 1, Point.class, new PointCodec());
+  }
+
+  @Test
+  public void unknownClassId() {
+    final BinarySerializationProtocol custom = BinarySerializationProtocol.builder()
+        .register(FIRST_CUSTOM_CLASS_ID, Point.class, new PointCodec())
+        .build();
+    expectSerializationException(() -> protocol.deserialize(custom.serialize(new Point(1, 2))));
+  }
+
+  @Test
+  public void corruptedData() {
+    final byte[] serialized = protocol.serialize("some text");
+    expectSerializationException(() -> protocol.deserialize(new byte[] {1, 2, 3}));
+    expectSerializationException(() -> protocol.deserialize(copyOf(serialized, serialized.length - 1)));
+    expectSerializationException(() -> protocol.deserialize(copyOf(serialized, serialized.length + 1)));
+  }
+
+  @Test
+  public void mutatedDataFailsWithSerializationException() {
+    final List<Object> list = new ArrayList<>();
+    list.add(new TypedValue<>("payload", DataType.JSON_STRING, OptionalLong.of(7)));
+    list.add(APPLICATION_JSON.withCharset(UTF_8));
+    list.add(ItemSequenceInfo.of(1, 2));
+    list.add(new StringMultiMap(singletonMap("key", "value")));
+    list.add(new Date(1234));
+    final byte[] serialized = protocol.serialize(list);
+
+    final Random random = new Random(42);
+    for (int i = 0; i < 20000; ++i) {
+      final byte[] mutated = serialized.clone();
+      for (int j = random.nextInt(3); j >= 0; --j) {
+        mutated[random.nextInt(mutated.length)] = (byte) random.nextInt();
+      }
+      try {
+        protocol.deserialize(mutated);
+      } catch (SerializationException e) {
+        // expected, any other exception fails the test
+      }
+    }
+  }
+
+  @Test
+  public void postDeserialization() {
+    final List<Object> initialized = new ArrayList<>();
+    final BinarySerializationProtocol initializing = BinarySerializationProtocol.builder()
+        .postDeserialization(initialized::add)
+        .build();
+
+    final List<Object> read = initializing.deserialize(initializing.serialize(new ArrayList<>(asList("a", null, 1))));
+
+    assertThat(initialized, contains("a", 1, read));
+  }
+
+  @Test
+  public void streams() {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    protocol.serialize(asList("a", "b"), out);
+
+    final AtomicBoolean closed = new AtomicBoolean();
+    final List<String> read = protocol.deserialize(new ByteArrayInputStream(out.toByteArray()) {
+
+      @Override
+      public void close() throws IOException {
+        closed.set(true);
+        super.close();
+      }
+    }, getClass().getClassLoader());
+
+    assertThat(read, contains("a", "b"));
+    assertThat(closed.get(), is(true));
+  }
+
+  @Test
+  public void smallerThanJavaSerialization() throws IOException {
+    final CaseInsensitiveMultiMap<String> headers = new CaseInsensitiveMultiMap<>();
+    headers.put("Content-Type", "application/json");
+    headers.put("Content-Length", "1024");
+    headers.put("X-Correlation-Id", "7f1c9a4e-3b2d-4c8e-9f0a-1b2c3d4e5f60");
+
+    assertThat(protocol.serialize(headers).length, is(lessThan(javaSerializedSize(headers))));
+    assertThat(protocol.serialize(ItemSequenceInfo.of(1, 2)).length, is(lessThan(javaSerializedSize(ItemSequenceInfo.of(1, 2)))));
+    assertThat(protocol.serialize(APPLICATION_JSON).length, is(lessThan(javaSerializedSize(APPLICATION_JSON))));
+  }
+
+  private <T> T roundTrip(Object value) {
+    return protocol.deserialize(protocol.serialize(value));
+  }
+
+  /**
+   * A builder that records the calls made to it, and builds a {@link TestDataType} of {@link Object}.
+   */
+  private static DataTypeBuilder recordingBuilder(List<String> calls) {
+    return mock(DataTypeBuilder.class, withSettings()
+        .extraInterfaces(DataTypeCollectionTypeBuilder.class, DataTypeMapTypeBuilder.class)
+        .defaultAnswer(invocation -> {
+          final List<String> arguments = new ArrayList<>();
+          for (Object argument : invocation.getArguments()) {
+            arguments.add(argument instanceof Class ? ((Class<?>) argument).getSimpleName() : String.valueOf(argument));
+          }
+          calls.add(invocation.getMethod().getName() + "(" + String.join(", ", arguments) + ")");
+          return invocation.getMethod().getName().equals("build") ? new TestDataType(Object.class, null) : invocation.getMock();
+        }));
+  }
+
+  private static int javaSerializedSize(Object value) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.size();
+  }
+
+  private static void expectSerializationException(Runnable task) {
+    try {
+      task.run();
+      fail("Expected a SerializationException");
+    } catch (SerializationException e) {
+      // expected
+    }
+  }
+
+  private static class TestDataType implements DataType {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Class<?> type;
+    private final MediaType mediaType;
+
+    private TestDataType(Class<?> type, MediaType mediaType) {
+      this.type = type;
+      this.mediaType = mediaType;
+    }
+
+    @Override
+    public Class<?> getType() {
+      return type;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+      return mediaType;
+    }
+
+    @Override
+    public boolean isCompatibleWith(DataType dataType) {
+      return false;
+    }
+
+    @Override
+    public boolean isStreamType() {
+      return Iterator.class.isAssignableFrom(type);
+    }
+  }
+
+  private static final class TestCollectionDataType extends TestDataType implements CollectionDataType {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DataType itemDataType;
+
+    private TestCollectionDataType(Class<?> type, MediaType mediaType, DataType itemDataType) {
+      super(type, mediaType);
+      this.itemDataType = itemDataType;
+    }
+
+    @Override
+    public DataType getItemDataType() {
+      return itemDataType;
+    }
+  }
+
+  private static final class TestMapDataType extends TestDataType implements MapDataType {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DataType keyDataType;
+    private final DataType valueDataType;
+
+    private TestMapDataType(Class<?> type, MediaType mediaType, DataType keyDataType, DataType valueDataType) {
+      super(type, mediaType);
+      this.keyDataType = keyDataType;
+      this.valueDataType = valueDataType;
+    }
+
+    @Override
+    public DataType getKeyDataType() {
+      return keyDataType;
+    }
+
+    @Override
+    public DataType getValueDataType() {
+      return valueDataType;
+    }
+  }
+
+  private static final class CustomMultiMap extends MultiMap<String, String> {
+
+    private static final long serialVersionUID = 1L;
+  }
+
+  private static final class Point implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int x;
+    private final int y;
+
+    private Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  private static final class PointCodec implements BinaryCodec<Point> {
+
+    @Override
+    public void write(Point value, BinaryOutput out) {
+      out.writeInt(value.x);
+      out.writeInt(value.y);
+    }
+
+    @Override
+    public Point read(BinaryInput in) throws IOException {
+      return new Point(in.readInt(), in.readInt());
+    }
+  }
+
+  private interface Shape {
+
+    String getName();
+  }
+
+  private static final class Circle implements Shape {
+
+    private final String name;
+
+    private Circle(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+  }
+
+  private static final class NamedShape implements Shape {
+
+    private final String name;
+
+    private NamedShape(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+  }
+
+  private static final class ShapeCodec implements BinaryCodec<Shape> {
+
+    @Override
+    public void write(Shape value, BinaryOutput out) {
+      out.writeString(value.getName());
+    }
+
+    @Override
+    public Shape read(BinaryInput in) throws IOException {
+      return new NamedShape(in.readString());
+    }
+  }
+}
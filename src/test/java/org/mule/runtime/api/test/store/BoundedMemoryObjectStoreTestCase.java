@@ -0,0 +1,186 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.store;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import org.mule.runtime.api.store.BoundedMemoryObjectStore;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreSettings;
+import org.mule.runtime.api.store.PartitionedBoundedMemoryObjectStore;
+import org.mule.runtime.api.time.TimeSupplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoundedMemoryObjectStoreTestCase {
+
+  private static final long TTL = SECONDS.toMillis(10);
+
+  private MutableTimeSupplier timeSupplier;
+
+  @Before
+  public void setUp() {
+    timeSupplier = new MutableTimeSupplier();
+  }
+
+  @Test
+  public void entriesExpireAfterTtl() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store = storeWith(TTL, null);
+    store.store("a", "A");
+    timeSupplier.currentTimeMillis = TTL - 1;
+    store.store("b", "B");
+
+    assertThat(store.contains("a"), is(true));
+    assertThat(store.retrieve("a"), is("A"));
+
+    timeSupplier.currentTimeMillis = TTL;
+    assertThat(store.contains("a"), is(false));
+    assertThat(store.contains("b"), is(true));
+    assertThat(store.allKeys(), contains("b"));
+    assertThat(store.streamKeys().collect(toList()), contains("b"));
+  }
+
+  @Test(expected = ObjectDoesNotExistException.class)
+  public void retrieveExpiredEntry() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store = storeWith(TTL, null);
+    store.store("a", "A");
+    timeSupplier.currentTimeMillis = TTL;
+
+    store.retrieve("a");
+  }
+
+  @Test
+  public void expiredKeyCanBeStoredAgain() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store = storeWith(TTL, null);
+    store.store("a", "A");
+    timeSupplier.currentTimeMillis = TTL;
+    store.store("a", "A2");
+
+    assertThat(store.retrieve("a"), is("A2"));
+  }
+
+  @Test(expected = ObjectAlreadyExistsException.class)
+  public void storeExistingKey() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store = storeWith(TTL, null);
+    store.store("a", "A");
+    store.store("a", "A2");
+  }
+
+  @Test
+  public void maxEntriesEvictsOldestFirst() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store = storeWith(null, 3);
+    for (int i = 0; i < 5; ++i) {
+      store.store("k" + i, "v" + i);
+    }
+
+    assertThat(store.allKeys(), containsInAnyOrder("k2", "k3", "k4"));
+  }
+
+  @Test
+  public void removedEntriesDontAffectEvictionOrder() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store = storeWith(null, 2);
+    store.store("a", "A");
+    store.store("b", "B");
+    store.remove("a");
+    store.store("c", "C");
+    store.store("d", "D");
+
+    assertThat(store.allKeys(), containsInAnyOrder("c", "d"));
+  }
+
+  @Test
+  public void storeRemoveChurnWithLongLivedEntry() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store = storeWith(TTL, 10);
+    store.store("longLived", "value");
+    for (int i = 0; i < 10000; ++i) {
+      store.store("churn", "value");
+      store.remove("churn");
+    }
+
+    assertThat(store.allKeys(), contains("longLived"));
+  }
+
+  @Test
+  public void boundsEnforcedBetweenExpirationIntervals() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store =
+        new BoundedMemoryObjectStore<>(ObjectStoreSettings.builder().entryTtl(TTL).maxEntries(2).expirationInterval(10 * TTL)
+            .build(), timeSupplier);
+    store.store("a", "A");
+    timeSupplier.currentTimeMillis = TTL;
+    store.store("b", "B");
+
+    assertThat(store.contains("a"), is(false));
+    assertThat(store.allKeys(), contains("b"));
+
+    store.store("c", "C");
+    store.store("d", "D");
+    assertThat(store.allKeys(), containsInAnyOrder("c", "d"));
+  }
+
+  @Test
+  public void explicitExpire() throws ObjectStoreException {
+    BoundedMemoryObjectStore<String> store = storeWith(null, null);
+    for (int i = 0; i < 5; ++i) {
+      timeSupplier.currentTimeMillis = i;
+      store.store("k" + i, "v" + i);
+    }
+
+    store.expire(3, 0);
+    assertThat(store.allKeys(), containsInAnyOrder("k2", "k3", "k4"));
+
+    store.expire(0, 1);
+    assertThat(store.allKeys(), contains("k4"));
+  }
+
+  @Test
+  public void partitionsAreBoundedIndependently() throws ObjectStoreException {
+    PartitionedBoundedMemoryObjectStore<String> store =
+        new PartitionedBoundedMemoryObjectStore<>(ObjectStoreSettings.builder().maxEntries(1).build(), timeSupplier);
+    store.store("a", "A", "p1");
+    store.store("b", "B", "p2");
+    store.store("c", "C", "p1");
+
+    assertThat(store.allKeys("p1"), contains("c"));
+    assertThat(store.allKeys("p2"), contains("b"));
+    assertThat(store.allPartitions(), containsInAnyOrder("p1", "p2"));
+
+    store.disposePartition("p1");
+    assertThat(store.allKeys("p1"), is(empty()));
+    assertThat(store.allPartitions(), hasSize(1));
+  }
+
+  private BoundedMemoryObjectStore<String> storeWith(Long entryTtl, Integer maxEntries) {
+    return new BoundedMemoryObjectStore<>(ObjectStoreSettings.builder().entryTtl(entryTtl).maxEntries(maxEntries).build(),
+                                          timeSupplier);
+  }
+
+  private static class MutableTimeSupplier implements TimeSupplier {
+
+    private long currentTimeMillis;
+
+    @Override
+    public Long get() {
+      return currentTimeMillis;
+    }
+
+    @Override
+    public long getAsLong() {
+      return currentTimeMillis;
+    }
+  }
+}
@@ -11,6 +11,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 
 import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
 import org.mule.runtime.api.store.ObjectStoreToMapAdapter;
 import org.mule.runtime.api.store.SimpleMemoryObjectStore;
 
@@ -151,6 +152,46 @@ public class ObjectStoreToMapAdapterTestCase {
     assertThat(map.containsKey("FB"), is(false));
   }
 
+  @Test
+  public void goesThroughThePublicOperationsOnlyOnHits() {
+    AtomicInteger retrieved = new AtomicInteger();
+    AtomicInteger removed = new AtomicInteger();
+    map = new ObjectStoreToMapAdapter<Serializable>() {
+
+      private final ObjectStore<Serializable> objectStore = new SimpleMemoryObjectStore<Serializable>() {
+
+        @Override
+        public Serializable retrieve(String key) throws ObjectStoreException {
+          retrieved.incrementAndGet();
+          return super.retrieve(key);
+        }
+
+        @Override
+        public Serializable remove(String key) throws ObjectStoreException {
+          removed.incrementAndGet();
+          return super.remove(key);
+        }
+      };
+
+      @Override
+      protected ObjectStore<Serializable> getObjectStore() {
+        return objectStore;
+      }
+    };
+
+    assertThat(map.get("Hello"), nullValue());
+    assertThat(map.put("Hello", 5), nullValue());
+    assertThat(retrieved.get(), is(0));
+    assertThat(removed.get(), is(0));
+
+    assertThat(map.put("Hello", 6), is(5));
+    assertThat(map.get("Hello"), is(6));
+    assertThat(map.remove("Hello"), is(6));
+    assertThat(map.remove("Hello"), nullValue());
+    assertThat(retrieved.get(), is(1));
+    assertThat(removed.get(), is(2));
+  }
+
   @Test
   @Issue("MULE-18172")
   public void getDoesntThrowExceptionsWhenKeyIsUpdatedConcurrently() throws InterruptedException {
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.store;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.SimpleMemoryObjectStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TemplateObjectStoreTestCase {
+
+  private CountingObjectStore store;
+
+  @Before
+  public void setUp() {
+    store = new CountingObjectStore();
+  }
+
+  @Test
+  public void storeDoesNotCheckContains() throws ObjectStoreException {
+    store.store("key", "value");
+    assertThat(store.retrieve("key"), is("value"));
+    assertThat(store.remove("key"), is("value"));
+
+    assertThat(store.containsCalls.get(), is(0));
+  }
+
+  @Test(expected = ObjectAlreadyExistsException.class)
+  public void storeExistingKey() throws ObjectStoreException {
+    store.store("key", "value");
+    store.store("key", "other");
+  }
+
+  @Test(expected = ObjectDoesNotExistException.class)
+  public void retrieveMissingKey() throws ObjectStoreException {
+    store.retrieve("key");
+  }
+
+  @Test(expected = ObjectDoesNotExistException.class)
+  public void removeMissingKey() throws ObjectStoreException {
+    store.remove("key");
+  }
+
+  @Test
+  public void batchOperations() throws ObjectStoreException {
+    Map<String, String> entries = new HashMap<>();
+    entries.put("a", "A");
+    entries.put("b", "B");
+    store.storeAll(entries);
+
+    assertThat(store.containsAll(asList("a", "b")), is(true));
+    assertThat(store.containsAll(asList("a", "c")), is(false));
+
+    Map<String, String> retrieved = store.retrieveAll(asList("a", "c"));
+    assertThat(retrieved, is(aMapWithSize(1)));
+    assertThat(retrieved, hasEntry("a", "A"));
+
+    Map<String, String> removed = store.removeAll(asList("b", "c"));
+    assertThat(removed, is(aMapWithSize(1)));
+    assertThat(removed, hasEntry("b", "B"));
+    assertThat(store.contains("b"), is(false));
+
+    assertThat(store.containsCalls.get(), is(1));
+  }
+
+  @Test(expected = ObjectAlreadyExistsException.class)
+  public void storeAllWithExistingKey() throws ObjectStoreException {
+    store.store("a", "A");
+    Map<String, String> entries = new HashMap<>();
+    entries.put("a", "A2");
+    store.storeAll(entries);
+  }
+
+  @Test(expected = ObjectStoreException.class)
+  public void retrieveAllWithBlankKey() throws ObjectStoreException {
+    store.retrieveAll(asList("a", " "));
+  }
+
+  @Test
+  public void streamKeysWithPrefix() throws ObjectStoreException {
+    store.store("user:1", "a");
+    store.store("user:2", "b");
+    store.store("group:1", "c");
+
+    try (Stream<String> keys = store.streamKeysStartingWith("user:")) {
+      assertThat(keys.collect(toList()), containsInAnyOrder("user:1", "user:2"));
+    }
+    try (Stream<Map.Entry<String, String>> entries = store.streamEntries()) {
+      assertThat(entries.map(Map.Entry::getValue).collect(toList()), containsInAnyOrder("a", "b", "c"));
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void streamedEntriesAreNotWritable() throws ObjectStoreException {
+    store.store("key", "value");
+    try (Stream<Map.Entry<String, String>> entries = store.streamEntries()) {
+      entries.findFirst().get().setValue("other");
+    }
+  }
+
+  @Test
+  public void concurrentStoreOnlyOneWins() throws InterruptedException {
+    int threadsCount = 50;
+    CountDownLatch startLatch = new CountDownLatch(1);
+    AtomicInteger stored = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+
+    for (int i = 0; i < threadsCount; ++i) {
+      final String value = "value" + i;
+      Thread thread = new Thread(() -> {
+        try {
+          startLatch.await();
+          store.store("key", value);
+          stored.incrementAndGet();
+        } catch (ObjectAlreadyExistsException e) {
+          rejected.incrementAndGet();
+        } catch (Exception e) {
+          // fails the assertions below
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    startLatch.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(stored.get(), is(1));
+    assertThat(rejected.get(), is(threadsCount - 1));
+  }
+
+  private static class CountingObjectStore extends SimpleMemoryObjectStore<String> {
+
+    private final AtomicInteger containsCalls = new AtomicInteger();
+
+    @Override
+    public boolean contains(String key) throws ObjectStoreException {
+      containsCalls.incrementAndGet();
+      return super.contains(key);
+    }
+  }
+}
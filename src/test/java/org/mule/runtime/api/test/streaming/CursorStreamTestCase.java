@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.streaming;
+
+import static java.nio.ByteBuffer.allocate;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.channels.Channels.newChannel;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.api.streaming.CursorProvider;
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CursorStreamTestCase {
+
+  private static final byte[] CONTENT = "Hello World!".getBytes(UTF_8);
+
+  @Test
+  public void readIntoHeapBuffer() throws IOException {
+    assertReadInto(allocate(5));
+  }
+
+  @Test
+  public void readIntoDirectBuffer() throws IOException {
+    assertReadInto(allocateDirect(5));
+  }
+
+  private void assertReadInto(ByteBuffer buffer) throws IOException {
+    final CursorStream cursor = new ByteArrayCursorStream(null, CONTENT);
+    cursor.seek(6);
+
+    assertThat(cursor.read(buffer), is(5));
+    assertThat(buffer.position(), is(5));
+    assertThat(cursor.getPosition(), is(11L));
+    assertThat(cursor.read(buffer), is(0));
+
+    buffer.flip();
+    final byte[] read = new byte[buffer.remaining()];
+    buffer.get(read);
+    assertThat(new String(read, UTF_8), equalTo("World"));
+
+    buffer.clear();
+    assertThat(cursor.read(buffer), is(1));
+    assertThat(cursor.read(buffer), is(-1));
+  }
+
+  @Test
+  public void readIntoSlicedBuffer() throws IOException {
+    final ByteBuffer backing = allocate(10);
+    backing.position(3);
+    final ByteBuffer slice = backing.slice();
+    slice.position(2);
+
+    assertThat(new ByteArrayCursorStream(null, CONTENT).read(slice), is(5));
+    assertThat(new String(backing.array(), 5, 5, UTF_8), equalTo("Hello"));
+  }
+
+  @Test
+  public void transferTo() throws IOException {
+    final byte[] content = new byte[20000];
+    Arrays.fill(content, (byte) 'a');
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    final CursorStream cursor = new ByteArrayCursorStream(null, content);
+    cursor.seek(1000);
+    assertThat(cursor.transferTo(newChannel(out)), is(19000L));
+    assertThat(out.size(), is(19000));
+    assertThat(cursor.read(), is(-1));
+  }
+
+  @Test
+  public void providerTransferTo() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final TestCursorStreamProvider provider = new TestCursorStreamProvider();
+
+    assertThat(provider.transferTo(newChannel(out)), is((long) CONTENT.length));
+    assertThat(out.toByteArray(), equalTo(CONTENT));
+    assertThat(provider.cursor.isClosed(), is(true));
+  }
+
+  private static final class ByteArrayCursorStream extends CursorStream {
+
+    private final CursorProvider provider;
+    private final byte[] content;
+    private int position;
+    private boolean closed;
+
+    private ByteArrayCursorStream(CursorProvider provider, byte[] content) {
+      this.provider = provider;
+      this.content = content;
+    }
+
+    @Override
+    public int read() {
+      return position < content.length ? content[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (position >= content.length) {
+        return -1;
+      }
+      final int count = Math.min(len, content.length - position);
+      System.arraycopy(content, position, b, off, count);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public long getPosition() {
+      return position;
+    }
+
+    @Override
+    public void seek(long position) {
+      this.position = (int) position;
+    }
+
+    @Override
+    public void release() {}
+
+    @Override
+    public boolean isReleased() {
+      return false;
+    }
+
+    @Override
+    public CursorProvider getProvider() {
+      return provider;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    private boolean isClosed() {
+      return closed;
+    }
+  }
+
+  private static final class TestCursorStreamProvider implements CursorStreamProvider {
+
+    private ByteArrayCursorStream cursor;
+
+    @Override
+    public CursorStream openCursor() {
+      cursor = new ByteArrayCursorStream(this, CONTENT);
+      return cursor;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void releaseResources() {}
+
+    @Override
+    public boolean isClosed() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.streaming;
+
+import static java.nio.charset.Charset.defaultCharset;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.rules.ExpectedException.none;
+
+import org.mule.runtime.api.streaming.bytes.MappedFileRepeatableInputStream;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedFileRepeatableInputStreamTestCase {
+
+  public static final String CONTENT = "Hello World!";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException expectedException = none();
+
+  private File file;
+
+  @Before
+  public void before() throws Exception {
+    file = temporaryFolder.newFile();
+    writeStringToFile(file, CONTENT, defaultCharset());
+  }
+
+  @Test
+  public void readFile() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(file, false);
+    assertThat(stream.length(), is((long) CONTENT.length()));
+    assertThat(IOUtils.toString(stream, defaultCharset()), equalTo(CONTENT));
+    assertThat(stream.read(), is(-1));
+    assertThat(stream.available(), is(0));
+    assertThat(file.exists(), is(true));
+  }
+
+  @Test
+  public void readEmptyFile() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(temporaryFolder.newFile(), false);
+    assertThat(stream.read(), is(-1));
+    assertThat(stream.read(new byte[4], 0, 4), is(-1));
+  }
+
+  @Test
+  public void seek() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(file, false);
+    assertThat(IOUtils.toString(stream, defaultCharset()), equalTo(CONTENT));
+
+    stream.seek(6);
+    assertThat(stream.getPosition(), is(6L));
+    assertThat(IOUtils.toString(stream, defaultCharset()), equalTo("World!"));
+
+    stream.seek(0);
+    assertThat(IOUtils.toString(stream, defaultCharset()), equalTo(CONTENT));
+
+    stream.seek(100);
+    assertThat(stream.read(), is(-1));
+  }
+
+  @Test
+  public void markAndReset() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(file, false);
+    assertThat(stream.markSupported(), is(true));
+
+    assertThat(stream.skip(6), is(6L));
+    stream.mark(0);
+    assertThat(IOUtils.toString(stream, defaultCharset()), equalTo("World!"));
+    stream.reset();
+    assertThat(IOUtils.toString(stream, defaultCharset()), equalTo("World!"));
+  }
+
+  @Test
+  public void asByteBuffer() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(file, false);
+    ByteBuffer buffer = stream.asByteBuffer(6, 5);
+
+    assertThat(buffer.isReadOnly(), is(true));
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    assertThat(new String(bytes, defaultCharset()), equalTo("World"));
+    assertThat(stream.getPosition(), is(0L));
+  }
+
+  @Test
+  public void asByteBufferPastEnd() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(file, false);
+    expectedException.expect(IllegalArgumentException.class);
+    stream.asByteBuffer(6, 10);
+  }
+
+  @Test
+  public void closeAndKeepFile() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(file, false);
+    assertThat(IOUtils.toString(stream, defaultCharset()), equalTo(CONTENT));
+    stream.close();
+    assertThat(file.exists(), is(true));
+  }
+
+  @Test
+  public void closeAndAutoDelete() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(file, true);
+    assertThat(IOUtils.toString(stream, defaultCharset()), equalTo(CONTENT));
+    stream.close();
+    assertThat(file.exists(), is(false));
+  }
+
+  @Test
+  public void readAfterClose() throws Exception {
+    MappedFileRepeatableInputStream stream = new MappedFileRepeatableInputStream(file, false);
+    stream.close();
+    expectedException.expect(IOException.class);
+    stream.read();
+  }
+
+  @Test
+  public void fileDoesNotExists() throws Exception {
+    final String fileName = "notthere.bin";
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectCause(instanceOf(FileNotFoundException.class));
+
+    new MappedFileRepeatableInputStream(new File(temporaryFolder.getRoot(), fileName), true);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.util;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.util.LazyInitializationMode.COMPUTE_ONCE;
+
+import org.mule.runtime.api.util.AtomicLazyLong;
+import org.mule.runtime.api.util.LazyInitializationMode;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class AtomicLazyLongTestCase {
+
+  @Parameters(name = "{0}")
+  public static Iterable<LazyInitializationMode> data() {
+    return asList(LazyInitializationMode.values());
+  }
+
+  private final LazyInitializationMode mode;
+
+  public AtomicLazyLongTestCase(LazyInitializationMode mode) {
+    this.mode = mode;
+  }
+
+  @Test
+  public void computeOnlyOnce() {
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final AtomicLazyLong lazy = new AtomicLazyLong(() -> 40L + invocationCount.incrementAndGet() + 1, mode);
+
+    assertThat(lazy.getAsLong(), is(42L));
+    assertThat(lazy.getAsLong(), is(42L));
+    assertThat(invocationCount.get(), is(1));
+  }
+
+  @Test
+  public void isComputed() {
+    final AtomicLazyLong lazy = new AtomicLazyLong(() -> 42L, mode);
+    assertThat(lazy.isComputed(), is(false));
+
+    final AtomicLong consumed = new AtomicLong(-1);
+    lazy.ifComputed(consumed::set);
+    assertThat(consumed.get(), is(-1L));
+
+    lazy.getAsLong();
+    assertThat(lazy.isComputed(), is(true));
+    lazy.ifComputed(consumed::set);
+    assertThat(consumed.get(), is(42L));
+  }
+
+  @Test
+  public void initialized() {
+    final AtomicLazyLong lazy = new AtomicLazyLong(42L);
+    assertThat(lazy.isComputed(), is(true));
+    assertThat(lazy.getAsLong(), is(42L));
+  }
+
+  @Test
+  public void flatMap() {
+    assertThat(new AtomicLazyLong(() -> 42L, mode).flatMap(value -> value + 1), is(43L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullSupplier() {
+    new AtomicLazyLong(null, mode);
+  }
+
+  @Test
+  public void concurrentInitialisation() throws Exception {
+    final int threadsCount = 8;
+    final CyclicBarrier barrier = new CyclicBarrier(threadsCount);
+    final CountDownLatch done = new CountDownLatch(threadsCount);
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final AtomicLazyLong lazy = new AtomicLazyLong(() -> invocationCount.incrementAndGet(), mode);
+
+    final long[] values = new long[threadsCount];
+    for (int i = 0; i < threadsCount; ++i) {
+      final int index = i;
+      new Thread(() -> {
+        try {
+          barrier.await(1, SECONDS);
+          values[index] = lazy.getAsLong();
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+
+    assertThat(done.await(5, SECONDS), is(true));
+    for (long value : values) {
+      assertThat(value, is(lazy.getAsLong()));
+    }
+    if (mode == COMPUTE_ONCE) {
+      assertThat(invocationCount.get(), is(1));
+    }
+  }
+}
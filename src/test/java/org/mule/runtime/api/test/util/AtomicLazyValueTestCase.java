@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.util;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.util.LazyInitializationMode.COMPUTE_ONCE;
+import static org.mule.runtime.api.util.LazyInitializationMode.RACY_PUBLICATION;
+
+import org.mule.runtime.api.util.AtomicLazyValue;
+import org.mule.runtime.api.util.LazyInitializationMode;
+import org.mule.runtime.api.util.Reference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class AtomicLazyValueTestCase {
+
+  @Parameters(name = "{0}")
+  public static Iterable<LazyInitializationMode> data() {
+    return asList(LazyInitializationMode.values());
+  }
+
+  private final LazyInitializationMode mode;
+
+  public AtomicLazyValueTestCase(LazyInitializationMode mode) {
+    this.mode = mode;
+  }
+
+  @Test
+  public void computeOnlyOnce() {
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final AtomicLazyValue<Object> lazy = new AtomicLazyValue<>(() -> {
+      invocationCount.incrementAndGet();
+      return new Object();
+    }, mode);
+
+    Object value = lazy.get();
+    assertThat(lazy.get(), is(sameInstance(value)));
+    assertThat(invocationCount.get(), is(1));
+  }
+
+  @Test
+  public void isComputed() {
+    final AtomicLazyValue<Object> lazy = new AtomicLazyValue<>(Object::new, mode);
+    assertThat(lazy.isComputed(), is(false));
+
+    final Reference<Object> consumed = new Reference<>();
+    lazy.ifComputed(consumed::set);
+    assertThat(consumed.get(), is(nullValue()));
+
+    final Object value = lazy.get();
+    assertThat(lazy.isComputed(), is(true));
+    lazy.ifComputed(consumed::set);
+    assertThat(consumed.get(), is(sameInstance(value)));
+  }
+
+  @Test
+  public void nullValueIsComputed() {
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final AtomicLazyValue<Object> lazy = new AtomicLazyValue<>(() -> {
+      invocationCount.incrementAndGet();
+      return null;
+    }, mode);
+
+    assertThat(lazy.get(), is(nullValue()));
+    assertThat(lazy.get(), is(nullValue()));
+    assertThat(lazy.isComputed(), is(true));
+    assertThat(invocationCount.get(), is(1));
+  }
+
+  @Test
+  public void initialized() {
+    final Object value = new Object();
+    final AtomicLazyValue<Object> lazy = new AtomicLazyValue<>(value);
+    assertThat(lazy.isComputed(), is(true));
+    assertThat(lazy.get(), is(sameInstance(value)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullSupplier() {
+    new AtomicLazyValue<>(null, mode);
+  }
+
+  @Test
+  public void concurrentInitialisation() throws Exception {
+    final int threadsCount = 8;
+    final CyclicBarrier barrier = new CyclicBarrier(threadsCount);
+    final CountDownLatch done = new CountDownLatch(threadsCount);
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final AtomicLazyValue<Object> lazy = new AtomicLazyValue<>(() -> {
+      invocationCount.incrementAndGet();
+      return new Object();
+    }, mode);
+
+    final List<Object> values = new ArrayList<>();
+    for (int i = 0; i < threadsCount; ++i) {
+      new Thread(() -> {
+        try {
+          barrier.await(1, SECONDS);
+          final Object value = lazy.get();
+          synchronized (values) {
+            values.add(value);
+          }
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+
+    assertThat(done.await(5, SECONDS), is(true));
+    assertThat(values.size(), is(threadsCount));
+    values.forEach(value -> assertThat(value, is(sameInstance(lazy.get()))));
+    if (mode == COMPUTE_ONCE) {
+      assertThat(invocationCount.get(), is(1));
+    }
+  }
+
+  @Test
+  public void racyPublicationKeepsFirstPublishedValue() {
+    if (mode != RACY_PUBLICATION) {
+      return;
+    }
+
+    final Reference<AtomicLazyValue<String>> lazy = new Reference<>();
+    final AtomicInteger invocationCount = new AtomicInteger();
+    lazy.set(new AtomicLazyValue<>(() -> {
+      if (invocationCount.incrementAndGet() == 1) {
+        // simulates another thread racing to publish while this one computes
+        assertThat(lazy.get().get(), is("second"));
+        return "first";
+      }
+      return "second";
+    }, mode));
+
+    assertThat(lazy.get().get(), is("second"));
+    assertThat(lazy.get().get(), is("second"));
+  }
+}
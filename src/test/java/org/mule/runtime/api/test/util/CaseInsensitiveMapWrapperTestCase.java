@@ -6,13 +6,22 @@
  */
 package org.mule.runtime.api.test.util;
 
+import static org.apache.commons.lang3.SerializationUtils.deserialize;
+import static org.apache.commons.lang3.SerializationUtils.serialize;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalToIgnoringCase;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.util.CaseInsensitiveMapWrapper.getKeyCacheStatistics;
 
 import org.mule.runtime.api.util.CaseInsensitiveMapWrapper;
+import org.mule.runtime.api.util.CaseInsensitiveMapWrapper.KeyCacheStatistics;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -128,4 +137,49 @@ public class CaseInsensitiveMapWrapperTestCase {
     assertThat(map.containsValue(2), is(false));
   }
 
+  @Test
+  public void keyCacheKeepsWorkingAfterBurstOfUniqueKeys() {
+    for (int i = 0; i < 100; ++i) {
+      map.put("Content-Type", i);
+    }
+    for (int i = 0; i < 5000; ++i) {
+      map.put("X-Unique-" + i, i);
+    }
+
+    KeyCacheStatistics before = getKeyCacheStatistics();
+    for (int i = 0; i < 100; ++i) {
+      map.get("Content-Type");
+    }
+    KeyCacheStatistics after = getKeyCacheStatistics();
+
+    // the statistics are shared with other tests that may be running concurrently, so only lower bounds can be checked.
+    // Even if the burst evicted the key, it is cached again after the first lookup.
+    assertThat(after.getHits() - before.getHits(), is(greaterThanOrEqualTo(99L)));
+    assertThat(after.getSize(), is(lessThanOrEqualTo(1024)));
+    assertThat(after.getHitRatio(), is(greaterThan(0d)));
+  }
+
+  @Test
+  public void longAndNonAsciiKeys() {
+    String longKey = StringUtils.repeat("Long-Key-", 20);
+    map.put(longKey, 1);
+    map.put("ÉTÉ", 2);
+
+    assertThat(map.get(longKey.toUpperCase()), is(1));
+    assertThat(map.get("été"), is(2));
+    assertThat(map.containsKey("ete"), is(false));
+  }
+
+  @Test
+  public void serialization() {
+    map.put("Content-Type", 1);
+    map.put("ÉTÉ", 2);
+
+    Map<String, Integer> deserialized = deserialize(serialize((CaseInsensitiveMapWrapper<Integer>) map));
+
+    assertThat(deserialized.get("content-type"), is(1));
+    assertThat(deserialized.get("été"), is(2));
+    assertThat(deserialized.keySet(), containsInAnyOrder("Content-Type", "ÉTÉ"));
+  }
+
 }
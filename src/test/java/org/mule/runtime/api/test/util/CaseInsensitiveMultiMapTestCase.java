@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.util;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+
+import static org.apache.commons.lang3.SerializationUtils.deserialize;
+import static org.apache.commons.lang3.SerializationUtils.serialize;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+
+import org.mule.runtime.api.util.CaseInsensitiveMultiMap;
+import org.mule.runtime.api.util.MultiMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CaseInsensitiveMultiMapTestCase {
+
+  private CaseInsensitiveMultiMap<String> headers;
+
+  @Before
+  public void setUp() {
+    headers = new CaseInsensitiveMultiMap<>();
+    headers.put("Content-Type", "text/plain");
+    headers.put("Accept", "text/plain");
+    headers.put("ACCEPT", "application/json");
+  }
+
+  @Test
+  public void lookupIgnoresCase() {
+    assertThat(headers.get("content-type"), is("text/plain"));
+    assertThat(headers.get("CONTENT-TYPE"), is("text/plain"));
+    assertThat(headers.containsKey("cOnTeNt-TyPe"), is(true));
+    assertThat(headers.getAll("accept"), contains("text/plain", "application/json"));
+    assertThat(headers.keySet().contains("ACCEPT"), is(true));
+    assertThat(headers.get("Content-Length"), is((String) null));
+    assertThat(headers.getAll("Content-Length"), is(empty()));
+  }
+
+  @Test
+  public void keepsFirstCasing() {
+    assertThat(headers.keySet(), contains("Content-Type", "Accept"));
+    assertThat(headers.size(), is(3));
+  }
+
+  @Test
+  public void nonAsciiKeys() {
+    headers.put("Straße", "a");
+    headers.put("ÉTÉ", "b");
+
+    assertThat(headers.get("STRASSE"), is((String) null));
+    assertThat(headers.get("straße"), is("a"));
+    assertThat(headers.get("été"), is("b"));
+  }
+
+  @Test
+  public void removeIgnoresCase() {
+    assertThat(headers.removeAll("accept"), contains("text/plain", "application/json"));
+    assertThat(headers.remove("CONTENT-type"), is("text/plain"));
+    assertThat(headers.isEmpty(), is(true));
+    assertThat(headers.size(), is(0));
+
+    headers.put("accept", "*/*");
+    assertThat(headers.keySet(), contains("accept"));
+  }
+
+  @Test
+  public void removeFromKeySet() {
+    headers.put("X-Trace", "1");
+
+    assertThat(headers.keySet().remove("ACCEPT"), is(true));
+    assertThat(headers.keySet().remove("accept"), is(false));
+    assertThat(headers.keySet(), contains("Content-Type", "X-Trace"));
+
+    Iterator<String> keys = headers.keySet().iterator();
+    keys.next();
+    keys.remove();
+    assertThat(keys.next(), is("X-Trace"));
+    assertThat(keys.hasNext(), is(false));
+    assertThat(headers.keySet(), contains("X-Trace"));
+    assertThat(headers.size(), is(1));
+
+    headers.keySet().retainAll(emptyList());
+    assertThat(headers.isEmpty(), is(true));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void frozenCopyFailsOnKeySetRemove() {
+    headers.toImmutableMultiMap().keySet().remove("accept");
+  }
+
+  @Test
+  public void manyKeys() {
+    for (int i = 0; i < 100; ++i) {
+      headers.put("X-Header-" + i, "" + i);
+    }
+    for (int i = 0; i < 100; i += 2) {
+      headers.remove("x-header-" + i);
+    }
+
+    assertThat(headers.size(), is(53));
+    assertThat(headers.get("X-HEADER-99"), is("99"));
+    assertThat(headers.containsKey("X-HEADER-98"), is(false));
+  }
+
+  @Test
+  public void frozenCopy() throws InterruptedException {
+    MultiMap<String, String> frozen = headers.toImmutableMultiMap();
+    headers.put("accept", "*/*");
+
+    AtomicReference<List<String>> fromOtherThread = new AtomicReference<>();
+    Thread thread = new Thread(() -> fromOtherThread.set(new ArrayList<>(frozen.getAll("ACCEPT"))));
+    thread.start();
+    thread.join();
+
+    assertThat(fromOtherThread.get(), contains("text/plain", "application/json"));
+    assertThat(frozen.toImmutableMultiMap() == frozen, is(true));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void frozenCopyFailsOnPut() {
+    headers.toImmutableMultiMap().put("accept", "*/*");
+  }
+
+  @Test
+  public void serialization() {
+    CaseInsensitiveMultiMap<String> deserialized = deserialize(serialize(headers));
+
+    assertThat(deserialized, is(headers));
+    assertThat(deserialized.getAll("accept"), contains("text/plain", "application/json"));
+    assertThat(deserialized.keySet(), contains("Content-Type", "Accept"));
+  }
+
+  @Test
+  public void copyFromMultiMap() {
+    MultiMap<String, String> source = new MultiMap<>();
+    source.put("Accept", asList("text/plain", "application/json"));
+
+    assertThat(new CaseInsensitiveMultiMap<>(source).getAll("ACCEPT"), contains("text/plain", "application/json"));
+  }
+}
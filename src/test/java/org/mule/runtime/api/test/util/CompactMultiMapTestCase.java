@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.util;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+
+import static org.apache.commons.lang3.SerializationUtils.deserialize;
+import static org.apache.commons.lang3.SerializationUtils.serialize;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+
+import org.mule.runtime.api.util.CompactMultiMap;
+import org.mule.runtime.api.util.MultiMap;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactMultiMapTestCase {
+
+  private CompactMultiMap<String, String> multiMap;
+
+  @Before
+  public void setUp() {
+    multiMap = new CompactMultiMap<>();
+    multiMap.put("Host", "localhost");
+    multiMap.put("Accept", "text/plain");
+    multiMap.put("Accept", "application/json");
+    multiMap.put("Accept", "*/*");
+  }
+
+  @Test
+  public void sizeCountsAllValues() {
+    assertThat(multiMap.size(), is(4));
+
+    multiMap.put("Cookie", asList("a=1", "b=2"));
+    assertThat(multiMap.size(), is(6));
+
+    assertThat(multiMap.removeAll("Accept"), contains("text/plain", "application/json", "*/*"));
+    assertThat(multiMap.size(), is(3));
+
+    Map<String, String> replacements = new HashMap<>();
+    replacements.put("Cookie", "c=3");
+    multiMap.putAll(replacements);
+    assertThat(multiMap.size(), is(2));
+    assertThat(multiMap.getAll("Cookie"), contains("c=3"));
+
+    multiMap.clear();
+    assertThat(multiMap.size(), is(0));
+  }
+
+  @Test
+  public void equivalentToMultiMap() {
+    MultiMap<String, String> regular = new MultiMap<>();
+    regular.put("Host", "localhost");
+    regular.put("Accept", "text/plain");
+    regular.put("Accept", "application/json");
+    regular.put("Accept", "*/*");
+
+    assertThat(multiMap.equals(regular), is(true));
+    assertThat(regular.equals(multiMap), is(true));
+    assertThat(multiMap.hashCode(), is(regular.hashCode()));
+    assertThat(multiMap.toString(), is(regular.toString()));
+    assertThat(new MultiMap<>(multiMap).getAll("Accept"), contains("text/plain", "application/json", "*/*"));
+  }
+
+  @Test
+  public void missingKey() {
+    assertThat(multiMap.get("Content-Type"), is((String) null));
+    assertThat(multiMap.getAll("Content-Type"), is(empty()));
+    assertThat(multiMap.remove("Content-Type"), is((String) null));
+    assertThat(multiMap.size(), is(4));
+  }
+
+  @Test
+  public void immutableCopyIsDetached() {
+    MultiMap<String, String> immutable = multiMap.toImmutableMultiMap();
+    multiMap.put("Accept", "text/html");
+
+    assertThat(immutable.getAll("Accept"), contains("text/plain", "application/json", "*/*"));
+    assertThat(immutable.size(), is(4));
+  }
+
+  @Test
+  public void putAllItself() {
+    multiMap.putAll(multiMap);
+
+    assertThat(multiMap.size(), is(8));
+    assertThat(multiMap.getAll("Host"), contains("localhost", "localhost"));
+    assertThat(multiMap.getAll("Accept"),
+               contains("text/plain", "application/json", "*/*", "text/plain", "application/json", "*/*"));
+  }
+
+  @Test
+  public void serializedAsMultiMap() {
+    byte[] serialized = serialize(multiMap);
+    assertThat(new String(serialized, ISO_8859_1), not(containsString("CompactMultiMap")));
+    assertThat(deserialize(serialized).getClass(), is(sameInstance(MultiMap.class)));
+
+    byte[] serializedImmutable = serialize(multiMap.toImmutableMultiMap());
+    assertThat(new String(serializedImmutable, ISO_8859_1), not(containsString("CompactMultiMap")));
+  }
+
+  @Test
+  public void serialization() {
+    MultiMap<String, String> deserialized = deserialize(serialize(multiMap));
+
+    assertThat(deserialized, is(multiMap));
+    assertThat(deserialized.size(), is(4));
+    assertThat(deserialized.getAll("Accept"), contains("text/plain", "application/json", "*/*"));
+
+    deserialized.put("Host", "example.com");
+    assertThat(deserialized.getAll("Host"), contains("localhost", "example.com"));
+  }
+
+  @Test
+  public void removeFromKeySet() {
+    multiMap.put("Cookie", "a=1");
+
+    assertThat(multiMap.keySet().remove("Accept"), is(true));
+    assertThat(multiMap.keySet().remove("Accept"), is(false));
+    assertThat(multiMap.size(), is(2));
+    assertThat(multiMap.getAll("Accept"), is(empty()));
+
+    Iterator<String> keys = multiMap.keySet().iterator();
+    keys.next();
+    keys.remove();
+    assertThat(multiMap.keySet(), contains("Cookie"));
+    assertThat(multiMap.size(), is(1));
+
+    multiMap.keySet().retainAll(emptyList());
+    assertThat(multiMap.isEmpty(), is(true));
+    assertThat(multiMap.size(), is(0));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutableCopyFailsOnKeySetRemove() {
+    multiMap.toImmutableMultiMap().keySet().remove("Accept");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutableSerialization() {
+    MultiMap<String, String> deserialized = deserialize(serialize(multiMap.toImmutableMultiMap()));
+    assertThat(deserialized.size(), is(4));
+    deserialized.put("Cookie", "a=1");
+  }
+}
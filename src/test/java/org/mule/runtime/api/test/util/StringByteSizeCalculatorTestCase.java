@@ -6,6 +6,13 @@
  */
 package org.mule.runtime.api.test.util;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.repeat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 import org.mule.runtime.internal.util.StringByteSizeCalculator;
@@ -17,6 +24,9 @@ import org.junit.Test;
 public class StringByteSizeCalculatorTestCase {
 
   private static final String JAPANESE_MESSAGE = "\u3042 \u3047";
+  private static final String[] PAYLOADS = new String[] {"", "test", "ni\u00f1o", JAPANESE_MESSAGE,
+      "smile \ud83d\ude00!", "lone \ud83d high", "lone \ude00 low", "ends with \ud83d", "\ude00\ud83d swapped",
+      repeat("a\u00e9\u3042\ud83d\ude00", 5000)};
 
   private StringByteSizeCalculator calculator = new StringByteSizeCalculator();
 
@@ -30,8 +40,39 @@ public class StringByteSizeCalculatorTestCase {
     compare(JAPANESE_MESSAGE, Charset.forName("EUC-JP"));
   }
 
+  @Test
+  public void matchesGetBytesUtf8() {
+    compareAll(UTF_8);
+  }
+
+  @Test
+  public void matchesGetBytesUtf16() {
+    compareAll(UTF_16);
+    compareAll(UTF_16BE);
+    compareAll(UTF_16LE);
+  }
+
+  @Test
+  public void matchesGetBytesSingleByte() {
+    compareAll(ISO_8859_1);
+    compareAll(US_ASCII);
+  }
+
+  @Test
+  public void matchesGetBytesEncodedCharsets() {
+    compareAll(Charset.forName("EUC-JP"));
+    compareAll(Charset.forName("UTF-32"));
+    compareAll(Charset.forName("windows-1252"));
+  }
+
+  private void compareAll(Charset charset) {
+    for (String payload : PAYLOADS) {
+      compare(payload, charset);
+    }
+  }
+
   private void compare(String payload, Charset charset) {
-    assertThat(calculator.count(payload, charset), equalTo((long) payload.getBytes(charset).length));
+    assertThat(charset + ": " + payload, calculator.count(payload, charset), equalTo((long) payload.getBytes(charset).length));
   }
 
 }
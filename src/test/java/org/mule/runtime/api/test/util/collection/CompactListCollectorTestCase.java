@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.util.collection;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.apache.commons.lang3.SerializationUtils.deserialize;
+import static org.apache.commons.lang3.SerializationUtils.serialize;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.internal.util.collection.CompactListCollector;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class CompactListCollectorTestCase {
+
+  @Test
+  public void collect() {
+    final List<String> list = Stream.of("one", "two", "three").collect(new CompactListCollector<>());
+    assertThat(list, equalTo(asList("one", "two", "three")));
+  }
+
+  @Test
+  public void emptyList() {
+    final List<String> list = new ArrayList<String>().stream().collect(new CompactListCollector<>());
+    assertThat(list.isEmpty(), is(true));
+  }
+
+  @Test
+  public void singleElement() {
+    final List<String> list = Stream.of("one").collect(new CompactListCollector<>());
+    assertThat(list, equalTo(asList("one")));
+  }
+
+  @Test
+  public void growsPastExpectedSize() {
+    final List<Integer> list = range(0, 100).boxed().collect(new CompactListCollector<>(2));
+    assertThat(list, equalTo(range(0, 100).boxed().collect(toList())));
+  }
+
+  @Test
+  public void parallelKeepsEncounterOrder() {
+    final List<Integer> list = range(0, 10000).boxed().parallel().collect(new CompactListCollector<>());
+    assertThat(list, equalTo(range(0, 10000).boxed().collect(toList())));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutable() {
+    final List<String> list = Stream.of("one", "two").collect(new CompactListCollector<>());
+    list.add("three");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutableThroughIterator() {
+    final List<String> list = Stream.of("one", "two").collect(new CompactListCollector<>());
+    final Iterator<String> iterator = list.iterator();
+    iterator.next();
+    iterator.remove();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void nullElement() {
+    Stream.of("one", null).collect(new CompactListCollector<>());
+  }
+
+  @Test
+  public void serializable() {
+    final List<String> list = Stream.of("one", "two", "three").collect(new CompactListCollector<>());
+    assertThat(list instanceof Serializable, is(true));
+    assertThat(deserialize(serialize((Serializable) list)), equalTo(list));
+  }
+}
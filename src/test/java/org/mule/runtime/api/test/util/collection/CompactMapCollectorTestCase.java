@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.util.collection;
+
+import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.internal.util.collection.CompactMapCollector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class CompactMapCollectorTestCase {
+
+  private final CompactMapCollector<Fruit, String, Fruit> collector =
+      new CompactMapCollector<>(f -> f.getClass().getName(), f -> f);
+
+  @Test
+  public void collect() {
+    final List<Fruit> fruits = Arrays.asList(new Apple(), new Banana(), new Kiwi());
+    Map<String, Fruit> map = fruits.stream().collect(collector);
+
+    assertThat(map.size(), is(3));
+    fruits.forEach(fruit -> {
+      Fruit value = map.get(fruit.getClass().getName());
+      assertThat(value, sameInstance(fruit));
+    });
+  }
+
+  @Test
+  public void emptyMap() {
+    Map<String, Fruit> map = new ArrayList<Fruit>().stream().collect(collector);
+    assertThat(map.isEmpty(), is(true));
+  }
+
+  @Test
+  public void keepsEncounterOrder() {
+    for (int size : new int[] {5, 16, 17, 1000}) {
+      final Map<Integer, String> map = range(0, size).boxed().parallel()
+          .collect(new CompactMapCollector<>(Function.identity(), String::valueOf, 4));
+
+      assertThat(map.size(), is(size));
+      assertThat(new ArrayList<>(map.keySet()), equalTo(range(0, size).boxed().collect(toList())));
+      range(0, size).forEach(i -> assertThat(map.get(i), is(String.valueOf(i))));
+    }
+  }
+
+  @Test
+  public void honorsMapContract() {
+    for (int size = 0; size <= 20; ++size) {
+      final Map<Integer, String> map = range(0, size).boxed()
+          .collect(new CompactMapCollector<>(Function.identity(), String::valueOf));
+      final Map<Integer, String> hashMap = new HashMap<>(map);
+
+      assertThat(map, equalTo(hashMap));
+      assertThat(hashMap, equalTo(map));
+      assertThat(map.hashCode(), is(hashMap.hashCode()));
+      assertThat(new HashSet<>(singleton(hashMap)).contains(map), is(true));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicateKeys() {
+    range(0, 10).boxed().collect(new CompactMapCollector<>(i -> i % 5, String::valueOf));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicateKeysInLargeMap() {
+    range(0, 100).boxed().collect(new CompactMapCollector<>(i -> i % 50, String::valueOf));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void nullValue() {
+    range(0, 3).boxed().collect(new CompactMapCollector<>(Function.identity(), i -> null));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutable() {
+    range(0, 3).boxed().collect(new CompactMapCollector<>(Function.identity(), String::valueOf)).put(4, "4");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void largeMapImmutable() {
+    range(0, 30).boxed().collect(new CompactMapCollector<>(Function.identity(), String::valueOf)).put(40, "40");
+  }
+
+  private static class Fruit {
+  }
+
+  private static class Apple extends Fruit {
+  }
+
+  private static class Banana extends Fruit {
+  }
+
+  private static class Kiwi extends Fruit {
+  }
+
+}
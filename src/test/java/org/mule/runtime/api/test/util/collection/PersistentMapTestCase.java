@@ -0,0 +1,240 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.api.test.util.collection;
+
+import static java.util.stream.IntStream.range;
+import static org.apache.commons.lang3.SerializationUtils.deserialize;
+import static org.apache.commons.lang3.SerializationUtils.serialize;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.util.collection.Collectors.toPersistentMap;
+
+import org.mule.runtime.api.util.collection.PersistentMap;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PersistentMapTestCase {
+
+  @Test
+  public void emptyMap() {
+    final PersistentMap<String, String> map = PersistentMap.empty();
+    assertThat(map.isEmpty(), is(true));
+    assertThat(map.get("key"), is(nullValue()));
+    assertThat(map.containsKey("key"), is(false));
+    assertThat(map.entrySet().iterator().hasNext(), is(false));
+  }
+
+  @Test
+  public void withDoesNotModifyOriginal() {
+    final PersistentMap<String, String> original = PersistentMap.<String, String>empty().with("one", "uno");
+    final PersistentMap<String, String> derived = original.with("two", "dos").with("one", "un");
+
+    assertThat(original.size(), is(1));
+    assertThat(original.get("one"), is("uno"));
+    assertThat(original.containsKey("two"), is(false));
+
+    assertThat(derived.size(), is(2));
+    assertThat(derived.get("one"), is("un"));
+    assertThat(derived.get("two"), is("dos"));
+  }
+
+  @Test
+  public void withSameValueReturnsSameInstance() {
+    final String value = "uno";
+    final PersistentMap<String, String> map = PersistentMap.<String, String>empty().with("one", value);
+    assertThat(map.with("one", value), is(sameInstance(map)));
+  }
+
+  @Test
+  public void withoutDoesNotModifyOriginal() {
+    final PersistentMap<String, String> original = PersistentMap.<String, String>empty().with("one", "uno").with("two", "dos");
+    final PersistentMap<String, String> derived = original.without("one");
+
+    assertThat(original.size(), is(2));
+    assertThat(original.get("one"), is("uno"));
+    assertThat(derived.size(), is(1));
+    assertThat(derived.containsKey("one"), is(false));
+    assertThat(derived.get("two"), is("dos"));
+  }
+
+  @Test
+  public void withoutMissingKeyReturnsSameInstance() {
+    final PersistentMap<String, String> map = PersistentMap.<String, String>empty().with("one", "uno");
+    assertThat(map.without("two"), is(sameInstance(map)));
+  }
+
+  @Test
+  public void nullKeysAndValues() {
+    final PersistentMap<String, String> map = PersistentMap.<String, String>empty().with(null, "nothing").with("none", null);
+
+    assertThat(map.get(null), is("nothing"));
+    assertThat(map.containsKey("none"), is(true));
+    assertThat(map.get("none"), is(nullValue()));
+    assertThat(map.getOrDefault("none", "default"), is(nullValue()));
+    assertThat(map.getOrDefault("other", "default"), is("default"));
+    assertThat(map.without(null).containsKey(null), is(false));
+  }
+
+  @Test
+  public void collidingKeys() {
+    final CollidingKey first = new CollidingKey("first", 42);
+    final CollidingKey second = new CollidingKey("second", 42);
+    final CollidingKey third = new CollidingKey("third", 42 + (1 << 20));
+
+    PersistentMap<CollidingKey, String> map = PersistentMap.<CollidingKey, String>empty()
+        .with(first, "1").with(second, "2").with(third, "3");
+
+    assertThat(map.size(), is(3));
+    assertThat(map.get(first), is("1"));
+    assertThat(map.get(second), is("2"));
+    assertThat(map.get(third), is("3"));
+    assertThat(map.get(new CollidingKey("fourth", 42)), is(nullValue()));
+
+    map = map.without(first);
+    assertThat(map.size(), is(2));
+    assertThat(map.containsKey(first), is(false));
+    assertThat(map.get(second), is("2"));
+    assertThat(map.get(third), is("3"));
+
+    map = map.without(second);
+    assertThat(map.size(), is(1));
+    assertThat(map.get(third), is("3"));
+    assertThat(map.entrySet().iterator().next().getKey(), is(third));
+  }
+
+  @Test
+  public void behavesAsHashMap() {
+    final Random random = new Random(1234);
+    final Map<Integer, Integer> expected = new HashMap<>();
+    PersistentMap<Integer, Integer> map = PersistentMap.empty();
+
+    for (int i = 0; i < 20000; ++i) {
+      // a narrow range of keys so there are both additions and removals of existing keys
+      final Integer key = random.nextInt(2000) * (random.nextBoolean() ? 1 : 1 << 16);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.without(key);
+      } else {
+        expected.put(key, i);
+        map = map.with(key, i);
+      }
+    }
+
+    assertThat(map.size(), is(expected.size()));
+    assertThat(map, equalTo(expected));
+    assertThat(expected, equalTo(map));
+    assertThat(map.hashCode(), is(expected.hashCode()));
+
+    final Set<Integer> iteratedKeys = new HashSet<>();
+    map.forEach((key, value) -> assertThat(iteratedKeys.add(key), is(true)));
+    assertThat(iteratedKeys, equalTo(expected.keySet()));
+  }
+
+  @Test
+  public void removeAllEntries() {
+    PersistentMap<Integer, String> map = PersistentMap.empty();
+    for (int i = 0; i < 1000; ++i) {
+      map = map.with(i, String.valueOf(i));
+    }
+    for (int i = 0; i < 1000; ++i) {
+      map = map.without(i);
+      assertThat(map.size(), is(999 - i));
+    }
+    assertThat(map.isEmpty(), is(true));
+    assertThat(map, is(sameInstance(PersistentMap.empty())));
+  }
+
+  @Test
+  public void copyOf() {
+    final Map<String, String> source = new HashMap<>();
+    source.put("one", "uno");
+    source.put("two", "dos");
+
+    final PersistentMap<String, String> map = PersistentMap.copyOf(source);
+    assertThat(map, equalTo(source));
+    assertThat(PersistentMap.copyOf(map), is(sameInstance(map)));
+
+    source.put("three", "tres");
+    assertThat(map.containsKey("three"), is(false));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void put() {
+    PersistentMap.<String, String>empty().put("one", "uno");
+  }
+
+  @Test
+  public void serialization() {
+    PersistentMap<Object, String> map = PersistentMap.empty();
+    for (int i = 0; i < 100; ++i) {
+      map = map.with(i, String.valueOf(i));
+    }
+    map = map.with(new CollidingKey("first", 7), "first").with(new CollidingKey("second", 7), "second");
+
+    final PersistentMap<Object, String> deserialized = deserialize(serialize(map));
+    assertThat(deserialized, equalTo(map));
+    assertThat(deserialized.size(), is(102));
+    assertThat(deserialized.with(200, "200").get(200), is("200"));
+  }
+
+  @Test
+  public void serializeEmpty() {
+    final PersistentMap<Object, Object> deserialized = deserialize(serialize(PersistentMap.empty()));
+    assertThat(deserialized, is(sameInstance(PersistentMap.empty())));
+  }
+
+  @Test
+  public void collect() {
+    final PersistentMap<Integer, String> map = range(0, 100).boxed().parallel().collect(toPersistentMap(i -> i, String::valueOf));
+
+    assertThat(map.size(), is(100));
+    range(0, 100).forEach(i -> assertThat(map.get(i), is(String.valueOf(i))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void collectDuplicateKeys() {
+    range(0, 10).boxed().collect(toPersistentMap(i -> i % 5, String::valueOf));
+  }
+
+  private static final class CollidingKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final int hashCode;
+
+    private CollidingKey(String name, int hashCode) {
+      this.name = name;
+      this.hashCode = hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof CollidingKey && ((CollidingKey) obj).name.equals(name);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
@@ -7,11 +7,17 @@
 package org.mule.runtime.api.test.util.collection;
 
 import static java.lang.String.valueOf;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static org.apache.commons.lang3.SerializationUtils.deserialize;
+import static org.apache.commons.lang3.SerializationUtils.serialize;
 import static java.util.Collections.singletonMap;
 import static java.util.stream.IntStream.range;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
@@ -20,10 +26,14 @@ import static org.mule.runtime.api.util.collection.SmallMap.unmodifiable;
 
 import org.mule.runtime.api.util.collection.SmallMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.Set;
@@ -38,12 +48,14 @@ import org.junit.runners.Parameterized.Parameters;
 @RunWith(Parameterized.class)
 public class SmallMapTestCase {
 
-  private static final String[] KEYS = new String[] {"one", "two", "three", "four", "five", "six", "seven"};
-  private static final String[] VALUES = new String[] {"uno", "dos", "tres", "cuatro", "cinco", "seis", "siete"};
+  private static final String[] KEYS = new String[] {"one", "two", "three", "four", "five", "six", "seven", "eight", "nine",
+      "ten", "eleven", "twelve", "thirteen", "fourteen", "fifteen", "sixteen", "seventeen", "eighteen"};
+  private static final String[] VALUES = new String[] {"uno", "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho",
+      "nueve", "diez", "once", "doce", "trece", "catorce", "quince", "dieciseis", "diecisiete", "dieciocho"};
 
   @Parameters(name = "with Size: {0}")
   public static Iterable<Integer> data() {
-    return range(0, 8).boxed().collect(toImmutableList());
+    return range(0, KEYS.length + 1).boxed().collect(toImmutableList());
   }
 
   private final int mapSize;
@@ -249,6 +261,133 @@ public class SmallMapTestCase {
     assertThat(map.toString(), equalTo("{a=b, c=d}"));
   }
 
+  @Test
+  public void keepsInsertionOrder() {
+    if (mapSize > 16) {
+      // overflown into a HashMap
+      return;
+    }
+
+    int i = 0;
+    for (String key : map.keySet()) {
+      assertThat(key, is(KEYS[i++]));
+    }
+    if (mapSize > 1) {
+      map.remove(KEYS[0]);
+      assertThat(map.keySet().iterator().next(), is(KEYS[1]));
+    }
+  }
+
+  @Test
+  public void copy() {
+    Map<String, String> copy = SmallMap.copy(map);
+    Map<String, String> copyFromHashMap = SmallMap.copy(new LinkedHashMap<>(map));
+    copy.put("extra", "value");
+
+    assertThat(map.size(), is(mapSize));
+    assertThat(copy.size(), is(mapSize + 1));
+    assertThat(copyFromHashMap, equalTo(map));
+  }
+
+  @Test
+  public void serialization() {
+    Map<String, String> deserialized = deserialize(serialize((SmallMap<String, String>) map));
+
+    assertThat(deserialized, equalTo(map));
+    for (int i = 0; i < mapSize; i++) {
+      assertThat(deserialized.get(KEYS[i]), equalTo(VALUES[i]));
+    }
+  }
+
+  @Test
+  public void hashCodeAsHashMap() {
+    Map<String, String> hashMap = new HashMap<>(map);
+
+    assertThat(map.hashCode(), is(hashMap.hashCode()));
+    assertThat(map.entrySet().hashCode(), is(hashMap.entrySet().hashCode()));
+  }
+
+  @Test
+  public void equalsRegardlessOfHowItWasBuilt() {
+    Map<String, String> shrunk = new SmallMap<>();
+    populate(KEYS.length, shrunk);
+    for (int i = mapSize; i < KEYS.length; ++i) {
+      shrunk.remove(KEYS[i]);
+    }
+
+    assertThat(shrunk.equals(map), is(true));
+    assertThat(map.equals(shrunk), is(true));
+    assertThat(shrunk.hashCode(), is(map.hashCode()));
+  }
+
+  @Test
+  public void equalsAfterSerialization() {
+    Map<String, String> shrunk = new SmallMap<>();
+    populate(KEYS.length, shrunk);
+    for (int i = mapSize; i < KEYS.length; ++i) {
+      shrunk.remove(KEYS[i]);
+    }
+
+    Map<String, String> deserialized = deserialize(serialize((SmallMap<String, String>) shrunk));
+    assertThat(deserialized.equals(shrunk), is(true));
+    assertThat(shrunk.equals(deserialized), is(true));
+    assertThat(deserialized.equals(map), is(true));
+  }
+
+  @Test
+  public void serializedFormReadableByPreviousVersions() {
+    byte[] serialized = serialize((SmallMap<String, String>) map);
+
+    assertThat(new String(serialized, ISO_8859_1), not(containsString("ProbingSmallMapDelegate")));
+    if (mapSize <= 16) {
+      Map<String, String> deserialized = deserialize(serialized);
+      assertThat(new ArrayList<>(deserialized.keySet()), equalTo(asList(copyOf(KEYS, mapSize))));
+    }
+  }
+
+  @Test
+  public void entriesKeepTheirKeyWhenRemovingWhileHoldingThem() {
+    List<Entry<String, String>> entries = new ArrayList<>(map.entrySet());
+    List<String> evenKeys = new ArrayList<>();
+    for (Entry<String, String> entry : entries) {
+      if (getKeyIndex(entry.getKey()) % 2 == 0) {
+        evenKeys.add(entry.getKey());
+      }
+    }
+
+    for (String key : evenKeys) {
+      map.remove(key);
+    }
+
+    for (Entry<String, String> entry : entries) {
+      int index = getKeyIndex(entry.getKey());
+      assertThat(entry.getValue(), is(VALUES[index]));
+      assertThat(map.containsKey(entry.getKey()), is(index % 2 != 0));
+    }
+    assertThat(entries, hasSize(mapSize));
+    assertThat(map.size(), is(mapSize / 2));
+  }
+
+  @Test
+  public void setValueOnEntryAfterRemovingAnother() {
+    // at six entries the removal moves the map to a tier with entries of its own, detached from the ones taken before
+    if (mapSize < 2 || mapSize == 6) {
+      return;
+    }
+    Entry<String, String> last = null;
+    for (Entry<String, String> entry : map.entrySet()) {
+      if (entry.getKey().equals(KEYS[mapSize - 1])) {
+        last = entry;
+      }
+    }
+    map.remove(KEYS[0]);
+
+    last.setValue("changed");
+
+    assertThat(map.get(KEYS[mapSize - 1]), is("changed"));
+    assertThat(map.containsKey(null), is(false));
+  }
+
   private int getKeyIndex(String key) {
     for (int i = 0; i < KEYS.length; i++) {
       if (KEYS[i].equals(key)) {
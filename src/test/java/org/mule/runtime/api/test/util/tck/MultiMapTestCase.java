@@ -19,6 +19,8 @@ import static org.junit.Assert.assertThat;
 import static org.mule.runtime.api.util.MultiMap.toMultiMap;
 import static org.mule.runtime.api.util.MultiMap.unmodifiableMultiMap;
 
+import org.mule.runtime.api.util.CaseInsensitiveMultiMap;
+import org.mule.runtime.api.util.CompactMultiMap;
 import org.mule.runtime.api.util.MultiMap;
 import org.mule.runtime.api.util.Pair;
 import org.mule.runtime.api.util.MultiMap.StringMultiMap;
@@ -55,7 +57,11 @@ public class MultiMapTestCase {
         {(Supplier<MultiMap<String, String>>) (() -> new MultiMap<>()),
             (Function<MultiMap<String, String>, MultiMap<String, String>>) (m -> new MultiMap<>(m))},
         {(Supplier<MultiMap<String, String>>) (() -> new StringMultiMap()),
-            (Function<MultiMap<String, String>, MultiMap<String, String>>) (m -> new StringMultiMap(m))}
+            (Function<MultiMap<String, String>, MultiMap<String, String>>) (m -> new StringMultiMap(m))},
+        {(Supplier<MultiMap<String, String>>) (() -> new CompactMultiMap<>()),
+            (Function<MultiMap<String, String>, MultiMap<String, String>>) (m -> new CompactMultiMap<>(m))},
+        {(Supplier<MultiMap<String, String>>) (() -> new CaseInsensitiveMultiMap<>()),
+            (Function<MultiMap<String, String>, MultiMap<String, String>>) (m -> new CaseInsensitiveMultiMap<>(m))}
     });
   }
 